@@ -0,0 +1,61 @@
+package com.cargoSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cargoSimulation.City;
+import com.cargoSimulation.CityRegistry;
+import com.cargoSimulation.DistributionCenter.Storage;
+import com.cargoSimulation.Main;
+
+/**
+ * --------------------------------------------------------
+ * Summary: JMH benchmark for Main.findCityByName over networks of 10, 10k and 1M cities.
+ * Lookups cycle through a fixed, pre-built set of names so no strings are built
+ * inside the measured method.
+ * Run with: java -jar target/benchmarks.jar CityLookupBenchmark -prof gc
+ * --------------------------------------------------------
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class CityLookupBenchmark {
+    private static final int NAME_POOL = 4096;
+
+    @Param({"10", "10000", "1000000"})
+    public int cities;
+
+    private CityRegistry registry;
+    private String[] names;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        registry = Networks.build(cities, Storage.ARRAY);
+        names = new String[NAME_POOL];
+        for (int i = 0; i < NAME_POOL; i++) {
+            // Fresh String instances, so lookups cannot short-circuit on identity.
+            names[i] = new String(Networks.cityName((int) ((i * 2654435761L) % cities)));
+        }
+    }
+
+    @Benchmark
+    public City findCityByName() {
+        cursor = (cursor + 1) & (NAME_POOL - 1);
+        return Main.findCityByName(registry, names[cursor]);
+    }
+}
@@ -0,0 +1,111 @@
+package com.cargoSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cargoSimulation.ArrayQueue;
+import com.cargoSimulation.ArrayStack;
+import com.cargoSimulation.CargoList;
+import com.cargoSimulation.DoublyLinkedList;
+import com.cargoSimulation.LinkedQueue;
+import com.cargoSimulation.LinkedStack;
+import com.cargoSimulation.MyQueue;
+import com.cargoSimulation.MyStack;
+import com.cargoSimulation.Package;
+
+/**
+ * --------------------------------------------------------
+ * Summary: JMH benchmarks for the collection primitives, including the vehicle CargoList.
+ * Each operation is measured against a structure holding `size` packages;
+ * removals are paired with an insertion so the size stays constant.
+ * Run with: java -jar target/benchmarks.jar CollectionBenchmark -prof gc
+ * --------------------------------------------------------
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CollectionBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    @Param({"linked", "array"})
+    public String storage;
+
+    private DoublyLinkedList<Package> list;
+    private CargoList<Package> cargo;
+    private MyStack<Package> stack;
+    private MyQueue<Package> queue;
+    private Package pkg;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pkg = new Package("P", "C");
+        list = new DoublyLinkedList<>();
+        cargo = new CargoList<>();
+        boolean array = storage.equals("array");
+        stack = array ? new ArrayStack<>() : new LinkedStack<>();
+        queue = array ? new ArrayQueue<>() : new LinkedQueue<>();
+        for (int i = 0; i < size; i++) {
+            Package p = new Package("P" + i, "C");
+            list.addFirst(p);
+            cargo.addFirst(p);
+            stack.push(p);
+            queue.enqueue(p);
+        }
+    }
+
+    @Benchmark
+    public Package listAddFirstRemoveLast() {
+        list.addFirst(pkg);
+        return list.removeLast();
+    }
+
+    @Benchmark
+    public Package listRemoveAtMiddle() {
+        Package removed = list.removeAt(size / 2);
+        list.addFirst(removed);
+        return removed;
+    }
+
+    @Benchmark
+    public Package cargoRemoveAtMiddle() {
+        Package removed = cargo.removeAt(size / 2);
+        cargo.addFirst(removed);
+        return removed;
+    }
+
+    @Benchmark
+    public Package listGet() {
+        cursor = (cursor + 7919) % size;
+        return list.get(cursor);
+    }
+
+    @Benchmark
+    public Package stackPushPop() {
+        stack.push(pkg);
+        return stack.pop();
+    }
+
+    @Benchmark
+    public Package queueEnqueueDequeue() {
+        queue.enqueue(pkg);
+        return queue.dequeue();
+    }
+}
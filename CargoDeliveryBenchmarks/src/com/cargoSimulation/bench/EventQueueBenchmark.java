@@ -0,0 +1,68 @@
+package com.cargoSimulation.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cargoSimulation.EventQueue;
+
+/**
+ * --------------------------------------------------------
+ * Summary: JMH hold-model benchmark for the EventQueue of the event simulator.
+ * The queue holds a fixed number of pending events; one invocation handles the
+ * earliest event and schedules a new one a random delay later, which is what
+ * the simulator does for every event of a trip. The score is events per second;
+ * on a single core expect about 10 million, not tens of millions.
+ * Run with: java -jar target/benchmarks.jar EventQueueBenchmark
+ * --------------------------------------------------------
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class EventQueueBenchmark {
+    private static final int DELAY_POOL = 1 << 16;
+
+    @Param({"1000", "100000"})
+    public int pending;
+
+    private EventQueue events;
+    private double[] delays;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        // Delays are drawn up front so the benchmark measures the queue, not the generator.
+        delays = new double[DELAY_POOL];
+        for (int i = 0; i < DELAY_POOL; i++) {
+            delays[i] = 10 * random.nextDouble();
+        }
+        events = new EventQueue();
+        for (int i = 0; i < pending; i++) {
+            events.schedule(delays[i & (DELAY_POOL - 1)], i);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public int holdEvent() {
+        int event = events.poll();
+        events.schedule(events.now() + delays[next], event);
+        next = (next + 1) & (DELAY_POOL - 1);
+        return event;
+    }
+}
@@ -0,0 +1,80 @@
+package com.cargoSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cargoSimulation.CityRegistry;
+import com.cargoSimulation.DistributionCenter.Storage;
+import com.cargoSimulation.Main;
+import com.cargoSimulation.Metrics;
+import com.cargoSimulation.Mission;
+
+/**
+ * --------------------------------------------------------
+ * Summary: JMH benchmark for the cost of metrics on Main.executeMission.
+ * The same ring missions as MissionBenchmark run with metrics off and on;
+ * each fork runs one setting, since metrics stay on once enabled. Missions
+ * are resolved to city IDs in advance so the mission itself is measured.
+ * Run with: java -jar target/benchmarks.jar MetricsBenchmark
+ * --------------------------------------------------------
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class MetricsBenchmark {
+    private static final int MISSION_POOL = 4096;
+    private static final int[] DROP_OFF = {0, 1};
+
+    @Param({"10000"})
+    public int cities;
+
+    @Param({"linked", "compact"})
+    public String storage;
+
+    @Param({"off", "on"})
+    public String metrics;
+
+    private CityRegistry registry;
+    private Mission[] missions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        registry = Networks.build(cities, Storage.valueOf(storage.toUpperCase()));
+        if (metrics.equals("on")) {
+            Metrics.enable().trackCities(registry);
+        }
+        int ringLength = Math.min(cities, MISSION_POOL);
+        missions = new Mission[ringLength];
+        for (int k = 0; k < ringLength; k++) {
+            String[] names = Networks.ringMission(cities, ringLength, k);
+            missions[k] = new Mission(registry.idOf(names[0]), registry.idOf(names[1]), registry.idOf(names[2]),
+                    2, 2, DROP_OFF);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public CityRegistry executeMission() {
+        Main.executeMission(registry, missions[next]);
+        next++;
+        if (next == missions.length) {
+            next = 0;
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,71 @@
+package com.cargoSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cargoSimulation.CityRegistry;
+import com.cargoSimulation.DistributionCenter.Storage;
+import com.cargoSimulation.Main;
+
+/**
+ * --------------------------------------------------------
+ * Summary: JMH benchmark for end-to-end Main.executeMission over generated networks.
+ * Missions follow the ring described in Networks.ringMission, so stock never
+ * runs out and no error paths are measured. One invocation is one mission.
+ * Run with: java -jar target/benchmarks.jar MissionBenchmark -prof gc
+ * --------------------------------------------------------
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class MissionBenchmark {
+    private static final int MISSION_POOL = 4096;
+    private static final String[] DROP_OFF = {"0", "1"};
+
+    @Param({"10", "10000", "1000000"})
+    public int cities;
+
+    @Param({"linked", "array", "compact", "offheap", "persistent"})
+    public String storage;
+
+    private CityRegistry registry;
+    private String[][] missions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        registry = Networks.build(cities, Storage.valueOf(storage.toUpperCase()));
+        // One full lap of the ring is pre-built so no names are built while measuring.
+        int ringLength = Math.min(cities, MISSION_POOL);
+        missions = new String[ringLength][];
+        for (int k = 0; k < ringLength; k++) {
+            missions[k] = Networks.ringMission(cities, ringLength, k);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public CityRegistry executeMission() {
+        String[] mission = missions[next];
+        Main.executeMission(registry, mission[0], mission[1], mission[2], 2, 2, DROP_OFF);
+        next++;
+        if (next == missions.length) {
+            next = 0;
+        }
+        return registry;
+    }
+}
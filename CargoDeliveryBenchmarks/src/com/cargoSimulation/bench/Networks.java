@@ -0,0 +1,131 @@
+package com.cargoSimulation.bench;
+
+import com.cargoSimulation.City;
+import com.cargoSimulation.CityFactory;
+import com.cargoSimulation.CityRegistry;
+import com.cargoSimulation.DistributionCenter;
+import com.cargoSimulation.DistributionCenter.Storage;
+import com.cargoSimulation.Package;
+import com.cargoSimulation.RoadGraph;
+import com.cargoSimulation.Vehicle;
+
+import java.util.SplittableRandom;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Builds synthetic in-memory city networks for the benchmarks.
+ * Cities are named C0..C(n-1); each starts with the same number of packages
+ * and vehicles. The ring missions built by ringMission keep a network in a
+ * steady state, so a benchmark can execute missions indefinitely.
+ * --------------------------------------------------------
+ */
+public final class Networks {
+    public static final int PACKAGES_PER_CITY = 8;
+    public static final int VEHICLES_PER_CITY = 2;
+
+    private Networks() {
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the name of the city with the given index.
+     * Precondition: index is not negative.
+     * Postcondition: Returns "C" followed by the index.
+     * --------------------------------------------------------
+     */
+    public static String cityName(int index) {
+        return "C" + index;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds a network of the given number of cities.
+     * Precondition: cityCount is at least 3; storage is not null.
+     * Postcondition: Returns a registry of stocked cities in index order.
+     * --------------------------------------------------------
+     */
+    public static CityRegistry build(int cityCount, Storage storage) {
+        CityRegistry cities = new CityRegistry(cityCount);
+        CityFactory factory = new CityFactory(storage);
+        int packageId = 0;
+        int vehicleId = 0;
+        for (int c = 0; c < cityCount; c++) {
+            String name = cityName(c);
+            City city = factory.create(name);
+            DistributionCenter dc = city.getDistributionCenter();
+            for (int p = 0; p < PACKAGES_PER_CITY; p++) {
+                dc.getPackages().push(new Package("P" + packageId++, name));
+            }
+            for (int v = 0; v < VEHICLES_PER_CITY; v++) {
+                dc.getVehicles().enqueue(new Vehicle("V" + vehicleId++, 10.0));
+            }
+            cities.add(city);
+        }
+        return cities;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the city names of the k-th ring mission.
+     * The ring visits ringLength cities spread evenly over the network (every
+     * cityCount / ringLength-th city); mission k runs R(k)-R(k+1)-R(k+2) around it.
+     * With 2 packages loaded at each of the source and middle cities and 2 dropped
+     * at the middle, every city ends a full lap with the stock it started with.
+     * Precondition: 3 <= ringLength <= cityCount; k is not negative.
+     * Postcondition: Returns {source, middle, destination}.
+     * --------------------------------------------------------
+     */
+    public static String[] ringMission(int cityCount, int ringLength, int k) {
+        int stride = cityCount / ringLength;
+        int position = k % ringLength;
+        return new String[] {
+            cityName(position * stride),
+            cityName(((position + 1) % ringLength) * stride),
+            cityName(((position + 2) % ringLength) * stride)
+        };
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds a road network over the given number of cities.
+     * Cities sit on a jittered square grid in index order. Each is linked to its
+     * right and lower neighbours, and to the lower-right one with probability 1/4;
+     * a road is 1.1 to 1.4 times the straight-line distance, as in the roads.txt
+     * written by ScenarioGenerator --roads.
+     * Precondition: cityCount is positive.
+     * Postcondition: Returns a connected graph; the same seed gives the same graph.
+     * --------------------------------------------------------
+     */
+    public static RoadGraph roads(int cityCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int width = (int) Math.ceil(Math.sqrt(cityCount));
+        double[] x = new double[cityCount];
+        double[] y = new double[cityCount];
+        for (int c = 0; c < cityCount; c++) {
+            x[c] = 10 * (c % width + 0.8 * random.nextDouble() - 0.4);
+            y[c] = 10 * (c / width + 0.8 * random.nextDouble() - 0.4);
+        }
+        int[] from = new int[3 * cityCount];
+        int[] to = new int[3 * cityCount];
+        double[] length = new double[3 * cityCount];
+        int roadCount = 0;
+        for (int c = 0; c < cityCount; c++) {
+            boolean hasRight = c % width + 1 < width && c + 1 < cityCount;
+            int[] neighbours = {
+                hasRight ? c + 1 : -1,
+                c + width < cityCount ? c + width : -1,
+                hasRight && c + width + 1 < cityCount && random.nextInt(4) == 0 ? c + width + 1 : -1
+            };
+            for (int next : neighbours) {
+                if (next >= 0) {
+                    double straight = Math.hypot(x[c] - x[next], y[c] - y[next]);
+                    from[roadCount] = c;
+                    to[roadCount] = next;
+                    length[roadCount] = Math.max(straight * (1.1 + 0.3 * random.nextDouble()), 0.1);
+                    roadCount++;
+                }
+            }
+        }
+        return new RoadGraph(cityCount, from, to, length, roadCount);
+    }
+}
@@ -0,0 +1,76 @@
+package com.cargoSimulation.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cargoSimulation.RoadGraph;
+import com.cargoSimulation.Router;
+
+/**
+ * --------------------------------------------------------
+ * Summary: JMH benchmark for Router queries over generated road grids.
+ * Queries cycle through a fixed pool of random city pairs. With landmarks = 0
+ * the search is plain Dijkstra. With cache = 0 every query is a search; with
+ * the default cache the whole pool fits, so the score is the cost of a hit.
+ * Run with: java -jar target/benchmarks.jar RoutingBenchmark
+ * --------------------------------------------------------
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class RoutingBenchmark {
+    private static final int QUERY_POOL = 4096;
+
+    @Param({"1000", "50000"})
+    public int cities;
+
+    @Param({"0", "8"})
+    public int landmarks;
+
+    @Param({"0", "16384"})
+    public int cache;
+
+    private Router router;
+    private int[] sources;
+    private int[] destinations;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RoadGraph graph = Networks.roads(cities, 42);
+        router = new Router(graph, landmarks, cache);
+        SplittableRandom random = new SplittableRandom(7);
+        sources = new int[QUERY_POOL];
+        destinations = new int[QUERY_POOL];
+        for (int q = 0; q < QUERY_POOL; q++) {
+            sources[q] = random.nextInt(cities);
+            destinations[q] = random.nextInt(cities);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public double route() {
+        double length = router.distance(sources[next], destinations[next]);
+        next++;
+        if (next == QUERY_POOL) {
+            next = 0;
+        }
+        return length;
+    }
+}
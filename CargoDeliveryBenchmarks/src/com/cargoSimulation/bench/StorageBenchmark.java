@@ -0,0 +1,289 @@
+package com.cargoSimulation.bench;
+
+import com.cargoSimulation.ArrayIntQueue;
+import com.cargoSimulation.ArrayIntStack;
+import com.cargoSimulation.ArrayQueue;
+import com.cargoSimulation.ArrayStack;
+import com.cargoSimulation.HeapPackageStore;
+import com.cargoSimulation.IntQueue;
+import com.cargoSimulation.IntStack;
+import com.cargoSimulation.LinkedQueue;
+import com.cargoSimulation.LinkedStack;
+import com.cargoSimulation.MyQueue;
+import com.cargoSimulation.MyStack;
+import com.cargoSimulation.OffHeapIntQueue;
+import com.cargoSimulation.OffHeapIntStack;
+import com.cargoSimulation.OffHeapPackageStore;
+import com.cargoSimulation.Package;
+import com.cargoSimulation.PackageStore;
+import com.cargoSimulation.SegmentPool;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Compares the linked, array-backed, int handle and off-heap stack and queue implementations.
+ * For each implementation it fills a structure with N packages, reports the heap
+ * retained by the filled structure, and the throughput of a fill-and-drain cycle.
+ * It then compares the heap held by N Package objects with the heap and
+ * off-heap package stores. Off-heap structures retain almost no heap.
+ * Usage: java com.cargoSimulation.bench.StorageBenchmark [N] [rounds]
+ * --------------------------------------------------------
+ */
+public class StorageBenchmark {
+    private static Object sink;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Runs the comparison with the given package count and timed rounds.
+     * Precondition: args are empty or positive integers.
+     * Postcondition: One result line per implementation is printed.
+     * --------------------------------------------------------
+     */
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Package[] packages = new Package[n];
+        for (int i = 0; i < n; i++) {
+            packages[i] = new Package("P" + i, "City" + (i % 100));
+        }
+
+        System.out.printf("%-12s %14s %14s%n", "structure", "retained MB", "Mops/s");
+        reportStack("LinkedStack", packages, rounds, false);
+        reportStack("ArrayStack", packages, rounds, true);
+        reportQueue("LinkedQueue", packages, rounds, false);
+        reportQueue("ArrayQueue", packages, rounds, true);
+        SegmentPool segments = new SegmentPool(null);
+        reportIntStack("IntStack", ArrayIntStack::new, n, rounds);
+        reportIntQueue("IntQueue", ArrayIntQueue::new, n, rounds);
+        reportIntStack("OffHeapStack", () -> new OffHeapIntStack(segments), n, rounds);
+        reportIntQueue("OffHeapQueue", () -> new OffHeapIntQueue(segments), n, rounds);
+        sink = null;
+        packages = null;
+
+        System.out.printf("%n%-12s %14s%n", "packages", "retained MB");
+        reportPackageObjects(n);
+        reportPackageStore("PackageStore", new HeapPackageStore(), n);
+        reportPackageStore("OffHeapStore", new OffHeapPackageStore(null), n);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Measures retained heap and push/pop throughput of one stack implementation.
+     * Precondition: packages is not empty; rounds is positive.
+     * Postcondition: One result line is printed.
+     * --------------------------------------------------------
+     */
+    private static void reportStack(String name, Package[] packages, int rounds, boolean array) {
+        long before = usedHeap();
+        MyStack<Package> stack = array ? new ArrayStack<>() : new LinkedStack<>();
+        for (int i = 0; i < packages.length; i++) {
+            stack.push(packages[i]);
+        }
+        long retained = usedHeap() - before;
+        sink = stack;
+
+        // The first half of the rounds warms up the JIT and is not timed.
+        long elapsed = 0;
+        for (int r = 0; r < rounds * 2; r++) {
+            MyStack<Package> s = array ? new ArrayStack<>() : new LinkedStack<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < packages.length; i++) {
+                s.push(packages[i]);
+            }
+            while (s.pop() != null) {
+                // drain
+            }
+            if (r >= rounds) {
+                elapsed += System.nanoTime() - start;
+            }
+        }
+        print(name, retained, packages.length, rounds, elapsed);
+        sink = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Measures retained heap and enqueue/dequeue throughput of one queue implementation.
+     * Precondition: packages is not empty; rounds is positive.
+     * Postcondition: One result line is printed.
+     * --------------------------------------------------------
+     */
+    private static void reportQueue(String name, Package[] packages, int rounds, boolean array) {
+        long before = usedHeap();
+        MyQueue<Package> queue = array ? new ArrayQueue<>() : new LinkedQueue<>();
+        for (int i = 0; i < packages.length; i++) {
+            queue.enqueue(packages[i]);
+        }
+        long retained = usedHeap() - before;
+        sink = queue;
+
+        long elapsed = 0;
+        for (int r = 0; r < rounds * 2; r++) {
+            MyQueue<Package> q = array ? new ArrayQueue<>() : new LinkedQueue<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < packages.length; i++) {
+                q.enqueue(packages[i]);
+            }
+            while (q.dequeue() != null) {
+                // drain
+            }
+            if (r >= rounds) {
+                elapsed += System.nanoTime() - start;
+            }
+        }
+        print(name, retained, packages.length, rounds, elapsed);
+        sink = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Measures retained heap and push/pop throughput of an IntStack of handles.
+     * Precondition: n and rounds are positive; factory returns empty stacks.
+     * Postcondition: One result line is printed.
+     * --------------------------------------------------------
+     */
+    private static void reportIntStack(String name, Supplier<IntStack> factory, int n, int rounds) {
+        long before = usedHeap();
+        IntStack stack = factory.get();
+        for (int i = 0; i < n; i++) {
+            stack.push(i);
+        }
+        long retained = usedHeap() - before;
+        sink = stack;
+
+        long elapsed = 0;
+        for (int r = 0; r < rounds * 2; r++) {
+            IntStack s = factory.get();
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                s.push(i);
+            }
+            while (s.pop() != IntStack.NONE) {
+                // drain
+            }
+            if (r >= rounds) {
+                elapsed += System.nanoTime() - start;
+            }
+        }
+        print(name, retained, n, rounds, elapsed);
+        sink = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Measures retained heap and enqueue/dequeue throughput of an IntQueue of handles.
+     * Precondition: n and rounds are positive; factory returns empty queues.
+     * Postcondition: One result line is printed.
+     * --------------------------------------------------------
+     */
+    private static void reportIntQueue(String name, Supplier<IntQueue> factory, int n, int rounds) {
+        long before = usedHeap();
+        IntQueue queue = factory.get();
+        for (int i = 0; i < n; i++) {
+            queue.enqueue(i);
+        }
+        long retained = usedHeap() - before;
+        sink = queue;
+
+        long elapsed = 0;
+        for (int r = 0; r < rounds * 2; r++) {
+            IntQueue q = factory.get();
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                q.enqueue(i);
+            }
+            while (q.dequeue() != IntQueue.NONE) {
+                // drain
+            }
+            if (r >= rounds) {
+                elapsed += System.nanoTime() - start;
+            }
+        }
+        print(name, retained, n, rounds, elapsed);
+        sink = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Measures the heap retained by n Package objects and their ID strings.
+     * Precondition: n is positive.
+     * Postcondition: One result line is printed.
+     * --------------------------------------------------------
+     */
+    private static void reportPackageObjects(int n) {
+        String[] cityNames = cityNames();
+        long before = usedHeap();
+        Package[] packages = new Package[n];
+        for (int i = 0; i < n; i++) {
+            packages[i] = new Package("P" + i, cityNames[i % cityNames.length]);
+        }
+        long retained = usedHeap() - before;
+        sink = packages;
+        System.out.printf("%-12s %14.1f%n", "Package[]", retained / (1024.0 * 1024.0));
+        sink = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Measures the heap retained by a package store after adding n packages.
+     * Precondition: n is positive; store is empty.
+     * Postcondition: One result line is printed.
+     * --------------------------------------------------------
+     */
+    private static void reportPackageStore(String name, PackageStore store, int n) {
+        String[] cityNames = cityNames();
+        long before = usedHeap();
+        for (int i = 0; i < n; i++) {
+            store.add("P" + i, cityNames[i % cityNames.length], 0);
+        }
+        long retained = usedHeap() - before;
+        sink = store;
+        System.out.printf("%-12s %14.1f%n", name, retained / (1024.0 * 1024.0));
+        sink = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the names of the 100 cities the packages are spread over.
+     * Precondition: None.
+     * Postcondition: Returns a new array of city names.
+     * --------------------------------------------------------
+     */
+    private static String[] cityNames() {
+        String[] names = new String[100];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "City" + i;
+        }
+        return names;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints one result line of retained heap and operations per second.
+     * Precondition: elapsedNanos is positive.
+     * Postcondition: The line is written to standard output.
+     * --------------------------------------------------------
+     */
+    private static void print(String name, long retainedBytes, int n, int rounds, long elapsedNanos) {
+        double mops = (2.0 * n * rounds) / (elapsedNanos / 1e9) / 1e6;
+        System.out.printf("%-12s %14.1f %14.1f%n", name, retainedBytes / (1024.0 * 1024.0), mops);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the used heap after requesting garbage collection.
+     * Precondition: None.
+     * Postcondition: Returns the used heap in bytes.
+     * --------------------------------------------------------
+     */
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,81 @@
+package com.cargoSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cargoSimulation.CityRegistry;
+import com.cargoSimulation.DistributionCenter.Storage;
+import com.cargoSimulation.Main;
+import com.cargoSimulation.Mission;
+import com.cargoSimulation.PackageTracker;
+
+/**
+ * --------------------------------------------------------
+ * Summary: JMH benchmark for the cost of package tracking on Main.executeMission.
+ * The same ring missions as MetricsBenchmark run with tracking off and on;
+ * each fork runs one setting, since tracking stays on once enabled. With
+ * tracking on, every package a mission leaves in a depot is moved in the
+ * index, which keeps the default history of two places per package.
+ * Run with: java -jar target/benchmarks.jar TrackingBenchmark
+ * --------------------------------------------------------
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class TrackingBenchmark {
+    private static final int MISSION_POOL = 4096;
+    private static final int[] DROP_OFF = {0, 1};
+
+    @Param({"10000"})
+    public int cities;
+
+    @Param({"linked", "compact"})
+    public String storage;
+
+    @Param({"off", "on"})
+    public String tracking;
+
+    private CityRegistry registry;
+    private Mission[] missions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        registry = Networks.build(cities, Storage.valueOf(storage.toUpperCase()));
+        if (tracking.equals("on")) {
+            PackageTracker.enable(PackageTracker.DEFAULT_HISTORY).track(registry);
+        }
+        int ringLength = Math.min(cities, MISSION_POOL);
+        missions = new Mission[ringLength];
+        for (int k = 0; k < ringLength; k++) {
+            String[] names = Networks.ringMission(cities, ringLength, k);
+            missions[k] = new Mission(registry.idOf(names[0]), registry.idOf(names[1]), registry.idOf(names[2]),
+                    2, 2, DROP_OFF);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public CityRegistry executeMission() {
+        Main.executeMission(registry, missions[next]);
+        next++;
+        if (next == missions.length) {
+            next = 0;
+        }
+        return registry;
+    }
+}
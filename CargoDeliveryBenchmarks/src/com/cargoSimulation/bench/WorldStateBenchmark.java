@@ -0,0 +1,72 @@
+package com.cargoSimulation.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cargoSimulation.CityRegistry;
+import com.cargoSimulation.DistributionCenter.Storage;
+import com.cargoSimulation.Main;
+import com.cargoSimulation.WorldState;
+
+/**
+ * --------------------------------------------------------
+ * Summary: JMH benchmark for what-if runs on forks of a WorldState.
+ * One invocation forks the loaded world and runs a few ring missions (see
+ * Networks.ringMission) on the fork, as a Monte Carlo variant does. A fork
+ * only copies the cities it touches, so the score should not grow with the
+ * number of cities.
+ * Run with: java -jar target/benchmarks.jar WorldStateBenchmark -prof gc
+ * --------------------------------------------------------
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class WorldStateBenchmark {
+    private static final int RING_LENGTH = 64;
+    private static final int[] DROP_OFF = {0, 1};
+
+    @Param({"10000", "1000000"})
+    public int cities;
+
+    @Param({"1", "16"})
+    public int missions;
+
+    private WorldState world;
+    private int[][] ring;
+
+    @Setup
+    public void setUp() {
+        CityRegistry registry = Networks.build(cities, Storage.PERSISTENT);
+        world = new WorldState(registry);
+        ring = new int[RING_LENGTH][];
+        for (int k = 0; k < RING_LENGTH; k++) {
+            String[] mission = Networks.ringMission(cities, RING_LENGTH, k);
+            ring[k] = new int[] {registry.idOf(mission[0]), registry.idOf(mission[1]), registry.idOf(mission[2])};
+        }
+    }
+
+    @Benchmark
+    public WorldState forkAndRun() {
+        WorldState fork = world.fork();
+        for (int k = 0; k < missions; k++) {
+            int[] mission = ring[k];
+            Main.executeMission(fork.city(mission[0]), fork.city(mission[1]), fork.city(mission[2]), 2, 2,
+                    DROP_OFF);
+        }
+        return fork;
+    }
+}
@@ -0,0 +1,129 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Array-backed implementation of an IntQueue.
+ * Values are stored in a growable circular int buffer whose length is always a
+ * power of two, so wrapping is a bit mask and nothing is allocated per value.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class ArrayIntQueue implements IntQueue {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] elements;
+    private int head;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty queue.
+     * Precondition: None.
+     * Postcondition: An empty queue is created.
+     * --------------------------------------------------------
+     */
+    public ArrayIntQueue() {
+        elements = new int[DEFAULT_CAPACITY];
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Inserts a value at the tail of the queue.
+     * Precondition: value is not negative.
+     * Postcondition: The value is added to the end of the queue; the buffer doubles when full.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void enqueue(int value) {
+        if (size == elements.length) {
+            int[] grown = new int[elements.length * 2];
+            int firstPart = elements.length - head;
+            System.arraycopy(elements, head, grown, 0, firstPart);
+            System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+            elements = grown;
+            head = 0;
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the value at the head of the queue.
+     * Precondition: None.
+     * Postcondition: The head value is removed and returned, or NONE is returned if the queue is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int dequeue() {
+        if (size == 0) {
+            return NONE;
+        }
+        int value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the value at the head of the queue without removing it.
+     * Precondition: None.
+     * Postcondition: The head value is returned, or NONE if the queue is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int peek() {
+        return size == 0 ? NONE : elements[head];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the queue is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the queue is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of values in the queue.
+     * Precondition: None.
+     * Postcondition: Returns the size of the queue.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the values of this queue without removing them.
+     * Precondition: The queue is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the head to the tail.
+     * --------------------------------------------------------
+     */
+    @Override
+    public IntCursor cursor() {
+        return new IntCursor() {
+            private int offset = 0;
+
+            @Override
+            public boolean hasNext() {
+                return offset < size;
+            }
+
+            @Override
+            public int next() {
+                return elements[(head + offset++) & (elements.length - 1)];
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Array-backed implementation of an IntStack.
+ * Values are stored in one growable int array with the top at the end, so
+ * pushes and pops allocate nothing once the array is large enough.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class ArrayIntStack implements IntStack {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] elements;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty stack.
+     * Precondition: None.
+     * Postcondition: An empty stack is created.
+     * --------------------------------------------------------
+     */
+    public ArrayIntStack() {
+        elements = new int[DEFAULT_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes a value onto the top of this stack.
+     * Precondition: value is not negative.
+     * Postcondition: The value is added to the top of the stack; the array doubles when full.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void push(int value) {
+        if (size == elements.length) {
+            int[] grown = new int[size * 2];
+            System.arraycopy(elements, 0, grown, 0, size);
+            elements = grown;
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the value at the top of this stack.
+     * Precondition: None.
+     * Postcondition: The top value is removed and returned, or NONE is returned if the stack is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int pop() {
+        return size == 0 ? NONE : elements[--size];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the value at the top of this stack without removing it.
+     * Precondition: None.
+     * Postcondition: The top value is returned, or NONE if the stack is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int peek() {
+        return size == 0 ? NONE : elements[size - 1];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the stack is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the stack is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of values in the stack.
+     * Precondition: None.
+     * Postcondition: Returns the size of the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the values of this stack without removing them.
+     * Precondition: The stack is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the top to the bottom.
+     * --------------------------------------------------------
+     */
+    @Override
+    public IntCursor cursor() {
+        return new IntCursor() {
+            private int index = size - 1;
+
+            @Override
+            public boolean hasNext() {
+                return index >= 0;
+            }
+
+            @Override
+            public int next() {
+                return elements[index--];
+            }
+        };
+    }
+}
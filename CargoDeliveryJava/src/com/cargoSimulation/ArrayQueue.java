@@ -0,0 +1,181 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Array-backed implementation of a first-in-first-out (FIFO) queue.
+ * Items are stored in a growable circular buffer whose length is always a power
+ * of two, so wrapping is a bit mask and no per-item nodes are allocated.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class ArrayQueue<T> implements MyQueue<T> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] elements;
+    private int head;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty queue.
+     * Precondition: None.
+     * Postcondition: An empty queue is created.
+     * --------------------------------------------------------
+     */
+    public ArrayQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty queue with room for the given number of items.
+     * Precondition: initialCapacity is not negative.
+     * Postcondition: An empty queue is created with a power-of-two buffer.
+     * --------------------------------------------------------
+     */
+    public ArrayQueue(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1;
+        elements = new Object[capacity];
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Inserts the specified item into the queue.
+     * Precondition: item is not null.
+     * Postcondition: The item is added to the end of the queue; the buffer doubles when full.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void enqueue(T item) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = item;
+        size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Retrieves and removes the head of this queue.
+     * Precondition: None.
+     * Postcondition: The head item is removed and returned, or null is returned if the queue is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T dequeue() {
+        if (size == 0) {
+            return null;
+        }
+        T item = (T) elements[head];
+        elements[head] = null;
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return item;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Retrieves, but does not remove, the head of this queue.
+     * Precondition: None.
+     * Postcondition: The head item is returned, or null if the queue is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return size == 0 ? null : (T) elements[head];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the queue is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the queue is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of items in the queue.
+     * Precondition: None.
+     * Postcondition: Returns the size of the queue.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns an array containing all of the elements in this queue.
+     * Precondition: None.
+     * Postcondition: Returns an array of queue elements, head first.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        copyTo(array);
+        return array;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Doubles the circular buffer, unwrapping the items to start at index 0.
+     * Precondition: The buffer is full.
+     * Postcondition: The buffer is twice as long and head is 0.
+     * --------------------------------------------------------
+     */
+    private void grow() {
+        Object[] grown = new Object[elements.length * 2];
+        copyTo(grown);
+        elements = grown;
+        head = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Copies the queued items, head first, into the start of the target array.
+     * Precondition: target has room for size items.
+     * Postcondition: target[0..size-1] holds the queue contents in order.
+     * --------------------------------------------------------
+     */
+    private void copyTo(Object[] target) {
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, target, 0, firstPart);
+        System.arraycopy(elements, 0, target, firstPart, size - firstPart);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the elements of this queue without removing them.
+     * Precondition: The queue is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the head to the tail.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Cursor<T> cursor() {
+        return new Cursor<T>() {
+            private int offset = 0;
+
+            @Override
+            public boolean hasNext() {
+                return offset < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                return (T) elements[(head + offset++) & (elements.length - 1)];
+            }
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package com.cargoSimulation;
+
+import java.util.Arrays;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Array-backed implementation of a last-in-first-out (LIFO) stack.
+ * Items are stored in one contiguous, growable array with the top at the end,
+ * so pushes and pops allocate no per-item nodes.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class ArrayStack<T> implements MyStack<T> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] elements;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty stack.
+     * Precondition: None.
+     * Postcondition: An empty stack is created.
+     * --------------------------------------------------------
+     */
+    public ArrayStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty stack with room for the given number of items.
+     * Precondition: initialCapacity is not negative.
+     * Postcondition: An empty stack is created.
+     * --------------------------------------------------------
+     */
+    public ArrayStack(int initialCapacity) {
+        elements = new Object[Math.max(initialCapacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes an item onto the top of this stack.
+     * Precondition: item is not null.
+     * Postcondition: The item is added to the top of the stack; the array doubles when full.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void push(T item) {
+        if (size == elements.length) {
+            Object[] grown = new Object[size * 2];
+            System.arraycopy(elements, 0, grown, 0, size);
+            elements = grown;
+        }
+        elements[size++] = item;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the item at the top of this stack.
+     * Precondition: None.
+     * Postcondition: The top item is removed and returned, or null is returned if the stack is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T pop() {
+        if (size == 0) {
+            return null;
+        }
+        T item = (T) elements[--size];
+        elements[size] = null;
+        return item;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the top n items of this stack into an array, bottom first.
+     * The items above the new top are one contiguous run, so they move in one copy.
+     * Precondition: 0 <= n <= size(); into has room for n items from offset.
+     * Postcondition: The top n items are removed and stored in into[offset .. offset + n).
+     * --------------------------------------------------------
+     */
+    @Override
+    public void popN(int n, Object[] into, int offset) {
+        size -= n;
+        System.arraycopy(elements, size, into, offset, n);
+        Arrays.fill(elements, size, size + n, null);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes a run of items onto this stack in one copy, items[offset] first.
+     * Precondition: count >= 0; items[offset .. offset + count) are not null.
+     * Postcondition: items[offset + count - 1] is the new top; the array grows at most once.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void pushAll(Object[] items, int offset, int count) {
+        if (size + count > elements.length) {
+            Object[] grown = new Object[Math.max(size * 2, size + count)];
+            System.arraycopy(elements, 0, grown, 0, size);
+            elements = grown;
+        }
+        System.arraycopy(items, offset, elements, size, count);
+        size += count;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the item at the top of this stack without removing it.
+     * Precondition: None.
+     * Postcondition: The top item is returned, or null if the stack is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return size == 0 ? null : (T) elements[size - 1];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the stack is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the stack is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of items in the stack.
+     * Precondition: None.
+     * Postcondition: Returns the size of the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns an array containing all of the elements in this stack.
+     * Precondition: None.
+     * Postcondition: Returns an array of stack elements, top first, matching LinkedStack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = elements[size - 1 - i];
+        }
+        return array;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the elements of this stack without removing them.
+     * Precondition: The stack is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the top to the bottom.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Cursor<T> cursor() {
+        return new Cursor<T>() {
+            private int index = size - 1;
+
+            @Override
+            public boolean hasNext() {
+                return index >= 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                return (T) elements[index--];
+            }
+        };
+    }
+}
@@ -0,0 +1,385 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Runs many scenarios in one JVM, several at a time on a fork-join pool.
+ * A manifest lists one scenario per line, either as a directory that holds
+ * cities.txt, packages.txt, vehicles.txt and missions.txt (the result is
+ * written to result.txt in it) or as five paths: cities, packages, vehicles,
+ * missions and result. Relative paths are resolved against the directory of
+ * the manifest; empty lines and lines starting with '#' are skipped.
+ *
+ * Each scenario runs on one thread of the pool, its missions in file order,
+ * and ends with the same result file as a run of Main on its five files. Its
+ * errors go to a report file next to the result file (RESULT.errors), in the
+ * format of --errors.
+ *
+ * An input file is parsed once, however many scenarios use it: the cities,
+ * the packages and vehicles read against those cities, and the missions
+ * compiled against them. Packages never change, so scenarios share them;
+ * vehicles carry cargo, so each scenario gets its own copies. A parsed input
+ * is dropped once every scenario that uses it has finished.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class BatchRunner {
+    // File names of a scenario given as a directory.
+    private static final String[] SCENARIO_FILES = {
+        "cities.txt", "packages.txt", "vehicles.txt", "missions.txt", "result.txt"
+    };
+    // Appended to a result file to name the error report of its scenario.
+    static final String ERRORS_SUFFIX = ".errors";
+    private static final int CITIES = 0;
+    private static final int PACKAGES = 1;
+    private static final int VEHICLES = 2;
+    private static final int MISSIONS = 3;
+    private static final int RESULT = 4;
+
+    private final int threads;
+    private final DistributionCenter.Storage storage;
+    private final String offHeapDirectory;
+    private final boolean capacity;
+    private final int errorSamples;
+    private final AtomicInteger parses = new AtomicInteger();
+    private int uses;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a runner that runs up to the given number of scenarios at a time.
+     * Precondition: threads is positive; storage is not null; offHeapDirectory may be null;
+     * errorSamples is not negative.
+     * Postcondition: A runner is created; every scenario uses the given storage and, if capacity
+     * is true, its own CapacityLoader.
+     * --------------------------------------------------------
+     */
+    public BatchRunner(int threads, DistributionCenter.Storage storage, String offHeapDirectory, boolean capacity,
+                       int errorSamples) {
+        this.threads = threads;
+        this.storage = storage;
+        this.offHeapDirectory = offHeapDirectory;
+        this.capacity = capacity;
+        this.errorSamples = errorSamples;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: A parsed input file, parsed by the first scenario that needs it.
+     * FutureTask.run() does nothing once the task has started, so every scenario
+     * can call get(): one parses, the others wait for its result.
+     * --------------------------------------------------------
+     */
+    private final class Input<T> {
+        private final FutureTask<T> task;
+
+        Input(Callable<T> parse) {
+            task = new FutureTask<>(() -> {
+                parses.incrementAndGet();
+                return parse.call();
+            });
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the parsed input, parsing it on this thread if no other thread has started.
+         * Precondition: None.
+         * Postcondition: Returns the parsed input; throws the IOException the parse threw.
+         * --------------------------------------------------------
+         */
+        T get() throws IOException {
+            task.run();
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an input file", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: The items of a packages or vehicles file in file order, with the
+     * lines that could not be loaded.
+     * --------------------------------------------------------
+     */
+    private static final class Loaded<T> implements LoadSink<T> {
+        private int[] cityIds = new int[64];
+        private Object[] items = new Object[64];
+        private int size;
+        private final ArrayList<ErrorCode> errorCodes = new ArrayList<>();
+        private final ArrayList<String> errorCities = new ArrayList<>();
+        private final ArrayList<String> errorMessages = new ArrayList<>();
+
+        @Override
+        public void accept(int cityId, T item) {
+            if (size == items.length) {
+                cityIds = Arrays.copyOf(cityIds, size * 2);
+                items = Arrays.copyOf(items, size * 2);
+            }
+            cityIds[size] = cityId;
+            items[size] = item;
+            size++;
+        }
+
+        @Override
+        public void error(ErrorCode code, String city, String message) {
+            errorCodes.add(code);
+            errorCities.add(city);
+            errorMessages.add(message);
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Reports every line that could not be loaded, as reading the file would.
+         * Precondition: None.
+         * Postcondition: One report per such line, in file order.
+         * --------------------------------------------------------
+         */
+        void reportErrors() {
+            for (int i = 0; i < errorCodes.size(); i++) {
+                ErrorChannel.report(errorCodes.get(i), errorCities.get(i), errorMessages.get(i));
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: One line of the manifest: its files, its inputs and, once run, its outcome.
+     * --------------------------------------------------------
+     */
+    private static final class Scenario {
+        final String name;
+        final String[] files;
+        Input<CityRegistry> cities;
+        Input<Loaded<Package>> packages;
+        Input<Loaded<Vehicle>> vehicles;
+        Input<MissionProgram> missions;
+        long nanos;
+        int missionCount;
+        long errorCount;
+        String failure;
+
+        Scenario(String name, String[] files) {
+            this.name = name;
+            this.files = files;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Runs every scenario of the manifest and prints a line per scenario and a summary.
+     * Precondition: manifest is a valid file path; out is not null.
+     * Postcondition: Every scenario has run or failed; the lines are printed in manifest order.
+     * A failing scenario does not stop the others.
+     * --------------------------------------------------------
+     */
+    public void run(String manifest, PrintStream out) throws IOException {
+        ArrayList<Scenario> scenarios = readManifest(manifest);
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[scenarios.size()];
+            for (int i = 0; i < tasks.length; i++) {
+                Scenario scenario = scenarios.get(i);
+                tasks[i] = pool.submit(() -> runScenario(scenario));
+            }
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i].join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long wallNanos = System.nanoTime() - start;
+
+        long missions = 0;
+        int failed = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            Scenario scenario = scenarios.get(i);
+            if (scenario.failure != null) {
+                failed++;
+                out.println(String.format(Locale.ROOT, "Scenario %d %s: failed after %.3f s: %s",
+                        i + 1, scenario.name, scenario.nanos / 1e9, scenario.failure));
+            } else {
+                missions += scenario.missionCount;
+                out.println(String.format(Locale.ROOT, "Scenario %d %s: %d missions, %d errors, %.3f s",
+                        i + 1, scenario.name, scenario.missionCount, scenario.errorCount, scenario.nanos / 1e9));
+            }
+        }
+        double seconds = wallNanos / 1e9;
+        out.println(String.format(Locale.ROOT,
+                "Batch: %d scenarios (%d failed) in %.3f s on %d threads, %.1f scenarios/s, %d missions, "
+                        + "%.0f missions/s; %d input files parsed for %d uses",
+                scenarios.size(), failed, seconds, threads, scenarios.size() / seconds, missions,
+                missions / seconds, parses.get(), uses));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the manifest and links scenarios that use the same input files to the same inputs.
+     * Files are the same if their normalized absolute paths are equal. Packages,
+     * vehicles and missions are parsed against the cities, so they are shared
+     * only between scenarios that also have the same cities file.
+     * Precondition: manifest is a valid file path.
+     * Postcondition: Returns the scenarios in manifest order; an invalid line becomes a failed scenario.
+     * --------------------------------------------------------
+     */
+    private ArrayList<Scenario> readManifest(String manifest) throws IOException {
+        Path base = Paths.get(manifest).toAbsolutePath().getParent();
+        HashMap<String, Input<?>> inputs = new HashMap<>();
+        ArrayList<Scenario> scenarios = new ArrayList<>();
+        InputTokenizer in = InputTokenizer.open(manifest);
+        while (in.nextLine()) {
+            String line = in.restOfLine();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            String[] files = new String[SCENARIO_FILES.length];
+            for (int f = 0; f < files.length; f++) {
+                Path path = parts.length == 1 ? base.resolve(parts[0]).resolve(SCENARIO_FILES[f])
+                        : base.resolve(parts[Math.min(f, parts.length - 1)]);
+                files[f] = path.normalize().toString();
+            }
+            Scenario scenario = new Scenario(line, files);
+            scenarios.add(scenario);
+            if (parts.length != 1 && parts.length != files.length) {
+                scenario.failure = "Invalid manifest line " + in.lineNumber()
+                        + ": expected a directory or five files";
+                continue;
+            }
+            scenario.cities = input(inputs, "cities " + files[CITIES], () -> {
+                CityRegistry cities = new CityRegistry();
+                Main.readCities(files[CITIES], cities);
+                return cities;
+            });
+            Input<CityRegistry> cities = scenario.cities;
+            scenario.packages = input(inputs, "packages " + files[CITIES] + " " + files[PACKAGES], () -> {
+                Loaded<Package> packages = new Loaded<>();
+                InputTokenizer packageIn = InputTokenizer.open(files[PACKAGES]);
+                try {
+                    Main.parsePackages(packageIn, cities.get(), packages);
+                } finally {
+                    packageIn.close();
+                }
+                return packages;
+            });
+            scenario.vehicles = input(inputs, "vehicles " + files[CITIES] + " " + files[VEHICLES], () -> {
+                Loaded<Vehicle> vehicles = new Loaded<>();
+                InputTokenizer vehicleIn = InputTokenizer.open(files[VEHICLES]);
+                try {
+                    Main.parseVehicles(vehicleIn, cities.get(), vehicles);
+                } finally {
+                    vehicleIn.close();
+                }
+                return vehicles;
+            });
+            scenario.missions = input(inputs, "missions " + files[CITIES] + " " + files[MISSIONS],
+                    () -> MissionProgram.compile(files[MISSIONS], cities.get()));
+            uses += 4;
+        }
+        in.close();
+        return scenarios;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the input with the given key, creating it if no scenario has used it yet.
+     * Precondition: inputs is only used by the thread reading the manifest.
+     * Postcondition: Returns the input for the key; parse is kept only if the input is new.
+     * --------------------------------------------------------
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Input<T> input(HashMap<String, Input<?>> inputs, String key, Callable<T> parse) {
+        Input<T> input = (Input<T>) inputs.get(key);
+        if (input == null) {
+            input = new Input<>(parse);
+            inputs.put(key, input);
+        }
+        return input;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds the cities of a scenario from its parsed inputs, runs its missions and writes its result.
+     * Precondition: The scenario has not run; the calling thread runs no other scenario.
+     * Postcondition: The result and error report are written, or the failure is recorded. The
+     * scenario no longer holds its inputs.
+     * --------------------------------------------------------
+     */
+    private void runScenario(Scenario scenario) {
+        if (scenario.failure != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        ErrorChannel errors = null;
+        try {
+            errors = ErrorChannel.openForThread(scenario.files[RESULT] + ERRORS_SUFFIX, errorSamples);
+            CityRegistry parsedCities = scenario.cities.get();
+            Loaded<Package> packages = scenario.packages.get();
+            Loaded<Vehicle> vehicles = scenario.vehicles.get();
+            MissionProgram program = scenario.missions.get();
+
+            CityFactory factory = new CityFactory(storage, offHeapDirectory);
+            CityRegistry cities = new CityRegistry(parsedCities.size());
+            for (int c = 0; c < parsedCities.size(); c++) {
+                cities.add(factory.create(parsedCities.get(c).getName()));
+            }
+            packages.reportErrors();
+            for (int i = 0; i < packages.size; i++) {
+                cities.get(packages.cityIds[i]).getDistributionCenter().getPackages().push((Package) packages.items[i]);
+            }
+            vehicles.reportErrors();
+            for (int i = 0; i < vehicles.size; i++) {
+                Vehicle vehicle = (Vehicle) vehicles.items[i];
+                cities.get(vehicles.cityIds[i]).getDistributionCenter().getVehicles()
+                        .enqueue(new Vehicle(vehicle.getId(), vehicle.getVolume()));
+            }
+
+            program.report();
+            program.run(cities, capacity ? new CapacityLoader() : null);
+            Main.writeResults(scenario.files[RESULT], cities);
+            scenario.missionCount = program.size();
+        } catch (IOException | RuntimeException e) {
+            scenario.failure = e.toString();
+        } finally {
+            if (errors != null) {
+                try {
+                    errors.close();
+                    scenario.errorCount = errors.total();
+                } catch (IOException e) {
+                    if (scenario.failure == null) {
+                        scenario.failure = e.toString();
+                    }
+                }
+            }
+            scenario.cities = null;
+            scenario.packages = null;
+            scenario.vehicles = null;
+            scenario.missions = null;
+            scenario.nanos = System.nanoTime() - start;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.cargoSimulation;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Volume-aware vehicle selection and loading for missions.
+ * Without a loader a mission takes the vehicle at the head of the source queue
+ * and loads A and B packages whatever their volume. With a loader the vehicle
+ * volume is a capacity: loading from a stack stops at the first package that
+ * does not fit, since packages below it cannot be reached.
+ *
+ * The vehicle is chosen by best fit. The demand of a mission is the volume of
+ * the packages it asks for: the top A at the source and the top B at the
+ * middle city. The mission takes the smallest vehicle that holds the whole
+ * demand, or the largest vehicle if none does; ties go to the vehicle nearer
+ * the head. The other vehicles keep their order in the queue.
+ *
+ * The loader also counts how the fleet is used. The counters are safe to
+ * update from the threads of a MissionScheduler.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class CapacityLoader {
+    // Tolerance for sums of volumes that are read from text.
+    private static final double EPSILON = 1e-9;
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder loadedPackages = new LongAdder();
+    private final LongAdder leftPackages = new LongAdder();
+    private final DoubleAdder capacity = new DoubleAdder();
+    private final DoubleAdder loadedVolume = new DoubleAdder();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if a package fits into a vehicle.
+     * Precondition: load is the volume already loaded; volume and capacity are not negative.
+     * Postcondition: Returns true if load plus volume does not exceed capacity.
+     * --------------------------------------------------------
+     */
+    public static boolean fits(double load, double volume, double capacity) {
+        return load + volume <= capacity + EPSILON;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of the packages a mission asks for.
+     * Precondition: source and middle are not null; they may be the same stack.
+     * Postcondition: Returns the volume of the top a packages at the source and, after those,
+     * the top b packages at the middle city. The stacks are not modified.
+     * --------------------------------------------------------
+     */
+    public static double demand(MyStack<Package> source, int a, MyStack<Package> middle, int b) {
+        int fromSource = Math.max(0, Math.min(a, source.size()));
+        double volume = 0;
+        Cursor<Package> packages = source.cursor();
+        for (int i = 0; i < fromSource; i++) {
+            volume += packages.next().getVolume();
+        }
+        if (middle != source) {
+            packages = middle.cursor();
+        }
+        for (int i = 0; i < b && packages.hasNext(); i++) {
+            volume += packages.next().getVolume();
+        }
+        return volume;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of the package handles a mission asks for.
+     * Precondition: source and middle are not null and refer to store; they may be the same stack.
+     * Postcondition: Returns the volume of the top a handles at the source and, after those,
+     * the top b handles at the middle city. The stacks are not modified.
+     * --------------------------------------------------------
+     */
+    public static double demand(IntStack source, int a, IntStack middle, int b, PackageStore store) {
+        int fromSource = Math.max(0, Math.min(a, source.size()));
+        double volume = 0;
+        IntCursor handles = source.cursor();
+        for (int i = 0; i < fromSource; i++) {
+            volume += store.getVolume(handles.next());
+        }
+        if (middle != source) {
+            handles = middle.cursor();
+        }
+        for (int i = 0; i < b && handles.hasNext(); i++) {
+            volume += store.getVolume(handles.next());
+        }
+        return volume;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the best fitting vehicle for a demand from a queue.
+     * Precondition: vehicles is not null; demand is not negative.
+     * Postcondition: Returns the chosen vehicle, or null if the queue is empty.
+     * The remaining vehicles keep their order.
+     * --------------------------------------------------------
+     */
+    public Vehicle takeVehicle(MyQueue<Vehicle> vehicles, double demand) {
+        int best = -1;
+        double bestVolume = 0;
+        Cursor<Vehicle> queue = vehicles.cursor();
+        for (int i = 0; queue.hasNext(); i++) {
+            double volume = queue.next().getVolume();
+            if (best < 0 || isBetterFit(volume, bestVolume, demand)) {
+                best = i;
+                bestVolume = volume;
+            }
+        }
+        if (best <= 0) {
+            return vehicles.dequeue();
+        }
+        // Cycle the queue once, keeping every vehicle but the chosen one in order.
+        Vehicle chosen = null;
+        int size = vehicles.size();
+        for (int i = 0; i < size; i++) {
+            Vehicle vehicle = vehicles.dequeue();
+            if (i == best) {
+                chosen = vehicle;
+            } else {
+                vehicles.enqueue(vehicle);
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the handle of the best fitting vehicle for a demand from a queue.
+     * Precondition: handles is not null and refers to store; demand is not negative.
+     * Postcondition: Returns the chosen handle, or IntQueue.NONE if the queue is empty.
+     * The remaining handles keep their order.
+     * --------------------------------------------------------
+     */
+    public int takeVehicle(IntQueue handles, VehicleStore store, double demand) {
+        int best = -1;
+        double bestVolume = 0;
+        IntCursor queue = handles.cursor();
+        for (int i = 0; queue.hasNext(); i++) {
+            double volume = store.getVolume(queue.next());
+            if (best < 0 || isBetterFit(volume, bestVolume, demand)) {
+                best = i;
+                bestVolume = volume;
+            }
+        }
+        if (best <= 0) {
+            return handles.dequeue();
+        }
+        // Cycle the queue once, keeping every handle but the chosen one in order.
+        int chosen = IntQueue.NONE;
+        int size = handles.size();
+        for (int i = 0; i < size; i++) {
+            int handle = handles.dequeue();
+            if (i == best) {
+                chosen = handle;
+            } else {
+                handles.enqueue(handle);
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds one dispatched vehicle to the fleet counters.
+     * Precondition: the values describe a vehicle that has just been loaded.
+     * Postcondition: The counters include the vehicle.
+     * --------------------------------------------------------
+     */
+    public void record(double vehicleCapacity, double volume, int loaded, int leftBehind) {
+        dispatched.increment();
+        capacity.add(vehicleCapacity);
+        loadedVolume.add(volume);
+        loadedPackages.add(loaded);
+        leftPackages.add(leftBehind);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the share of the dispatched capacity that was filled.
+     * Precondition: None.
+     * Postcondition: Returns a value between 0 and 1, or 0 if nothing was dispatched.
+     * --------------------------------------------------------
+     */
+    public double getUtilization() {
+        double total = capacity.sum();
+        return total > 0 ? loadedVolume.sum() / total : 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints a one-line summary of how the fleet was used.
+     * Precondition: out is not null.
+     * Postcondition: The number of dispatches, the utilization, the delivered volume and
+     * the packages left behind for lack of capacity are printed.
+     * --------------------------------------------------------
+     */
+    public void printSummary(PrintStream out) {
+        out.println(String.format(Locale.ROOT,
+                "Fleet: %d vehicles dispatched, %.1f%% of capacity used, %.1f volume in %d packages loaded, "
+                        + "%d packages left behind for capacity",
+                dispatched.sum(), 100 * getUtilization(), loadedVolume.sum(), loadedPackages.sum(),
+                leftPackages.sum()));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Compares a candidate vehicle with the best one found so far.
+     * Precondition: volumes and demand are not negative.
+     * Postcondition: Returns true if the candidate is strictly better: it fits when the best does not,
+     * both fit and it is smaller, or neither fits and it is larger.
+     * --------------------------------------------------------
+     */
+    private static boolean isBetterFit(double candidate, double best, double demand) {
+        boolean candidateFits = fits(0, demand, candidate);
+        boolean bestFits = fits(0, demand, best);
+        if (candidateFits != bestFits) {
+            return candidateFits;
+        }
+        return candidateFits ? candidate < best : candidate > best;
+    }
+}
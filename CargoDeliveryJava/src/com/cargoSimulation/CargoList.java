@@ -0,0 +1,552 @@
+package com.cargoSimulation;
+
+import java.util.Arrays;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Chunked array list used for a vehicle's cargo.
+ * Elements live in a sequence of fixed-capacity blocks. Adding or removing at
+ * either end is amortized O(1), and positional access and removal find the
+ * block by scanning the per-block sizes and shift within one block only. The
+ * block capacity is kept near the square root of the size, so removeAt and get
+ * cost amortized O(sqrt n) instead of the O(n) walk of a linked list.
+ * Index semantics match DoublyLinkedList: index 0 is the first element.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class CargoList<T> {
+    private static final int MIN_BLOCK_CAPACITY = 16;
+    private static final int[] NO_INDICES = new int[0];
+
+    private int blockCapacity;
+
+    // Blocks [firstBlock, firstBlock + blockCount) are in use; each block holds
+    // its elements in blocks[b][starts[b] .. starts[b] + sizes[b]).
+    private Object[][] blocks;
+    private int[] starts;
+    private int[] sizes;
+    private int firstBlock;
+    private int blockCount;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty cargo list.
+     * Precondition: None.
+     * Postcondition: An empty list is created; no blocks are allocated yet.
+     * --------------------------------------------------------
+     */
+    public CargoList() {
+        blockCapacity = MIN_BLOCK_CAPACITY;
+        blocks = new Object[4][];
+        starts = new int[4];
+        sizes = new int[4];
+        firstBlock = 2;
+        blockCount = 0;
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds an element to the beginning of the list.
+     * Precondition: data is not null.
+     * Postcondition: The element is added at the front of the list.
+     * --------------------------------------------------------
+     */
+    public void addFirst(T data) {
+        if (blockCount == 0 || starts[firstBlock] == 0) {
+            // New blocks at the front fill from the right, so further addFirst calls are O(1).
+            insertBlock(0, blockCapacity);
+        }
+        blocks[firstBlock][--starts[firstBlock]] = data;
+        sizes[firstBlock]++;
+        size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds an element to the end of the list.
+     * Precondition: data is not null.
+     * Postcondition: The element is added at the end of the list.
+     * --------------------------------------------------------
+     */
+    public void addLast(T data) {
+        int last = firstBlock + blockCount - 1;
+        if (blockCount == 0 || starts[last] + sizes[last] == blocks[last].length) {
+            insertBlock(blockCount, 0);
+            last = firstBlock + blockCount - 1;
+        }
+        blocks[last][starts[last] + sizes[last]] = data;
+        sizes[last]++;
+        size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves up to n elements off the top of a stack to the beginning of the list,
+     * as pop/addFirst calls would.
+     * The stack hands over each run that fits in the front block in one popN
+     * call, straight into the block, so no element is moved twice.
+     * Precondition: stack is not null.
+     * Postcondition: Returns the number moved, min(n, stack size) and at least 0; the last element
+     * popped is the first of the list.
+     * --------------------------------------------------------
+     */
+    public int loadFrom(MyStack<T> stack, int n) {
+        int count = Math.max(0, Math.min(n, stack.size()));
+        int remaining = count;
+        while (remaining > 0) {
+            if (blockCount == 0 || starts[firstBlock] == 0) {
+                insertBlock(0, blockCapacity);
+            }
+            int b = firstBlock;
+            int run = Math.min(remaining, starts[b]);
+            // popN stores the run bottom first, which is the order addFirst calls would leave it in.
+            starts[b] -= run;
+            stack.popN(run, blocks[b], starts[b]);
+            sizes[b] += run;
+            size += run;
+            remaining -= run;
+        }
+        return count;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes every element onto a stack from last to first and empties the list,
+     * as pop/push calls until the list is empty would.
+     * Each block is reversed in place and pushed with one pushAll call.
+     * Precondition: stack is not null.
+     * Postcondition: Returns the number moved; the first element is the top of the stack; the list is empty.
+     * --------------------------------------------------------
+     */
+    public int unloadTo(MyStack<T> stack) {
+        int count = size;
+        for (int b = firstBlock + blockCount - 1; b >= firstBlock; b--) {
+            Object[] block = blocks[b];
+            int i = starts[b];
+            int j = starts[b] + sizes[b] - 1;
+            while (i < j) {
+                Object swap = block[i];
+                block[i++] = block[j];
+                block[j--] = swap;
+            }
+            stack.pushAll(block, starts[b], sizes[b]);
+            blocks[b] = null;
+        }
+        blockCount = 0;
+        firstBlock = blocks.length / 2;
+        size = 0;
+        return count;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the last element of the list (behaves like a stack's pop).
+     * Precondition: None.
+     * Postcondition: The last element is removed and returned, or null if the list is empty.
+     * --------------------------------------------------------
+     */
+    public T pop() {
+        return removeLast();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the first element of the list.
+     * Precondition: None.
+     * Postcondition: The first element is removed and returned, or null if the list is empty.
+     * --------------------------------------------------------
+     */
+    @SuppressWarnings("unchecked")
+    public T removeFirst() {
+        if (size == 0) {
+            return null;
+        }
+        int b = firstBlock;
+        T data = (T) blocks[b][starts[b]];
+        blocks[b][starts[b]] = null;
+        starts[b]++;
+        sizes[b]--;
+        size--;
+        if (sizes[b] == 0) {
+            removeBlock(0);
+        }
+        return data;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the last element of the list.
+     * Precondition: None.
+     * Postcondition: The last element is removed and returned, or null if the list is empty.
+     * --------------------------------------------------------
+     */
+    @SuppressWarnings("unchecked")
+    public T removeLast() {
+        if (size == 0) {
+            return null;
+        }
+        int b = firstBlock + blockCount - 1;
+        int slot = starts[b] + sizes[b] - 1;
+        T data = (T) blocks[b][slot];
+        blocks[b][slot] = null;
+        sizes[b]--;
+        size--;
+        if (sizes[b] == 0) {
+            removeBlock(blockCount - 1);
+        }
+        return data;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the element at the specified index.
+     * Precondition: None.
+     * Postcondition: The element at the index is removed and returned, or null is
+     * returned if the index is not between 0 and size - 1.
+     * --------------------------------------------------------
+     */
+    @SuppressWarnings("unchecked")
+    public T removeAt(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        int b = firstBlock;
+        int offset = index;
+        while (offset >= sizes[b]) {
+            offset -= sizes[b];
+            b++;
+        }
+        Object[] block = blocks[b];
+        int slot = starts[b] + offset;
+        T data = (T) block[slot];
+        // Close the gap from whichever side of the block is shorter.
+        if (offset < sizes[b] / 2) {
+            System.arraycopy(block, starts[b], block, starts[b] + 1, offset);
+            block[starts[b]] = null;
+            starts[b]++;
+        } else {
+            int end = starts[b] + sizes[b] - 1;
+            System.arraycopy(block, slot + 1, block, slot, end - slot);
+            block[end] = null;
+        }
+        sizes[b]--;
+        size--;
+        if (sizes[b] == 0) {
+            removeBlock(b - firstBlock);
+        }
+        if (blockCount > 4 * blockCapacity || blockCount * (long) blockCapacity > 4L * size + 4L * blockCapacity) {
+            rebuild();
+        }
+        return data;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the elements at the given indices as consecutive removeAt calls
+     * in descending index order would.
+     * Precondition: indices is not null.
+     * Postcondition: Returns the removed elements in descending index order; an entry
+     * is null where the index was out of range at its turn.
+     * --------------------------------------------------------
+     */
+    public Object[] removeAll(int[] indices) {
+        int[] sorted = indices.clone();
+        Arrays.sort(sorted);
+        Object[] removed = new Object[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            removed[i] = removeAt(sorted[sorted.length - 1 - i]);
+        }
+        return removed;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves the elements at a set of indices onto a stack in one pass.
+     * The indices may come in any order. Elements are pushed in descending index
+     * order, exactly as consecutive removeAt/push calls over the indices sorted in
+     * descending order. An index that is repeated is moved only once, and an
+     * index outside [0, size) is not moved; both are returned as rejected.
+     * Cost is O(k log k) for sorting plus one pass over the affected blocks.
+     * Precondition: indices and target are not null.
+     * Postcondition: Returns the rejected indices in descending order; indices is not modified.
+     * --------------------------------------------------------
+     */
+    public int[] dropOff(int[] indices, MyStack<T> target) {
+        if (indices.length == 0) {
+            return NO_INDICES;
+        }
+        int[] sorted = indices.clone();
+        Arrays.sort(sorted);
+
+        // Split into unique valid indices (kept at the front of sorted) and rejected ones.
+        int valid = 0;
+        int rejectedCount = 0;
+        int[] rejected = NO_INDICES;
+        for (int i = 0; i < sorted.length; i++) {
+            int index = sorted[i];
+            boolean duplicate = i > 0 && index == sorted[i - 1];
+            if (index < 0 || index >= size || duplicate) {
+                if (rejectedCount == rejected.length) {
+                    rejected = Arrays.copyOf(rejected, Math.max(4, rejectedCount * 2));
+                }
+                rejected[rejectedCount++] = index;
+            } else {
+                sorted[valid++] = index;
+            }
+        }
+
+        // Walk blocks from last to first so elements are pushed in descending index order.
+        int j = valid - 1;
+        int base = size;
+        for (int b = firstBlock + blockCount - 1; b >= firstBlock && j >= 0; b--) {
+            base -= sizes[b];
+            if (sorted[j] < base) {
+                continue;
+            }
+            Object[] block = blocks[b];
+            int start = starts[b];
+            int last = j;
+            while (j >= 0 && sorted[j] >= base) {
+                @SuppressWarnings("unchecked")
+                T data = (T) block[start + sorted[j] - base];
+                target.push(data);
+                j--;
+            }
+            // Close the gaps left by sorted[j + 1 .. last] in one sweep over the block.
+            int skip = j + 1;
+            int write = start + sorted[skip] - base;
+            int end = start + sizes[b];
+            for (int read = write; read < end; read++) {
+                if (skip <= last && read == start + sorted[skip] - base) {
+                    skip++;
+                } else {
+                    block[write++] = block[read];
+                }
+            }
+            for (int i = write; i < end; i++) {
+                block[i] = null;
+            }
+            sizes[b] -= last - j;
+        }
+        size -= valid;
+        removeEmptyBlocks();
+        if (blockCount * (long) blockCapacity > 4L * size + 4L * blockCapacity) {
+            rebuild();
+        }
+
+        if (rejectedCount == 0) {
+            return NO_INDICES;
+        }
+        int[] result = new int[rejectedCount];
+        for (int i = 0; i < rejectedCount; i++) {
+            result[i] = rejected[rejectedCount - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the element at the specified index without removing it.
+     * Precondition: None.
+     * Postcondition: The element at the index is returned, or null if the index is out of range.
+     * --------------------------------------------------------
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        int b = firstBlock;
+        int offset = index;
+        while (offset >= sizes[b]) {
+            offset -= sizes[b];
+            b++;
+        }
+        return (T) blocks[b][starts[b] + offset];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the list is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the list is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of elements in the list.
+     * Precondition: None.
+     * Postcondition: Returns the size of the list.
+     * --------------------------------------------------------
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns an array containing all of the elements in this list.
+     * Precondition: None.
+     * Postcondition: Returns an array of list elements, first to last.
+     * --------------------------------------------------------
+     */
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        int index = 0;
+        for (int b = firstBlock; b < firstBlock + blockCount; b++) {
+            System.arraycopy(blocks[b], starts[b], array, index, sizes[b]);
+            index += sizes[b];
+        }
+        return array;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Inserts an empty block at the given block position.
+     * Precondition: position is 0 or blockCount; start is 0 (fill rightwards) or blockCapacity (fill leftwards).
+     * Blocks created after the list has grown get a larger capacity.
+     * Postcondition: A new empty block is in place; the block arrays are re-centred or grown if needed.
+     * --------------------------------------------------------
+     */
+    private void insertBlock(int position, int start) {
+        if (blockCount > 2 * blockCapacity) {
+            // Keep the number of blocks near sqrt(size) as the list grows.
+            blockCapacity *= 2;
+            if (start != 0) {
+                start = blockCapacity;
+            }
+        }
+        if (position == 0 ? firstBlock == 0 : firstBlock + blockCount == blocks.length) {
+            recentre(blockCount + 1);
+        }
+        int b;
+        if (position == 0) {
+            b = --firstBlock;
+        } else {
+            b = firstBlock + blockCount;
+        }
+        blocks[b] = new Object[blockCapacity];
+        starts[b] = start;
+        sizes[b] = 0;
+        blockCount++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the empty block at the given position.
+     * Precondition: 0 <= position < blockCount and the block is empty.
+     * Postcondition: Later blocks move one position towards the front.
+     * --------------------------------------------------------
+     */
+    private void removeBlock(int position) {
+        int b = firstBlock + position;
+        if (position == 0) {
+            blocks[b] = null;
+            firstBlock++;
+        } else {
+            int last = firstBlock + blockCount - 1;
+            System.arraycopy(blocks, b + 1, blocks, b, last - b);
+            System.arraycopy(starts, b + 1, starts, b, last - b);
+            System.arraycopy(sizes, b + 1, sizes, b, last - b);
+            blocks[last] = null;
+        }
+        blockCount--;
+        if (blockCount == 0) {
+            firstBlock = blocks.length / 2;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Drops every empty block, keeping the order of the others.
+     * Precondition: None.
+     * Postcondition: Every block in use holds at least one element.
+     * --------------------------------------------------------
+     */
+    private void removeEmptyBlocks() {
+        int write = firstBlock;
+        int end = firstBlock + blockCount;
+        for (int b = firstBlock; b < end; b++) {
+            if (sizes[b] > 0) {
+                blocks[write] = blocks[b];
+                starts[write] = starts[b];
+                sizes[write] = sizes[b];
+                write++;
+            }
+        }
+        for (int b = write; b < end; b++) {
+            blocks[b] = null;
+        }
+        blockCount = write - firstBlock;
+        if (blockCount == 0) {
+            firstBlock = blocks.length / 2;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves the used block slots to the middle of block arrays with room for needed blocks.
+     * Precondition: needed >= blockCount.
+     * Postcondition: There is free room on both sides of the used block slots.
+     * --------------------------------------------------------
+     */
+    private void recentre(int needed) {
+        int length = Math.max(blocks.length, 4);
+        while (length < needed * 2) {
+            length *= 2;
+        }
+        Object[][] newBlocks = new Object[length][];
+        int[] newStarts = new int[length];
+        int[] newSizes = new int[length];
+        int newFirst = (length - blockCount) / 2;
+        System.arraycopy(blocks, firstBlock, newBlocks, newFirst, blockCount);
+        System.arraycopy(starts, firstBlock, newStarts, newFirst, blockCount);
+        System.arraycopy(sizes, firstBlock, newSizes, newFirst, blockCount);
+        blocks = newBlocks;
+        starts = newStarts;
+        sizes = newSizes;
+        firstBlock = newFirst;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Repacks all elements into full blocks whose capacity is near sqrt(size).
+     * Called when removals leave too many or too sparse blocks.
+     * Precondition: None.
+     * Postcondition: The list holds the same elements in the same order in dense blocks.
+     * --------------------------------------------------------
+     */
+    private void rebuild() {
+        Object[] all = toArray();
+        int capacity = MIN_BLOCK_CAPACITY;
+        while ((long) capacity * capacity < size) {
+            capacity *= 2;
+        }
+        blockCapacity = capacity;
+        int count = (size + capacity - 1) / capacity;
+        int length = 4;
+        while (length < count * 2) {
+            length *= 2;
+        }
+        blocks = new Object[length][];
+        starts = new int[length];
+        sizes = new int[length];
+        firstBlock = (length - count) / 2;
+        blockCount = count;
+        for (int i = 0; i < count; i++) {
+            int b = firstBlock + i;
+            int from = i * capacity;
+            int n = Math.min(capacity, size - from);
+            blocks[b] = new Object[capacity];
+            System.arraycopy(all, from, blocks[b], 0, n);
+            starts[b] = 0;
+            sizes[b] = n;
+        }
+    }
+}
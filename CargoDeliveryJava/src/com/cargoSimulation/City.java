@@ -9,6 +9,11 @@ package com.cargoSimulation;
 public class City {
     private String name;
     private DistributionCenter distributionCenter;
+    // Packages loaded onto and unloaded from vehicles here; only counted while metrics are on.
+    private long packagesLoaded;
+    private long packagesUnloaded;
+    // Index of the city in the PackageTracker, or -1 while it is not tracked.
+    private int trackingIndex = -1;
 
     /**
      * --------------------------------------------------------
@@ -18,8 +23,31 @@ public class City {
      * --------------------------------------------------------
      */
     public City(String name) {
+        this(name, DistributionCenter.Storage.LINKED);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a city whose distribution center uses the given storage.
+     * Precondition: name and storage are not null; storage is not OFFHEAP (see CityFactory).
+     * Postcondition: City is created with an empty distribution center of the selected kind.
+     * --------------------------------------------------------
+     */
+    public City(String name, DistributionCenter.Storage storage) {
         this.name = name;
-        this.distributionCenter = new DistributionCenter();
+        this.distributionCenter = new DistributionCenter(storage);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a city with the given distribution center.
+     * Precondition: name and distributionCenter are not null.
+     * Postcondition: City is created with the specified name and distribution center.
+     * --------------------------------------------------------
+     */
+    public City(String name, DistributionCenter distributionCenter) {
+        this.name = name;
+        this.distributionCenter = distributionCenter;
     }
 
     /**
@@ -43,4 +71,62 @@ public class City {
     public DistributionCenter getDistributionCenter() {
         return distributionCenter;
     }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds packages loaded onto vehicles and unloaded from vehicles in the city.
+     * Precondition: loaded and unloaded are not negative; no other thread updates the city.
+     * Postcondition: The counts of the city include them.
+     * --------------------------------------------------------
+     */
+    public void countPackages(int loaded, int unloaded) {
+        packagesLoaded += loaded;
+        packagesUnloaded += unloaded;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of packages loaded onto vehicles in the city.
+     * Precondition: None.
+     * Postcondition: Returns the count, 0 unless metrics are on.
+     * --------------------------------------------------------
+     */
+    public long getPackagesLoaded() {
+        return packagesLoaded;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of packages unloaded from vehicles in the city.
+     * Precondition: None.
+     * Postcondition: Returns the count, 0 unless metrics are on.
+     * --------------------------------------------------------
+     */
+    public long getPackagesUnloaded() {
+        return packagesUnloaded;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the index of the city in the PackageTracker.
+     * Kept on the city so a mission that has it in hand finds its entry
+     * without looking up the name.
+     * Precondition: None.
+     * Postcondition: Returns the index, or -1 if the city is not tracked.
+     * --------------------------------------------------------
+     */
+    int getTrackingIndex() {
+        return trackingIndex;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Sets the index of the city in the PackageTracker.
+     * Precondition: index is not negative; no mission is running.
+     * Postcondition: getTrackingIndex() returns index.
+     * --------------------------------------------------------
+     */
+    void setTrackingIndex(int index) {
+        trackingIndex = index;
+    }
 }
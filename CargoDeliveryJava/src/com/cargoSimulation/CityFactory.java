@@ -0,0 +1,87 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Creates the cities of one simulation with the selected storage.
+ * For COMPACT and OFFHEAP storage every city gets a distribution center over
+ * the same PackageStore and VehicleStore, so a package or vehicle keeps its
+ * handle when a mission moves it between cities. OFFHEAP cities also take the
+ * segments of their handle stacks and queues from one shared SegmentPool.
+ * --------------------------------------------------------
+ */
+public class CityFactory {
+    private final DistributionCenter.Storage storage;
+    private PackageStore packageStore;
+    private VehicleStore vehicleStore;
+    private SegmentPool segments;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a factory for the given storage.
+     * Precondition: storage is not null.
+     * Postcondition: A factory is created; COMPACT and OFFHEAP get a fresh set of shared stores,
+     * OFFHEAP in direct memory.
+     * --------------------------------------------------------
+     */
+    public CityFactory(DistributionCenter.Storage storage) {
+        this.storage = storage;
+        try {
+            createStores(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a factory whose off-heap stores are mapped from files in a directory.
+     * Precondition: storage is not null; offHeapDirectory is null or an existing, writable directory.
+     * Postcondition: A factory is created; OFFHEAP stores use temporary files in offHeapDirectory,
+     * or direct memory if it is null. Other storages ignore the directory.
+     * --------------------------------------------------------
+     */
+    public CityFactory(DistributionCenter.Storage storage, String offHeapDirectory) throws IOException {
+        this.storage = storage;
+        createStores(offHeapDirectory);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Creates the stores that the cities of this factory share.
+     * Precondition: storage is set.
+     * Postcondition: The stores needed by the storage are created; the others stay null.
+     * --------------------------------------------------------
+     */
+    private void createStores(String offHeapDirectory) throws IOException {
+        if (storage == DistributionCenter.Storage.OFFHEAP) {
+            packageStore = new OffHeapPackageStore(offHeapDirectory);
+            vehicleStore = new OffHeapVehicleStore(offHeapDirectory);
+            segments = new SegmentPool(offHeapDirectory);
+        } else if (storage == DistributionCenter.Storage.COMPACT) {
+            packageStore = new HeapPackageStore();
+            vehicleStore = new HeapVehicleStore();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Creates a city with an empty distribution center.
+     * Precondition: name is not null.
+     * Postcondition: Returns the new city.
+     * --------------------------------------------------------
+     */
+    public City create(String name) {
+        if (segments != null) {
+            return new City(name, new DistributionCenter(
+                    new PackageHandleStack(new OffHeapIntStack(segments), packageStore),
+                    new VehicleHandleQueue(new OffHeapIntQueue(segments), vehicleStore)));
+        }
+        if (packageStore != null) {
+            return new City(name, new DistributionCenter(packageStore, vehicleStore));
+        }
+        return new City(name, storage);
+    }
+}
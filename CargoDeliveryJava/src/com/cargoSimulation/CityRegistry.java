@@ -0,0 +1,251 @@
+package com.cargoSimulation;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Registry of the cities in the simulation.
+ * Interns each city name to a dense integer ID (its insertion position) and
+ * resolves names through an open-addressing hash index with linear probing.
+ * Cities are kept in insertion order so results are written in file order.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class CityRegistry {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private City[] cities;
+    private int size;
+
+    // Hash slots hold (city ID + 1); 0 marks an empty slot.
+    private int[] slots;
+    private int[] slotHashes;
+    private int mask;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty city registry.
+     * Precondition: None.
+     * Postcondition: An empty registry is created.
+     * --------------------------------------------------------
+     */
+    public CityRegistry() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty city registry sized for the expected number of cities.
+     * Precondition: expectedCities is not negative.
+     * Postcondition: An empty registry is created that holds expectedCities without resizing.
+     * --------------------------------------------------------
+     */
+    public CityRegistry(int expectedCities) {
+        int capacity = Math.max(expectedCities, INITIAL_CAPACITY);
+        cities = new City[capacity];
+        int tableSize = tableSizeFor(capacity);
+        slots = new int[tableSize];
+        slotHashes = new int[tableSize];
+        mask = tableSize - 1;
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds a city to the registry and returns its ID.
+     * Precondition: city is not null.
+     * Postcondition: The city is appended in insertion order. If a city with the same
+     * name is already registered, name lookups keep resolving to the first one.
+     * --------------------------------------------------------
+     */
+    public int add(City city) {
+        if (size == cities.length) {
+            City[] grown = new City[size * 2];
+            System.arraycopy(cities, 0, grown, 0, size);
+            cities = grown;
+        }
+        int id = size;
+        cities[size++] = city;
+
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        String name = city.getName();
+        int hash = hash(name);
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            if (slotHashes[slot] == hash && cities[slots[slot] - 1].getName().equals(name)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+        slotHashes[slot] = hash;
+        return id;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of the city with the given name.
+     * Precondition: name is not null.
+     * Postcondition: Returns the city ID or -1 if no city has that name.
+     * --------------------------------------------------------
+     */
+    public int idOf(String name) {
+        int hash = hash(name);
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (slotHashes[slot] == hash && cities[entry - 1].getName().equals(name)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of the city whose name is held as UTF-8 in a byte range.
+     * ASCII names are hashed and compared in place, without building a String;
+     * other names are decoded first.
+     * Precondition: bytes holds at least offset + length bytes.
+     * Postcondition: Returns the city ID or -1 if no city has that name.
+     * --------------------------------------------------------
+     */
+    public int idOf(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int h = 0;
+        for (int i = offset; i < end; i++) {
+            byte b = bytes[i];
+            if (b < 0) {
+                return idOf(new String(bytes, offset, length, StandardCharsets.UTF_8));
+            }
+            h = 31 * h + b;
+        }
+        // h equals String.hashCode() of the ASCII name.
+        int hash = mix(h);
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (slotHashes[slot] == hash && sameName(cities[entry - 1].getName(), bytes, offset, length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Compares a name with an ASCII byte range.
+     * Precondition: the byte range holds only ASCII characters.
+     * Postcondition: Returns true if both hold the same characters.
+     * --------------------------------------------------------
+     */
+    private static boolean sameName(String name, byte[] bytes, int offset, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Finds a city by its name.
+     * Precondition: name is not null.
+     * Postcondition: Returns the City with the matching name or null if not found.
+     * --------------------------------------------------------
+     */
+    public City findByName(String name) {
+        int id = idOf(name);
+        return id < 0 ? null : cities[id];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the city with the given ID.
+     * Precondition: id is between 0 and size - 1.
+     * Postcondition: Returns the City registered under that ID.
+     * --------------------------------------------------------
+     */
+    public City get(int id) {
+        return cities[id];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of registered cities.
+     * Precondition: None.
+     * Postcondition: Returns the size of the registry.
+     * --------------------------------------------------------
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Rebuilds the hash index with the given number of slots.
+     * Precondition: tableSize is a power of two larger than twice the size.
+     * Postcondition: Every first-registered name is indexed in the new table.
+     * --------------------------------------------------------
+     */
+    private void rehash(int tableSize) {
+        int[] oldSlots = slots;
+        int[] oldHashes = slotHashes;
+        slots = new int[tableSize];
+        slotHashes = new int[tableSize];
+        mask = tableSize - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != 0) {
+                int slot = oldHashes[i] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = oldSlots[i];
+                slotHashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Spreads the bits of a name's hash code across the table.
+     * Precondition: name is not null.
+     * Postcondition: Returns the mixed hash value.
+     * --------------------------------------------------------
+     */
+    private static int hash(String name) {
+        return mix(name.hashCode());
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Mixes a String hash code so low bits depend on every character.
+     * Precondition: None.
+     * Postcondition: Returns the mixed hash value.
+     * --------------------------------------------------------
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the smallest power-of-two table size that keeps the load factor at or below one half.
+     * Precondition: capacity is positive.
+     * Postcondition: Returns the table size.
+     * --------------------------------------------------------
+     */
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        return Math.max(n, INITIAL_CAPACITY);
+    }
+}
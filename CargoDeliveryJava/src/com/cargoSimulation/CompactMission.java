@@ -0,0 +1,290 @@
+package com.cargoSimulation;
+
+import java.util.Arrays;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Mission execution for compact distribution centers.
+ * Moves int handles between the handle stacks and queues and produces exactly
+ * the same end state and messages as Main.executeMission does with objects.
+ * The cargo of the vehicle is kept in a per-thread scratch array, so a mission
+ * allocates nothing unless it reports an invalid drop-off index.
+ *
+ * With p[0..k-1] the packages in the order they were popped, the cargo list
+ * built by addFirst holds p[k-1-i] at index i. Dropping off in descending index
+ * order therefore means ascending pop order, and the packages left for the
+ * destination are also taken in ascending pop order.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class CompactMission {
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reusable per-thread cargo and drop-off marks.
+     * A slot is marked when marks[slot] == stamp, so the marks never need clearing.
+     * --------------------------------------------------------
+     */
+    private static class Scratch {
+        int[] cargo = new int[64];
+        int[] marks = new int[64];
+        int stamp;
+        // Recorder of the thread for the metrics it was taken from, so a mission needs no second lookup.
+        Metrics metrics;
+        Metrics.Recorder recorder;
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Makes room for the given number of cargo slots and starts a new mission.
+         * Precondition: capacity is not negative.
+         * Postcondition: cargo and marks hold at least capacity slots; no slot is marked.
+         * --------------------------------------------------------
+         */
+        void begin(int capacity) {
+            if (capacity > cargo.length) {
+                int length = Math.max(capacity, cargo.length * 2);
+                cargo = new int[length];
+                marks = new int[length];
+                stamp = 0;
+            }
+            stamp++;
+            if (stamp == 0) {
+                Arrays.fill(marks, 0);
+                stamp = 1;
+            }
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the recorder of the thread for the given metrics.
+         * Precondition: metrics is not null.
+         * Postcondition: Returns the recorder, looked up only when the metrics differ from the last call.
+         * --------------------------------------------------------
+         */
+        Metrics.Recorder recorder(Metrics metrics) {
+            if (this.metrics != metrics) {
+                this.metrics = metrics;
+                recorder = metrics.recorder();
+            }
+            return recorder;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if a mission between three distribution centers can run on handles.
+     * Precondition: the distribution centers are not null.
+     * Postcondition: Returns true if all three are compact and share one pair of stores.
+     * --------------------------------------------------------
+     */
+    public static boolean supports(DistributionCenter source, DistributionCenter middle, DistributionCenter dest) {
+        PackageHandleStack sourcePackages = source.getPackageHandles();
+        PackageHandleStack middlePackages = middle.getPackageHandles();
+        PackageHandleStack destPackages = dest.getPackageHandles();
+        if (sourcePackages == null || middlePackages == null || destPackages == null) {
+            return false;
+        }
+        PackageStore store = sourcePackages.getStore();
+        VehicleStore vehicles = source.getVehicleHandles().getStore();
+        return middlePackages.getStore() == store && destPackages.getStore() == store
+                && dest.getVehicleHandles().getStore() == vehicles;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes a single mission between compact cities.
+     * Precondition: supports() is true for the cities' distribution centers; dropOffIndices is not null.
+     * Postcondition: The mission is executed exactly as Main.executeMission would with objects.
+     * --------------------------------------------------------
+     */
+    public static void execute(City sourceCity, City middleCity, City destCity,
+                               int a, int b, int[] dropOffIndices) {
+        execute(sourceCity, middleCity, destCity, a, b, dropOffIndices, null);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes a single mission between compact cities, with vehicle capacity enforced if a loader is given.
+     * Precondition: supports() is true for the cities' distribution centers; dropOffIndices is not null;
+     * loader may be null.
+     * Postcondition: The mission is executed exactly as Main.executeMission would with objects.
+     * --------------------------------------------------------
+     */
+    public static void execute(City sourceCity, City middleCity, City destCity,
+                               int a, int b, int[] dropOffIndices, CapacityLoader loader) {
+        PackageHandleStack sourceHandles = sourceCity.getDistributionCenter().getPackageHandles();
+        IntStack sourcePackages = sourceHandles.getHandles();
+        IntStack middlePackages = middleCity.getDistributionCenter().getPackageHandles().getHandles();
+        IntStack destPackages = destCity.getDistributionCenter().getPackageHandles().getHandles();
+        PackageStore store = sourceHandles.getStore();
+        VehicleHandleQueue sourceVehicles = sourceCity.getDistributionCenter().getVehicleHandles();
+
+        // 1. Get a vehicle from the source city
+        int vehicle = loader == null ? sourceVehicles.getHandles().dequeue()
+                : loader.takeVehicle(sourceVehicles.getHandles(), sourceVehicles.getStore(),
+                        CapacityLoader.demand(sourcePackages, a, middlePackages, b, store));
+        if (vehicle == IntQueue.NONE) {
+            ErrorChannel.report(ErrorCode.NO_VEHICLE, sourceCity.getName(),
+                    "No vehicles available in source city: " + sourceCity.getName());
+            Metrics.countSkipped();
+            return;
+        }
+
+        // 2. and 3. Load up to 'a' packages from the source and 'b' from the middle city
+        // The source and middle city may be the same, so loadB is only known after loading from the source.
+        int loadA = Math.min(a, sourcePackages.size());
+        Scratch scratch = SCRATCH.get();
+        scratch.begin(Math.max(0, loadA) + Math.max(0, Math.min(b, middlePackages.size())));
+        int[] cargo = scratch.cargo;
+        int k = 0;
+        double capacity = loader == null ? 0 : sourceVehicles.getStore().getVolume(vehicle);
+        double load = 0;
+        int leftBehind = 0;
+        for (int i = 0; i < loadA; i++) {
+            if (loader != null) {
+                double volume = store.getVolume(sourcePackages.peek());
+                if (!CapacityLoader.fits(load, volume, capacity)) {
+                    ErrorChannel.report(ErrorCode.CAPACITY_EXCEEDED, sourceCity.getName(),
+                            "Vehicle capacity exceeded in source city: " + sourceCity.getName());
+                    leftBehind += loadA - i;
+                    break;
+                }
+                load += volume;
+            }
+            cargo[k++] = sourcePackages.pop();
+        }
+        if (loadA < a && leftBehind == 0) {
+            ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, sourceCity.getName(),
+                    "Not enough packages in source city: " + sourceCity.getName());
+        }
+        int fromSource = k;
+        int loadB = Math.min(b, middlePackages.size());
+        int loadedB = 0;
+        for (int i = 0; i < loadB; i++) {
+            if (loader != null) {
+                double volume = store.getVolume(middlePackages.peek());
+                if (!CapacityLoader.fits(load, volume, capacity)) {
+                    ErrorChannel.report(ErrorCode.CAPACITY_EXCEEDED, middleCity.getName(),
+                            "Vehicle capacity exceeded in middle city: " + middleCity.getName());
+                    leftBehind += loadB - i;
+                    break;
+                }
+                load += volume;
+            }
+            cargo[k++] = middlePackages.pop();
+            loadedB++;
+        }
+        if (loadB < b && loadedB == loadB) {
+            ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, middleCity.getName(),
+                    "Not enough packages in middle city: " + middleCity.getName());
+        }
+        if (loader != null) {
+            loader.record(capacity, load, k, leftBehind);
+        }
+
+        // 4. Drop off specified packages at the middle city
+        // With tracking on, each package is moved in the tracker as it is pushed, while its handle is at
+        // hand; the loops are written twice so that a run without tracking keeps its loops as they were.
+        PackageTracker tracker = PackageTracker.active();
+        int[] marks = scratch.marks;
+        int stamp = scratch.stamp;
+        int rejectedCount = 0;
+        for (int i = 0; i < dropOffIndices.length; i++) {
+            int index = dropOffIndices[i];
+            if (index < 0 || index >= k || marks[k - 1 - index] == stamp) {
+                rejectedCount++;
+            } else {
+                marks[k - 1 - index] = stamp;
+            }
+        }
+        int toMiddle = 0;
+        if (tracker == null) {
+            for (int slot = 0; slot < k; slot++) {
+                if (marks[slot] == stamp) {
+                    middlePackages.push(cargo[slot]);
+                    toMiddle++;
+                }
+            }
+        } else {
+            int place = tracker.depot(middleCity);
+            for (int slot = 0; slot < k; slot++) {
+                if (marks[slot] == stamp) {
+                    middlePackages.push(cargo[slot]);
+                    tracker.move(cargo[slot], place);
+                    toMiddle++;
+                }
+            }
+        }
+        if (rejectedCount > 0) {
+            reportRejected(dropOffIndices, k, middleCity.getName());
+        }
+
+        // 5. Continue to the destination and drop off remaining packages
+        if (tracker == null) {
+            for (int slot = 0; slot < k; slot++) {
+                if (marks[slot] != stamp) {
+                    destPackages.push(cargo[slot]);
+                }
+            }
+        } else {
+            int place = tracker.depot(destCity);
+            for (int slot = 0; slot < k; slot++) {
+                if (marks[slot] != stamp) {
+                    destPackages.push(cargo[slot]);
+                    tracker.move(cargo[slot], place);
+                }
+            }
+        }
+
+        // 6. Return vehicle to destination city
+        IntQueue destVehicles = destCity.getDistributionCenter().getVehicleHandles().getHandles();
+        destVehicles.enqueue(vehicle);
+
+        Metrics metrics = Metrics.active();
+        if (metrics != null) {
+            record(scratch.recorder(metrics), sourceCity, middleCity, destCity, fromSource, k, toMiddle,
+                    dropOffIndices);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Records a mission in the metrics.
+     * Kept out of execute() so that metrics do not change how execute() is compiled.
+     * Precondition: recorder and the cities are not null; the mission has just run.
+     * Postcondition: The mission is counted, and sampled if it is its thread's turn.
+     * --------------------------------------------------------
+     */
+    private static void record(Metrics.Recorder recorder, City sourceCity, City middleCity, City destCity,
+                               int fromSource, int k, int toMiddle, int[] dropOffIndices) {
+        recorder.recordMission(sourceCity, middleCity, destCity, fromSource, k - fromSource, toMiddle, k - toMiddle);
+        if (recorder.sampling()) {
+            int middleDepth = middleCity.getDistributionCenter().getPackageHandles().getHandles().size();
+            int destDepth = destCity.getDistributionCenter().getPackageHandles().getHandles().size();
+            recorder.recordSample(k, dropOffIndices, Math.max(middleDepth, destDepth),
+                    destCity.getDistributionCenter().getVehicleHandles().getHandles().size());
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reports the rejected drop-off indices in the order CargoList.dropOff reports them.
+     * Precondition: cargoSize is the number of packages on the vehicle before the drop-off;
+     * middleCity is the name of the city of the drop-off.
+     * Postcondition: One message per out-of-range or repeated index is reported, highest index first.
+     * --------------------------------------------------------
+     */
+    static void reportRejected(int[] dropOffIndices, int cargoSize, String middleCity) {
+        int[] sorted = dropOffIndices.clone();
+        Arrays.sort(sorted);
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            int index = sorted[i];
+            if (index < 0 || index >= cargoSize) {
+                ErrorChannel.report(ErrorCode.BAD_INDEX, middleCity, "Invalid package index: " + index);
+            } else if (i > 0 && sorted[i - 1] == index) {
+                ErrorChannel.report(ErrorCode.DUPLICATE_INDEX, middleCity, "Duplicate package index: " + index);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Read-only, forward-only view over the elements of a collection.
+ * Returned by MyStack, MyQueue and DoublyLinkedList so their contents can be
+ * read without removing anything. The collection must not be modified while a
+ * cursor over it is in use.
+ * --------------------------------------------------------
+ */
+public interface Cursor<T> {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if another element can be read.
+     * Precondition: None.
+     * Postcondition: Returns true if next() will return an element.
+     * --------------------------------------------------------
+     */
+    boolean hasNext();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the next element and advances the cursor.
+     * Precondition: hasNext() returned true.
+     * Postcondition: Returns the element; the collection is not changed.
+     * --------------------------------------------------------
+     */
+    T next();
+}
@@ -7,8 +7,32 @@ package com.cargoSimulation;
  * --------------------------------------------------------
  */
 public class DistributionCenter {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Selects the data structures behind a distribution center.
+     * LINKED uses the doubly linked list stack and queue; ARRAY uses the
+     * contiguous array stack and the circular buffer queue; COMPACT keeps int
+     * handles into a PackageStore and a VehicleStore. Cities built by one
+     * CityFactory share their stores, which lets missions move handles only.
+     * OFFHEAP is COMPACT with the stores and the handle stacks and queues kept
+     * outside the Java heap, so large runs do not grow the heap or GC pauses.
+     * PERSISTENT uses a stack and a queue of immutable nodes, so a distribution
+     * center can be forked in constant time and the forks share their nodes.
+     * --------------------------------------------------------
+     */
+    public enum Storage {
+        LINKED,
+        ARRAY,
+        COMPACT,
+        OFFHEAP,
+        PERSISTENT
+    }
+
     private MyStack<Package> packages;
     private MyQueue<Vehicle> vehicles;
+    private PackageHandleStack packageHandles;
+    private VehicleHandleQueue vehicleHandles;
 
     /**
      * --------------------------------------------------------
@@ -18,8 +42,99 @@ public class DistributionCenter {
      * --------------------------------------------------------
      */
     public DistributionCenter() {
-        this.packages = new MyStack<>();
-        this.vehicles = new MyQueue<>();
+        this(Storage.LINKED);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a distribution center whose stack and queue use the given storage.
+     * Off-heap distribution centers share their stores and segment pool, so they
+     * are only made by a CityFactory.
+     * Precondition: storage is not null and not OFFHEAP.
+     * Postcondition: Distribution center is initialized with empty stacks and queues of the selected kind.
+     * Throws IllegalArgumentException for OFFHEAP.
+     * --------------------------------------------------------
+     */
+    public DistributionCenter(Storage storage) {
+        if (storage == Storage.OFFHEAP) {
+            throw new IllegalArgumentException("Off-heap distribution centers are created by a CityFactory");
+        } else if (storage == Storage.COMPACT) {
+            initHandles(new PackageHandleStack(new HeapPackageStore()),
+                    new VehicleHandleQueue(new HeapVehicleStore()));
+        } else if (storage == Storage.ARRAY) {
+            this.packages = new ArrayStack<>();
+            this.vehicles = new ArrayQueue<>();
+        } else if (storage == Storage.PERSISTENT) {
+            this.packages = new PersistentStack<>();
+            this.vehicles = new PersistentQueue<>(Vehicle::copy);
+        } else {
+            this.packages = new LinkedStack<>();
+            this.vehicles = new LinkedQueue<>();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a distribution center over the given stack and queue.
+     * Precondition: packages and vehicles are not null.
+     * Postcondition: Distribution center is initialized with the stack and queue.
+     * --------------------------------------------------------
+     */
+    private DistributionCenter(MyStack<Package> packages, MyQueue<Vehicle> vehicles) {
+        this.packages = packages;
+        this.vehicles = vehicles;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a distribution center with the same packages and vehicles, in constant time.
+     * Precondition: The distribution center uses PERSISTENT storage.
+     * Postcondition: Returns a new distribution center that shares the nodes of this one; changes
+     * to either do not affect the other. Throws IllegalStateException for other storages.
+     * --------------------------------------------------------
+     */
+    public DistributionCenter fork() {
+        if (!(packages instanceof PersistentStack) || !(vehicles instanceof PersistentQueue)) {
+            throw new IllegalStateException("Only a distribution center with persistent storage can be forked");
+        }
+        return new DistributionCenter(((PersistentStack<Package>) packages).fork(),
+                ((PersistentQueue<Vehicle>) vehicles).fork());
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a compact distribution center over shared stores.
+     * Precondition: packageStore and vehicleStore are not null.
+     * Postcondition: Distribution center is initialized with empty handle stacks and queues.
+     * --------------------------------------------------------
+     */
+    public DistributionCenter(PackageStore packageStore, VehicleStore vehicleStore) {
+        initHandles(new PackageHandleStack(packageStore), new VehicleHandleQueue(vehicleStore));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a compact distribution center over the given handle stack and queue.
+     * Precondition: packageHandles and vehicleHandles are not null and empty.
+     * Postcondition: Distribution center is initialized with the given stack and queue.
+     * --------------------------------------------------------
+     */
+    public DistributionCenter(PackageHandleStack packageHandles, VehicleHandleQueue vehicleHandles) {
+        initHandles(packageHandles, vehicleHandles);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Sets the handle stack and queue of a compact distribution center.
+     * Precondition: packageHandles and vehicleHandles are not null.
+     * Postcondition: packages and vehicles hold int handles into the stores.
+     * --------------------------------------------------------
+     */
+    private void initHandles(PackageHandleStack packageHandles, VehicleHandleQueue vehicleHandles) {
+        this.packageHandles = packageHandles;
+        this.vehicleHandles = vehicleHandles;
+        this.packages = packageHandles;
+        this.vehicles = vehicleHandles;
     }
 
     /**
@@ -43,4 +158,26 @@ public class DistributionCenter {
     public MyQueue<Vehicle> getVehicles() {
         return vehicles;
     }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the handle stack of a compact distribution center.
+     * Precondition: None.
+     * Postcondition: Returns the same object as getPackages(), or null unless the storage is COMPACT or OFFHEAP.
+     * --------------------------------------------------------
+     */
+    public PackageHandleStack getPackageHandles() {
+        return packageHandles;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the handle queue of a compact distribution center.
+     * Precondition: None.
+     * Postcondition: Returns the same object as getVehicles(), or null unless the storage is COMPACT or OFFHEAP.
+     * --------------------------------------------------------
+     */
+    public VehicleHandleQueue getVehicleHandles() {
+        return vehicleHandles;
+    }
 }
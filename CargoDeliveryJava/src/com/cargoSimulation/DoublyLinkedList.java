@@ -258,4 +258,31 @@ public class DoublyLinkedList<T> {
         }
         return array;
     }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the elements of this list without removing them.
+     * Each step follows one next reference, so a full pass is O(n) instead of the
+     * O(n^2) of repeated get(i) calls.
+     * Precondition: The list is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the first to the last element.
+     * --------------------------------------------------------
+     */
+    public Cursor<T> cursor() {
+        return new Cursor<T>() {
+            private Node current = head;
+
+            @Override
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            @Override
+            public T next() {
+                T data = current.data;
+                current = current.next;
+                return data;
+            }
+        };
+    }
 }
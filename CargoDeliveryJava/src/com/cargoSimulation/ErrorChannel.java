@@ -0,0 +1,385 @@
+package com.cargoSimulation;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Where the problems found in the input files and the missions are reported.
+ * A report has an ErrorCode, the name of the city it is about (or null) and
+ * the message that used to be printed on its own.
+ *
+ * While no channel is open, report() prints the message to standard error,
+ * one line at a time. console() opens a channel that prints the same lines
+ * through a buffer, so a run with many errors does not pay a write to the
+ * console per line; the buffer is written when it is full and when the
+ * channel is flushed or closed.
+ *
+ * open() sends the reports to a file instead. Reports are counted per code
+ * and per city, and only the first samples of every code are kept. A sample
+ * is put on a queue that a daemon thread writes to the file, so the thread
+ * that reports never waits for I/O or for a lock on a stream. The queue has
+ * no bound of its own: at most samples lines per code are ever put on it, so
+ * every sample that is counted is written. Closing the channel appends the
+ * totals per code and per city to the file. openForThread() opens
+ * such a file channel for the calling thread alone, so runs that share the
+ * JVM on different threads keep their reports apart, and countForThread()
+ * opens one that only counts the reports per code.
+ *
+ * The report file is tab-separated text: sample lines are "code city message",
+ * total lines are "code count" and "city code count", and lines starting with
+ * '#' name the sections. A city is "-" if the report is not about one.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class ErrorChannel {
+    // Samples kept per code when no number is given.
+    public static final int DEFAULT_SAMPLES = 100;
+    // Bytes of standard error buffered before they are written.
+    private static final int CONSOLE_BUFFER = 1 << 16;
+    // Tells the writer thread that no sample follows; compared by identity.
+    private static final String END = new String("");
+
+    private static volatile ErrorChannel active;
+    // Channel of the scenario a batch thread is running; it takes that thread's reports instead of active.
+    private static final ThreadLocal<ErrorChannel> scenario = new ThreadLocal<>();
+
+    private final PrintStream console;
+    private final String filename;
+    private final BufferedWriter out;
+    private final int samples;
+    // Sample lines waiting for the writer thread.
+    private final LinkedBlockingQueue<String> queue;
+    private final Thread writer;
+    private final AtomicLongArray counts = new AtomicLongArray(ErrorCode.values().length);
+    private final ConcurrentHashMap<String, AtomicLongArray> cityCounts = new ConcurrentHashMap<>();
+    // Set by the writer thread; read after it has been joined.
+    private IOException failure;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a channel that prints every report, or only counts them.
+     * Precondition: None.
+     * Postcondition: A console channel is created, or a counting channel if console is null.
+     * --------------------------------------------------------
+     */
+    private ErrorChannel(PrintStream console) {
+        this.console = console;
+        filename = null;
+        out = null;
+        samples = 0;
+        queue = null;
+        writer = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a channel that writes samples of every code to a file.
+     * Precondition: filename is a writable path; samples is not negative.
+     * Postcondition: The file is created with its header and the writer thread is started.
+     * --------------------------------------------------------
+     */
+    private ErrorChannel(String filename, int samples) throws IOException {
+        console = null;
+        this.filename = filename;
+        out = new BufferedWriter(new FileWriter(filename));
+        out.write("# Samples: code, city, message; the first " + samples + " of every code");
+        out.newLine();
+        this.samples = samples;
+        queue = new LinkedBlockingQueue<>();
+        writer = new Thread(this::drain, "error-report");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Opens a channel that prints every report to a buffered standard error.
+     * Precondition: No other channel is open.
+     * Postcondition: Returns the channel; reports go to it until it is closed.
+     * --------------------------------------------------------
+     */
+    public static ErrorChannel console() {
+        active = new ErrorChannel(new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.err), CONSOLE_BUFFER), false));
+        return active;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Opens a channel that counts every report and writes the first ones of every code to a file.
+     * Precondition: filename is a writable path; samples is not negative; no other channel is open.
+     * Postcondition: Returns the channel; reports go to it until it is closed.
+     * --------------------------------------------------------
+     */
+    public static ErrorChannel open(String filename, int samples) throws IOException {
+        active = new ErrorChannel(filename, samples);
+        return active;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Opens a file channel for the reports made by the calling thread only.
+     * Lets several runs share the JVM, each on its own thread with its own report file.
+     * Precondition: filename is a writable path; samples is not negative.
+     * Postcondition: Returns the channel; reports from this thread go to it until it is closed.
+     * --------------------------------------------------------
+     */
+    public static ErrorChannel openForThread(String filename, int samples) throws IOException {
+        ErrorChannel channel = new ErrorChannel(filename, samples);
+        scenario.set(channel);
+        return channel;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Opens a channel that counts the reports made by the calling thread and keeps nothing else.
+     * Lets a run on a worker thread find out how many problems it had without printing them.
+     * Precondition: None.
+     * Postcondition: Returns the channel; reports from this thread are counted by it until it is closed.
+     * --------------------------------------------------------
+     */
+    public static ErrorChannel countForThread() {
+        ErrorChannel channel = new ErrorChannel(null);
+        scenario.set(channel);
+        return channel;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reports a problem.
+     * Precondition: code and message are not null; city may be null.
+     * Postcondition: The problem is counted in the metrics and sent to the open channel,
+     * or printed to standard error if none is open.
+     * --------------------------------------------------------
+     */
+    public static void report(ErrorCode code, String city, String message) {
+        Metrics.count(code);
+        ErrorChannel channel = scenario.get();
+        if (channel == null) {
+            channel = active;
+        }
+        if (channel == null) {
+            System.err.println(message);
+        } else {
+            channel.add(code, city, message);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Closes the open channel, if any, after a run that may have failed.
+     * Precondition: None.
+     * Postcondition: No channel is open; a failure to close it is printed to standard error.
+     * --------------------------------------------------------
+     */
+    public static void closeActive() {
+        ErrorChannel channel = active;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Counts a report and prints it or queues a sample of it.
+     * Precondition: code and message are not null.
+     * Postcondition: The counts include the report; it is printed, or queued if it is one of
+     * the first samples of its code.
+     * --------------------------------------------------------
+     */
+    private void add(ErrorCode code, String city, String message) {
+        if (console != null) {
+            console.println(message);
+            return;
+        }
+        long count = counts.incrementAndGet(code.ordinal());
+        if (queue == null) {
+            return;
+        }
+        if (city != null) {
+            AtomicLongArray perCity = cityCounts.get(city);
+            if (perCity == null) {
+                perCity = cityCounts.computeIfAbsent(city, name -> new AtomicLongArray(ErrorCode.values().length));
+            }
+            perCity.incrementAndGet(code.ordinal());
+        }
+        if (count <= samples) {
+            queue.add(code.name() + '\t' + (city == null ? "-" : city) + '\t' + message);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the queued samples to the file until the end marker arrives.
+     * Runs on the writer thread. After a write fails, samples are still taken
+     * from the queue but no longer written, and close() throws the failure.
+     * Precondition: The channel writes to a file.
+     * Postcondition: Every sample queued before the end marker is written, unless a write failed.
+     * --------------------------------------------------------
+     */
+    private void drain() {
+        while (true) {
+            String line;
+            try {
+                line = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (line == END) {
+                return;
+            }
+            if (failure == null) {
+                try {
+                    out.write(line);
+                    out.newLine();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the buffered console lines to standard error.
+     * Precondition: None.
+     * Postcondition: Every line printed so far has been written; a file channel is unchanged.
+     * --------------------------------------------------------
+     */
+    public void flush() {
+        if (console != null) {
+            console.flush();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Closes the channel.
+     * Precondition: No thread reports to the channel any more; a channel opened for a thread is
+     * closed by that thread.
+     * Postcondition: A console channel is flushed; a file channel has written its samples and totals
+     * and closed the file. Later reports go straight to standard error.
+     * --------------------------------------------------------
+     */
+    public void close() throws IOException {
+        if (active == this) {
+            active = null;
+        }
+        if (scenario.get() == this) {
+            scenario.remove();
+        }
+        if (console != null) {
+            console.flush();
+            return;
+        }
+        if (queue == null) {
+            return;
+        }
+        try {
+            if (writer.isAlive()) {
+                queue.put(END);
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing the error report", e);
+        }
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            writeTotals();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Appends the totals per code and per city to the file.
+     * Precondition: The writer thread has finished.
+     * Postcondition: Every code and every city with a report is written, cities in name order.
+     * --------------------------------------------------------
+     */
+    private void writeTotals() throws IOException {
+        ErrorCode[] codes = ErrorCode.values();
+        out.write("# Totals per code: code, count");
+        out.newLine();
+        for (int c = 0; c < codes.length; c++) {
+            out.write(codes[c].name() + '\t' + counts.get(c));
+            out.newLine();
+        }
+        out.write("# Totals per city: city, code, count");
+        out.newLine();
+        ArrayList<String> names = new ArrayList<>(cityCounts.keySet());
+        Collections.sort(names);
+        for (int i = 0; i < names.size(); i++) {
+            AtomicLongArray perCity = cityCounts.get(names.get(i));
+            for (int c = 0; c < codes.length; c++) {
+                if (perCity.get(c) > 0) {
+                    out.write(names.get(i) + '\t' + codes[c].name() + '\t' + perCity.get(c));
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints a one-line summary of the reports.
+     * Precondition: out is not null.
+     * Postcondition: A file channel prints the number of reports and where the samples are;
+     * a console or counting channel prints nothing.
+     * --------------------------------------------------------
+     */
+    public void printSummary(PrintStream out) {
+        if (filename == null) {
+            return;
+        }
+        out.println(String.format(Locale.ROOT,
+                "Errors: %d reported in %d cities, up to %d samples per code written to %s",
+                total(), cityCounts.size(), samples, filename));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of reports.
+     * Precondition: None.
+     * Postcondition: Returns the count over every code; a console channel does not count and returns 0.
+     * --------------------------------------------------------
+     */
+    public long total() {
+        long total = 0;
+        for (int c = 0; c < counts.length(); c++) {
+            total += counts.get(c);
+        }
+        return total;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of reports with a code.
+     * Precondition: code is not null.
+     * Postcondition: Returns the count of that code; a console channel does not count and returns 0.
+     * --------------------------------------------------------
+     */
+    public long count(ErrorCode code) {
+        return counts.get(code.ordinal());
+    }
+}
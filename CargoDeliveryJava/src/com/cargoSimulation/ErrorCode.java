@@ -0,0 +1,26 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Kinds of problems found in the input files and the missions.
+ * Every message sent to the ErrorChannel has one of these codes.
+ * --------------------------------------------------------
+ */
+public enum ErrorCode {
+    // A line of an input file does not have the expected fields.
+    INVALID_LINE,
+    // A line names a city that is not in the cities file.
+    CITY_NOT_FOUND,
+    // A mission's source city has no vehicle.
+    NO_VEHICLE,
+    // A mission asks for more packages than a city's stack holds.
+    STACK_UNDERFLOW,
+    // The next package does not fit in the vehicle.
+    CAPACITY_EXCEEDED,
+    // A drop-off index is outside the cargo.
+    BAD_INDEX,
+    // A drop-off index is given twice.
+    DUPLICATE_INDEX,
+    // No road route connects the cities of a mission.
+    NO_ROUTE
+}
@@ -0,0 +1,699 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Discrete-event simulation of missions over time.
+ * Missions are released in file order, one every mission interval. A mission
+ * takes a vehicle at its source when one is there; otherwise it waits in a
+ * first-come, first-served line at the source until a vehicle finishes a trip
+ * there. A trip is a chain of events:
+ *   RELEASE       the mission is read and asks for a vehicle;
+ *   DEPART        the A packages are loaded and the vehicle leaves the source;
+ *   ARRIVE_MIDDLE the B packages are loaded and the drop-offs unloaded;
+ *   LEAVE_MIDDLE  that handling is done and the vehicle leaves the middle city;
+ *   ARRIVE_DEST   the remaining packages are unloaded;
+ *   READY         the vehicle has been unloaded and joins the destination queue.
+ * Packages move when the vehicle reaches a city; handling takes a fixed time
+ * per package. A leg takes the travel time, or with a router the travel time
+ * per unit of road length. The moves and messages of each city visit are
+ * those of Main.executeMission, and missions that never get a vehicle are
+ * reported with its message when the run ends.
+ *
+ * Missions in flight live in slots of parallel arrays, recycled through a
+ * free list, and an event is its slot number and type packed into one int.
+ * A run handles about two million events per second on one core: most of an
+ * event is moving packages and reading mission lines, not the event list.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class EventSimulator {
+    public static final double DEFAULT_TRAVEL_TIME = 1.0;
+    public static final double DEFAULT_HANDLING_TIME = 0.1;
+
+    private static final int RELEASE = 0;
+    private static final int DEPART = 1;
+    private static final int ARRIVE_MIDDLE = 2;
+    private static final int LEAVE_MIDDLE = 3;
+    private static final int ARRIVE_DEST = 4;
+    private static final int READY = 5;
+    private static final int TYPE_BITS = 3;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+    private static final int NONE = -1;
+
+    private final CityRegistry cities;
+    // Compiles one line at a time and reports the invalid ones.
+    private final MissionProgram parser = new MissionProgram();
+    private final CapacityLoader loader;
+    private final Router router;
+    private final double travelTime;
+    private final double handlingTime;
+    private final double missionInterval;
+    private final EventQueue events = new EventQueue();
+
+    // One entry per slot.
+    private Mission[] missions = new Mission[64];
+    private long[] missionNumbers = new long[64];
+    private double[] releaseTimes = new double[64];
+    private boolean[] compact = new boolean[64];
+    private Vehicle[] vehicles = new Vehicle[64];
+    private int[] vehicleHandles = new int[64];
+    private int[][] cargo = new int[64][];
+    private int[] cargoSizes = new int[64];
+    private double[] capacities = new double[64];
+    private double[] loads = new double[64];
+    private int[] leftBehind = new int[64];
+    private int[] next = new int[64];
+    private int freeSlot = NONE;
+    private int slotCount = 0;
+
+    // The line of waiting missions at each city, linked through next.
+    private final int[] waitingHead;
+    private final int[] waitingTail;
+
+    private int[] marks = new int[64];
+    private int stamp = 0;
+
+    private InputTokenizer in;
+    // Time spent parsing the sampled mission lines, for the metrics.
+    private long parseNanos;
+    private long released;
+    private long completed;
+    private long rejected;
+    private double totalWait;
+    private double lastReady;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a simulator with the default times.
+     * Precondition: cities is populated; loader and router may be null.
+     * Postcondition: A simulator is created.
+     * --------------------------------------------------------
+     */
+    public EventSimulator(CityRegistry cities, CapacityLoader loader, Router router) {
+        this(cities, loader, router, DEFAULT_TRAVEL_TIME, DEFAULT_HANDLING_TIME, 0);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a simulator.
+     * Precondition: cities is populated; loader and router may be null; the times are not negative.
+     * Postcondition: A simulator is created. With a loader, vehicle capacity is enforced; with a
+     * router, legs follow the roads and missions without a route are rejected.
+     * --------------------------------------------------------
+     */
+    public EventSimulator(CityRegistry cities, CapacityLoader loader, Router router,
+                          double travelTime, double handlingTime, double missionInterval) {
+        this.cities = cities;
+        this.loader = loader;
+        this.router = router;
+        this.travelTime = travelTime;
+        this.handlingTime = handlingTime;
+        this.missionInterval = missionInterval;
+        this.waitingHead = new int[cities.size()];
+        this.waitingTail = new int[cities.size()];
+        Arrays.fill(waitingHead, NONE);
+        Arrays.fill(waitingTail, NONE);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Simulates every mission of a missions file until no event is left.
+     * Precondition: filename is a valid file path; cities registry is populated.
+     * Postcondition: Every mission has run, been rejected, or is reported as never getting a vehicle.
+     * --------------------------------------------------------
+     */
+    public void run(String filename) throws IOException {
+        in = InputTokenizer.open(filename);
+        try {
+            releaseNext(0);
+            while (!events.isEmpty()) {
+                int event = events.poll();
+                int slot = event >>> TYPE_BITS;
+                switch (event & TYPE_MASK) {
+                    case RELEASE:
+                        release(slot);
+                        break;
+                    case DEPART:
+                        events.schedule(events.now() + legTime(slot, true), slot << TYPE_BITS | ARRIVE_MIDDLE);
+                        break;
+                    case ARRIVE_MIDDLE:
+                        arriveMiddle(slot);
+                        break;
+                    case LEAVE_MIDDLE:
+                        events.schedule(events.now() + legTime(slot, false), slot << TYPE_BITS | ARRIVE_DEST);
+                        break;
+                    case ARRIVE_DEST:
+                        arriveDest(slot);
+                        break;
+                    default:
+                        ready(slot);
+                        break;
+                }
+            }
+        } finally {
+            in.close();
+        }
+        reportWaiting();
+        Metrics metrics = Metrics.active();
+        if (metrics != null) {
+            metrics.addTime(Metrics.Phase.PARSE_MISSIONS, parseNanos * Metrics.SAMPLE_EVERY);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the next valid mission and schedules its release.
+     * Invalid lines are reported by the parser and skipped.
+     * Precondition: The missions file is open.
+     * Postcondition: A RELEASE event is pending at the given time, or the file is exhausted.
+     * --------------------------------------------------------
+     */
+    private void releaseNext(double time) throws IOException {
+        while (in.nextLine()) {
+            boolean timed = in.lineNumber() % Metrics.SAMPLE_EVERY == 0;
+            long start = timed ? System.nanoTime() : 0;
+            Mission mission = parser.parseLine(in, cities);
+            if (timed) {
+                parseNanos += System.nanoTime() - start;
+            }
+            if (mission != null) {
+                int slot = allocate();
+                missions[slot] = mission;
+                missionNumbers[slot] = released++;
+                events.schedule(time, slot << TYPE_BITS | RELEASE);
+                return;
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Handles a RELEASE event: the mission starts or joins the line at its source.
+     * Precondition: slot holds a mission that has not started.
+     * Postcondition: The next mission is scheduled; this one has started, waits, or was rejected.
+     * --------------------------------------------------------
+     */
+    private void release(int slot) throws IOException {
+        double now = events.now();
+        releaseNext(now + missionInterval);
+        Mission mission = missions[slot];
+        releaseTimes[slot] = now;
+        if (router != null) {
+            if (router.routeMission(mission, cities) == Double.POSITIVE_INFINITY) {
+                rejected++;
+                free(slot);
+                return;
+            }
+        }
+        DistributionCenter sourceDC = cities.get(mission.getSourceId()).getDistributionCenter();
+        int source = mission.getSourceId();
+        if (waitingHead[source] == NONE && !sourceDC.getVehicles().isEmpty()) {
+            depart(slot);
+        } else {
+            next[slot] = NONE;
+            if (waitingHead[source] == NONE) {
+                waitingHead[source] = slot;
+            } else {
+                next[waitingTail[source]] = slot;
+            }
+            waitingTail[source] = slot;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Takes a vehicle at the source and loads the A packages.
+     * Precondition: The source has a vehicle.
+     * Postcondition: A DEPART event is pending after the handling time of the loaded packages.
+     * --------------------------------------------------------
+     */
+    private void depart(int slot) {
+        Mission mission = missions[slot];
+        City sourceCity = cities.get(mission.getSourceId());
+        DistributionCenter sourceDC = sourceCity.getDistributionCenter();
+        DistributionCenter middleDC = cities.get(mission.getMiddleId()).getDistributionCenter();
+        DistributionCenter destDC = cities.get(mission.getDestId()).getDistributionCenter();
+        totalWait += events.now() - releaseTimes[slot];
+        int a = mission.getA();
+        int loaded;
+        compact[slot] = CompactMission.supports(sourceDC, middleDC, destDC);
+        if (compact[slot]) {
+            IntStack sourcePackages = sourceDC.getPackageHandles().getHandles();
+            PackageStore store = sourceDC.getPackageHandles().getStore();
+            VehicleHandleQueue sourceVehicles = sourceDC.getVehicleHandles();
+            int vehicle = loader == null ? sourceVehicles.getHandles().dequeue()
+                    : loader.takeVehicle(sourceVehicles.getHandles(), sourceVehicles.getStore(),
+                            CapacityLoader.demand(sourcePackages, a,
+                                    middleDC.getPackageHandles().getHandles(), mission.getB(), store));
+            vehicleHandles[slot] = vehicle;
+            int loadA = Math.min(a, sourcePackages.size());
+            int[] slotCargo = cargoFor(slot, Math.max(0, loadA));
+            double capacity = loader == null ? 0 : sourceVehicles.getStore().getVolume(vehicle);
+            double load = 0;
+            int left = 0;
+            int k = 0;
+            for (int i = 0; i < loadA; i++) {
+                if (loader != null) {
+                    double volume = store.getVolume(sourcePackages.peek());
+                    if (!CapacityLoader.fits(load, volume, capacity)) {
+                        ErrorChannel.report(ErrorCode.CAPACITY_EXCEEDED, sourceCity.getName(),
+                                "Vehicle capacity exceeded in source city: " + sourceCity.getName());
+                        left += loadA - i;
+                        break;
+                    }
+                    load += volume;
+                }
+                slotCargo[k++] = sourcePackages.pop();
+            }
+            if (loadA < a && left == 0) {
+                ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, sourceCity.getName(),
+                        "Not enough packages in source city: " + sourceCity.getName());
+            }
+            cargoSizes[slot] = k;
+            capacities[slot] = capacity;
+            loads[slot] = load;
+            leftBehind[slot] = left;
+            loaded = k;
+        } else {
+            Vehicle vehicle = loader == null ? sourceDC.getVehicles().dequeue()
+                    : loader.takeVehicle(sourceDC.getVehicles(),
+                            CapacityLoader.demand(sourceDC.getPackages(), a, middleDC.getPackages(), mission.getB()));
+            vehicles[slot] = vehicle;
+            double load = 0;
+            int left = 0;
+            loaded = 0;
+            if (loader == null) {
+                loaded = vehicle.getCargoPackages().loadFrom(sourceDC.getPackages(), a);
+                if (loaded < a) {
+                    ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, sourceCity.getName(),
+                            "Not enough packages in source city: " + sourceCity.getName());
+                }
+            } else {
+                for (int i = 0; i < a; i++) {
+                    Package pkg = sourceDC.getPackages().peek();
+                    if (pkg == null) {
+                        ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, sourceCity.getName(),
+                                "Not enough packages in source city: " + sourceCity.getName());
+                        break;
+                    }
+                    if (!CapacityLoader.fits(load, pkg.getVolume(), vehicle.getVolume())) {
+                        ErrorChannel.report(ErrorCode.CAPACITY_EXCEEDED, sourceCity.getName(),
+                                "Vehicle capacity exceeded in source city: " + sourceCity.getName());
+                        left += Math.min(a - i, sourceDC.getPackages().size());
+                        break;
+                    }
+                    vehicle.getCargoPackages().addFirst(sourceDC.getPackages().pop());
+                    load += pkg.getVolume();
+                    loaded++;
+                }
+            }
+            loads[slot] = load;
+            leftBehind[slot] = left;
+            cargoSizes[slot] = loaded;
+        }
+        PackageTracker tracker = PackageTracker.active();
+        if (tracker != null) {
+            if (compact[slot]) {
+                tracker.loaded(cargo[slot], 0, loaded, trackedVehicle(slot));
+            } else {
+                tracker.loaded(vehicles[slot].getCargoPackages(), loaded, trackedVehicle(slot));
+            }
+        }
+        events.schedule(events.now() + handlingTime * loaded, slot << TYPE_BITS | DEPART);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Handles an ARRIVE_MIDDLE event: loads the B packages and drops off the chosen ones.
+     * Precondition: slot holds a departed mission.
+     * Postcondition: A LEAVE_MIDDLE event is pending after the handling time of the moved packages.
+     * --------------------------------------------------------
+     */
+    private void arriveMiddle(int slot) {
+        Mission mission = missions[slot];
+        City middleCity = cities.get(mission.getMiddleId());
+        DistributionCenter middleDC = middleCity.getDistributionCenter();
+        int b = mission.getB();
+        int[] dropOffIndices = mission.getDropOffIndices();
+        int handled;
+        int fromSource = cargoSizes[slot];
+        int cargoSize;
+        int toMiddle;
+        if (compact[slot]) {
+            IntStack middlePackages = middleDC.getPackageHandles().getHandles();
+            PackageStore store = middleDC.getPackageHandles().getStore();
+            int k = cargoSizes[slot];
+            double capacity = capacities[slot];
+            double load = loads[slot];
+            int loadB = Math.min(b, middlePackages.size());
+            int[] slotCargo = cargoFor(slot, k + Math.max(0, loadB));
+            int loadedB = 0;
+            for (int i = 0; i < loadB; i++) {
+                if (loader != null) {
+                    double volume = store.getVolume(middlePackages.peek());
+                    if (!CapacityLoader.fits(load, volume, capacity)) {
+                        ErrorChannel.report(ErrorCode.CAPACITY_EXCEEDED, middleCity.getName(),
+                                "Vehicle capacity exceeded in middle city: " + middleCity.getName());
+                        leftBehind[slot] += loadB - i;
+                        break;
+                    }
+                    load += volume;
+                }
+                slotCargo[k++] = middlePackages.pop();
+                loadedB++;
+            }
+            if (loadB < b && loadedB == loadB) {
+                ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, middleCity.getName(),
+                        "Not enough packages in middle city: " + middleCity.getName());
+            }
+            if (loader != null) {
+                loader.record(capacity, load, k, leftBehind[slot]);
+            }
+            PackageTracker tracker = PackageTracker.active();
+            if (tracker != null) {
+                tracker.loaded(slotCargo, k - loadedB, k, trackedVehicle(slot));
+            }
+
+            // Cargo index i holds slot k - 1 - i, as in CompactMission.
+            beginMarks(k);
+            int rejectedCount = 0;
+            for (int i = 0; i < dropOffIndices.length; i++) {
+                int index = dropOffIndices[i];
+                if (index < 0 || index >= k || marks[k - 1 - index] == stamp) {
+                    rejectedCount++;
+                } else {
+                    marks[k - 1 - index] = stamp;
+                }
+            }
+            int kept = 0;
+            for (int s = 0; s < k; s++) {
+                if (marks[s] == stamp) {
+                    middlePackages.push(slotCargo[s]);
+                } else {
+                    slotCargo[kept++] = slotCargo[s];
+                }
+            }
+            if (rejectedCount > 0) {
+                CompactMission.reportRejected(dropOffIndices, k, middleCity.getName());
+            }
+            handled = loadedB + k - kept;
+            cargoSize = k;
+            toMiddle = k - kept;
+            cargoSizes[slot] = kept;
+        } else {
+            Vehicle vehicle = vehicles[slot];
+            double load = loads[slot];
+            int loaded = cargoSizes[slot];
+            int loadedB = 0;
+            if (loader == null) {
+                loadedB = vehicle.getCargoPackages().loadFrom(middleDC.getPackages(), b);
+                if (loadedB < b) {
+                    ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, middleCity.getName(),
+                            "Not enough packages in middle city: " + middleCity.getName());
+                }
+            } else {
+                for (int i = 0; i < b; i++) {
+                    Package pkg = middleDC.getPackages().peek();
+                    if (pkg == null) {
+                        ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, middleCity.getName(),
+                                "Not enough packages in middle city: " + middleCity.getName());
+                        break;
+                    }
+                    if (!CapacityLoader.fits(load, pkg.getVolume(), vehicle.getVolume())) {
+                        ErrorChannel.report(ErrorCode.CAPACITY_EXCEEDED, middleCity.getName(),
+                                "Vehicle capacity exceeded in middle city: " + middleCity.getName());
+                        leftBehind[slot] += Math.min(b - i, middleDC.getPackages().size());
+                        break;
+                    }
+                    vehicle.getCargoPackages().addFirst(middleDC.getPackages().pop());
+                    load += pkg.getVolume();
+                    loadedB++;
+                }
+                loader.record(vehicle.getVolume(), load, loaded + loadedB, leftBehind[slot]);
+            }
+            PackageTracker tracker = PackageTracker.active();
+            if (tracker != null) {
+                tracker.loaded(vehicle.getCargoPackages(), loadedB, vehicle.getTrackingIndex());
+            }
+
+            cargoSize = vehicle.getCargoPackages().size();
+            int[] rejectedIndices = vehicle.getCargoPackages().dropOff(dropOffIndices, middleDC.getPackages());
+            for (int i = 0; i < rejectedIndices.length; i++) {
+                int index = rejectedIndices[i];
+                if (index < 0 || index >= cargoSize) {
+                    ErrorChannel.report(ErrorCode.BAD_INDEX, middleCity.getName(), "Invalid package index: " + index);
+                } else {
+                    ErrorChannel.report(ErrorCode.DUPLICATE_INDEX, middleCity.getName(),
+                            "Duplicate package index: " + index);
+                }
+            }
+            toMiddle = cargoSize - vehicle.getCargoPackages().size();
+            handled = loadedB + toMiddle;
+        }
+        PackageTracker tracker = PackageTracker.active();
+        if (tracker != null) {
+            tracker.placed(middleCity, toMiddle);
+        }
+        Metrics metrics = Metrics.active();
+        if (metrics != null) {
+            Metrics.Recorder recorder = metrics.recorder();
+            // The rest of the cargo is unloaded at the destination when the vehicle gets there.
+            recorder.recordMission(cities.get(mission.getSourceId()), middleCity, cities.get(mission.getDestId()),
+                    fromSource, cargoSize - fromSource, toMiddle, cargoSize - toMiddle);
+            if (recorder.sampling()) {
+                recorder.recordSample(cargoSize, dropOffIndices, middleDC.getPackages().size(), 0);
+            }
+        }
+        events.schedule(events.now() + handlingTime * handled, slot << TYPE_BITS | LEAVE_MIDDLE);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Handles an ARRIVE_DEST event: unloads the remaining packages.
+     * Precondition: slot holds a mission that has left its middle city.
+     * Postcondition: A READY event is pending after the handling time of the unloaded packages.
+     * --------------------------------------------------------
+     */
+    private void arriveDest(int slot) {
+        DistributionCenter destDC = cities.get(missions[slot].getDestId()).getDistributionCenter();
+        int unloaded = 0;
+        if (compact[slot]) {
+            IntStack destPackages = destDC.getPackageHandles().getHandles();
+            int[] slotCargo = cargo[slot];
+            unloaded = cargoSizes[slot];
+            for (int s = 0; s < unloaded; s++) {
+                destPackages.push(slotCargo[s]);
+            }
+        } else {
+            unloaded = vehicles[slot].getCargoPackages().unloadTo(destDC.getPackages());
+        }
+        PackageTracker tracker = PackageTracker.active();
+        if (tracker != null) {
+            tracker.placed(cities.get(missions[slot].getDestId()), unloaded);
+        }
+        events.schedule(events.now() + handlingTime * unloaded, slot << TYPE_BITS | READY);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Handles a READY event: the vehicle joins the destination and serves the line there.
+     * Precondition: slot holds a mission whose vehicle has been unloaded.
+     * Postcondition: The mission is complete and its slot is free; waiting missions at the
+     * destination have started while vehicles are available.
+     * --------------------------------------------------------
+     */
+    private void ready(int slot) {
+        int dest = missions[slot].getDestId();
+        DistributionCenter destDC = cities.get(dest).getDistributionCenter();
+        if (compact[slot]) {
+            destDC.getVehicleHandles().getHandles().enqueue(vehicleHandles[slot]);
+        } else {
+            destDC.getVehicles().enqueue(vehicles[slot]);
+        }
+        completed++;
+        lastReady = events.now();
+        Metrics metrics = Metrics.active();
+        if (metrics != null && completed % Metrics.SAMPLE_EVERY == 1) {
+            metrics.recorder().recordDepths(destDC.getPackages().size(), destDC.getVehicles().size());
+        }
+        free(slot);
+        while (waitingHead[dest] != NONE && !destDC.getVehicles().isEmpty()) {
+            int waiting = waitingHead[dest];
+            waitingHead[dest] = next[waiting];
+            if (waitingHead[dest] == NONE) {
+                waitingTail[dest] = NONE;
+            }
+            depart(waiting);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reports the missions that never got a vehicle, in file order.
+     * Precondition: The event list is empty.
+     * Postcondition: One "No vehicles available" message per waiting mission is printed.
+     * --------------------------------------------------------
+     */
+    private void reportWaiting() {
+        int count = 0;
+        long[] waiting = new long[16];
+        for (int c = 0; c < waitingHead.length; c++) {
+            for (int slot = waitingHead[c]; slot != NONE; slot = next[slot]) {
+                if (count == waiting.length) {
+                    waiting = Arrays.copyOf(waiting, count * 2);
+                }
+                waiting[count++] = missionNumbers[slot] << 32 | slot;
+            }
+        }
+        Arrays.sort(waiting, 0, count);
+        for (int i = 0; i < count; i++) {
+            String sourceName = cities.get(missions[(int) waiting[i]].getSourceId()).getName();
+            ErrorChannel.report(ErrorCode.NO_VEHICLE, sourceName,
+                    "No vehicles available in source city: " + sourceName);
+            Metrics.countSkipped();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the time of one leg of a mission.
+     * Precondition: slot holds a mission; with a router its route is known to exist.
+     * Postcondition: Returns the travel time, scaled by the road length with a router.
+     * --------------------------------------------------------
+     */
+    private double legTime(int slot, boolean first) {
+        if (router == null) {
+            return travelTime;
+        }
+        Mission mission = missions[slot];
+        return travelTime * (first ? router.distance(mission.getSourceId(), mission.getMiddleId())
+                : router.distance(mission.getMiddleId(), mission.getDestId()));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the vehicle of a mission in flight as the package tracker knows it.
+     * Precondition: slot holds a departed mission.
+     * Postcondition: Returns the vehicle handle on a compact storage, its tracking index on another.
+     * --------------------------------------------------------
+     */
+    private int trackedVehicle(int slot) {
+        return compact[slot] ? vehicleHandles[slot] : vehicles[slot].getTrackingIndex();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the cargo array of a slot with room for the given number of handles.
+     * Precondition: slot is allocated; capacity is not negative.
+     * Postcondition: Returns an array of at least capacity entries that starts with the cargo
+     * the slot already held.
+     * --------------------------------------------------------
+     */
+    private int[] cargoFor(int slot, int capacity) {
+        int[] slotCargo = cargo[slot];
+        if (slotCargo == null) {
+            slotCargo = new int[Math.max(capacity, 8)];
+            cargo[slot] = slotCargo;
+        } else if (slotCargo.length < capacity) {
+            slotCargo = Arrays.copyOf(slotCargo, Math.max(capacity, slotCargo.length * 2));
+            cargo[slot] = slotCargo;
+        }
+        return slotCargo;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Makes room for the given number of drop-off marks and starts a new drop-off.
+     * Precondition: capacity is not negative.
+     * Postcondition: marks holds at least capacity entries; none is marked with stamp.
+     * --------------------------------------------------------
+     */
+    private void beginMarks(int capacity) {
+        if (capacity > marks.length) {
+            marks = new int[Math.max(capacity, marks.length * 2)];
+            stamp = 0;
+        }
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(marks, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Takes a slot from the free list, growing the slot arrays if none is free.
+     * Precondition: None.
+     * Postcondition: Returns a slot that holds no mission.
+     * --------------------------------------------------------
+     */
+    private int allocate() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = next[slot];
+            return slot;
+        }
+        if (slotCount == missions.length) {
+            int capacity = slotCount * 2;
+            missions = Arrays.copyOf(missions, capacity);
+            missionNumbers = Arrays.copyOf(missionNumbers, capacity);
+            releaseTimes = Arrays.copyOf(releaseTimes, capacity);
+            compact = Arrays.copyOf(compact, capacity);
+            vehicles = Arrays.copyOf(vehicles, capacity);
+            vehicleHandles = Arrays.copyOf(vehicleHandles, capacity);
+            cargo = Arrays.copyOf(cargo, capacity);
+            cargoSizes = Arrays.copyOf(cargoSizes, capacity);
+            capacities = Arrays.copyOf(capacities, capacity);
+            loads = Arrays.copyOf(loads, capacity);
+            leftBehind = Arrays.copyOf(leftBehind, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a slot to the free list.
+     * Precondition: slot is allocated.
+     * Postcondition: The slot holds no mission and will be reused.
+     * --------------------------------------------------------
+     */
+    private void free(int slot) {
+        missions[slot] = null;
+        vehicles[slot] = null;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of events handled so far.
+     * Precondition: None.
+     * Postcondition: Returns the count of scheduled events, all of which have run once run() returns.
+     * --------------------------------------------------------
+     */
+    public long getEventCount() {
+        return events.scheduledCount();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints a one-line summary of the simulation.
+     * Precondition: out is not null.
+     * Postcondition: The completed, never served and rejected missions, the time the last vehicle
+     * was ready, the average wait of the completed missions and the number of events are printed.
+     * --------------------------------------------------------
+     */
+    public void printSummary(PrintStream out) {
+        out.println(String.format(Locale.ROOT,
+                "Simulation: %d missions completed, %d never got a vehicle, %d without a route, "
+                        + "finished at time %.2f, average wait %.2f, %d events",
+                completed, released - rejected - completed, rejected, lastReady,
+                completed == 0 ? 0.0 : totalWait / completed, events.scheduledCount()));
+    }
+}
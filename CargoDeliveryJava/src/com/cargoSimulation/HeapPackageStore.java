@@ -0,0 +1,151 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Heap implementation of a PackageStore, as struct-of-arrays.
+ * A package is an int handle. Its ID lives in a StringPool and its city is a
+ * small index into a table of distinct city names, so a package costs about
+ * eight bytes plus its ID characters and no object header. The volume column
+ * is only allocated once a package with a volume is added. Adding is
+ * synchronized so the parallel loader can fill one store from several threads.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class HeapPackageStore implements PackageStore {
+    private final StringPool ids = new StringPool();
+    private int[] cities = new int[64];
+    private double[] volumes;
+    private int size;
+
+    private final HashMap<String, Integer> cityIndex = new HashMap<>();
+    private String[] cityNames = new String[16];
+    private int cityCount;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a package and returns its handle.
+     * Precondition: id and city are not null; volume is not negative.
+     * Postcondition: The package is stored under the returned handle.
+     * --------------------------------------------------------
+     */
+    @Override
+    public synchronized int add(String id, String city, double volume) {
+        if (size == cities.length) {
+            int[] grown = new int[size * 2];
+            System.arraycopy(cities, 0, grown, 0, size);
+            cities = grown;
+            if (volumes != null) {
+                double[] grownVolumes = new double[size * 2];
+                System.arraycopy(volumes, 0, grownVolumes, 0, size);
+                volumes = grownVolumes;
+            }
+        }
+        if (volume != 0 && volumes == null) {
+            volumes = new double[cities.length];
+        }
+        ids.add(id);
+        cities[size] = cityIndexOf(city);
+        if (volumes != null) {
+            volumes[size] = volume;
+        }
+        return size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of a package.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the package ID.
+     * --------------------------------------------------------
+     */
+    @Override
+    public String getId(int handle) {
+        return ids.get(handle);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the city name of a package.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the shared city name String.
+     * --------------------------------------------------------
+     */
+    @Override
+    public String getCity(int handle) {
+        return cityNames[cities[handle]];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of a package.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the package volume, 0 if none was given.
+     * --------------------------------------------------------
+     */
+    @Override
+    public double getVolume(int handle) {
+        double[] current = volumes;
+        return current == null ? 0 : current[handle];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds a Package object with the values of a handle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns a new Package; the store is not changed.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Package toPackage(int handle) {
+        return new Package(getId(handle), getCity(handle), getVolume(handle));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the ID of a package without building a String.
+     * Precondition: handle was returned by add; out is open.
+     * Postcondition: The ID bytes are written.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void writeId(int handle, ResultWriter out) throws IOException {
+        ids.writeTo(handle, out);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of stored packages.
+     * Precondition: None.
+     * Postcondition: Returns the number of handles handed out.
+     * --------------------------------------------------------
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the index of a city name, adding it if it is new.
+     * Precondition: city is not null; the caller holds the lock.
+     * Postcondition: Returns the index of the name in cityNames.
+     * --------------------------------------------------------
+     */
+    private int cityIndexOf(String city) {
+        Integer index = cityIndex.get(city);
+        if (index != null) {
+            return index;
+        }
+        if (cityCount == cityNames.length) {
+            String[] grown = new String[cityCount * 2];
+            System.arraycopy(cityNames, 0, grown, 0, cityCount);
+            cityNames = grown;
+        }
+        cityNames[cityCount] = city;
+        cityIndex.put(city, cityCount);
+        return cityCount++;
+    }
+}
@@ -0,0 +1,97 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Heap implementation of a VehicleStore, as struct-of-arrays.
+ * A vehicle is an int handle. Its ID lives in a StringPool and its volume in a
+ * double array. Adding is synchronized so the parallel loader can fill one
+ * store from several threads.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class HeapVehicleStore implements VehicleStore {
+    private final StringPool ids = new StringPool();
+    private double[] volumes = new double[64];
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a vehicle and returns its handle.
+     * Precondition: id is not null.
+     * Postcondition: The vehicle is stored under the returned handle.
+     * --------------------------------------------------------
+     */
+    @Override
+    public synchronized int add(String id, double volume) {
+        if (size == volumes.length) {
+            double[] grown = new double[size * 2];
+            System.arraycopy(volumes, 0, grown, 0, size);
+            volumes = grown;
+        }
+        ids.add(id);
+        volumes[size] = volume;
+        return size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of a vehicle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the vehicle ID.
+     * --------------------------------------------------------
+     */
+    @Override
+    public String getId(int handle) {
+        return ids.get(handle);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of a vehicle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the vehicle volume.
+     * --------------------------------------------------------
+     */
+    @Override
+    public double getVolume(int handle) {
+        return volumes[handle];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds a Vehicle object with the values of a handle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns a new Vehicle with empty cargo; the store is not changed.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Vehicle toVehicle(int handle) {
+        return new Vehicle(getId(handle), getVolume(handle));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the ID of a vehicle without building a String.
+     * Precondition: handle was returned by add; out is open.
+     * Postcondition: The ID bytes are written.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void writeId(int handle, ResultWriter out) throws IOException {
+        ids.writeTo(handle, out);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of stored vehicles.
+     * Precondition: None.
+     * Postcondition: Returns the number of handles handed out.
+     * --------------------------------------------------------
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+}
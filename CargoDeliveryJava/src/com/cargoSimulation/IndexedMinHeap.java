@@ -0,0 +1,138 @@
+package com.cargoSimulation;
+
+import java.util.Arrays;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Binary min-heap of int items with double keys and decrease-key.
+ * Items are ints in [0, capacity). The heap remembers where each item sits,
+ * so lowering the key of a queued item moves it in place instead of adding a
+ * second entry. Clearing only touches the items still queued, so a heap can be
+ * reused for many searches over a large graph.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class IndexedMinHeap {
+    private final int[] items;
+    private final double[] keys;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty heap for items in [0, capacity).
+     * Precondition: capacity is not negative.
+     * Postcondition: An empty heap is created.
+     * --------------------------------------------------------
+     */
+    public IndexedMinHeap(int capacity) {
+        items = new int[capacity];
+        keys = new double[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds an item, or lowers its key if it is already queued.
+     * Precondition: item lies in [0, capacity).
+     * Postcondition: The item is queued with the smaller of its old and the given key.
+     * --------------------------------------------------------
+     */
+    public void offer(int item, double key) {
+        int i = positions[item];
+        if (i < 0) {
+            i = size++;
+        } else if (key >= keys[i]) {
+            return;
+        }
+        // Sift up from slot i.
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            items[i] = items[parent];
+            keys[i] = keys[parent];
+            positions[items[i]] = i;
+            i = parent;
+        }
+        items[i] = item;
+        keys[i] = key;
+        positions[item] = i;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the item with the smallest key.
+     * Precondition: The heap is not empty.
+     * Postcondition: The item is removed and returned.
+     * --------------------------------------------------------
+     */
+    public int poll() {
+        int top = items[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            int item = items[size];
+            double key = keys[size];
+            // Sift down from the root.
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                items[i] = items[child];
+                keys[i] = keys[child];
+                positions[items[i]] = i;
+                i = child;
+            }
+            items[i] = item;
+            keys[i] = key;
+            positions[item] = i;
+        }
+        return top;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the smallest key without removing its item.
+     * Precondition: The heap is not empty.
+     * Postcondition: Returns the key at the top of the heap.
+     * --------------------------------------------------------
+     */
+    public double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the heap is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if no item is queued.
+     * --------------------------------------------------------
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes every queued item.
+     * Precondition: None.
+     * Postcondition: The heap is empty.
+     * --------------------------------------------------------
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[items[i]] = -1;
+        }
+        size = 0;
+    }
+}
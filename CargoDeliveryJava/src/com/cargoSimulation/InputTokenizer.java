@@ -0,0 +1,521 @@
+package com.cargoSimulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Streaming, line-oriented tokenizer over a FileChannel.
+ * The file is read in large chunks into one reusable byte buffer. Each line is
+ * trimmed like String.trim() and then consumed token by token, up to a delimiter
+ * byte. IDs, integers and doubles are parsed straight from the bytes, and city
+ * names are resolved against a CityRegistry without building a String, so only
+ * the keys a caller asks for as Strings are allocated.
+ * Lines end at "\n", "\r" or "\r\n", as with BufferedReader.readLine().
+ *
+ * A tokenizer can also read standard input, or follow a file that another
+ * process is still appending to. A followed file has no end: at the end of
+ * the bytes written so far nextLine() returns false and keeps an unfinished
+ * last line, and the next call reads on from there.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class InputTokenizer implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final ReadableByteChannel channel;
+    // The channel as a FileChannel, read at explicit positions; null for standard input.
+    private final FileChannel file;
+    private long position;
+    private final long endPosition;
+    private byte[] buffer;
+    private int limit;
+    private int next;
+    private boolean eof;
+    private boolean skipLineFeed;
+    private boolean follow;
+
+    // First byte of the current line before trimming, which is column 1.
+    private int lineBegin;
+    private int lineStart;
+    private int lineEnd;
+    private int pos;
+    private int lineNumber;
+    private int tokenStart;
+    private int tokenEnd;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Opens a tokenizer over the given file.
+     * Precondition: filename is a valid, readable file path.
+     * Postcondition: Returns a tokenizer positioned before the first line.
+     * --------------------------------------------------------
+     */
+    public static InputTokenizer open(String filename) throws IOException {
+        return new InputTokenizer(FileChannel.open(Paths.get(filename), StandardOpenOption.READ), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Opens a tokenizer that follows a file as it grows.
+     * Precondition: filename is a valid, readable file path.
+     * Postcondition: Returns a tokenizer positioned before the first line; only complete lines are returned.
+     * --------------------------------------------------------
+     */
+    public static InputTokenizer follow(String filename) throws IOException {
+        InputTokenizer in = open(filename);
+        in.follow = true;
+        return in;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Opens a tokenizer over standard input.
+     * Precondition: None.
+     * Postcondition: Returns a tokenizer positioned before the first line of standard input.
+     * --------------------------------------------------------
+     */
+    public static InputTokenizer stdin() {
+        return new InputTokenizer(Channels.newChannel(System.in), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Opens a tokenizer over the byte range [start, end) of the given file.
+     * Precondition: filename is a valid, readable file path; start and end lie on line boundaries.
+     * Postcondition: Returns a tokenizer positioned before the first line of the range.
+     * --------------------------------------------------------
+     */
+    public static InputTokenizer open(String filename, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        int bufferSize = (int) Math.max(1, Math.min(DEFAULT_BUFFER_SIZE, end - start));
+        return new InputTokenizer(channel, start, end, bufferSize);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a tokenizer over an open channel.
+     * Precondition: channel is open for reading; bufferSize is positive.
+     * Postcondition: The tokenizer is positioned before the first line.
+     * --------------------------------------------------------
+     */
+    public InputTokenizer(FileChannel channel, int bufferSize) {
+        this(channel, 0L, Long.MAX_VALUE, bufferSize);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a tokenizer over a channel that is read in order, such as standard input.
+     * Precondition: channel is open for reading; bufferSize is positive.
+     * Postcondition: The tokenizer is positioned before the first line.
+     * --------------------------------------------------------
+     */
+    public InputTokenizer(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.file = null;
+        this.position = 0;
+        this.endPosition = Long.MAX_VALUE;
+        this.buffer = new byte[bufferSize];
+        this.limit = 0;
+        this.next = 0;
+        this.eof = false;
+        this.lineNumber = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a tokenizer over the byte range [start, end) of an open channel.
+     * Precondition: channel is open for reading; bufferSize is positive; start <= end.
+     * Postcondition: The tokenizer is positioned before the first line of the range.
+     * --------------------------------------------------------
+     */
+    public InputTokenizer(FileChannel channel, long start, long end, int bufferSize) {
+        this.channel = channel;
+        this.file = channel;
+        this.position = start;
+        this.endPosition = end;
+        this.buffer = new byte[bufferSize];
+        this.limit = 0;
+        this.next = 0;
+        this.eof = false;
+        this.lineNumber = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Advances to the next line and trims surrounding whitespace.
+     * Precondition: None.
+     * Postcondition: Returns false at end of file, or when a followed file has no complete line yet;
+     * otherwise the trimmed line is ready to tokenize.
+     * --------------------------------------------------------
+     */
+    public boolean nextLine() throws IOException {
+        // Bytes after next that are already known to hold no line terminator.
+        int scanned = 0;
+        int terminator = -1;
+        while (true) {
+            if (skipLineFeed && next < limit) {
+                if (buffer[next] == '\n') {
+                    next++;
+                }
+                skipLineFeed = false;
+            }
+            if (!skipLineFeed) {
+                for (int i = next + scanned; i < limit; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n' || b == '\r') {
+                        terminator = i;
+                        break;
+                    }
+                }
+                if (terminator >= 0) {
+                    break;
+                }
+                scanned = limit - next;
+            }
+            if (eof) {
+                break;
+            }
+            fill();
+        }
+
+        int start = next;
+        int end;
+        if (terminator >= 0) {
+            end = terminator;
+            next = terminator + 1;
+            skipLineFeed = buffer[terminator] == '\r';
+        } else if (next < limit && !follow) {
+            end = limit;
+            next = limit;
+        } else {
+            // A followed file may grow: keep any unfinished line and read again on the next call.
+            eof = !follow;
+            return false;
+        }
+        lineNumber++;
+        lineBegin = start;
+
+        while (start < end && (buffer[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        lineStart = start;
+        lineEnd = end;
+        pos = start;
+        tokenStart = start;
+        tokenEnd = start;
+        return true;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves unread bytes to the front of the buffer and reads more from the channel.
+     * Precondition: The current line is not complete in the buffer.
+     * Postcondition: next is 0; the buffer grows if a single line fills it; eof is set at end of file.
+     * --------------------------------------------------------
+     */
+    private void fill() throws IOException {
+        int remaining = limit - next;
+        if (next > 0) {
+            System.arraycopy(buffer, next, buffer, 0, remaining);
+            next = 0;
+            limit = remaining;
+        }
+        if (limit == buffer.length) {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+        }
+        int room = (int) Math.min(buffer.length - limit, endPosition - position);
+        int read;
+        if (room == 0) {
+            read = -1;
+        } else if (file != null) {
+            read = file.read(ByteBuffer.wrap(buffer, limit, room), position);
+        } else {
+            read = channel.read(ByteBuffer.wrap(buffer, limit, room));
+        }
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+            position += read;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the 1-based number of the current line.
+     * Precondition: nextLine() returned true.
+     * Postcondition: Returns the line number.
+     * --------------------------------------------------------
+     */
+    public int lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the column at which the most recently read token starts, for error messages.
+     * Columns count characters from 1 at the start of the untrimmed line.
+     * Precondition: nextLine() returned true.
+     * Postcondition: Returns the 1-based column.
+     * --------------------------------------------------------
+     */
+    public int column() {
+        return columnAt(tokenStart);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the column of the n-th occurrence of a byte in the unread part of the current line.
+     * Precondition: nextLine() returned true; n is positive.
+     * Postcondition: Returns the 1-based column, or the column just past the end of the line
+     * if the byte occurs fewer than n times; the position is not changed.
+     * --------------------------------------------------------
+     */
+    public int columnOf(byte delimiter, int n) {
+        int i = pos;
+        while (i < lineEnd && (buffer[i] != delimiter || --n > 0)) {
+            i++;
+        }
+        return columnAt(i);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Converts a buffer index on the current line to a column.
+     * UTF-8 continuation bytes do not start a character, so they are not counted.
+     * Precondition: index lies between the start and the end of the current line.
+     * Postcondition: Returns the 1-based column.
+     * --------------------------------------------------------
+     */
+    private int columnAt(int index) {
+        int column = 1;
+        for (int i = lineBegin; i < index; i++) {
+            if ((buffer[i] & 0xC0) != 0x80) {
+                column++;
+            }
+        }
+        return column;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the trimmed current line is empty.
+     * Precondition: nextLine() returned true.
+     * Postcondition: Returns true if the line holds no characters after trimming.
+     * --------------------------------------------------------
+     */
+    public boolean isLineEmpty() {
+        return lineStart == lineEnd;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if unread characters remain on the current line.
+     * Precondition: nextLine() returned true.
+     * Postcondition: Returns true if another token can be read.
+     * --------------------------------------------------------
+     */
+    public boolean hasMoreTokens() {
+        return pos < lineEnd;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Counts the occurrences of a byte in the unread part of the current line.
+     * Precondition: nextLine() returned true.
+     * Postcondition: Returns the count; the position is not changed.
+     * --------------------------------------------------------
+     */
+    public int countInLine(byte delimiter) {
+        int count = 0;
+        for (int i = pos; i < lineEnd; i++) {
+            if (buffer[i] == delimiter) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Marks the next token, which ends at the delimiter or at the end of the line.
+     * Precondition: nextLine() returned true.
+     * Postcondition: tokenStart/tokenEnd bound the token; the delimiter is consumed.
+     * --------------------------------------------------------
+     */
+    private void advanceToken(byte delimiter) {
+        int i = pos;
+        while (i < lineEnd && buffer[i] != delimiter) {
+            i++;
+        }
+        tokenStart = pos;
+        tokenEnd = i;
+        pos = i < lineEnd ? i + 1 : lineEnd;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the next token as a String.
+     * Precondition: nextLine() returned true.
+     * Postcondition: Returns the token (possibly empty) decoded as UTF-8.
+     * --------------------------------------------------------
+     */
+    public String nextString(byte delimiter) {
+        advanceToken(delimiter);
+        return lastToken();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the rest of the current line as a String.
+     * Precondition: nextLine() returned true.
+     * Postcondition: Returns the unread, trimmed remainder of the line.
+     * --------------------------------------------------------
+     */
+    public String restOfLine() {
+        tokenStart = pos;
+        tokenEnd = lineEnd;
+        pos = lineEnd;
+        return lastToken();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the most recently read token as a String, for error messages.
+     * Precondition: A token has been read on the current line.
+     * Postcondition: Returns the token decoded as UTF-8.
+     * --------------------------------------------------------
+     */
+    public String lastToken() {
+        return new String(buffer, tokenStart, tokenEnd - tokenStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the next token as a city name and resolves it without allocating.
+     * Precondition: nextLine() returned true; cities is not null.
+     * Postcondition: Returns the city ID, or -1 if no city has that name.
+     * --------------------------------------------------------
+     */
+    public int nextCityId(byte delimiter, CityRegistry cities) {
+        advanceToken(delimiter);
+        return cities.idOf(buffer, tokenStart, tokenEnd - tokenStart);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the next token as a decimal int.
+     * Precondition: nextLine() returned true.
+     * Postcondition: Returns the value; throws NumberFormatException if the token is not
+     * an optionally signed decimal int, as Integer.parseInt would.
+     * --------------------------------------------------------
+     */
+    public int nextInt(byte delimiter) {
+        advanceToken(delimiter);
+        int i = tokenStart;
+        boolean negative = false;
+        if (i < tokenEnd && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        if (i == tokenEnd) {
+            throw new NumberFormatException("For input string: \"" + lastToken() + "\"");
+        }
+        long value = 0;
+        for (; i < tokenEnd; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + lastToken() + "\"");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("For input string: \"" + lastToken() + "\"");
+            }
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + lastToken() + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the next token as a double.
+     * Plain decimals such as "7.1" with at most 15 significant digits are converted
+     * exactly from the bytes; any other form falls back to Double.parseDouble.
+     * Precondition: nextLine() returned true.
+     * Postcondition: Returns the value; throws NumberFormatException as Double.parseDouble would.
+     * --------------------------------------------------------
+     */
+    public double nextDouble(byte delimiter) {
+        advanceToken(delimiter);
+        int i = tokenStart;
+        boolean negative = false;
+        if (i < tokenEnd && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        boolean fastPath = true;
+        for (; i < tokenEnd && fastPath; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || b != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                fastPath = false;
+            }
+        }
+        // Both the mantissa (< 10^15 < 2^53) and 10^fractionDigits (<= 10^22) are exact doubles,
+        // so one division gives the correctly rounded result.
+        if (fastPath && seenDigit && digits <= 15 && fractionDigits <= 22) {
+            double value = fractionDigits == 0 ? (double) mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(lastToken());
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Closes the underlying channel.
+     * Precondition: None.
+     * Postcondition: The file or stream is closed.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
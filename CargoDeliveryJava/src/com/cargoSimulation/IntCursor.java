@@ -0,0 +1,29 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Read-only, forward-only view over the values of an int container.
+ * The int counterpart of Cursor, so handles can be read without boxing. The
+ * container must not be modified while a cursor over it is in use.
+ * --------------------------------------------------------
+ */
+public interface IntCursor {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if another value can be read.
+     * Precondition: None.
+     * Postcondition: Returns true if next() will return a value.
+     * --------------------------------------------------------
+     */
+    boolean hasNext();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the next value and advances the cursor.
+     * Precondition: hasNext() returned true.
+     * Postcondition: Returns the value; the container is not changed.
+     * --------------------------------------------------------
+     */
+    int next();
+}
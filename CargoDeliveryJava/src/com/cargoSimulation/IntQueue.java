@@ -0,0 +1,66 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: First-in-first-out queue of non-negative int values, such as handles.
+ * Implemented on the heap by ArrayIntQueue and off the heap by OffHeapIntQueue.
+ * --------------------------------------------------------
+ */
+public interface IntQueue {
+    // Returned by dequeue and peek when the queue is empty.
+    int NONE = -1;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Inserts a value at the tail of the queue.
+     * Precondition: value is not negative.
+     * Postcondition: The value is added to the end of the queue.
+     * --------------------------------------------------------
+     */
+    void enqueue(int value);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the value at the head of the queue.
+     * Precondition: None.
+     * Postcondition: The head value is removed and returned, or NONE is returned if the queue is empty.
+     * --------------------------------------------------------
+     */
+    int dequeue();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the value at the head of the queue without removing it.
+     * Precondition: None.
+     * Postcondition: The head value is returned, or NONE if the queue is empty.
+     * --------------------------------------------------------
+     */
+    int peek();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the queue is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the queue is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    boolean isEmpty();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of values in the queue.
+     * Precondition: None.
+     * Postcondition: Returns the size of the queue.
+     * --------------------------------------------------------
+     */
+    int size();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the values of this queue without removing them.
+     * Precondition: The queue is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the head to the tail.
+     * --------------------------------------------------------
+     */
+    IntCursor cursor();
+}
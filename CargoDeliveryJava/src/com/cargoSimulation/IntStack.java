@@ -0,0 +1,66 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Last-in-first-out stack of non-negative int values, such as handles.
+ * Implemented on the heap by ArrayIntStack and off the heap by OffHeapIntStack.
+ * --------------------------------------------------------
+ */
+public interface IntStack {
+    // Returned by pop and peek when the stack is empty.
+    int NONE = -1;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes a value onto the top of this stack.
+     * Precondition: value is not negative.
+     * Postcondition: The value is added to the top of the stack.
+     * --------------------------------------------------------
+     */
+    void push(int value);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the value at the top of this stack.
+     * Precondition: None.
+     * Postcondition: The top value is removed and returned, or NONE is returned if the stack is empty.
+     * --------------------------------------------------------
+     */
+    int pop();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the value at the top of this stack without removing it.
+     * Precondition: None.
+     * Postcondition: The top value is returned, or NONE if the stack is empty.
+     * --------------------------------------------------------
+     */
+    int peek();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the stack is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the stack is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    boolean isEmpty();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of values in the stack.
+     * Precondition: None.
+     * Postcondition: Returns the size of the stack.
+     * --------------------------------------------------------
+     */
+    int size();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the values of this stack without removing them.
+     * Precondition: The stack is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the top to the bottom.
+     * --------------------------------------------------------
+     */
+    IntCursor cursor();
+}
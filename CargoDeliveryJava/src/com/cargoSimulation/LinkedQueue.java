@@ -0,0 +1,107 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Linked implementation of a first-in-first-out (FIFO) queue of objects.
+ * Uses a doubly linked list as the underlying data structure.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class LinkedQueue<T> implements MyQueue<T> {
+    private DoublyLinkedList<T> list;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty queue.
+     * Precondition: None.
+     * Postcondition: An empty queue is created.
+     * --------------------------------------------------------
+     */
+    public LinkedQueue() {
+        list = new DoublyLinkedList<>();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Inserts the specified item into the queue.
+     * Precondition: item is not null.
+     * Postcondition: The item is added to the end of the queue.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void enqueue(T item) {
+        list.addLast(item);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Retrieves and removes the head of this queue.
+     * Precondition: The queue is not empty.
+     * Postcondition: The head item is removed from the queue and returned.
+     * --------------------------------------------------------
+     */
+    @Override
+    public T dequeue() {
+        return list.removeFirst();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Retrieves, but does not remove, the head of this queue.
+     * Precondition: The queue is not empty.
+     * Postcondition: The head item is returned without modifying the queue.
+     * --------------------------------------------------------
+     */
+    @Override
+    public T peek() {
+        return list.get(0);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the queue is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the queue is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return list.isEmpty();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of items in the queue.
+     * Precondition: None.
+     * Postcondition: Returns the size of the queue.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns an array containing all of the elements in this queue.
+     * Precondition: None.
+     * Postcondition: Returns an array of queue elements.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Object[] toArray() {
+        return list.toArray();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the elements of this queue without removing them.
+     * Precondition: The queue is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the head to the tail.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Cursor<T> cursor() {
+        return list.cursor();
+    }
+}
@@ -0,0 +1,138 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Linked implementation of a last-in-first-out (LIFO) stack of objects.
+ * Uses a doubly linked list as the underlying data structure.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class LinkedStack<T> implements MyStack<T> {
+    private DoublyLinkedList<T> list;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty stack.
+     * Precondition: None.
+     * Postcondition: An empty stack is created.
+     * --------------------------------------------------------
+     */
+    public LinkedStack() {
+        list = new DoublyLinkedList<>();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes an item onto the top of this stack.
+     * Precondition: item is not null.
+     * Postcondition: The item is added to the top of the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void push(T item) {
+        list.addFirst(item);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the item at the top of this stack.
+     * Precondition: The stack is not empty.
+     * Postcondition: The top item is removed from the stack and returned.
+     * --------------------------------------------------------
+     */
+    @Override
+    public T pop() {
+        return list.removeFirst();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the top n items of this stack into an array, bottom first.
+     * Each item is popped on its own; a linked stack gains nothing from a run.
+     * Precondition: 0 <= n <= size(); into has room for n items from offset.
+     * Postcondition: The top n items are removed and stored in into[offset .. offset + n).
+     * --------------------------------------------------------
+     */
+    @Override
+    public void popN(int n, Object[] into, int offset) {
+        for (int i = n - 1; i >= 0; i--) {
+            into[offset + i] = list.removeFirst();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes a run of items onto this stack, items[offset] first.
+     * Each item is pushed on its own and gets its own node, as with push().
+     * Precondition: count >= 0; items[offset .. offset + count) are not null.
+     * Postcondition: items[offset + count - 1] is the new top; items is not modified.
+     * --------------------------------------------------------
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void pushAll(Object[] items, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            list.addFirst((T) items[offset + i]);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the item at the top of this stack without removing it.
+     * Precondition: The stack is not empty.
+     * Postcondition: The top item is returned without modifying the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public T peek() {
+        return list.get(0);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the stack is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the stack is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return list.isEmpty();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of items in the stack.
+     * Precondition: None.
+     * Postcondition: Returns the size of the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns an array containing all of the elements in this stack.
+     * Precondition: None.
+     * Postcondition: Returns an array of stack elements.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Object[] toArray() {
+        return list.toArray();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the elements of this stack without removing them.
+     * Precondition: The stack is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the top to the bottom.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Cursor<T> cursor() {
+        return list.cursor();
+    }
+}
@@ -0,0 +1,30 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Receives the records parsed from an input file.
+ * Main pushes them straight into the cities' distribution centers;
+ * ParallelLoader buffers them per chunk so chunks can be parsed concurrently
+ * and applied in file order afterwards.
+ * --------------------------------------------------------
+ */
+interface LoadSink<T> {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Accepts one parsed record bound for the given city.
+     * Precondition: cityId is a valid ID in the city registry; item is not null.
+     * Postcondition: The record is stored or applied.
+     * --------------------------------------------------------
+     */
+    void accept(int cityId, T item);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reports a line that could not be loaded, as ErrorChannel.report takes it.
+     * Precondition: code and message are not null; city is the city the line names, or null.
+     * Postcondition: The problem is reported or kept for reporting.
+     * --------------------------------------------------------
+     */
+    void error(ErrorCode code, String city, String message);
+}
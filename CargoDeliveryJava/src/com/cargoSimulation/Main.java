@@ -1,297 +1,821 @@
 package com.cargoSimulation;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * --------------------------------------------------------
  * Summary: Main class for the cargo simulation program.
- * Reads input files, processes missions, and writes the results to an output file.
- * Does not use iterators.
+ * Reads input files, processes missions, and writes the results to an output file
+ * with ResultWriter, which reads the stacks and queues through Cursor instead of
+ * iterators.
  * --------------------------------------------------------
  */
 public class Main {
+    private static final byte SPACE = ' ';
+
     public static void main(String[] args) {
-        if (args.length != 5) {
-            System.out.println("Usage: java com.cargoSimulation.Main cities.txt packages.txt vehicles.txt missions.txt result.txt");
+        // null until --storage= is given: linked, or persistent with --monte-carlo.
+        DistributionCenter.Storage storage = null;
+        // 0 until --threads= is given: a run then loads and executes missions on one thread, so its error
+        // messages come in file order, while --batch and --monte-carlo use every processor.
+        int threads = 0;
+        String checkpointFile = null;
+        String resumeFile = null;
+        String metricsFile = null;
+        String errorsFile = null;
+        int errorSamples = ErrorChannel.DEFAULT_SAMPLES;
+        String offHeapDirectory = null;
+        CapacityLoader loader = null;
+        String roadsFile = null;
+        String planFile = null;
+        String compiledFile = null;
+        String batchFile = null;
+        int monteCarlo = 0;
+        int swaps = MonteCarlo.SHUFFLE;
+        long seed = 1;
+        int trackHistory = 0;
+        String[] locate = null;
+        boolean simulate = false;
+        double travelTime = EventSimulator.DEFAULT_TRAVEL_TIME;
+        double handlingTime = EventSimulator.DEFAULT_HANDLING_TIME;
+        double missionInterval = 0;
+        boolean stream = false;
+        boolean follow = false;
+        String deltasFile = null;
+        int deltaEvery = MissionStream.DEFAULT_DELTA_EVERY;
+        int checkpointEvery = MissionStream.DEFAULT_CHECKPOINT_EVERY;
+        String[] files = new String[5];
+        int fileCount = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                if (fileCount == files.length) {
+                    printUsage();
+                    return;
+                }
+                files[fileCount++] = args[i];
+            } else if (args[i].equals("--storage=linked")) {
+                storage = DistributionCenter.Storage.LINKED;
+            } else if (args[i].equals("--storage=array")) {
+                storage = DistributionCenter.Storage.ARRAY;
+            } else if (args[i].equals("--storage=compact")) {
+                storage = DistributionCenter.Storage.COMPACT;
+            } else if (args[i].equals("--storage=offheap")) {
+                storage = DistributionCenter.Storage.OFFHEAP;
+            } else if (args[i].equals("--storage=persistent")) {
+                storage = DistributionCenter.Storage.PERSISTENT;
+            } else if (args[i].startsWith("--offheap-dir=")) {
+                offHeapDirectory = args[i].substring("--offheap-dir=".length());
+            } else if (args[i].equals("--capacity")) {
+                loader = new CapacityLoader();
+            } else if (args[i].startsWith("--roads=")) {
+                roadsFile = args[i].substring("--roads=".length());
+            } else if (args[i].equals("--simulate")) {
+                simulate = true;
+            } else if (args[i].startsWith("--travel-time=")) {
+                travelTime = Double.parseDouble(args[i].substring("--travel-time=".length()));
+            } else if (args[i].startsWith("--handling-time=")) {
+                handlingTime = Double.parseDouble(args[i].substring("--handling-time=".length()));
+            } else if (args[i].startsWith("--mission-interval=")) {
+                missionInterval = Double.parseDouble(args[i].substring("--mission-interval=".length()));
+            } else if (args[i].startsWith("--plan=")) {
+                planFile = args[i].substring("--plan=".length());
+            } else if (args[i].startsWith("--batch=")) {
+                batchFile = args[i].substring("--batch=".length());
+            } else if (args[i].startsWith("--monte-carlo=")) {
+                monteCarlo = Math.max(1, Integer.parseInt(args[i].substring("--monte-carlo=".length())));
+            } else if (args[i].equals("--perturb=shuffle")) {
+                swaps = MonteCarlo.SHUFFLE;
+            } else if (args[i].startsWith("--perturb=swaps:")) {
+                swaps = Math.max(0, Integer.parseInt(args[i].substring("--perturb=swaps:".length())));
+            } else if (args[i].startsWith("--seed=")) {
+                seed = Long.parseLong(args[i].substring("--seed=".length()));
+            } else if (args[i].equals("--track")) {
+                trackHistory = PackageTracker.DEFAULT_HISTORY;
+            } else if (args[i].startsWith("--track=")) {
+                trackHistory = Math.max(1, Integer.parseInt(args[i].substring("--track=".length())));
+            } else if (args[i].startsWith("--locate=")) {
+                locate = args[i].substring("--locate=".length()).split(",");
+            } else if (args[i].startsWith("--compiled=")) {
+                compiledFile = args[i].substring("--compiled=".length());
+            } else if (args[i].startsWith("--threads=")) {
+                threads = Math.max(1, Integer.parseInt(args[i].substring("--threads=".length())));
+            } else if (args[i].equals("--stream")) {
+                stream = true;
+            } else if (args[i].equals("--follow")) {
+                stream = true;
+                follow = true;
+            } else if (args[i].startsWith("--deltas=")) {
+                deltasFile = args[i].substring("--deltas=".length());
+            } else if (args[i].startsWith("--delta-every=")) {
+                deltaEvery = Math.max(1, Integer.parseInt(args[i].substring("--delta-every=".length())));
+            } else if (args[i].startsWith("--checkpoint-every=")) {
+                checkpointEvery = Math.max(1, Integer.parseInt(args[i].substring("--checkpoint-every=".length())));
+            } else if (args[i].startsWith("--checkpoint=")) {
+                checkpointFile = args[i].substring("--checkpoint=".length());
+            } else if (args[i].startsWith("--resume=")) {
+                resumeFile = args[i].substring("--resume=".length());
+            } else if (args[i].startsWith("--metrics=")) {
+                metricsFile = args[i].substring("--metrics=".length());
+            } else if (args[i].startsWith("--errors=")) {
+                errorsFile = args[i].substring("--errors=".length());
+            } else if (args[i].startsWith("--error-samples=")) {
+                errorSamples = Math.max(0, Integer.parseInt(args[i].substring("--error-samples=".length())));
+            } else {
+                System.out.println("Unknown option: " + args[i]);
+                printUsage();
+                return;
+            }
+        }
+        // The variants of --monte-carlo run on forks of the loaded world, which only persistent storage can make.
+        if (monteCarlo > 0 && storage != null && storage != DistributionCenter.Storage.PERSISTENT) {
+            System.out.println("--monte-carlo needs --storage=persistent, which is its default");
+            printUsage();
+            return;
+        }
+        if (storage == null) {
+            storage = monteCarlo > 0 ? DistributionCenter.Storage.PERSISTENT : DistributionCenter.Storage.LINKED;
+        }
+        if (batchFile != null) {
+            boolean single = simulate || stream || roadsFile != null || planFile != null || compiledFile != null
+                    || checkpointFile != null || resumeFile != null || metricsFile != null || errorsFile != null
+                    || deltasFile != null || monteCarlo > 0 || trackHistory > 0 || locate != null;
+            if (fileCount != 0 || single) {
+                System.out.println("--batch takes no files and only --storage, --offheap-dir, --capacity, "
+                        + "--threads and --error-samples");
+                printUsage();
+                return;
+            }
+            try {
+                new BatchRunner(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), storage,
+                        offHeapDirectory, loader != null, errorSamples)
+                        .run(batchFile, System.out);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        // A resumed run takes its cities, packages and vehicles from the snapshot.
+        if (fileCount != (resumeFile == null ? 5 : 2)) {
+            printUsage();
+            return;
+        }
+        String missionsFile = files[fileCount - 2];
+        String resultFile = files[fileCount - 1];
+        // Missions from standard input arrive one at a time, as with a followed file.
+        boolean stdin = missionsFile.equals("-");
+        stream |= stdin;
+        follow &= !stdin;
+        if (stream && (simulate || planFile != null)) {
+            System.out.println("--stream, --follow and missions from standard input "
+                    + "cannot be used with --simulate or --plan");
+            printUsage();
+            return;
+        }
+        if (compiledFile != null && (stream || simulate)) {
+            System.out.println("--compiled cannot be used with --stream, --follow, --simulate "
+                    + "or missions from standard input");
+            printUsage();
             return;
         }
 
-        String citiesFile = args[0];
-        String packagesFile = args[1];
-        String vehiclesFile = args[2];
-        String missionsFile = args[3];
-        String resultFile = args[4];
+        if (monteCarlo > 0 && (stream || simulate || planFile != null || metricsFile != null || trackHistory > 0
+                || locate != null)) {
+            System.out.println("--monte-carlo cannot be used with --stream, --follow, --simulate, --plan, --metrics, "
+                    + "--track, --locate or missions from standard input");
+            printUsage();
+            return;
+        }
 
-        ArrayList<City> cities = new ArrayList<>();
+        Metrics metrics = metricsFile == null ? null : Metrics.enable();
+        if (locate != null && trackHistory == 0) {
+            trackHistory = PackageTracker.DEFAULT_HISTORY;
+        }
+        PackageTracker tracker = trackHistory == 0 ? null : PackageTracker.enable(trackHistory);
+        CityRegistry cities = new CityRegistry();
+        CountDownLatch finished = new CountDownLatch(1);
         try {
-            readCities(citiesFile, cities);
-            readPackages(packagesFile, cities);
-            readVehicles(vehiclesFile, cities);
-            processMissions(missionsFile, cities);
+            ErrorChannel errors = errorsFile == null ? ErrorChannel.console()
+                    : ErrorChannel.open(errorsFile, errorSamples);
+            CityFactory factory = new CityFactory(storage, offHeapDirectory);
+            long start = System.nanoTime();
+            if (resumeFile != null) {
+                cities = Snapshot.load(resumeFile, factory);
+            } else if (threads > 1) {
+                new ParallelLoader(threads).load(files[0], files[1], files[2], cities, factory);
+            } else {
+                readCities(files[0], cities, factory);
+                readPackages(files[1], cities);
+                readVehicles(files[2], cities);
+            }
+            Metrics.time(Metrics.Phase.LOAD, start);
+            if (metrics != null) {
+                metrics.trackCities(cities);
+            }
+            if (tracker != null) {
+                tracker.track(cities);
+            }
+            Router router = null;
+            if (roadsFile != null) {
+                start = System.nanoTime();
+                router = new Router(RoadGraph.read(roadsFile, cities));
+                Metrics.time(Metrics.Phase.ROUTE, start);
+            }
+            start = System.nanoTime();
+            EventSimulator simulator = null;
+            MissionStream missionStream = null;
+            MissionProgram program = null;
+            MonteCarlo variants = null;
+            if (simulate) {
+                simulator = new EventSimulator(cities, loader, router, travelTime, handlingTime, missionInterval);
+                simulator.run(missionsFile);
+            } else if (stream) {
+                missionStream = new MissionStream(cities, loader, errors, deltasFile, deltaEvery,
+                        checkpointFile, checkpointEvery);
+                if (follow) {
+                    stopOnShutdown(missionStream, finished);
+                }
+                missionStream.run(stdin ? InputTokenizer.stdin()
+                        : follow ? InputTokenizer.follow(missionsFile) : InputTokenizer.open(missionsFile), follow);
+            } else if (monteCarlo > 0) {
+                program = compileMissions(missionsFile, cities, compiledFile);
+                variants = new MonteCarlo(monteCarlo, swaps, seed,
+                        threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), loader != null);
+                cities = variants.run(new WorldState(cities), program, loader).toRegistry();
+            } else {
+                program = compileMissions(missionsFile, cities, compiledFile);
+                if (threads > 1) {
+                    new MissionScheduler(threads, loader).run(program, cities);
+                } else {
+                    program.run(cities, loader);
+                }
+            }
+            Metrics.time(Metrics.Phase.MISSIONS, start);
+            if (missionStream != null) {
+                missionStream.finish();
+            }
+            Planner planner = null;
+            if (planFile != null) {
+                start = System.nanoTime();
+                planner = new Planner(cities, loader);
+                planner.plan(planFile);
+                Metrics.time(Metrics.Phase.PLAN, start);
+            }
+            // The simulator has routed the missions as it released them; standard input cannot be read again.
+            if (router != null && simulator == null && !stdin) {
+                start = System.nanoTime();
+                if (program != null) {
+                    router.routeMissions(program, cities);
+                } else {
+                    router.routeMissions(missionsFile, cities);
+                }
+                Metrics.time(Metrics.Phase.ROUTE, start);
+            }
+            // Every error of the run is on standard error before the summaries go to standard output.
+            errors.flush();
+            if (planner != null) {
+                planner.printSummary(System.out);
+            }
+            if (loader != null) {
+                loader.printSummary(System.out);
+            }
+            if (simulator != null) {
+                simulator.printSummary(System.out);
+            }
+            if (router != null) {
+                router.printSummary(System.out);
+            }
+            if (missionStream != null) {
+                missionStream.printSummary(System.out);
+            }
+            if (variants != null) {
+                variants.printSummary(System.out);
+            }
+            if (tracker != null) {
+                tracker.printSummary(System.out);
+                if (locate != null) {
+                    tracker.printLocations(locate, System.out);
+                }
+            }
+            // A stream has kept the checkpoint up to date as it ran.
+            if (checkpointFile != null && missionStream == null) {
+                start = System.nanoTime();
+                Snapshot.save(checkpointFile, cities);
+                Metrics.time(Metrics.Phase.CHECKPOINT, start);
+            }
+            start = System.nanoTime();
             writeResults(resultFile, cities);
+            Metrics.time(Metrics.Phase.WRITE, start);
+            errors.close();
+            errors.printSummary(System.out);
+            if (metrics != null) {
+                metrics.write(metricsFile);
+            }
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            ErrorChannel.closeActive();
+            finished.countDown();
         }
     }
 
     /**
      * --------------------------------------------------------
-     * Summary: Reads city names from the file and adds them to the cities list.
+     * Summary: Stops a followed stream when the program is asked to exit, for example by Ctrl-C.
+     * Precondition: stream and finished are not null; finished is counted down when main is done.
+     * Postcondition: On exit the stream is stopped and the exit waits until the results are written.
+     * --------------------------------------------------------
+     */
+    private static void stopOnShutdown(MissionStream stream, CountDownLatch finished) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stream.stop();
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "stream-stop"));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints the command line usage of the program.
+     * Precondition: None.
+     * Postcondition: Usage text is written to standard output.
+     * --------------------------------------------------------
+     */
+    private static void printUsage() {
+        System.out.println("Usage: java com.cargoSimulation.Main cities.txt packages.txt vehicles.txt missions.txt result.txt [options]");
+        System.out.println("       java com.cargoSimulation.Main --resume=state.snap missions.txt result.txt [options]");
+        System.out.println("       java com.cargoSimulation.Main --batch=scenarios.txt [options]");
+        System.out.println("       missions.txt may be - to read missions from standard input as they arrive (implies --stream)");
+        System.out.println("Options:");
+        System.out.println("  --storage=linked|array|compact|offheap|persistent  data structures behind each distribution center (default: linked, or persistent with --monte-carlo)");
+        System.out.println("  --offheap-dir=DIR                       map offheap storage from temporary files in DIR instead of direct memory");
+        System.out.println("  --capacity                              enforce vehicle volumes and pick the best fitting vehicle");
+        System.out.println("  --roads=FILE                            route every mission over the \"CityA CityB Length\" roads in FILE");
+        System.out.println("  --simulate                              run the missions over time; missions wait for a vehicle at their source");
+        System.out.println("  --travel-time=T                         time of a leg, or of a unit of road length with --roads (default: 1)");
+        System.out.println("  --handling-time=T                       time to load or unload one package (default: 0.1)");
+        System.out.println("  --mission-interval=T                    time between the releases of two missions (default: 0)");
+        System.out.println("  --plan=FILE                             after the missions, plan and run missions that bring packages home; write them to FILE");
+        System.out.println("  --batch=FILE                            run every scenario listed in FILE (a directory, or cities packages vehicles missions result files per line) on --threads threads, errors to RESULT.errors");
+        System.out.println("  --monte-carlo=N                         also run the missions in N random orders on forks of the loaded world and print the spread of the outcomes");
+        System.out.println("  --perturb=shuffle|swaps:K               order of a --monte-carlo variant: all missions shuffled (default), or K random pairs swapped");
+        System.out.println("  --seed=S                                seed of the --monte-carlo orders (default: 1)");
+        System.out.println("  --track[=N]                             keep an index of where every package is and its last N places (default: 2)");
+        System.out.println("  --locate=ID[,ID...]                     after the missions, print where these packages are and were (implies --track)");
+        System.out.println("  --compiled=FILE                         load the missions from a compiled FILE, or compile them and save FILE for the next run");
+        System.out.println("  --threads=N                             threads used to load input and execute missions; error messages may then come in any order (default: 1, or available processors with --batch and --monte-carlo)");
+        System.out.println("  --checkpoint=FILE                       save a binary snapshot of the state after the missions have run");
+        System.out.println("  --stream                                run missions as they are read, writing --deltas and periodic --checkpoint files");
+        System.out.println("  --follow                                like --stream, but keep waiting for lines appended to the missions file until interrupted");
+        System.out.println("  --deltas=FILE                           with --stream, append the cities each batch of missions changed to FILE");
+        System.out.println("  --delta-every=N                         missions between two deltas (default: 1000)");
+        System.out.println("  --checkpoint-every=N                    with --stream, missions between two --checkpoint snapshots (default: 100000)");
+        System.out.println("  --resume=FILE                           start from a binary snapshot instead of the city, package and vehicle files");
+        System.out.println("  --metrics=FILE                          write counters, timers and histograms of the run to FILE (JSON if FILE ends in .json, else Prometheus text)");
+        System.out.println("  --errors=FILE                           count errors per code and city and write samples and totals to FILE instead of standard error");
+        System.out.println("  --error-samples=N                       errors of each code written to the --errors file (default: 100)");
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads city names from the file and adds them to the city registry.
      * Precondition: filename is a valid file path; cities is not null.
-     * Postcondition: cities list is populated with City objects.
+     * Postcondition: cities registry is populated with City objects in file order.
+     * --------------------------------------------------------
+     */
+    public static void readCities(String filename, CityRegistry cities) throws IOException {
+        readCities(filename, cities, DistributionCenter.Storage.LINKED);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads city names from the file and adds cities with the given storage to the city registry.
+     * Precondition: filename is a valid file path; cities and storage are not null.
+     * Postcondition: cities registry is populated with City objects in file order.
+     * --------------------------------------------------------
+     */
+    public static void readCities(String filename, CityRegistry cities, DistributionCenter.Storage storage) throws IOException {
+        readCities(filename, cities, new CityFactory(storage));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads city names from the file and adds cities created by the factory to the city registry.
+     * Precondition: filename is a valid file path; cities and factory are not null.
+     * Postcondition: cities registry is populated with City objects in file order.
      * --------------------------------------------------------
      */
-    public static void readCities(String filename, ArrayList<City> cities) throws IOException {
-        BufferedReader br = new BufferedReader(new FileReader(filename));
-        String line;
-        while ((line = br.readLine()) != null) {
-            String cityName = line.trim();
-            if (!cityName.isEmpty()) {
-                cities.add(new City(cityName));
+    public static void readCities(String filename, CityRegistry cities, CityFactory factory) throws IOException {
+        long start = System.nanoTime();
+        InputTokenizer in = InputTokenizer.open(filename);
+        while (in.nextLine()) {
+            if (!in.isLineEmpty()) {
+                cities.add(factory.create(in.restOfLine()));
             }
         }
-        br.close();
+        in.close();
+        Metrics.time(Metrics.Phase.PARSE_CITIES, start);
     }
 
     /**
      * --------------------------------------------------------
-     * Summary: Finds a city in the list by its name.
-     * Precondition: cities list is populated; cityName is not null.
+     * Summary: Finds a city in the registry by its name.
+     * Precondition: cities registry is populated; cityName is not null.
      * Postcondition: Returns the City object with the matching name or null if not found.
      * --------------------------------------------------------
      */
-    public static City findCityByName(ArrayList<City> cities, String cityName) {
-        for (int i = 0; i < cities.size(); i++) {
-            City city = cities.get(i);
-            if (city.getName().equals(cityName)) {
-                return city;
-            }
-        }
-        return null;
+    public static City findCityByName(CityRegistry cities, String cityName) {
+        return cities.findByName(cityName);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reports a line of an input file that names a city not in the registry.
+     * Precondition: cityName is not null.
+     * Postcondition: A CITY_NOT_FOUND error is reported.
+     * --------------------------------------------------------
+     */
+    static void reportCityNotFound(String cityName) {
+        ErrorChannel.report(ErrorCode.CITY_NOT_FOUND, cityName, "City not found: " + cityName);
     }
 
     /**
      * --------------------------------------------------------
      * Summary: Reads packages from the file and adds them to the respective city's distribution center.
-     * Precondition: filename is a valid file path; cities list is populated.
+     * Precondition: filename is a valid file path; cities registry is populated.
      * Postcondition: Packages are added to the corresponding city's package stack.
      * --------------------------------------------------------
      */
-    public static void readPackages(String filename, ArrayList<City> cities) throws IOException {
-        BufferedReader br = new BufferedReader(new FileReader(filename));
-        String line;
-        while ((line = br.readLine()) != null) {
-            String[] parts = line.trim().split(" ");
-            if (parts.length == 2) {
-                String packageId = parts[0];
-                String cityName = parts[1];
-
-                Package pkg = new Package(packageId, cityName);
-                City city = findCityByName(cities, cityName);
-                if (city != null) {
-                    city.getDistributionCenter().getPackages().push(pkg);
+    public static void readPackages(String filename, CityRegistry cities) throws IOException {
+        InputTokenizer in = InputTokenizer.open(filename);
+        parsePackages(in, cities, new LoadSink<Package>() {
+            @Override
+            public void accept(int cityId, Package pkg) {
+                cities.get(cityId).getDistributionCenter().getPackages().push(pkg);
+            }
+
+            @Override
+            public void error(ErrorCode code, String city, String message) {
+                ErrorChannel.report(code, city, message);
+            }
+        });
+        in.close();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Parses "ID City" or "ID City Volume" package lines and hands each package to the sink.
+     * Lines of another shape are skipped. A line whose volume is not a number is
+     * skipped and reported as INVALID_LINE.
+     * Precondition: in is positioned before a line; cities registry is populated.
+     * Postcondition: Every valid line of the input reaches the sink in file order.
+     * --------------------------------------------------------
+     */
+    static void parsePackages(InputTokenizer in, CityRegistry cities, LoadSink<Package> sink) throws IOException {
+        long start = System.nanoTime();
+        while (in.nextLine()) {
+            // Package format: ID City [Volume]
+            int spaces = in.countInLine(SPACE);
+            if (spaces == 1 || spaces == 2) {
+                String packageId = in.nextString(SPACE);
+                int cityId = in.nextCityId(SPACE, cities);
+                String cityName = cityId < 0 ? in.lastToken() : null;
+                double volume = 0;
+                if (spaces == 2) {
+                    try {
+                        volume = in.nextDouble(SPACE);
+                    } catch (NumberFormatException e) {
+                        sink.error(ErrorCode.INVALID_LINE, null, invalidVolume("package", packageId, in));
+                        continue;
+                    }
+                }
+                if (cityId >= 0) {
+                    sink.accept(cityId, new Package(packageId, cities.get(cityId).getName(), volume));
                 } else {
-                    System.err.println("City not found: " + cityName);
+                    sink.error(ErrorCode.CITY_NOT_FOUND, cityName, "City not found: " + cityName);
                 }
             }
         }
-        br.close();
+        Metrics.time(Metrics.Phase.PARSE_PACKAGES, start);
     }
 
     /**
      * --------------------------------------------------------
      * Summary: Reads vehicles from the file and adds them to the respective city's distribution center.
-     * Precondition: filename is a valid file path; cities list is populated.
+     * Precondition: filename is a valid file path; cities registry is populated.
      * Postcondition: Vehicles are added to the corresponding city's vehicle queue.
      * --------------------------------------------------------
      */
-    public static void readVehicles(String filename, ArrayList<City> cities) throws IOException {
-        BufferedReader br = new BufferedReader(new FileReader(filename));
-        String line;
-        while ((line = br.readLine()) != null) {
-            String[] parts = line.trim().split(" ");
-            if (parts.length == 3) {
-                String vehicleId = parts[0];
-                String cityName = parts[1];
-                double volume = Double.parseDouble(parts[2]);
+    public static void readVehicles(String filename, CityRegistry cities) throws IOException {
+        InputTokenizer in = InputTokenizer.open(filename);
+        parseVehicles(in, cities, new LoadSink<Vehicle>() {
+            @Override
+            public void accept(int cityId, Vehicle vehicle) {
+                cities.get(cityId).getDistributionCenter().getVehicles().enqueue(vehicle);
+            }
+
+            @Override
+            public void error(ErrorCode code, String city, String message) {
+                ErrorChannel.report(code, city, message);
+            }
+        });
+        in.close();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Parses "ID City Volume" vehicle lines and hands each vehicle to the sink.
+     * Lines of another shape are skipped. A line whose volume is not a number is
+     * skipped and reported as INVALID_LINE.
+     * Precondition: in is positioned before a line; cities registry is populated.
+     * Postcondition: Every valid line of the input reaches the sink in file order.
+     * --------------------------------------------------------
+     */
+    static void parseVehicles(InputTokenizer in, CityRegistry cities, LoadSink<Vehicle> sink) throws IOException {
+        long start = System.nanoTime();
+        while (in.nextLine()) {
+            // Vehicle format: ID City Volume
+            if (in.countInLine(SPACE) == 2) {
+                String vehicleId = in.nextString(SPACE);
+                int cityId = in.nextCityId(SPACE, cities);
+                String cityName = cityId < 0 ? in.lastToken() : null;
+                double volume;
+                try {
+                    volume = in.nextDouble(SPACE);
+                } catch (NumberFormatException e) {
+                    sink.error(ErrorCode.INVALID_LINE, null, invalidVolume("vehicle", vehicleId, in));
+                    continue;
+                }
 
                 Vehicle vehicle = new Vehicle(vehicleId, volume);
-                City city = findCityByName(cities, cityName);
-                if (city != null) {
-                    city.getDistributionCenter().getVehicles().enqueue(vehicle);
+                if (cityId >= 0) {
+                    sink.accept(cityId, vehicle);
                 } else {
-                    System.err.println("City not found: " + cityName);
+                    sink.error(ErrorCode.CITY_NOT_FOUND, cityName, "City not found: " + cityName);
                 }
             }
         }
-        br.close();
+        Metrics.time(Metrics.Phase.PARSE_VEHICLES, start);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the message for a package or vehicle line whose volume is not a number.
+     * Precondition: in has just failed to read the volume token.
+     * Postcondition: Returns a message naming the item and the token.
+     * --------------------------------------------------------
+     */
+    private static String invalidVolume(String kind, String id, InputTokenizer in) {
+        return "Invalid volume for " + kind + " " + id + ": " + in.lastToken();
     }
 
     /**
      * --------------------------------------------------------
      * Summary: Processes the missions from the file.
-     * Precondition: filename is a valid file path; cities list is populated.
+     * The whole file is compiled first; lines that do not have the six
+     * dash-separated fields of the mission format are reported and skipped.
+     * Precondition: filename is a valid file path; cities registry is populated.
      * Postcondition: Missions are executed, affecting the state of cities, vehicles, and packages.
      * --------------------------------------------------------
      */
-    public static void processMissions(String filename, ArrayList<City> cities) throws IOException {
-        BufferedReader br = new BufferedReader(new FileReader(filename));
-        String line;
-        while ((line = br.readLine()) != null) {
-            // Mission format: SourceCity-MiddleCity-DestCity-A-B-C1,C2,...
-            String[] parts = line.trim().split("-");
-            if (parts.length == 4) {
-                String sourceCityName = parts[0];
-                String middleCityName = parts[1];
-                String destCityName = parts[2];
-
-                String[] cargoInfo = parts[3].split("-");
-                if (cargoInfo.length == 3) {
-                    int a = Integer.parseInt(cargoInfo[0]);
-                    int b = Integer.parseInt(cargoInfo[1]);
-                    String[] dropOffIndices = cargoInfo[2].split(",");
-
-                    executeMission(cities, sourceCityName, middleCityName, destCityName, a, b, dropOffIndices);
-                }
-            }
-        }
-        br.close();
+    public static void processMissions(String filename, CityRegistry cities) throws IOException {
+        processMissions(filename, cities, null);
     }
 
     /**
      * --------------------------------------------------------
-     * Summary: Sorts an array of integers in descending order using bubble sort.
-     * Precondition: indices array is not null.
-     * Postcondition: indices array is sorted in descending order.
+     * Summary: Processes the missions from the file, with vehicle capacity enforced if a loader is given.
+     * Precondition: filename is a valid file path; cities registry is populated; loader may be null.
+     * Postcondition: Missions are executed, affecting the state of cities, vehicles, and packages.
      * --------------------------------------------------------
      */
-    public static void sortIndicesDescending(int[] indices) {
-        int n = indices.length;
-        for (int i = 0; i < n - 1; i++) {
-            for (int j = 0; j < n - i - 1; j++) {
-                if (indices[j] < indices[j + 1]) {
-                    int temp = indices[j];
-                    indices[j] = indices[j + 1];
-                    indices[j + 1] = temp;
-                }
-            }
-        }
+    public static void processMissions(String filename, CityRegistry cities, CapacityLoader loader) throws IOException {
+        compileMissions(filename, cities, null).run(cities, loader);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Compiles the missions file, or loads it from a compiled cache file, and reports its invalid lines.
+     * Precondition: filename is a valid file path; cities registry is populated; cacheFile may be null.
+     * Postcondition: Returns the program; every invalid line has been reported, in file order.
+     * --------------------------------------------------------
+     */
+    static MissionProgram compileMissions(String filename, CityRegistry cities, String cacheFile) throws IOException {
+        long start = System.nanoTime();
+        MissionProgram program = cacheFile == null ? MissionProgram.compile(filename, cities)
+                : MissionProgram.compile(filename, cities, cacheFile);
+        Metrics.time(Metrics.Phase.PARSE_MISSIONS, start);
+        program.report();
+        return program;
     }
 
     /**
      * --------------------------------------------------------
      * Summary: Executes a single mission based on the provided parameters.
-     * Precondition: cities list is populated; city names are valid; dropOffIndices are valid integers.
+     * Precondition: cities registry is populated; city names are valid; dropOffIndices are valid integers.
      * Postcondition: The mission is executed, affecting the state of involved cities, vehicles, and packages.
      * --------------------------------------------------------
      */
-    public static void executeMission(ArrayList<City> cities, String sourceCityName, String middleCityName,
+    public static void executeMission(CityRegistry cities, String sourceCityName, String middleCityName,
                                       String destCityName, int a, int b, String[] dropOffIndices) {
         City sourceCity = findCityByName(cities, sourceCityName);
         City middleCity = findCityByName(cities, middleCityName);
         City destCity = findCityByName(cities, destCityName);
 
         if (sourceCity == null || middleCity == null || destCity == null) {
-            System.err.println("One or more cities not found in mission.");
+            String missing = sourceCity == null ? sourceCityName : middleCity == null ? middleCityName : destCityName;
+            ErrorChannel.report(ErrorCode.CITY_NOT_FOUND, missing, "One or more cities not found in mission.");
+            Metrics.countSkipped();
             return;
         }
 
+        int[] indices = new int[dropOffIndices.length];
+        for (int i = 0; i < dropOffIndices.length; i++) {
+            indices[i] = Integer.parseInt(dropOffIndices[i]);
+        }
+        executeMission(sourceCity, middleCity, destCity, a, b, indices);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes a parsed mission.
+     * Precondition: cities registry is populated; mission refers to cities in it.
+     * Postcondition: The mission is executed, affecting the state of involved cities, vehicles, and packages.
+     * --------------------------------------------------------
+     */
+    public static void executeMission(CityRegistry cities, Mission mission) {
+        executeMission(cities, mission, null);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes a parsed mission, with vehicle capacity enforced if a loader is given.
+     * Precondition: cities registry is populated; mission refers to cities in it.
+     * Postcondition: The mission is executed, affecting the state of involved cities, vehicles, and packages.
+     * --------------------------------------------------------
+     */
+    public static void executeMission(CityRegistry cities, Mission mission, CapacityLoader loader) {
+        executeMission(cities.get(mission.getSourceId()), cities.get(mission.getMiddleId()),
+                cities.get(mission.getDestId()), mission.getA(), mission.getB(), mission.getDropOffIndices(), loader);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes a single mission between resolved cities.
+     * Precondition: cities are not null; dropOffIndices is not null.
+     * Postcondition: The mission is executed, affecting the state of involved cities, vehicles, and packages.
+     * --------------------------------------------------------
+     */
+    public static void executeMission(City sourceCity, City middleCity, City destCity,
+                                      int a, int b, int[] dropOffIndices) {
+        executeMission(sourceCity, middleCity, destCity, a, b, dropOffIndices, null);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes a single mission between resolved cities.
+     * With a loader the best fitting vehicle is taken and loading stops at the
+     * first package that does not fit; without one the head vehicle is taken
+     * and packages are loaded whatever their volume.
+     * Precondition: cities are not null; dropOffIndices is not null; loader may be null.
+     * Postcondition: The mission is executed, affecting the state of involved cities, vehicles, and packages.
+     * --------------------------------------------------------
+     */
+    public static void executeMission(City sourceCity, City middleCity, City destCity,
+                                      int a, int b, int[] dropOffIndices, CapacityLoader loader) {
         DistributionCenter sourceDC = sourceCity.getDistributionCenter();
         DistributionCenter middleDC = middleCity.getDistributionCenter();
         DistributionCenter destDC = destCity.getDistributionCenter();
+        if (CompactMission.supports(sourceDC, middleDC, destDC)) {
+            CompactMission.execute(sourceCity, middleCity, destCity, a, b, dropOffIndices, loader);
+            return;
+        }
 
         // 1. Get a vehicle from the source city
-        Vehicle vehicle = sourceDC.getVehicles().dequeue();
+        Vehicle vehicle = loader == null ? sourceDC.getVehicles().dequeue()
+                : loader.takeVehicle(sourceDC.getVehicles(),
+                        CapacityLoader.demand(sourceDC.getPackages(), a, middleDC.getPackages(), b));
         if (vehicle == null) {
-            System.err.println("No vehicles available in source city: " + sourceCityName);
+            ErrorChannel.report(ErrorCode.NO_VEHICLE, sourceCity.getName(),
+                    "No vehicles available in source city: " + sourceCity.getName());
+            Metrics.countSkipped();
             return;
         }
 
         // 2. Load 'a' packages from the source city onto the vehicle
-        for (int i = 0; i < a; i++) {
-            Package pkg = sourceDC.getPackages().pop();
-            if (pkg != null) {
-                vehicle.getCargoPackages().addFirst(pkg);
-            } else {
-                System.err.println("Not enough packages in source city: " + sourceCityName);
-                break;
+        double load = 0;
+        int loaded = 0;
+        int leftBehind = 0;
+        if (loader == null) {
+            // Nothing stops the loading early, so the packages move as one run.
+            loaded = vehicle.getCargoPackages().loadFrom(sourceDC.getPackages(), a);
+            if (loaded < a) {
+                ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, sourceCity.getName(),
+                        "Not enough packages in source city: " + sourceCity.getName());
+            }
+        } else {
+            for (int i = 0; i < a; i++) {
+                Package pkg = sourceDC.getPackages().peek();
+                if (pkg == null) {
+                    ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, sourceCity.getName(),
+                            "Not enough packages in source city: " + sourceCity.getName());
+                    break;
+                }
+                if (!CapacityLoader.fits(load, pkg.getVolume(), vehicle.getVolume())) {
+                    ErrorChannel.report(ErrorCode.CAPACITY_EXCEEDED, sourceCity.getName(),
+                            "Vehicle capacity exceeded in source city: " + sourceCity.getName());
+                    leftBehind += Math.min(a - i, sourceDC.getPackages().size());
+                    break;
+                }
+                vehicle.getCargoPackages().addFirst(sourceDC.getPackages().pop());
+                load += pkg.getVolume();
+                loaded++;
             }
         }
+        int fromSource = loaded;
 
         // 3. Load 'b' packages from the middle city onto the vehicle
-        for (int i = 0; i < b; i++) {
-            Package pkg = middleDC.getPackages().pop();
-            if (pkg != null) {
-                vehicle.getCargoPackages().addFirst(pkg);
-            } else {
-                System.err.println("Not enough packages in middle city: " + middleCityName);
-                break;
+        if (loader == null) {
+            int fromMiddle = vehicle.getCargoPackages().loadFrom(middleDC.getPackages(), b);
+            if (fromMiddle < b) {
+                ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, middleCity.getName(),
+                        "Not enough packages in middle city: " + middleCity.getName());
             }
+            loaded += fromMiddle;
+        } else {
+            for (int i = 0; i < b; i++) {
+                Package pkg = middleDC.getPackages().peek();
+                if (pkg == null) {
+                    ErrorChannel.report(ErrorCode.STACK_UNDERFLOW, middleCity.getName(),
+                            "Not enough packages in middle city: " + middleCity.getName());
+                    break;
+                }
+                if (!CapacityLoader.fits(load, pkg.getVolume(), vehicle.getVolume())) {
+                    ErrorChannel.report(ErrorCode.CAPACITY_EXCEEDED, middleCity.getName(),
+                            "Vehicle capacity exceeded in middle city: " + middleCity.getName());
+                    leftBehind += Math.min(b - i, middleDC.getPackages().size());
+                    break;
+                }
+                vehicle.getCargoPackages().addFirst(middleDC.getPackages().pop());
+                load += pkg.getVolume();
+                loaded++;
+            }
+            loader.record(vehicle.getVolume(), load, loaded, leftBehind);
         }
 
         // 4. Drop off specified packages at the middle city
-        int[] indices = new int[dropOffIndices.length];
-        for (int i = 0; i < dropOffIndices.length; i++) {
-            indices[i] = Integer.parseInt(dropOffIndices[i]);
-        }
-        sortIndicesDescending(indices);
-
-        for (int i = 0; i < indices.length; i++) {
-            int index = indices[i];
-            Package pkg = vehicle.getCargoPackages().removeAt(index);
-            if (pkg != null) {
-                middleDC.getPackages().push(pkg);
+        int cargoSize = vehicle.getCargoPackages().size();
+        int[] rejected = vehicle.getCargoPackages().dropOff(dropOffIndices, middleDC.getPackages());
+        for (int i = 0; i < rejected.length; i++) {
+            int index = rejected[i];
+            if (index < 0 || index >= cargoSize) {
+                ErrorChannel.report(ErrorCode.BAD_INDEX, middleCity.getName(), "Invalid package index: " + index);
             } else {
-                System.err.println("Invalid package index: " + index);
+                ErrorChannel.report(ErrorCode.DUPLICATE_INDEX, middleCity.getName(),
+                        "Duplicate package index: " + index);
             }
         }
+        int toDest = vehicle.getCargoPackages().size();
 
         // 5. Continue to the destination and drop off remaining packages
-        while (!vehicle.getCargoPackages().isEmpty()) {
-            Package pkg = vehicle.getCargoPackages().pop();
-            if (pkg != null) {
-                destDC.getPackages().push(pkg);
-            }
-        }
+        vehicle.getCargoPackages().unloadTo(destDC.getPackages());
 
         // 6. Return vehicle to destination city
         destDC.getVehicles().enqueue(vehicle);
+
+        PackageTracker tracker = PackageTracker.active();
+        if (tracker != null) {
+            tracker.recordMission(middleCity, cargoSize - toDest, destCity, toDest);
+        }
+        Metrics metrics = Metrics.active();
+        if (metrics != null) {
+            Metrics.Recorder recorder = metrics.recorder();
+            recorder.recordMission(sourceCity, middleCity, destCity,
+                    fromSource, loaded - fromSource, cargoSize - toDest, toDest);
+            if (recorder.sampling()) {
+                recorder.recordSample(cargoSize, dropOffIndices,
+                        Math.max(middleDC.getPackages().size(), destDC.getPackages().size()),
+                        destDC.getVehicles().size());
+            }
+        }
     }
 
     /**
      * --------------------------------------------------------
      * Summary: Writes the simulation results to the specified output file.
-     * Precondition: filename is a valid file path; cities list is populated.
-     * Postcondition: Results are written to the output file.
+     * Precondition: filename is a valid file path; cities registry is populated.
+     * Postcondition: Results are written to the output file; the cities are left unchanged.
      * --------------------------------------------------------
      */
-    public static void writeResults(String filename, ArrayList<City> cities) throws IOException {
-        BufferedWriter bw = new BufferedWriter(new FileWriter(filename));
-        for (City city : cities) {
-            DistributionCenter dc = city.getDistributionCenter();
-            bw.write(city.getName() + ":\n");
-
-            // Write vehicles in the city's distribution center
-            bw.write("  Vehicles: ");
-            Vehicle vehicle = dc.getVehicles().peek();
-            while (vehicle != null) {
-                bw.write(vehicle.getId() + " ");
-                dc.getVehicles().dequeue();
-                vehicle = dc.getVehicles().peek();
-            }
-            bw.write("\n");
-
-            // Write packages in the city's distribution center
-            bw.write("  Packages: ");
-            Package pkg = dc.getPackages().peek();
-            while (pkg != null) {
-                bw.write(pkg.getId() + " ");
-                dc.getPackages().pop();
-                pkg = dc.getPackages().peek();
-            }
-            bw.write("\n");
+    public static void writeResults(String filename, CityRegistry cities) throws IOException {
+        ResultWriter out = ResultWriter.open(filename);
+        try {
+            out.writeCities(cities);
+        } finally {
+            out.close();
         }
-        bw.close();
     }
 }
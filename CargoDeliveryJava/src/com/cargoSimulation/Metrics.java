@@ -0,0 +1,657 @@
+package com.cargoSimulation;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Counters, timers and histograms of a run, written to a file at the end.
+ * Metrics are off until enable() is called. The mission code reads active()
+ * once per mission and records nothing when it is null, so a run without
+ * metrics pays one null check per mission.
+ *
+ * Phase timers are LongAdders, so the threads of a ParallelLoader or
+ * MissionScheduler update them without locks. What is counted for every
+ * mission or reported problem goes to a Recorder of the thread instead: even
+ * without contention a LongAdder update is a compare-and-swap, and on a dirty
+ * input most missions report a problem, so a few of them per mission cost
+ * more than the 2% of a run the metrics may take. The recorders are plain
+ * fields and are added up when the metrics are written, after the mission
+ * threads have finished. The packages moved per city are plain counts on the
+ * City, which a mission has in cache anyway: a MissionScheduler runs missions
+ * that share a city one after the other, so they need no more locking than
+ * the distribution center.
+ *
+ * The counts are exact. The cargo and drop-off histograms and the depth
+ * high-water marks come from one mission in SAMPLE_EVERY per thread, so a
+ * mission that is not sampled pays for a few increments only; a peak depth
+ * between two samples can be missed.
+ *
+ * Histograms have HdrHistogram-style log-linear buckets: values below 16 are
+ * exact, and above that each power of two is split into 8 buckets, so a value
+ * is known to within 12.5%. Timers add up nanoseconds per phase of the run;
+ * the parse timers of the package and vehicle files add up every chunk a
+ * ParallelLoader parses, so they can exceed the wall time of the load. Timing
+ * a mission line costs about as much as parsing it, so only one line in
+ * SAMPLE_EVERY is timed and the total is scaled up.
+ *
+ * The file is JSON if its name ends with ".json", Prometheus text otherwise.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class Metrics {
+    // One mission line in this many has its parse timed.
+    public static final int SAMPLE_EVERY = 64;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Timed phases of a run.
+     * --------------------------------------------------------
+     */
+    public enum Phase {
+        PARSE_CITIES("parse_cities"),
+        PARSE_PACKAGES("parse_packages"),
+        PARSE_VEHICLES("parse_vehicles"),
+        PARSE_MISSIONS("parse_missions"),
+        LOAD("load"),
+        MISSIONS("missions"),
+        PLAN("plan"),
+        ROUTE("route"),
+        CHECKPOINT("checkpoint"),
+        WRITE("write");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Log-linear histogram of non-negative longs.
+     * Not safe for concurrent updates; each thread records into its own.
+     * Does not use iterators.
+     * --------------------------------------------------------
+     */
+    static class Histogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        // Values below this get a bucket of their own.
+        private static final int EXACT = 2 * SUB_BUCKETS;
+        private static final int BUCKETS = (63 - SUB_BITS) * SUB_BUCKETS + EXACT;
+
+        private final long[] counts = new long[BUCKETS];
+        private long sum;
+        private long max;
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Adds a value to the histogram.
+         * Precondition: value is not negative.
+         * Postcondition: The bucket of the value, the sum and the maximum include it.
+         * --------------------------------------------------------
+         */
+        void record(long value) {
+            counts[bucketOf(value)]++;
+            sum += value;
+            if (value > max) {
+                max = value;
+            }
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Adds the values of another histogram.
+         * Precondition: other is not null and no thread records into it.
+         * Postcondition: This histogram holds the values of both.
+         * --------------------------------------------------------
+         */
+        void add(Histogram other) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += other.counts[i];
+            }
+            sum += other.sum;
+            max = Math.max(max, other.max);
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the number of values recorded.
+         * Precondition: None.
+         * Postcondition: Returns the sum of the bucket counts.
+         * --------------------------------------------------------
+         */
+        long count() {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += counts[i];
+            }
+            return total;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the value below which the given share of the values lies.
+         * Precondition: quantile is between 0 and 1.
+         * Postcondition: Returns the upper bound of the bucket that holds the quantile, capped at the
+         * maximum, or 0 if nothing was recorded.
+         * --------------------------------------------------------
+         */
+        long quantile(double quantile) {
+            long total = count();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the bucket of a value.
+         * Precondition: value is not negative.
+         * Postcondition: Returns the value itself below EXACT, otherwise its power of two and top bits.
+         * --------------------------------------------------------
+         */
+        static int bucketOf(long value) {
+            if (value < EXACT) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+            return shift * SUB_BUCKETS + (int) (value >>> shift);
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the largest value of a bucket.
+         * Precondition: i is a bucket index.
+         * Postcondition: Returns the upper bound, inclusive.
+         * --------------------------------------------------------
+         */
+        static long upperBound(int i) {
+            if (i < EXACT) {
+                return i;
+            }
+            int shift = i / SUB_BUCKETS - 1;
+            long top = i % SUB_BUCKETS + SUB_BUCKETS;
+            return ((top + 1) << shift) - 1;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: What one thread records for every mission and reported problem.
+     * A mission asks for the recorder of its thread once and records into it;
+     * when sampling() is true it also records a sample.
+     * --------------------------------------------------------
+     */
+    public static class Recorder {
+        private long missions;
+        private long skipped;
+        private final long[] issues = new long[ErrorCode.values().length];
+        private long packageDepth;
+        private long vehicleDepth;
+        // Packages on a vehicle when it leaves the middle city, for the sampled missions.
+        private final Histogram cargoSizes = new Histogram();
+        // Cargo positions a drop-off walks, from the top of the cargo down to its deepest index.
+        private final Histogram dropOffSpans = new Histogram();
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Counts a mission that got a vehicle, and the packages it moved.
+         * Precondition: the cities are not null and no other thread updates them; counts are not negative.
+         * Postcondition: The mission count and the counts of the cities include it.
+         * --------------------------------------------------------
+         */
+        public void recordMission(City source, City middle, City dest,
+                                  int fromSource, int fromMiddle, int toMiddle, int toDest) {
+            missions++;
+            source.countPackages(fromSource, 0);
+            middle.countPackages(fromMiddle, toMiddle);
+            dest.countPackages(0, toDest);
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Checks if the mission just counted is one to sample.
+         * Precondition: recordMission() has been called for the mission.
+         * Postcondition: Returns true for the first mission of the thread and every SAMPLE_EVERY-th after it.
+         * --------------------------------------------------------
+         */
+        public boolean sampling() {
+            return missions % SAMPLE_EVERY == 1;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Records the cargo, drop-off and depths of a sampled mission.
+         * Precondition: sampling() is true; indices is not null; cargoSize is the cargo before the
+         * drop-off; the depths are not negative.
+         * Postcondition: The cargo histogram has the cargo size, the span histogram the distance from
+         * the top of the cargo to its deepest valid index (0 if none is valid), and the high-water
+         * marks are at least the depths.
+         * --------------------------------------------------------
+         */
+        public void recordSample(int cargoSize, int[] indices, int packages, int vehicles) {
+            cargoSizes.record(cargoSize);
+            int lowest = cargoSize;
+            for (int i = 0; i < indices.length; i++) {
+                if (indices[i] >= 0 && indices[i] < lowest) {
+                    lowest = indices[i];
+                }
+            }
+            dropOffSpans.record(cargoSize - lowest);
+            recordDepths(packages, vehicles);
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Raises the high-water marks of the package stacks and vehicle queues.
+         * Precondition: the sizes are not negative.
+         * Postcondition: The marks are at least the given sizes.
+         * --------------------------------------------------------
+         */
+        public void recordDepths(int packages, int vehicles) {
+            if (packages > packageDepth) {
+                packageDepth = packages;
+            }
+            if (vehicles > vehicleDepth) {
+                vehicleDepth = vehicles;
+            }
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Adds what another recorder holds.
+         * Precondition: other is not null and its thread is done recording.
+         * Postcondition: This recorder holds the totals of both.
+         * --------------------------------------------------------
+         */
+        void add(Recorder other) {
+            missions += other.missions;
+            skipped += other.skipped;
+            for (int i = 0; i < issues.length; i++) {
+                issues[i] += other.issues[i];
+            }
+            packageDepth = Math.max(packageDepth, other.packageDepth);
+            vehicleDepth = Math.max(vehicleDepth, other.vehicleDepth);
+            cargoSizes.add(other.cargoSizes);
+            dropOffSpans.add(other.dropOffSpans);
+        }
+    }
+
+    // Set before any loader or mission thread starts, which makes it visible to them.
+    private static Metrics active;
+
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final LongAdder[] phaseRuns = new LongAdder[Phase.values().length];
+    private final ArrayList<Recorder> recorders = new ArrayList<>();
+    private final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(this::newRecorder);
+    private CityRegistry cities = new CityRegistry();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes metrics with every value at zero.
+     * Precondition: None.
+     * Postcondition: Empty metrics are created; no cities are tracked yet.
+     * --------------------------------------------------------
+     */
+    public Metrics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+            phaseRuns[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Turns metrics on for the rest of the run.
+     * Precondition: No loader or mission thread is running.
+     * Postcondition: Returns new metrics, which active() returns from now on.
+     * --------------------------------------------------------
+     */
+    public static Metrics enable() {
+        active = new Metrics();
+        return active;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the metrics of the run.
+     * Precondition: None.
+     * Postcondition: Returns the metrics, or null if they are off.
+     * --------------------------------------------------------
+     */
+    public static Metrics active() {
+        return active;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds the time since start to a phase, if metrics are on.
+     * Precondition: start is a System.nanoTime() value taken when the phase began.
+     * Postcondition: The phase has one more run and the elapsed time.
+     * --------------------------------------------------------
+     */
+    public static void time(Phase phase, long start) {
+        Metrics metrics = active;
+        if (metrics != null) {
+            metrics.addTime(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Counts a reported problem, if metrics are on.
+     * Precondition: code is not null.
+     * Postcondition: The counter of the code is incremented.
+     * --------------------------------------------------------
+     */
+    public static void count(ErrorCode code) {
+        Metrics metrics = active;
+        if (metrics != null) {
+            metrics.recorder().issues[code.ordinal()]++;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Counts a mission that is skipped for a bad line, an unknown city or no vehicle, if metrics are on.
+     * Precondition: None.
+     * Postcondition: The skipped mission counter is incremented.
+     * --------------------------------------------------------
+     */
+    public static void countSkipped() {
+        Metrics metrics = active;
+        if (metrics != null) {
+            metrics.recorder().skipped++;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds a run of a phase.
+     * Precondition: nanos is not negative.
+     * Postcondition: The phase has one more run and nanos more time.
+     * --------------------------------------------------------
+     */
+    public void addTime(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()].add(nanos);
+        phaseRuns[phase.ordinal()].increment();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Sets the cities whose package counts are written, and records the depths they start with.
+     * Precondition: cities is populated; no mission has run yet.
+     * Postcondition: The high-water marks include the loaded stacks and queues.
+     * --------------------------------------------------------
+     */
+    public void trackCities(CityRegistry cities) {
+        this.cities = cities;
+        for (int i = 0; i < cities.size(); i++) {
+            DistributionCenter dc = cities.get(i).getDistributionCenter();
+            recorder().recordDepths(dc.getPackages().size(), dc.getVehicles().size());
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the recorder of the calling thread.
+     * Precondition: None.
+     * Postcondition: Returns the recorder; it is created on the first call of a thread.
+     * --------------------------------------------------------
+     */
+    public Recorder recorder() {
+        return recorder.get();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the metrics to a file.
+     * Precondition: filename is a valid file path.
+     * Postcondition: The file holds the metrics as JSON if its name ends with ".json",
+     * otherwise in the Prometheus text format.
+     * --------------------------------------------------------
+     */
+    public void write(String filename) throws IOException {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(filename)));
+        try {
+            if (filename.endsWith(".json")) {
+                writeJson(out);
+            } else {
+                writePrometheus(out);
+            }
+        } finally {
+            out.close();
+        }
+        if (out.checkError()) {
+            throw new IOException("Could not write metrics to " + filename);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the metrics as one JSON object.
+     * Precondition: out is not null.
+     * Postcondition: The phases, issues, missions, depths, histograms and non-zero cities are written.
+     * --------------------------------------------------------
+     */
+    private void writeJson(PrintWriter out) {
+        Recorder total = total();
+        out.println("{");
+        out.println("  \"phases\": {");
+        Phase[] phases = Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            out.print(String.format(Locale.ROOT, "    \"%s\": {\"runs\": %d, \"seconds\": %.6f}%s%n",
+                    phases[i].label, phaseRuns[i].sum(), phaseNanos[i].sum() / 1e9,
+                    i + 1 < phases.length ? "," : ""));
+        }
+        out.println("  },");
+        out.println("  \"issues\": {");
+        ErrorCode[] codes = ErrorCode.values();
+        for (int i = 0; i < codes.length; i++) {
+            out.println("    \"" + label(codes[i]) + "\": " + total.issues[i] + (i + 1 < codes.length ? "," : ""));
+        }
+        out.println("  },");
+        out.println("  \"missions_executed\": " + total.missions + ",");
+        out.println("  \"missions_skipped\": " + total.skipped + ",");
+        out.println("  \"package_stack_depth_max\": " + total.packageDepth + ",");
+        out.println("  \"vehicle_queue_depth_max\": " + total.vehicleDepth + ",");
+        out.println("  \"cargo_packages\": " + jsonHistogram(total.cargoSizes) + ",");
+        out.println("  \"drop_off_span\": " + jsonHistogram(total.dropOffSpans) + ",");
+        out.println("  \"cities\": [");
+        String separator = "";
+        for (int i = 0; i < cities.size(); i++) {
+            City city = cities.get(i);
+            long loaded = city.getPackagesLoaded();
+            long unloaded = city.getPackagesUnloaded();
+            if (loaded != 0 || unloaded != 0) {
+                out.print(separator);
+                out.print("    {\"city\": \"" + escape(city.getName()) + "\", \"loaded\": " + loaded
+                        + ", \"unloaded\": " + unloaded + "}");
+                separator = "," + System.lineSeparator();
+            }
+        }
+        if (!separator.isEmpty()) {
+            out.println();
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a histogram as a JSON object of its count, sum and quantiles.
+     * Precondition: histogram is not null.
+     * Postcondition: Returns the object text.
+     * --------------------------------------------------------
+     */
+    private static String jsonHistogram(Histogram histogram) {
+        return String.format(Locale.ROOT,
+                "{\"count\": %d, \"sum\": %d, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"max\": %d}",
+                histogram.count(), histogram.sum, histogram.quantile(0.5), histogram.quantile(0.9),
+                histogram.quantile(0.99), histogram.max);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the metrics in the Prometheus text exposition format.
+     * Precondition: out is not null.
+     * Postcondition: Every metric is written with its HELP and TYPE lines; cities with no moves are left out.
+     * --------------------------------------------------------
+     */
+    private void writePrometheus(PrintWriter out) {
+        Recorder total = total();
+        header(out, "cargo_phase_seconds", "summary", "Time spent in each phase of the run.");
+        Phase[] phases = Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            out.println(String.format(Locale.ROOT, "cargo_phase_seconds_sum{phase=\"%s\"} %.6f",
+                    phases[i].label, phaseNanos[i].sum() / 1e9));
+            out.println("cargo_phase_seconds_count{phase=\"" + phases[i].label + "\"} " + phaseRuns[i].sum());
+        }
+        header(out, "cargo_issues_total", "counter", "Problems reported, by error code.");
+        ErrorCode[] codes = ErrorCode.values();
+        for (int i = 0; i < codes.length; i++) {
+            out.println("cargo_issues_total{issue=\"" + label(codes[i]) + "\"} " + total.issues[i]);
+        }
+        header(out, "cargo_missions_executed_total", "counter", "Missions that got a vehicle.");
+        out.println("cargo_missions_executed_total " + total.missions);
+        header(out, "cargo_missions_skipped_total", "counter", "Missions skipped for a bad line, city or no vehicle.");
+        out.println("cargo_missions_skipped_total " + total.skipped);
+        header(out, "cargo_package_stack_depth_max", "gauge", "Most packages seen in one city.");
+        out.println("cargo_package_stack_depth_max " + total.packageDepth);
+        header(out, "cargo_vehicle_queue_depth_max", "gauge", "Most vehicles seen in one city.");
+        out.println("cargo_vehicle_queue_depth_max " + total.vehicleDepth);
+        prometheusHistogram(out, "cargo_cargo_packages",
+                "Packages on a vehicle after loading, in one mission of " + SAMPLE_EVERY + ".", total.cargoSizes);
+        prometheusHistogram(out, "cargo_drop_off_span",
+                "Cargo positions walked by a drop-off, in one mission of " + SAMPLE_EVERY + ".", total.dropOffSpans);
+        header(out, "cargo_city_packages_loaded_total", "counter", "Packages loaded onto vehicles in a city.");
+        for (int i = 0; i < cities.size(); i++) {
+            long loaded = cities.get(i).getPackagesLoaded();
+            if (loaded != 0) {
+                out.println("cargo_city_packages_loaded_total{city=\"" + escape(cities.get(i).getName()) + "\"} "
+                        + loaded);
+            }
+        }
+        header(out, "cargo_city_packages_unloaded_total", "counter", "Packages unloaded from vehicles in a city.");
+        for (int i = 0; i < cities.size(); i++) {
+            long unloaded = cities.get(i).getPackagesUnloaded();
+            if (unloaded != 0) {
+                out.println("cargo_city_packages_unloaded_total{city=\"" + escape(cities.get(i).getName()) + "\"} "
+                        + unloaded);
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes a histogram with cumulative buckets for every non-empty bucket.
+     * Precondition: out and histogram are not null.
+     * Postcondition: The bucket, sum and count lines are written.
+     * --------------------------------------------------------
+     */
+    private static void prometheusHistogram(PrintWriter out, String name, String help, Histogram histogram) {
+        header(out, name, "histogram", help);
+        long cumulative = 0;
+        for (int i = 0; i < Histogram.BUCKETS; i++) {
+            long count = histogram.counts[i];
+            if (count != 0) {
+                cumulative += count;
+                out.println(name + "_bucket{le=\"" + Histogram.upperBound(i) + "\"} " + cumulative);
+            }
+        }
+        out.println(name + "_bucket{le=\"+Inf\"} " + cumulative);
+        out.println(name + "_sum " + histogram.sum);
+        out.println(name + "_count " + cumulative);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the HELP and TYPE lines of a metric.
+     * Precondition: out is not null.
+     * Postcondition: The two lines are written.
+     * --------------------------------------------------------
+     */
+    private static void header(PrintWriter out, String name, String type, String help) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " " + type);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Creates the recorder of the calling thread.
+     * Precondition: None.
+     * Postcondition: Returns a new recorder, which is included in the totals.
+     * --------------------------------------------------------
+     */
+    private synchronized Recorder newRecorder() {
+        Recorder r = new Recorder();
+        recorders.add(r);
+        return r;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds up the recorders of every thread.
+     * Precondition: The threads that recorded are done.
+     * Postcondition: Returns a new recorder with the totals.
+     * --------------------------------------------------------
+     */
+    private synchronized Recorder total() {
+        Recorder total = new Recorder();
+        for (int i = 0; i < recorders.size(); i++) {
+            total.add(recorders.get(i));
+        }
+        return total;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the label of an error code in the output.
+     * Precondition: code is not null.
+     * Postcondition: Returns the name of the code in lower case.
+     * --------------------------------------------------------
+     */
+    private static String label(ErrorCode code) {
+        return code.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Escapes a string for a JSON string or a Prometheus label value.
+     * Precondition: text is not null.
+     * Postcondition: Returns the text with backslashes, quotes and line breaks escaped.
+     * --------------------------------------------------------
+     */
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' || c == '"') {
+                escaped.append('\\').append(c);
+            } else if (c == '\n') {
+                escaped.append("\\n");
+            } else if (c == '\r') {
+                escaped.append("\\r");
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
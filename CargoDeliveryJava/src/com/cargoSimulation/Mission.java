@@ -0,0 +1,100 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Represents one parsed mission line.
+ * Holds the IDs of the source, middle and destination cities, the number of
+ * packages to load at the source (a) and middle (b) cities, and the cargo
+ * indices to drop off at the middle city.
+ * --------------------------------------------------------
+ */
+public class Mission {
+    private int sourceId;
+    private int middleId;
+    private int destId;
+    private int a;
+    private int b;
+    private int[] dropOffIndices;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a mission with resolved city IDs.
+     * Precondition: city IDs are valid in the city registry; dropOffIndices is not null.
+     * Postcondition: Mission is created with the given parameters.
+     * --------------------------------------------------------
+     */
+    public Mission(int sourceId, int middleId, int destId, int a, int b, int[] dropOffIndices) {
+        this.sourceId = sourceId;
+        this.middleId = middleId;
+        this.destId = destId;
+        this.a = a;
+        this.b = b;
+        this.dropOffIndices = dropOffIndices;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of the source city.
+     * Precondition: None.
+     * Postcondition: Returns the source city ID.
+     * --------------------------------------------------------
+     */
+    public int getSourceId() {
+        return sourceId;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of the middle city.
+     * Precondition: None.
+     * Postcondition: Returns the middle city ID.
+     * --------------------------------------------------------
+     */
+    public int getMiddleId() {
+        return middleId;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of the destination city.
+     * Precondition: None.
+     * Postcondition: Returns the destination city ID.
+     * --------------------------------------------------------
+     */
+    public int getDestId() {
+        return destId;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of packages to load at the source city.
+     * Precondition: None.
+     * Postcondition: Returns a.
+     * --------------------------------------------------------
+     */
+    public int getA() {
+        return a;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of packages to load at the middle city.
+     * Precondition: None.
+     * Postcondition: Returns b.
+     * --------------------------------------------------------
+     */
+    public int getB() {
+        return b;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the cargo indices to drop off at the middle city.
+     * Precondition: None.
+     * Postcondition: Returns the drop-off indices in file order.
+     * --------------------------------------------------------
+     */
+    public int[] getDropOffIndices() {
+        return dropOffIndices;
+    }
+}
@@ -0,0 +1,586 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * --------------------------------------------------------
+ * Summary: A missions file compiled into int arrays that run without any string work.
+ * The whole file is parsed and validated before the first mission runs. Each
+ * valid mission takes STRIDE ints of the code array:
+ *
+ *   source, middle, dest   city IDs in the registry the program was compiled for
+ *   a, b                   packages loaded at the source and the middle city
+ *   dropStart, dropEnd     range of its drop-off indices in the drops array
+ *   line                   line of the missions file it came from
+ *
+ * Invalid lines are kept as diagnostics with their line and column and are
+ * reported together by report(), in file order, before the missions run.
+ *
+ * A program can be cached in a binary file (little-endian):
+ *
+ *   header        int magic "CMPG", int version, long source length, long source
+ *                 modification time, long city fingerprint, int missionCount,
+ *                 int dropCount, int diagnosticCount
+ *   code          int[missionCount * STRIDE]
+ *   drops         int[dropCount]
+ *   diagnostics   per diagnostic: int error code, the city and the message as
+ *                 int length and UTF-8 bytes (length -1 for no city)
+ *
+ * The cache is only used while the missions file has the same length and
+ * modification time and the cities have the same names in the same order,
+ * since the code holds city IDs. Otherwise the file is compiled again and the
+ * cache rewritten.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class MissionProgram {
+    // Ints of the code array per mission, and the offset of each field.
+    static final int STRIDE = 8;
+    static final int SOURCE = 0;
+    static final int MIDDLE = 1;
+    static final int DEST = 2;
+    static final int A = 3;
+    static final int B = 4;
+    static final int DROP_START = 5;
+    static final int DROP_END = 6;
+    static final int LINE = 7;
+    private static final int MAGIC = 0x434D5047;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 3 * Long.BYTES + 3 * Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final byte DASH = '-';
+    private static final byte COMMA = ',';
+
+    private int[] code = new int[16 * STRIDE];
+    private int size;
+    private int[] drops = new int[64];
+    private int dropCount;
+    private ErrorCode[] errorCodes = new ErrorCode[4];
+    private String[] errorCities = new String[4];
+    private String[] errorMessages = new String[4];
+    private int errorCount;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Compiles every mission of a missions file.
+     * Precondition: filename is a valid file path; cities registry is populated.
+     * Postcondition: Returns the program; invalid lines are kept as diagnostics, not yet reported.
+     * --------------------------------------------------------
+     */
+    public static MissionProgram compile(String filename, CityRegistry cities) throws IOException {
+        MissionProgram program = new MissionProgram();
+        InputTokenizer in = InputTokenizer.open(filename);
+        try {
+            while (in.nextLine()) {
+                program.compileLine(in, cities);
+            }
+        } finally {
+            in.close();
+        }
+        return program;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Loads a missions file from a cached program, or compiles it and caches the result.
+     * Precondition: filename is a valid file path; cities registry is populated; cacheFile is a file path.
+     * Postcondition: Returns the same program as compile(filename, cities); the cache file holds it.
+     * --------------------------------------------------------
+     */
+    public static MissionProgram compile(String filename, CityRegistry cities, String cacheFile) throws IOException {
+        Path source = Paths.get(filename);
+        long length = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        long fingerprint = fingerprint(cities);
+        MissionProgram program = read(cacheFile, length, modified, fingerprint);
+        if (program == null) {
+            program = compile(filename, cities);
+            program.write(cacheFile, length, modified, fingerprint);
+        }
+        return program;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Compiles the current line and appends it as a mission or as a diagnostic.
+     * A mission has the six dash-separated fields SourceCity-MiddleCity-DestCity-A-B-C1,C2,...
+     * A line with another number of fields or a field that is not a whole number is
+     * invalid; otherwise a line that names an unknown city is reported for the first
+     * such city. Empty lines are skipped.
+     * Precondition: in is positioned on a line; cities registry is populated.
+     * Postcondition: Returns true if a mission was appended.
+     * --------------------------------------------------------
+     */
+    public boolean compileLine(InputTokenizer in, CityRegistry cities) {
+        if (in.isLineEmpty()) {
+            return false;
+        }
+        int fields = in.countInLine(DASH) + 1;
+        if (fields != 6) {
+            // The column of the sixth dash, or the end of a line with too few fields.
+            addInvalid(in, in.columnOf(DASH, 6), "expected 6 fields separated by '-' but found " + fields);
+            return false;
+        }
+        int sourceId = in.nextCityId(DASH, cities);
+        String missing = sourceId < 0 ? in.lastToken() : null;
+        int missingColumn = sourceId < 0 ? in.column() : 0;
+        int middleId = in.nextCityId(DASH, cities);
+        if (middleId < 0 && missing == null) {
+            missing = in.lastToken();
+            missingColumn = in.column();
+        }
+        int destId = in.nextCityId(DASH, cities);
+        if (destId < 0 && missing == null) {
+            missing = in.lastToken();
+            missingColumn = in.column();
+        }
+
+        int o = size * STRIDE;
+        if (o + STRIDE > code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        int dropStart = dropCount;
+        try {
+            code[o + A] = in.nextInt(DASH);
+            code[o + B] = in.nextInt(DASH);
+            int count = in.hasMoreTokens() ? in.countInLine(COMMA) + 1 : 0;
+            if (dropCount + count > drops.length) {
+                drops = Arrays.copyOf(drops, Math.max(drops.length * 2, dropCount + count));
+            }
+            for (int i = 0; i < count; i++) {
+                drops[dropCount++] = in.nextInt(COMMA);
+            }
+        } catch (NumberFormatException e) {
+            dropCount = dropStart;
+            addInvalid(in, in.column(), "\"" + in.lastToken() + "\" is not a whole number");
+            return false;
+        }
+
+        if (missing != null) {
+            dropCount = dropStart;
+            addDiagnostic(ErrorCode.CITY_NOT_FOUND, missing, "One or more cities not found in mission at line "
+                    + in.lineNumber() + ", column " + missingColumn + ": " + missing);
+            return false;
+        }
+        code[o + SOURCE] = sourceId;
+        code[o + MIDDLE] = middleId;
+        code[o + DEST] = destId;
+        code[o + DROP_START] = dropStart;
+        code[o + DROP_END] = dropCount;
+        code[o + LINE] = in.lineNumber();
+        size++;
+        return true;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Compiles the current line on its own, for readers that run each mission as it is read.
+     * The program is cleared first, so one program can be reused for every line.
+     * Precondition: in is positioned on a line; cities registry is populated.
+     * Postcondition: Returns the mission, or null after reporting the line if it is empty or invalid.
+     * --------------------------------------------------------
+     */
+    public Mission parseLine(InputTokenizer in, CityRegistry cities) {
+        size = 0;
+        dropCount = 0;
+        errorCount = 0;
+        if (!compileLine(in, cities)) {
+            report();
+            return null;
+        }
+        return mission(0);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Appends a diagnostic for a line that does not have the mission format.
+     * Precondition: in is positioned on the line.
+     * Postcondition: An INVALID_LINE diagnostic with the line and column is appended.
+     * --------------------------------------------------------
+     */
+    private void addInvalid(InputTokenizer in, int column, String problem) {
+        addDiagnostic(ErrorCode.INVALID_LINE, null,
+                "Invalid mission at line " + in.lineNumber() + ", column " + column + ": " + problem);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Appends a diagnostic.
+     * Precondition: code and message are not null; city may be null.
+     * Postcondition: The diagnostic is kept in file order.
+     * --------------------------------------------------------
+     */
+    private void addDiagnostic(ErrorCode errorCode, String city, String message) {
+        if (errorCount == errorCodes.length) {
+            errorCodes = Arrays.copyOf(errorCodes, errorCount * 2);
+            errorCities = Arrays.copyOf(errorCities, errorCount * 2);
+            errorMessages = Arrays.copyOf(errorMessages, errorCount * 2);
+        }
+        errorCodes[errorCount] = errorCode;
+        errorCities[errorCount] = city;
+        errorMessages[errorCount] = message;
+        errorCount++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reports every diagnostic to the error channel and counts the skipped lines.
+     * Precondition: None.
+     * Postcondition: One report per invalid line is made, in file order.
+     * --------------------------------------------------------
+     */
+    public void report() {
+        for (int i = 0; i < errorCount; i++) {
+            ErrorChannel.report(errorCodes[i], errorCities[i], errorMessages[i]);
+            Metrics.countSkipped();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes every mission in order.
+     * Precondition: cities is the registry the program was compiled for; loader may be null.
+     * Postcondition: Missions are executed, affecting the state of cities, vehicles, and packages.
+     * --------------------------------------------------------
+     */
+    public void run(CityRegistry cities, CapacityLoader loader) {
+        run(null, cities::get, loader);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes every mission once, in the given order, on the cities the function returns.
+     * The drop-off indices are copied into a reused array of the right length,
+     * so the loop allocates nothing of its own.
+     * Precondition: order is null (file order) or a permutation of 0 .. size() - 1; cities returns the
+     * city with an ID of the registry the program was compiled for; loader may be null.
+     * Postcondition: Missions are executed, affecting the state of cities, vehicles, and packages.
+     * --------------------------------------------------------
+     */
+    public void run(int[] order, IntFunction<City> cities, CapacityLoader loader) {
+        int[][] indicesByLength = new int[8][];
+        for (int i = 0; i < size; i++) {
+            int o = (order == null ? i : order[i]) * STRIDE;
+            int count = code[o + DROP_END] - code[o + DROP_START];
+            if (count >= indicesByLength.length) {
+                indicesByLength = Arrays.copyOf(indicesByLength, Math.max(count + 1, indicesByLength.length * 2));
+            }
+            int[] indices = indicesByLength[count];
+            if (indices == null) {
+                indices = new int[count];
+                indicesByLength[count] = indices;
+            }
+            System.arraycopy(drops, code[o + DROP_START], indices, 0, count);
+            Main.executeMission(cities.apply(code[o + SOURCE]), cities.apply(code[o + MIDDLE]),
+                    cities.apply(code[o + DEST]), code[o + A], code[o + B], indices, loader);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes one mission.
+     * The mission gets its own array of drop-off indices, so missions that share
+     * no city can be executed on different threads.
+     * Precondition: 0 <= m < size(); cities is the registry the program was compiled for; loader may be null.
+     * Postcondition: The mission is executed, affecting the state of its three cities.
+     * --------------------------------------------------------
+     */
+    public void execute(int m, CityRegistry cities, CapacityLoader loader) {
+        int o = m * STRIDE;
+        Main.executeMission(cities.get(code[o + SOURCE]), cities.get(code[o + MIDDLE]), cities.get(code[o + DEST]),
+                code[o + A], code[o + B], Arrays.copyOfRange(drops, code[o + DROP_START], code[o + DROP_END]), loader);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of missions.
+     * Precondition: None.
+     * Postcondition: Returns the count of valid lines compiled.
+     * --------------------------------------------------------
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of invalid lines.
+     * Precondition: None.
+     * Postcondition: Returns the count of diagnostics.
+     * --------------------------------------------------------
+     */
+    public int errorCount() {
+        return errorCount;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the source city ID of a mission.
+     * Precondition: 0 <= m < size().
+     * Postcondition: Returns the city ID.
+     * --------------------------------------------------------
+     */
+    public int sourceId(int m) {
+        return code[m * STRIDE + SOURCE];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the middle city ID of a mission.
+     * Precondition: 0 <= m < size().
+     * Postcondition: Returns the city ID.
+     * --------------------------------------------------------
+     */
+    public int middleId(int m) {
+        return code[m * STRIDE + MIDDLE];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the destination city ID of a mission.
+     * Precondition: 0 <= m < size().
+     * Postcondition: Returns the city ID.
+     * --------------------------------------------------------
+     */
+    public int destId(int m) {
+        return code[m * STRIDE + DEST];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the line of the missions file a mission came from.
+     * Precondition: 0 <= m < size().
+     * Postcondition: Returns the 1-based line number.
+     * --------------------------------------------------------
+     */
+    public int lineNumber(int m) {
+        return code[m * STRIDE + LINE];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a mission as a Mission object.
+     * Precondition: 0 <= m < size().
+     * Postcondition: Returns a new Mission with its own copy of the drop-off indices.
+     * --------------------------------------------------------
+     */
+    public Mission mission(int m) {
+        int o = m * STRIDE;
+        return new Mission(code[o + SOURCE], code[o + MIDDLE], code[o + DEST], code[o + A], code[o + B],
+                Arrays.copyOfRange(drops, code[o + DROP_START], code[o + DROP_END]));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Computes a fingerprint of the city names in ID order.
+     * Precondition: cities is not null.
+     * Postcondition: Returns a 64-bit FNV-1a hash of the names; registries that differ in a
+     * name or in order almost surely get different fingerprints.
+     * --------------------------------------------------------
+     */
+    static long fingerprint(CityRegistry cities) {
+        long hash = 0xCBF29CE484222325L;
+        for (int c = 0; c < cities.size(); c++) {
+            String name = cities.get(c).getName();
+            for (int i = 0; i < name.length(); i++) {
+                hash = (hash ^ name.charAt(i)) * 0x100000001B3L;
+            }
+            hash = (hash ^ '\n') * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the program to a cache file.
+     * The file is written next to the cache file and moved into place, so a
+     * cache file is always whole.
+     * Precondition: filename is a valid file path.
+     * Postcondition: The cache file holds the program and the key it is valid for.
+     * --------------------------------------------------------
+     */
+    void write(String filename, long sourceLength, long sourceModified, long fingerprint) throws IOException {
+        Path target = Paths.get(filename);
+        Path temporary = Paths.get(filename + ".tmp");
+        FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(sourceLength);
+            buffer.putLong(sourceModified);
+            buffer.putLong(fingerprint);
+            buffer.putInt(size);
+            buffer.putInt(dropCount);
+            buffer.putInt(errorCount);
+            putInts(channel, buffer, code, size * STRIDE);
+            putInts(channel, buffer, drops, dropCount);
+            for (int i = 0; i < errorCount; i++) {
+                byte[] city = errorCities[i] == null ? null : errorCities[i].getBytes(StandardCharsets.UTF_8);
+                byte[] message = errorMessages[i].getBytes(StandardCharsets.UTF_8);
+                putInt(channel, buffer, errorCodes[i].ordinal());
+                putInt(channel, buffer, city == null ? -1 : city.length);
+                if (city != null) {
+                    putBytes(channel, buffer, city);
+                }
+                putInt(channel, buffer, message.length);
+                putBytes(channel, buffer, message);
+            }
+            flush(channel, buffer);
+        } finally {
+            channel.close();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads a program from a cache file if it was compiled from the same source and cities.
+     * Precondition: filename is a file path.
+     * Postcondition: Returns the program, or null if the file is missing, is not a cache file, is
+     * damaged or was written for another source file or another set of cities.
+     * --------------------------------------------------------
+     */
+    static MissionProgram read(String filename, long sourceLength, long sourceModified, long fingerprint)
+            throws IOException {
+        Path path = Paths.get(filename);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            if (data.getInt() != MAGIC || data.getInt() != VERSION || data.getLong() != sourceLength
+                    || data.getLong() != sourceModified || data.getLong() != fingerprint) {
+                return null;
+            }
+            MissionProgram program = new MissionProgram();
+            program.size = data.getInt();
+            program.dropCount = data.getInt();
+            int diagnostics = data.getInt();
+            if ((long) program.size * STRIDE * Integer.BYTES + (long) program.dropCount * Integer.BYTES
+                    > data.remaining()) {
+                return null;
+            }
+            program.code = new int[Math.max(program.size * STRIDE, STRIDE)];
+            data.asIntBuffer().get(program.code, 0, program.size * STRIDE);
+            data.position(data.position() + program.size * STRIDE * Integer.BYTES);
+            program.drops = new int[Math.max(program.dropCount, 1)];
+            data.asIntBuffer().get(program.drops, 0, program.dropCount);
+            data.position(data.position() + program.dropCount * Integer.BYTES);
+            ErrorCode[] codes = ErrorCode.values();
+            for (int i = 0; i < diagnostics; i++) {
+                ErrorCode errorCode = codes[data.getInt()];
+                int cityLength = data.getInt();
+                String city = cityLength < 0 ? null : getString(data, cityLength);
+                program.addDiagnostic(errorCode, city, getString(data, data.getInt()));
+            }
+            return program;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            // A damaged cache file is compiled again like a stale one.
+            return null;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads a UTF-8 string of the given length.
+     * Precondition: data holds at least length more bytes.
+     * Postcondition: Returns the string; the position is past its bytes.
+     * --------------------------------------------------------
+     */
+    private static String getString(ByteBuffer data, int length) {
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Buffers an int, writing the buffer out first if it is full.
+     * Precondition: None.
+     * Postcondition: The value is buffered.
+     * --------------------------------------------------------
+     */
+    private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) {
+            flush(channel, buffer);
+        }
+        buffer.putInt(value);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Buffers the first count values of an int array, writing the buffer out whenever it fills.
+     * Precondition: count is at most values.length.
+     * Postcondition: The values are written or buffered in order.
+     * --------------------------------------------------------
+     */
+    private static void putInts(FileChannel channel, ByteBuffer buffer, int[] values, int count) throws IOException {
+        int done = 0;
+        while (done < count) {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush(channel, buffer);
+            }
+            int n = Math.min(buffer.remaining() / Integer.BYTES, count - done);
+            buffer.asIntBuffer().put(values, done, n);
+            buffer.position(buffer.position() + n * Integer.BYTES);
+            done += n;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Buffers a byte array, writing the buffer out whenever it fills.
+     * Precondition: values is not null.
+     * Postcondition: The bytes are written or buffered in order.
+     * --------------------------------------------------------
+     */
+    private static void putBytes(FileChannel channel, ByteBuffer buffer, byte[] values) throws IOException {
+        int done = 0;
+        while (done < values.length) {
+            if (!buffer.hasRemaining()) {
+                flush(channel, buffer);
+            }
+            int n = Math.min(buffer.remaining(), values.length - done);
+            buffer.put(values, done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the buffered bytes to the file.
+     * Precondition: The channel is open.
+     * Postcondition: The buffer is empty.
+     * --------------------------------------------------------
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
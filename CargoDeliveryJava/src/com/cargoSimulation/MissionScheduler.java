@@ -0,0 +1,209 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Executes a batch of missions in parallel with the same result as running them in order.
+ * Each mission depends on the most recent earlier mission that touches any of
+ * its three cities. Missions whose dependencies are done run concurrently on a
+ * fork-join pool. Because missions that share a city always run one after the
+ * other in file order, each distribution center sees exactly the sequence of
+ * operations of a sequential run. The dependency graph is the ordered per-city
+ * lock, so the stacks and queues need no locking of their own. Error messages
+ * from independent missions may be printed in a different order.
+ * --------------------------------------------------------
+ */
+public class MissionScheduler {
+    private final int threads;
+    private final CapacityLoader loader;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a scheduler that uses the given number of threads.
+     * Precondition: threads is positive.
+     * Postcondition: A scheduler is created.
+     * --------------------------------------------------------
+     */
+    public MissionScheduler(int threads) {
+        this(threads, null);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a scheduler that enforces vehicle capacity with the given loader.
+     * Precondition: threads is positive; loader may be null.
+     * Postcondition: A scheduler is created.
+     * --------------------------------------------------------
+     */
+    public MissionScheduler(int threads, CapacityLoader loader) {
+        this.threads = threads;
+        this.loader = loader;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Compiles every mission in the file and executes them in parallel.
+     * Precondition: filename is a valid file path; cities registry is populated.
+     * Postcondition: The cities are in the same state as after Main.processMissions.
+     * --------------------------------------------------------
+     */
+    public void processMissions(String filename, CityRegistry cities) throws IOException {
+        run(Main.compileMissions(filename, cities, null), cities);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes the missions in parallel, respecting per-city order.
+     * Precondition: program was compiled for the registry.
+     * Postcondition: All missions have run; the cities are in the sequential end state.
+     * --------------------------------------------------------
+     */
+    public void run(MissionProgram program, CityRegistry cities) {
+        int n = program.size();
+        if (n == 0) {
+            return;
+        }
+
+        // Predecessors: the last earlier mission on each of the three cities (at most 3, deduplicated).
+        // A mission that names a city twice finds itself there the second time and is skipped.
+        int[] lastMission = new int[cities.size()];
+        Arrays.fill(lastMission, -1);
+        int[] predecessors = new int[n * 3];
+        int[] predecessorCount = new int[n];
+        int[] successorCount = new int[n];
+        for (int m = 0; m < n; m++) {
+            int[] touched = {program.sourceId(m), program.middleId(m), program.destId(m)};
+            for (int t = 0; t < 3; t++) {
+                int previous = lastMission[touched[t]];
+                if (previous >= 0 && previous != m
+                        && !contains(predecessors, m * 3, predecessorCount[m], previous)) {
+                    predecessors[m * 3 + predecessorCount[m]++] = previous;
+                    successorCount[previous]++;
+                }
+                lastMission[touched[t]] = m;
+            }
+        }
+
+        // Successor lists in compressed sparse row form.
+        int[] successorStart = new int[n + 1];
+        for (int m = 0; m < n; m++) {
+            successorStart[m + 1] = successorStart[m] + successorCount[m];
+        }
+        int[] successors = new int[successorStart[n]];
+        int[] fill = new int[n];
+        AtomicIntegerArray pending = new AtomicIntegerArray(n);
+        for (int m = 0; m < n; m++) {
+            pending.set(m, predecessorCount[m]);
+            for (int p = 0; p < predecessorCount[m]; p++) {
+                int previous = predecessors[m * 3 + p];
+                successors[successorStart[previous] + fill[previous]++] = m;
+            }
+        }
+
+        Batch batch = new Batch(program, cities, successorStart, successors, pending);
+        try {
+            for (int m = 0; m < n; m++) {
+                if (predecessorCount[m] == 0) {
+                    batch.submit(m);
+                }
+            }
+            batch.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while executing missions", e);
+        } finally {
+            batch.pool.shutdown();
+        }
+        Throwable error = batch.failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error != null) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Shared state of one parallel run: the dependency graph, the pool and completion tracking.
+     * --------------------------------------------------------
+     */
+    private final class Batch {
+        final MissionProgram program;
+        final CityRegistry cities;
+        final int[] successorStart;
+        final int[] successors;
+        final AtomicIntegerArray pending;
+        final CountDownLatch done;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+
+        Batch(MissionProgram program, CityRegistry cities, int[] successorStart, int[] successors,
+              AtomicIntegerArray pending) {
+            this.program = program;
+            this.cities = cities;
+            this.successorStart = successorStart;
+            this.successors = successors;
+            this.pending = pending;
+            this.done = new CountDownLatch(program.size());
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Schedules a mission whose dependencies are all done.
+         * Precondition: the mission's pending count is zero.
+         * Postcondition: The mission is queued on the pool.
+         * --------------------------------------------------------
+         */
+        void submit(int m) {
+            pool.execute(() -> runMission(m));
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Runs one mission, then releases successors whose dependencies are all done.
+         * The atomic decrement of a successor's pending count publishes this mission's
+         * writes to the thread that runs the successor.
+         * Precondition: every predecessor of the mission has finished.
+         * Postcondition: The mission has run (unless an earlier one failed) and done is counted down.
+         * --------------------------------------------------------
+         */
+        void runMission(int m) {
+            try {
+                if (failure.get() == null) {
+                    program.execute(m, cities, loader);
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+            for (int i = successorStart[m]; i < successorStart[m + 1]; i++) {
+                int next = successors[i];
+                if (pending.decrementAndGet(next) == 0) {
+                    submit(next);
+                }
+            }
+            done.countDown();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if a value occurs in a slice of an array.
+     * Precondition: offset + length lies within values.
+     * Postcondition: Returns true if the value occurs in values[offset..offset+length-1].
+     * --------------------------------------------------------
+     */
+    private static boolean contains(int[] values, int offset, int length, int value) {
+        for (int i = offset; i < offset + length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,424 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Runs missions as they arrive, from a file that is still being
+ * written or from standard input, and keeps a record of the state on disk
+ * while it runs.
+ *
+ * Deltas: every few missions, the cities changed since the last delta are
+ * appended to the delta file, each as a block of the result file form:
+ *
+ *   # delta N line L
+ *   City:
+ *     Vehicles behind J: the vehicles behind the first J of the queue, head first
+ *     Packages above K: the packages above the bottom K of the stack, top first
+ *
+ * J is the number of vehicles still queued from the last delta: vehicles leave
+ * from the head and arrive at the tail, so they are the last J it had then.
+ * K is the lowest the stack got since the last delta, so the bottom K packages
+ * are the ones it had then. Replaying a delta keeps the last J vehicles and the
+ * bottom K packages of each listed city and adds the listed ones behind and
+ * on top of them. With a capacity loader a vehicle can leave from anywhere in
+ * the queue, so the source city of a mission gets J = 0 and its whole queue.
+ *
+ * Checkpoints: every few missions a snapshot of the whole state is taken
+ * without stopping the missions. Cities are copied a few at a time between
+ * missions, and a city that a mission is about to change is copied first, so
+ * the snapshot is the state at the line where it began. Once every city is
+ * copied a background thread writes the snapshot next to the checkpoint file
+ * and moves it into place, so the checkpoint file is always whole. The delta
+ * file marks where each checkpoint began ("# checkpoint line L") and when it
+ * was in place ("# checkpoint written FILE line L"); a replay starts from the
+ * checkpoint and applies the deltas after its first marker.
+ *
+ * Memory stays bounded by the state itself: the deltas need three ints per city
+ * and a checkpoint copies each city once. The delta file grows with the run.
+ * Missions run one at a time, in file order.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class MissionStream {
+    // Missions between two deltas when no number is given.
+    public static final int DEFAULT_DELTA_EVERY = 1000;
+    // Missions between the starts of two checkpoints when no number is given.
+    public static final int DEFAULT_CHECKPOINT_EVERY = 100000;
+    // Packages copied for a checkpoint between two missions, besides the cities the next mission changes.
+    private static final int CAPTURE_BUDGET = 4096;
+    // Time to wait for a followed file to grow.
+    private static final long POLL_MILLIS = 100;
+
+    private final CityRegistry cities;
+    // Compiles one line at a time and reports the invalid ones.
+    private final MissionProgram parser = new MissionProgram();
+    private final CapacityLoader loader;
+    private final ErrorChannel errors;
+    private final ResultWriter deltas;
+    private final int deltaEvery;
+    private final String checkpointFile;
+    private final int checkpointEvery;
+    private final ExecutorService writer;
+
+    // Per city: the lowest stack size since the last delta, or -1 if the city has not changed.
+    private final int[] lowWater;
+    // Per city: the vehicles still queued from the last delta.
+    private final int[] keptVehicles;
+    private final int[] dirty;
+    private int dirtyCount;
+
+    // The checkpoint being copied, the next city to sweep and the line it began at.
+    private Snapshot.Image image;
+    private int sweep;
+    private int imageLine;
+    // The checkpoint being written, and the line it began at.
+    private Future<Void> written;
+    private int writtenLine;
+    private int lastCheckpointLine = -1;
+    private boolean checkpointDue;
+
+    private long missions;
+    private int line;
+    private long deltaCount;
+    private long checkpointCount;
+    private long longestPause;
+    private volatile boolean stopped;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a stream over the cities, opening the delta file if one is given.
+     * Precondition: cities is populated; loader may be null; deltasFile and checkpointFile may be null;
+     * deltaEvery and checkpointEvery are positive.
+     * Postcondition: The stream is ready to run; the delta file, if any, is empty.
+     * --------------------------------------------------------
+     */
+    public MissionStream(CityRegistry cities, CapacityLoader loader, ErrorChannel errors,
+                         String deltasFile, int deltaEvery, String checkpointFile, int checkpointEvery)
+            throws IOException {
+        this.cities = cities;
+        this.loader = loader;
+        this.errors = errors;
+        this.deltas = deltasFile == null ? null : ResultWriter.open(deltasFile);
+        this.deltaEvery = deltaEvery;
+        this.checkpointFile = checkpointFile;
+        this.checkpointEvery = checkpointEvery;
+        this.writer = checkpointFile == null ? null : Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lowWater = new int[cities.size()];
+        this.keptVehicles = new int[cities.size()];
+        this.dirty = new int[cities.size()];
+        for (int c = 0; c < lowWater.length; c++) {
+            lowWater[c] = -1;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Runs the missions of the input as they arrive.
+     * When following a file, the stream writes a delta, finishes the checkpoint
+     * being copied and waits whenever it has run every complete line; it stops
+     * only when stop() is called. Otherwise it stops at the end of the input.
+     * Precondition: in is positioned before a line; follow is true only for a followed file.
+     * Postcondition: Every mission read has run; the input is closed.
+     * --------------------------------------------------------
+     */
+    public void run(InputTokenizer in, boolean follow) throws IOException {
+        try {
+            while (!stopped) {
+                if (!in.nextLine()) {
+                    if (!follow) {
+                        break;
+                    }
+                    idle();
+                    continue;
+                }
+                Mission mission = parser.parseLine(in, cities);
+                line = in.lineNumber();
+                if (mission != null) {
+                    apply(mission);
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Asks a running stream to stop after the mission it is running.
+     * Precondition: None.
+     * Postcondition: run() returns once it next checks; safe to call from any thread.
+     * --------------------------------------------------------
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Runs one mission, keeping the delta and the checkpoint in step with it.
+     * Precondition: mission refers to cities in the registry.
+     * Postcondition: The mission has run; a delta or checkpoint is started if one is due.
+     * --------------------------------------------------------
+     */
+    private void apply(Mission mission) throws IOException {
+        // A mission takes at most a + b packages off the source and middle stacks and only adds to the destination.
+        int taken = Math.max(0, mission.getA()) + Math.max(0, mission.getB());
+        if (image == null) {
+            touch(mission.getSourceId(), taken, true);
+            touch(mission.getMiddleId(), taken, false);
+            touch(mission.getDestId(), 0, false);
+        } else {
+            long start = System.nanoTime();
+            touch(mission.getSourceId(), taken, true);
+            touch(mission.getMiddleId(), taken, false);
+            touch(mission.getDestId(), 0, false);
+            captureSome(CAPTURE_BUDGET);
+            longestPause = Math.max(longestPause, System.nanoTime() - start);
+        }
+        Main.executeMission(cities, mission, loader);
+        missions++;
+
+        if (deltas != null && missions % deltaEvery == 0) {
+            writeDelta();
+        }
+        if (writer != null) {
+            if (written != null && written.isDone()) {
+                collect();
+            }
+            if (missions % checkpointEvery == 0) {
+                checkpointDue = true;
+            }
+            // A checkpoint starts only once the previous one is in place.
+            if (checkpointDue && image == null && written == null) {
+                startCheckpoint();
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Records that a mission is about to change a city.
+     * Precondition: c is a city index; taken is the most packages the mission can take off its stack;
+     * departs is true if the mission takes a vehicle from the city.
+     * Postcondition: The city is in the next delta with marks that cover the mission,
+     * and is copied into the checkpoint being taken if it was not yet.
+     * --------------------------------------------------------
+     */
+    private void touch(int c, int taken, boolean departs) {
+        if (image != null && !image.isCaptured(c)) {
+            image.capture(c, cities.get(c));
+        }
+        if (deltas != null) {
+            DistributionCenter dc = cities.get(c).getDistributionCenter();
+            int floor = Math.max(0, dc.getPackages().size() - taken);
+            if (lowWater[c] < 0) {
+                dirty[dirtyCount++] = c;
+                lowWater[c] = floor;
+                keptVehicles[c] = dc.getVehicles().size();
+            } else if (floor < lowWater[c]) {
+                lowWater[c] = floor;
+            }
+            // Without a loader the head of a non-empty queue leaves; with one, any vehicle may.
+            if (departs && keptVehicles[c] > 0) {
+                keptVehicles[c] = loader == null ? keptVehicles[c] - 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Does the work that can wait while a followed file has no new line.
+     * Precondition: None.
+     * Postcondition: The changes so far are in the delta file and the errors are printed;
+     * a checkpoint being copied is handed to the writer; the thread has waited POLL_MILLIS.
+     * --------------------------------------------------------
+     */
+    private void idle() throws IOException {
+        writeDelta();
+        if (image != null) {
+            captureSome(Integer.MAX_VALUE);
+        }
+        if (written != null && written.isDone()) {
+            collect();
+        }
+        errors.flush();
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Appends the cities changed since the last delta to the delta file.
+     * Precondition: None.
+     * Postcondition: The delta is written and flushed, if there is a delta file and a changed city;
+     * no city is marked as changed.
+     * --------------------------------------------------------
+     */
+    private void writeDelta() throws IOException {
+        if (deltas == null || dirtyCount == 0) {
+            return;
+        }
+        deltaCount++;
+        deltas.writeString("# delta " + deltaCount + " line " + line + "\n");
+        for (int i = 0; i < dirtyCount; i++) {
+            int c = dirty[i];
+            deltas.writeCityDelta(cities.get(c), keptVehicles[c], lowWater[c]);
+            lowWater[c] = -1;
+        }
+        dirtyCount = 0;
+        deltas.flush();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Begins a checkpoint of the state after the current line.
+     * Precondition: There is a checkpoint file; no checkpoint is being copied or written.
+     * Postcondition: The delta file is up to date and marks the start; cities are copied from now on.
+     * --------------------------------------------------------
+     */
+    private void startCheckpoint() throws IOException {
+        writeDelta();
+        if (deltas != null) {
+            deltas.writeString("# checkpoint line " + line + "\n");
+        }
+        image = new Snapshot.Image(cities.size());
+        sweep = 0;
+        imageLine = line;
+        checkpointDue = false;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Copies cities into the checkpoint in registry order until the budget is spent.
+     * Every city visited counts as one package, so empty cities are swept quickly
+     * but not without end.
+     * Precondition: A checkpoint is being copied; budget is positive.
+     * Postcondition: At least one more city is copied if any is left; a complete checkpoint
+     * is handed to the writer thread.
+     * --------------------------------------------------------
+     */
+    private void captureSome(int budget) {
+        int copied = 0;
+        while (sweep < cities.size() && copied < budget) {
+            copied++;
+            if (!image.isCaptured(sweep)) {
+                copied += image.capture(sweep, cities.get(sweep));
+            }
+            sweep++;
+        }
+        if (image.isComplete()) {
+            Snapshot.Image complete = image;
+            image = null;
+            writtenLine = imageLine;
+            lastCheckpointLine = imageLine;
+            String target = checkpointFile;
+            written = writer.submit(() -> {
+                long start = System.nanoTime();
+                String partial = target + ".tmp";
+                complete.write(partial);
+                Files.move(Paths.get(partial), Paths.get(target),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Metrics.time(Metrics.Phase.CHECKPOINT, start);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Waits for the checkpoint being written and records it in the delta file.
+     * Precondition: A checkpoint has been handed to the writer thread.
+     * Postcondition: The checkpoint file is in place; throws the writer's failure if it failed.
+     * --------------------------------------------------------
+     */
+    private void collect() throws IOException {
+        try {
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing a checkpoint", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            written = null;
+        }
+        checkpointCount++;
+        if (deltas != null) {
+            deltas.writeString("# checkpoint written " + checkpointFile + " line " + writtenLine + "\n");
+            deltas.flush();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Brings the delta file and the checkpoint up to the last line run, and closes them.
+     * Precondition: run() has returned.
+     * Postcondition: The last delta is written; the checkpoint file, if any, holds the final state;
+     * the delta file is closed and the writer thread stopped.
+     * --------------------------------------------------------
+     */
+    public void finish() throws IOException {
+        try {
+            if (writer != null) {
+                if (image != null) {
+                    captureSome(Integer.MAX_VALUE);
+                }
+                if (written != null) {
+                    collect();
+                }
+                if (lastCheckpointLine != line) {
+                    startCheckpoint();
+                    captureSome(Integer.MAX_VALUE);
+                    collect();
+                }
+            }
+            writeDelta();
+        } finally {
+            if (writer != null) {
+                writer.shutdown();
+            }
+            if (deltas != null) {
+                deltas.close();
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints a one-line summary of the stream.
+     * Precondition: out is not null.
+     * Postcondition: The missions run, the last line, the deltas and checkpoints written and the
+     * longest time a mission waited for checkpoint copies are printed.
+     * --------------------------------------------------------
+     */
+    public void printSummary(PrintStream out) {
+        out.println(String.format(Locale.ROOT,
+                "Stream: %d missions to line %d, %d deltas, %d checkpoints, longest checkpoint pause %.3f ms",
+                missions, line, deltaCount, checkpointCount, longestPause / 1e6));
+    }
+}
@@ -0,0 +1,295 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Runs the missions in many random orders on forks of one world and summarizes the outcomes.
+ * The missions first run in file order on a fork, on the calling thread,
+ * with the error channel and the loader of the run, so that fork ends as a
+ * normal run does and is the one written to the result file. Then every
+ * variant runs the missions in its own order on its own fork of the loaded
+ * world, variants at a time on a fork-join pool. A fork costs a few fields
+ * and copies only the cities its missions touch (see WorldState), so a
+ * variant pays for what it changes rather than for a copy of the world.
+ *
+ * The order of a variant is the file order shuffled, or the file order with
+ * a number of random pairs of missions swapped. Variant v draws its order
+ * from a generator seeded with the seed and v, so a run is repeatable
+ * whatever the number of threads. A variant counts its errors on a channel
+ * of its own and prints none of them.
+ *
+ * The outcomes are the packages in distribution centers away from the city
+ * they were read for, the missions that found no vehicle and the loads that
+ * found too few packages. Only the cities a variant changed can differ from
+ * the loaded world, and only in the stack nodes they do not share with it,
+ * so the first outcome is counted from those nodes alone.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class MonteCarlo {
+    // Perturbation that shuffles every mission instead of swapping some.
+    public static final int SHUFFLE = -1;
+    // Golden-ratio increment that spreads the seeds of consecutive variants.
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+    // Outcomes per run, and their names in the summary.
+    private static final int MOVED = 0;
+    private static final int NO_VEHICLE = 1;
+    private static final int UNDERFLOW = 2;
+    private static final String[] OUTCOMES = {
+        "Packages away from their city", "Missions without a vehicle", "Loads short of packages"
+    };
+
+    private final int variants;
+    private final int swaps;
+    private final long seed;
+    private final int threads;
+    private final boolean capacity;
+    // Outcomes of every variant, indexed by outcome, then variant; fileOrder holds those of the file order.
+    private final long[][] outcomes;
+    private final long[] fileOrder = new long[OUTCOMES.length];
+    private final long[] changedCities;
+    private long nanos;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a driver for a number of variants.
+     * Precondition: variants and threads are positive; swaps is SHUFFLE or not negative.
+     * Postcondition: A driver is created; every variant uses its own CapacityLoader if capacity is true.
+     * --------------------------------------------------------
+     */
+    public MonteCarlo(int variants, int swaps, long seed, int threads, boolean capacity) {
+        this.variants = variants;
+        this.swaps = swaps;
+        this.seed = seed;
+        this.threads = threads;
+        this.capacity = capacity;
+        outcomes = new long[OUTCOMES.length][variants];
+        changedCities = new long[variants];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Runs the missions in file order and in the order of every variant.
+     * Precondition: world is a root state whose cities use PERSISTENT storage; program was compiled for
+     * them and its invalid lines have been reported; loader may be null.
+     * Postcondition: Returns the fork the missions ran on in file order; world is frozen and unchanged.
+     * The outcomes of every variant are kept for printSummary().
+     * --------------------------------------------------------
+     */
+    public WorldState run(WorldState world, MissionProgram program, CapacityLoader loader) {
+        long away = 0;
+        for (int id = 0; id < world.size(); id++) {
+            City city = world.view(id);
+            away += away(city, city.getDistributionCenter().getPackages().size());
+        }
+        long totalAway = away;
+
+        long start = System.nanoTime();
+        WorldState result = world.fork();
+        result.run(program, null, loader);
+        fileOrder[MOVED] = moved(world, result, totalAway);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // The file order again, only to count its errors per code on a channel of its own.
+            ForkJoinTask<long[]> counted = pool.submit(() -> runVariant(world, program, null, totalAway));
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[variants];
+            for (int v = 0; v < variants; v++) {
+                int variant = v;
+                tasks[v] = pool.submit(() -> {
+                    long[] outcome = runVariant(world, program, order(program.size(), variant), totalAway);
+                    for (int o = 0; o < OUTCOMES.length; o++) {
+                        outcomes[o][variant] = outcome[o];
+                    }
+                    changedCities[variant] = outcome[OUTCOMES.length];
+                });
+            }
+            long[] outcome = counted.join();
+            fileOrder[NO_VEHICLE] = outcome[NO_VEHICLE];
+            fileOrder[UNDERFLOW] = outcome[UNDERFLOW];
+            for (int v = 0; v < variants; v++) {
+                tasks[v].join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Runs the missions in one order on a new fork of the world and measures the outcomes.
+     * Precondition: world is frozen; order is null (file order) or a permutation of the missions.
+     * Postcondition: Returns the outcomes, then the number of cities the fork changed. The fork is dropped.
+     * --------------------------------------------------------
+     */
+    private long[] runVariant(WorldState world, MissionProgram program, int[] order, long totalAway) {
+        WorldState fork = world.fork();
+        ErrorChannel errors = ErrorChannel.countForThread();
+        try {
+            fork.run(program, order, capacity ? new CapacityLoader() : null);
+        } finally {
+            closeQuietly(errors);
+        }
+        long[] outcome = new long[OUTCOMES.length + 1];
+        outcome[MOVED] = moved(world, fork, totalAway);
+        outcome[NO_VEHICLE] = errors.count(ErrorCode.NO_VEHICLE);
+        outcome[UNDERFLOW] = errors.count(ErrorCode.STACK_UNDERFLOW);
+        outcome[OUTCOMES.length] = fork.changedCities();
+        return outcome;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Closes a counting channel, which cannot fail.
+     * Precondition: channel was opened by countForThread() on this thread.
+     * Postcondition: Reports from this thread no longer go to the channel.
+     * --------------------------------------------------------
+     */
+    private static void closeQuietly(ErrorChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the order of the missions for a variant.
+     * Precondition: missions is not negative; 0 <= variant < the number of variants.
+     * Postcondition: Returns a permutation of 0 .. missions - 1 drawn from the seed and the variant.
+     * --------------------------------------------------------
+     */
+    private int[] order(int missions, int variant) {
+        SplittableRandom random = new SplittableRandom(seed + (variant + 1) * SEED_STEP);
+        int[] order = new int[missions];
+        for (int i = 0; i < missions; i++) {
+            order[i] = i;
+        }
+        if (missions < 2) {
+            return order;
+        }
+        if (swaps == SHUFFLE) {
+            for (int i = missions - 1; i > 0; i--) {
+                swap(order, i, random.nextInt(i + 1));
+            }
+        } else {
+            for (int s = 0; s < swaps; s++) {
+                swap(order, random.nextInt(missions), random.nextInt(missions));
+            }
+        }
+        return order;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Swaps two entries of an array.
+     * Precondition: i and j are valid indices of order.
+     * Postcondition: order[i] and order[j] are exchanged.
+     * --------------------------------------------------------
+     */
+    private static void swap(int[] order, int i, int j) {
+        int t = order[i];
+        order[i] = order[j];
+        order[j] = t;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Counts the packages of a fork that are away from their city.
+     * Precondition: fork was forked from world; totalAway was counted on world.
+     * Postcondition: Returns the count over every city, reading only the stack nodes of the cities the
+     * fork changed that it does not share with world.
+     * --------------------------------------------------------
+     */
+    private static long moved(WorldState world, WorldState fork, long totalAway) {
+        long moved = totalAway;
+        int[] ids = fork.changedIds();
+        for (int i = 0; i < ids.length; i++) {
+            City before = world.view(ids[i]);
+            City after = fork.view(ids[i]);
+            PersistentStack<Package> from = (PersistentStack<Package>) before.getDistributionCenter().getPackages();
+            PersistentStack<Package> to = (PersistentStack<Package>) after.getDistributionCenter().getPackages();
+            moved += away(after, to.unsharedWith(from)) - away(before, from.unsharedWith(to));
+        }
+        return moved;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Counts the packages at the top of the distribution center of a city that were read for
+     * another city.
+     * Precondition: city is not null; 0 <= count <= the number of its packages.
+     * Postcondition: Returns the count among the top count packages; the city is not modified.
+     * --------------------------------------------------------
+     */
+    private static int away(City city, int count) {
+        String name = city.getName();
+        int away = 0;
+        Cursor<Package> packages = city.getDistributionCenter().getPackages().cursor();
+        for (int i = 0; i < count; i++) {
+            if (!packages.next().getCity().equals(name)) {
+                away++;
+            }
+        }
+        return away;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints the distribution of every outcome over the variants.
+     * Precondition: run() has returned; out is not null.
+     * Postcondition: A line for the run and a line per outcome are printed.
+     * --------------------------------------------------------
+     */
+    public void printSummary(PrintStream out) {
+        long changed = 0;
+        for (int v = 0; v < variants; v++) {
+            changed += changedCities[v];
+        }
+        double seconds = nanos / 1e9;
+        out.println(String.format(Locale.ROOT,
+                "Monte Carlo: %d variants (%s, seed %d) in %.3f s on %d threads, %.1f variants/s, "
+                        + "%.1f cities changed per variant",
+                variants, swaps == SHUFFLE ? "shuffled" : swaps + " swaps", seed, seconds, threads,
+                variants / seconds, (double) changed / variants));
+        for (int o = 0; o < OUTCOMES.length; o++) {
+            long[] values = outcomes[o].clone();
+            Arrays.sort(values);
+            double mean = 0;
+            for (int v = 0; v < values.length; v++) {
+                mean += values[v];
+            }
+            mean /= values.length;
+            double squares = 0;
+            for (int v = 0; v < values.length; v++) {
+                squares += (values[v] - mean) * (values[v] - mean);
+            }
+            out.println(String.format(Locale.ROOT,
+                    "  %s: file order %d, mean %.1f, sd %.1f, min %d, p5 %d, median %d, p95 %d, max %d",
+                    OUTCOMES[o], fileOrder[o], mean, Math.sqrt(squares / values.length), values[0],
+                    percentile(values, 5), percentile(values, 50), percentile(values, 95),
+                    values[values.length - 1]));
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a percentile of sorted values, by the nearest rank.
+     * Precondition: values is sorted and not empty; 0 < p <= 100.
+     * Postcondition: Returns the smallest value with at least p percent of the values at or below it.
+     * --------------------------------------------------------
+     */
+    private static long percentile(long[] values, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * values.length);
+        return values[Math.max(rank, 1) - 1];
+    }
+}
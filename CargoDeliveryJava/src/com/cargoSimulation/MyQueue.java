@@ -3,23 +3,11 @@ package com.cargoSimulation;
 /**
  * --------------------------------------------------------
  * Summary: Represents a first-in-first-out (FIFO) queue of objects.
- * Uses a doubly linked list as the underlying data structure.
+ * Implemented by LinkedQueue (doubly linked list) and ArrayQueue (circular buffer).
  * Does not use iterators.
  * --------------------------------------------------------
  */
-public class MyQueue<T> {
-    private DoublyLinkedList<T> list;
-
-    /**
-     * --------------------------------------------------------
-     * Summary: Initializes an empty queue.
-     * Precondition: None.
-     * Postcondition: An empty queue is created.
-     * --------------------------------------------------------
-     */
-    public MyQueue() {
-        list = new DoublyLinkedList<>();
-    }
+public interface MyQueue<T> {
 
     /**
      * --------------------------------------------------------
@@ -28,31 +16,25 @@ public class MyQueue<T> {
      * Postcondition: The item is added to the end of the queue.
      * --------------------------------------------------------
      */
-    public void enqueue(T item) {
-        list.addLast(item);
-    }
+    void enqueue(T item);
 
     /**
      * --------------------------------------------------------
      * Summary: Retrieves and removes the head of this queue.
-     * Precondition: The queue is not empty.
-     * Postcondition: The head item is removed from the queue and returned.
+     * Precondition: None.
+     * Postcondition: The head item is removed and returned, or null is returned if the queue is empty.
      * --------------------------------------------------------
      */
-    public T dequeue() {
-        return list.removeFirst();
-    }
+    T dequeue();
 
     /**
      * --------------------------------------------------------
      * Summary: Retrieves, but does not remove, the head of this queue.
-     * Precondition: The queue is not empty.
-     * Postcondition: The head item is returned without modifying the queue.
+     * Precondition: None.
+     * Postcondition: The head item is returned, or null if the queue is empty.
      * --------------------------------------------------------
      */
-    public T peek() {
-        return list.get(0);
-    }
+    T peek();
 
     /**
      * --------------------------------------------------------
@@ -61,9 +43,7 @@ public class MyQueue<T> {
      * Postcondition: Returns true if the queue is empty, false otherwise.
      * --------------------------------------------------------
      */
-    public boolean isEmpty() {
-        return list.isEmpty();
-    }
+    boolean isEmpty();
 
     /**
      * --------------------------------------------------------
@@ -72,18 +52,23 @@ public class MyQueue<T> {
      * Postcondition: Returns the size of the queue.
      * --------------------------------------------------------
      */
-    public int size() {
-        return list.size();
-    }
+    int size();
 
     /**
      * --------------------------------------------------------
      * Summary: Returns an array containing all of the elements in this queue.
      * Precondition: None.
-     * Postcondition: Returns an array of queue elements.
+     * Postcondition: Returns an array of queue elements, head first.
+     * --------------------------------------------------------
+     */
+    Object[] toArray();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the elements of this queue without removing them.
+     * Precondition: The queue is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the head to the tail.
      * --------------------------------------------------------
      */
-    public Object[] toArray() {
-        return list.toArray();
-    }
+    Cursor<T> cursor();
 }
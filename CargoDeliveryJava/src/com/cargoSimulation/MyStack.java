@@ -3,56 +3,59 @@ package com.cargoSimulation;
 /**
  * --------------------------------------------------------
  * Summary: Represents a last-in-first-out (LIFO) stack of objects.
- * Uses a doubly linked list as the underlying data structure.
+ * Implemented by LinkedStack (doubly linked list) and ArrayStack (contiguous array).
  * Does not use iterators.
  * --------------------------------------------------------
  */
-public class MyStack<T> {
-    private DoublyLinkedList<T> list;
+public interface MyStack<T> {
 
     /**
      * --------------------------------------------------------
-     * Summary: Initializes an empty stack.
+     * Summary: Pushes an item onto the top of this stack.
+     * Precondition: item is not null.
+     * Postcondition: The item is added to the top of the stack.
+     * --------------------------------------------------------
+     */
+    void push(T item);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the item at the top of this stack.
      * Precondition: None.
-     * Postcondition: An empty stack is created.
+     * Postcondition: The top item is removed and returned, or null is returned if the stack is empty.
      * --------------------------------------------------------
      */
-    public MyStack() {
-        list = new DoublyLinkedList<>();
-    }
+    T pop();
 
     /**
      * --------------------------------------------------------
-     * Summary: Pushes an item onto the top of this stack.
-     * Precondition: item is not null.
-     * Postcondition: The item is added to the top of the stack.
+     * Summary: Returns the item at the top of this stack without removing it.
+     * Precondition: None.
+     * Postcondition: The top item is returned, or null if the stack is empty.
      * --------------------------------------------------------
      */
-    public void push(T item) {
-        list.addFirst(item);
-    }
+    T peek();
 
     /**
      * --------------------------------------------------------
-     * Summary: Removes and returns the item at the top of this stack.
-     * Precondition: The stack is not empty.
-     * Postcondition: The top item is removed from the stack and returned.
+     * Summary: Removes the top n items of this stack into an array.
+     * The items keep their stack order, bottom first: into[offset] gets the
+     * deepest item removed and into[offset + n - 1] the old top, so pushAll
+     * over the same range puts them back as they were.
+     * Precondition: 0 <= n <= size(); into has room for n items from offset.
+     * Postcondition: The top n items are removed and stored in into[offset .. offset + n).
      * --------------------------------------------------------
      */
-    public T pop() {
-        return list.removeFirst();
-    }
+    void popN(int n, Object[] into, int offset);
 
     /**
      * --------------------------------------------------------
-     * Summary: Returns the item at the top of this stack without removing it.
-     * Precondition: The stack is not empty.
-     * Postcondition: The top item is returned without modifying the stack.
+     * Summary: Pushes a run of items onto this stack, as push calls from items[offset] upwards would.
+     * Precondition: count >= 0; items[offset .. offset + count) are not null.
+     * Postcondition: items[offset + count - 1] is the new top; items is not modified.
      * --------------------------------------------------------
      */
-    public T peek() {
-        return list.get(0);
-    }
+    void pushAll(Object[] items, int offset, int count);
 
     /**
      * --------------------------------------------------------
@@ -61,9 +64,7 @@ public class MyStack<T> {
      * Postcondition: Returns true if the stack is empty, false otherwise.
      * --------------------------------------------------------
      */
-    public boolean isEmpty() {
-        return list.isEmpty();
-    }
+    boolean isEmpty();
 
     /**
      * --------------------------------------------------------
@@ -72,18 +73,23 @@ public class MyStack<T> {
      * Postcondition: Returns the size of the stack.
      * --------------------------------------------------------
      */
-    public int size() {
-        return list.size();
-    }
+    int size();
 
     /**
      * --------------------------------------------------------
      * Summary: Returns an array containing all of the elements in this stack.
      * Precondition: None.
-     * Postcondition: Returns an array of stack elements.
+     * Postcondition: Returns an array of stack elements, top first.
+     * --------------------------------------------------------
+     */
+    Object[] toArray();
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the elements of this stack without removing them.
+     * Precondition: The stack is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the top to the bottom.
      * --------------------------------------------------------
      */
-    public Object[] toArray() {
-        return list.toArray();
-    }
+    Cursor<T> cursor();
 }
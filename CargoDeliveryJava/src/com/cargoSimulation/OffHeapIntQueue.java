@@ -0,0 +1,189 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Off-heap implementation of an IntQueue.
+ * Values live in a chain of SegmentPool segments from head to tail, each
+ * linking to the next. Values are read from the head segment and written to
+ * the tail segment; a segment goes back to the pool once it has been read to
+ * the end. One emptied segment is kept as a spare for the next tail.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class OffHeapIntQueue implements IntQueue {
+    private final SegmentPool pool;
+    private int head;
+    private int headIndex;
+    private int tail;
+    private int tailCount;
+    private int spare;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty queue over a segment pool.
+     * Precondition: pool is not null.
+     * Postcondition: An empty queue is created; no segment is taken until the first enqueue.
+     * --------------------------------------------------------
+     */
+    public OffHeapIntQueue(SegmentPool pool) {
+        this.pool = pool;
+        this.head = SegmentPool.NO_SEGMENT;
+        this.headIndex = 0;
+        this.tail = SegmentPool.NO_SEGMENT;
+        this.tailCount = 0;
+        this.spare = SegmentPool.NO_SEGMENT;
+        this.size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Inserts a value at the tail of the queue.
+     * Precondition: value is not negative.
+     * Postcondition: The value is added to the end of the queue; a segment is added when the tail one is full.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void enqueue(int value) {
+        if (tail == SegmentPool.NO_SEGMENT) {
+            tail = takeSegment();
+            head = tail;
+            headIndex = 0;
+            tailCount = 0;
+        } else if (tailCount == SegmentPool.SEGMENT_CAPACITY) {
+            int segment = takeSegment();
+            pool.setLink(tail, segment);
+            tail = segment;
+            tailCount = 0;
+        }
+        pool.set(tail, tailCount++, value);
+        size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the value at the head of the queue.
+     * Precondition: None.
+     * Postcondition: The head value is removed and returned, or NONE is returned if the queue is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int dequeue() {
+        if (size == 0) {
+            return NONE;
+        }
+        int value = pool.get(head, headIndex++);
+        size--;
+        if (size == 0) {
+            // Head and tail are the same segment; start it over instead of releasing it.
+            headIndex = 0;
+            tailCount = 0;
+        } else if (headIndex == SegmentPool.SEGMENT_CAPACITY) {
+            int next = pool.getLink(head);
+            releaseSegment(head);
+            head = next;
+            headIndex = 0;
+        }
+        return value;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the value at the head of the queue without removing it.
+     * Precondition: None.
+     * Postcondition: The head value is returned, or NONE if the queue is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int peek() {
+        return size == 0 ? NONE : pool.get(head, headIndex);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the queue is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the queue is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of values in the queue.
+     * Precondition: None.
+     * Postcondition: Returns the size of the queue.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the values of this queue without removing them.
+     * Precondition: The queue is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the head to the tail.
+     * --------------------------------------------------------
+     */
+    @Override
+    public IntCursor cursor() {
+        return new IntCursor() {
+            private int segment = head;
+            private int index = headIndex;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public int next() {
+                int value = pool.get(segment, index);
+                remaining--;
+                if (++index == SegmentPool.SEGMENT_CAPACITY && remaining > 0) {
+                    segment = pool.getLink(segment);
+                    index = 0;
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the spare segment, or a new one from the pool.
+     * Precondition: None.
+     * Postcondition: Returns a segment that links to nothing.
+     * --------------------------------------------------------
+     */
+    private int takeSegment() {
+        int segment = spare;
+        if (segment == SegmentPool.NO_SEGMENT) {
+            segment = pool.allocate();
+        } else {
+            spare = SegmentPool.NO_SEGMENT;
+        }
+        pool.setLink(segment, SegmentPool.NO_SEGMENT);
+        return segment;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Keeps a read-out segment as the spare, giving the previous spare back to the pool.
+     * Precondition: segment is no longer part of the queue.
+     * Postcondition: segment is the spare.
+     * --------------------------------------------------------
+     */
+    private void releaseSegment(int segment) {
+        if (spare != SegmentPool.NO_SEGMENT) {
+            pool.free(spare);
+        }
+        spare = segment;
+    }
+}
@@ -0,0 +1,152 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Off-heap implementation of an IntStack.
+ * Values live in a chain of SegmentPool segments, top segment first, each
+ * linking to the segment below it. Only the top segment may be partly filled.
+ * One emptied segment is kept as a spare so a stack that moves back and forth
+ * across a segment boundary does not allocate and free on every operation.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class OffHeapIntStack implements IntStack {
+    private final SegmentPool pool;
+    private int top;
+    private int topCount;
+    private int spare;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty stack over a segment pool.
+     * Precondition: pool is not null.
+     * Postcondition: An empty stack is created; no segment is taken until the first push.
+     * --------------------------------------------------------
+     */
+    public OffHeapIntStack(SegmentPool pool) {
+        this.pool = pool;
+        this.top = SegmentPool.NO_SEGMENT;
+        this.topCount = 0;
+        this.spare = SegmentPool.NO_SEGMENT;
+        this.size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes a value onto the top of this stack.
+     * Precondition: value is not negative.
+     * Postcondition: The value is added to the top of the stack; a segment is added when the top one is full.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void push(int value) {
+        if (top == SegmentPool.NO_SEGMENT || topCount == SegmentPool.SEGMENT_CAPACITY) {
+            int segment = spare;
+            if (segment == SegmentPool.NO_SEGMENT) {
+                segment = pool.allocate();
+            } else {
+                spare = SegmentPool.NO_SEGMENT;
+            }
+            pool.setLink(segment, top);
+            top = segment;
+            topCount = 0;
+        }
+        pool.set(top, topCount++, value);
+        size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the value at the top of this stack.
+     * Precondition: None.
+     * Postcondition: The top value is removed and returned, or NONE is returned if the stack is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int pop() {
+        if (size == 0) {
+            return NONE;
+        }
+        int value = pool.get(top, --topCount);
+        size--;
+        if (topCount == 0) {
+            int below = pool.getLink(top);
+            if (spare != SegmentPool.NO_SEGMENT) {
+                pool.free(spare);
+            }
+            spare = top;
+            top = below;
+            topCount = below == SegmentPool.NO_SEGMENT ? 0 : SegmentPool.SEGMENT_CAPACITY;
+        }
+        return value;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the value at the top of this stack without removing it.
+     * Precondition: None.
+     * Postcondition: The top value is returned, or NONE if the stack is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int peek() {
+        return size == 0 ? NONE : pool.get(top, topCount - 1);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the stack is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the stack is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of values in the stack.
+     * Precondition: None.
+     * Postcondition: Returns the size of the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the values of this stack without removing them.
+     * Precondition: The stack is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the top to the bottom.
+     * --------------------------------------------------------
+     */
+    @Override
+    public IntCursor cursor() {
+        return new IntCursor() {
+            private int segment = top;
+            private int index = topCount - 1;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public int next() {
+                int value = pool.get(segment, index);
+                remaining--;
+                if (--index < 0 && remaining > 0) {
+                    segment = pool.getLink(segment);
+                    index = SegmentPool.SEGMENT_CAPACITY - 1;
+                }
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,245 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Growable block of memory outside the Java heap, addressed by long byte offsets.
+ * The memory is a list of equally sized pages. Pages are either direct
+ * ByteBuffers, which count against -XX:MaxDirectMemorySize, or regions of a
+ * temporary file mapped into memory, which only need address space and disk.
+ * Neither holds any objects, so the garbage collector never scans the contents.
+ * Ints, longs and doubles must be aligned to their size so they never straddle
+ * two pages. Growing is synchronized; reads and writes are not, and callers
+ * must publish addresses to other threads safely.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class OffHeapMemory {
+    private static final int DIRECT_PAGE_BITS = 20;
+    private static final int MAPPED_PAGE_BITS = 26;
+
+    private final int pageBits;
+    private final int pageSize;
+    private final int offsetMask;
+    private final FileChannel file;
+    private volatile ByteBuffer[] pages;
+    private int pageCount;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty memory block.
+     * Precondition: directory is null or an existing, writable directory.
+     * Postcondition: With a null directory pages are direct buffers; otherwise they are mapped
+     * from a new temporary file in the directory that is deleted when the program exits.
+     * --------------------------------------------------------
+     */
+    public OffHeapMemory(String directory) throws IOException {
+        if (directory == null) {
+            this.pageBits = DIRECT_PAGE_BITS;
+            this.file = null;
+        } else {
+            this.pageBits = MAPPED_PAGE_BITS;
+            Path path = Files.createTempFile(Paths.get(directory), "cargo", ".offheap");
+            path.toFile().deleteOnExit();
+            this.file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        this.pageSize = 1 << pageBits;
+        this.offsetMask = pageSize - 1;
+        this.pages = new ByteBuffer[16];
+        this.pageCount = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Makes sure the first given number of bytes can be read and written.
+     * Precondition: bytes is not negative.
+     * Postcondition: Pages cover [0, bytes); new memory is zero. Throws UncheckedIOException
+     * if a mapped page cannot be created.
+     * --------------------------------------------------------
+     */
+    public void ensure(long bytes) {
+        if (bytes > (long) pageCount << pageBits) {
+            grow(bytes);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds pages until the first given number of bytes are covered.
+     * Precondition: bytes is not negative.
+     * Postcondition: Pages cover [0, bytes).
+     * --------------------------------------------------------
+     */
+    private synchronized void grow(long bytes) {
+        try {
+            ByteBuffer[] current = pages;
+            while (bytes > (long) pageCount << pageBits) {
+                if (pageCount == current.length) {
+                    ByteBuffer[] larger = new ByteBuffer[current.length * 2];
+                    System.arraycopy(current, 0, larger, 0, pageCount);
+                    current = larger;
+                }
+                ByteBuffer page = file == null
+                        ? ByteBuffer.allocateDirect(pageSize)
+                        : file.map(FileChannel.MapMode.READ_WRITE, (long) pageCount << pageBits, pageSize);
+                current[pageCount++] = page.order(ByteOrder.nativeOrder());
+            }
+            pages = current;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads a byte.
+     * Precondition: address lies in ensured memory.
+     * Postcondition: Returns the byte at the address.
+     * --------------------------------------------------------
+     */
+    public byte getByte(long address) {
+        return pages[(int) (address >>> pageBits)].get((int) address & offsetMask);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes a byte.
+     * Precondition: address lies in ensured memory.
+     * Postcondition: The byte at the address holds value.
+     * --------------------------------------------------------
+     */
+    public void putByte(long address, byte value) {
+        pages[(int) (address >>> pageBits)].put((int) address & offsetMask, value);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads an int.
+     * Precondition: address is a multiple of 4 in ensured memory.
+     * Postcondition: Returns the int at the address.
+     * --------------------------------------------------------
+     */
+    public int getInt(long address) {
+        return pages[(int) (address >>> pageBits)].getInt((int) address & offsetMask);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes an int.
+     * Precondition: address is a multiple of 4 in ensured memory.
+     * Postcondition: The int at the address holds value.
+     * --------------------------------------------------------
+     */
+    public void putInt(long address, int value) {
+        pages[(int) (address >>> pageBits)].putInt((int) address & offsetMask, value);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads a long.
+     * Precondition: address is a multiple of 8 in ensured memory.
+     * Postcondition: Returns the long at the address.
+     * --------------------------------------------------------
+     */
+    public long getLong(long address) {
+        return pages[(int) (address >>> pageBits)].getLong((int) address & offsetMask);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes a long.
+     * Precondition: address is a multiple of 8 in ensured memory.
+     * Postcondition: The long at the address holds value.
+     * --------------------------------------------------------
+     */
+    public void putLong(long address, long value) {
+        pages[(int) (address >>> pageBits)].putLong((int) address & offsetMask, value);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads a double.
+     * Precondition: address is a multiple of 8 in ensured memory.
+     * Postcondition: Returns the double at the address.
+     * --------------------------------------------------------
+     */
+    public double getDouble(long address) {
+        return pages[(int) (address >>> pageBits)].getDouble((int) address & offsetMask);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes a double.
+     * Precondition: address is a multiple of 8 in ensured memory.
+     * Postcondition: The double at the address holds value.
+     * --------------------------------------------------------
+     */
+    public void putDouble(long address, double value) {
+        pages[(int) (address >>> pageBits)].putDouble((int) address & offsetMask, value);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Copies bytes out of the memory; the range may span pages.
+     * Precondition: [address, address + length) lies in ensured memory; target has room.
+     * Postcondition: target[offset..offset+length-1] holds the bytes.
+     * --------------------------------------------------------
+     */
+    public void getBytes(long address, byte[] target, int offset, int length) {
+        ByteBuffer[] current = pages;
+        while (length > 0) {
+            int inPage = (int) address & offsetMask;
+            int n = Math.min(length, pageSize - inPage);
+            current[(int) (address >>> pageBits)].get(inPage, target, offset, n);
+            address += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Copies bytes into the memory; the range may span pages.
+     * Precondition: [address, address + length) lies in ensured memory.
+     * Postcondition: The range holds source[offset..offset+length-1].
+     * --------------------------------------------------------
+     */
+    public void putBytes(long address, byte[] source, int offset, int length) {
+        ByteBuffer[] current = pages;
+        while (length > 0) {
+            int inPage = (int) address & offsetMask;
+            int n = Math.min(length, pageSize - inPage);
+            current[(int) (address >>> pageBits)].put(inPage, source, offset, n);
+            address += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes a range of bytes to a result writer without an intermediate array.
+     * Precondition: [address, address + length) lies in ensured memory; out is open.
+     * Postcondition: The bytes are written.
+     * --------------------------------------------------------
+     */
+    public void writeTo(long address, int length, ResultWriter out) throws IOException {
+        ByteBuffer[] current = pages;
+        while (length > 0) {
+            int inPage = (int) address & offsetMask;
+            int n = Math.min(length, pageSize - inPage);
+            out.writeBytes(current[(int) (address >>> pageBits)], inPage, n);
+            address += n;
+            length -= n;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Off-heap implementation of a PackageStore.
+ * IDs live in an OffHeapStringPool and city indices in an OffHeapMemory of
+ * ints, so the heap only holds the small table of distinct city names no
+ * matter how many packages are stored. Volumes are written to their own
+ * memory once the first package with a volume is added. Adding is synchronized so the parallel
+ * loader can fill one store from several threads.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class OffHeapPackageStore implements PackageStore {
+    private final OffHeapStringPool ids;
+    private final OffHeapMemory cities;
+    private final OffHeapMemory volumes;
+    private volatile boolean hasVolumes;
+    private int size;
+
+    private final HashMap<String, Integer> cityIndex = new HashMap<>();
+    private volatile String[] cityNames = new String[16];
+    private int cityCount;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty store.
+     * Precondition: directory is null or an existing, writable directory.
+     * Postcondition: An empty store is created over direct or file-mapped memory.
+     * --------------------------------------------------------
+     */
+    public OffHeapPackageStore(String directory) throws IOException {
+        ids = new OffHeapStringPool(directory);
+        cities = new OffHeapMemory(directory);
+        volumes = new OffHeapMemory(directory);
+        hasVolumes = false;
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a package and returns its handle.
+     * Precondition: id and city are not null; volume is not negative.
+     * Postcondition: The package is stored under the returned handle.
+     * --------------------------------------------------------
+     */
+    @Override
+    public synchronized int add(String id, String city, double volume) {
+        int cityIndexOfPackage = cityIndexOf(city);
+        cities.ensure((size + 1L) * Integer.BYTES);
+        cities.putInt((long) size * Integer.BYTES, cityIndexOfPackage);
+        if (volume != 0 || hasVolumes) {
+            // New memory is zero, so earlier packages read as having no volume.
+            volumes.ensure((size + 1L) * Double.BYTES);
+            volumes.putDouble((long) size * Double.BYTES, volume);
+            hasVolumes = true;
+        }
+        ids.add(id);
+        return size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of a package.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the package ID.
+     * --------------------------------------------------------
+     */
+    @Override
+    public String getId(int handle) {
+        return ids.get(handle);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the city name of a package.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the shared city name String.
+     * --------------------------------------------------------
+     */
+    @Override
+    public String getCity(int handle) {
+        return cityNames[cities.getInt((long) handle * Integer.BYTES)];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of a package.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the package volume, 0 if none was given.
+     * --------------------------------------------------------
+     */
+    @Override
+    public double getVolume(int handle) {
+        return hasVolumes ? volumes.getDouble((long) handle * Double.BYTES) : 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds a Package object with the values of a handle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns a new Package; the store is not changed.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Package toPackage(int handle) {
+        return new Package(getId(handle), getCity(handle), getVolume(handle));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the ID of a package without building a String.
+     * Precondition: handle was returned by add; out is open.
+     * Postcondition: The ID bytes are written.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void writeId(int handle, ResultWriter out) throws IOException {
+        ids.writeTo(handle, out);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of stored packages.
+     * Precondition: None.
+     * Postcondition: Returns the number of handles handed out.
+     * --------------------------------------------------------
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the index of a city name, adding it if it is new.
+     * Precondition: city is not null; the caller holds the lock.
+     * Postcondition: Returns the index of the name in cityNames.
+     * --------------------------------------------------------
+     */
+    private int cityIndexOf(String city) {
+        Integer index = cityIndex.get(city);
+        if (index != null) {
+            return index;
+        }
+        String[] names = cityNames;
+        if (cityCount == names.length) {
+            String[] grown = new String[cityCount * 2];
+            System.arraycopy(names, 0, grown, 0, cityCount);
+            names = grown;
+        }
+        names[cityCount] = city;
+        cityNames = names;
+        cityIndex.put(city, cityCount);
+        return cityCount++;
+    }
+}
@@ -0,0 +1,128 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Append-only pool of UTF-8 strings kept outside the Java heap.
+ * The off-heap counterpart of StringPool. The encoded bytes are stored back to
+ * back in one OffHeapMemory, and the end offset of every string in another, so
+ * the pool holds no per-string objects and is not limited to 2 GB.
+ * Adding is synchronized.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class OffHeapStringPool {
+    private final OffHeapMemory bytes;
+    private final OffHeapMemory ends;
+    private long byteCount;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty pool.
+     * Precondition: directory is null or an existing, writable directory.
+     * Postcondition: An empty pool is created over direct or file-mapped memory.
+     * --------------------------------------------------------
+     */
+    public OffHeapStringPool(String directory) throws IOException {
+        bytes = new OffHeapMemory(directory);
+        ends = new OffHeapMemory(directory);
+        byteCount = 0;
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Appends a string and returns its index.
+     * ASCII strings are copied character by character without a temporary array.
+     * Precondition: s is not null.
+     * Postcondition: The string is stored under the returned index.
+     * --------------------------------------------------------
+     */
+    public synchronized int add(String s) {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap string pool is full");
+        }
+        int length = s.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = s.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            bytes.ensure(byteCount + length);
+            for (int i = 0; i < length; i++) {
+                bytes.putByte(byteCount + i, (byte) s.charAt(i));
+            }
+            byteCount += length;
+        } else {
+            byte[] encoded = s.getBytes(StandardCharsets.UTF_8);
+            bytes.ensure(byteCount + encoded.length);
+            bytes.putBytes(byteCount, encoded, 0, encoded.length);
+            byteCount += encoded.length;
+        }
+        ends.ensure((size + 1L) * Long.BYTES);
+        ends.putLong((long) size * Long.BYTES, byteCount);
+        return size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the string stored under an index.
+     * Precondition: index is between 0 and size - 1.
+     * Postcondition: Returns a new String with the stored characters.
+     * --------------------------------------------------------
+     */
+    public String get(int index) {
+        long start = start(index);
+        byte[] encoded = new byte[(int) (end(index) - start)];
+        bytes.getBytes(start, encoded, 0, encoded.length);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the UTF-8 bytes of a stored string.
+     * Precondition: index is between 0 and size - 1; out is open.
+     * Postcondition: The bytes are written without building a String.
+     * --------------------------------------------------------
+     */
+    public void writeTo(int index, ResultWriter out) throws IOException {
+        long start = start(index);
+        bytes.writeTo(start, (int) (end(index) - start), out);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of stored strings.
+     * Precondition: None.
+     * Postcondition: Returns the size of the pool.
+     * --------------------------------------------------------
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the offset of the first byte of a string.
+     * Precondition: index is between 0 and size - 1.
+     * Postcondition: Returns the start offset.
+     * --------------------------------------------------------
+     */
+    private long start(int index) {
+        return index == 0 ? 0 : ends.getLong((index - 1L) * Long.BYTES);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the offset just past the last byte of a string.
+     * Precondition: index is between 0 and size - 1.
+     * Postcondition: Returns the end offset.
+     * --------------------------------------------------------
+     */
+    private long end(int index) {
+        return ends.getLong((long) index * Long.BYTES);
+    }
+}
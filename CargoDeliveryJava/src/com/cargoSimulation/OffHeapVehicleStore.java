@@ -0,0 +1,106 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Off-heap implementation of a VehicleStore.
+ * IDs live in an OffHeapStringPool and volumes in an OffHeapMemory of doubles,
+ * so stored vehicles take no heap at all. Adding is synchronized so the
+ * parallel loader can fill one store from several threads.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class OffHeapVehicleStore implements VehicleStore {
+    private final OffHeapStringPool ids;
+    private final OffHeapMemory volumes;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty store.
+     * Precondition: directory is null or an existing, writable directory.
+     * Postcondition: An empty store is created over direct or file-mapped memory.
+     * --------------------------------------------------------
+     */
+    public OffHeapVehicleStore(String directory) throws IOException {
+        ids = new OffHeapStringPool(directory);
+        volumes = new OffHeapMemory(directory);
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a vehicle and returns its handle.
+     * Precondition: id is not null.
+     * Postcondition: The vehicle is stored under the returned handle.
+     * --------------------------------------------------------
+     */
+    @Override
+    public synchronized int add(String id, double volume) {
+        volumes.ensure((size + 1L) * Double.BYTES);
+        volumes.putDouble((long) size * Double.BYTES, volume);
+        ids.add(id);
+        return size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of a vehicle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the vehicle ID.
+     * --------------------------------------------------------
+     */
+    @Override
+    public String getId(int handle) {
+        return ids.get(handle);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of a vehicle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the vehicle volume.
+     * --------------------------------------------------------
+     */
+    @Override
+    public double getVolume(int handle) {
+        return volumes.getDouble((long) handle * Double.BYTES);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds a Vehicle object with the values of a handle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns a new Vehicle with empty cargo; the store is not changed.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Vehicle toVehicle(int handle) {
+        return new Vehicle(getId(handle), getVolume(handle));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the ID of a vehicle without building a String.
+     * Precondition: handle was returned by add; out is open.
+     * Postcondition: The ID bytes are written.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void writeId(int handle, ResultWriter out) throws IOException {
+        ids.writeTo(handle, out);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of stored vehicles.
+     * Precondition: None.
+     * Postcondition: Returns the number of handles handed out.
+     * --------------------------------------------------------
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+}
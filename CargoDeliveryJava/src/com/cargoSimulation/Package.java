@@ -3,12 +3,15 @@ package com.cargoSimulation;
 /**
  * --------------------------------------------------------
  * Summary: Represents a package to be delivered in the cargo simulation.
- * Each package has an ID and a destination city.
+ * Each package has an ID, a destination city and an optional volume.
  * --------------------------------------------------------
  */
 public class Package {
     private String id;
     private String city;
+    private double volume;
+    // Index of the package in the PackageTracker, or -1 while it is not tracked.
+    private int trackingIndex = -1;
 
     /**
      * --------------------------------------------------------
@@ -18,8 +21,20 @@ public class Package {
      * --------------------------------------------------------
      */
     public Package(String id, String city) {
+        this(id, city, 0);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a package with the given ID, city and volume.
+     * Precondition: id and city are not null; volume is not negative.
+     * Postcondition: Package is created with specified ID, city and volume.
+     * --------------------------------------------------------
+     */
+    public Package(String id, String city, double volume) {
         this.id = id;
         this.city = city;
+        this.volume = volume;
     }
 
     /**
@@ -43,4 +58,39 @@ public class Package {
     public String getCity() {
         return city;
     }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of the package.
+     * Precondition: None.
+     * Postcondition: Returns the package's volume, 0 if none was given.
+     * --------------------------------------------------------
+     */
+    public double getVolume() {
+        return volume;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the index of the package in the PackageTracker.
+     * Kept on the package so a mission that has it in hand finds its entry
+     * without looking up the ID.
+     * Precondition: None.
+     * Postcondition: Returns the index, or -1 if the package is not tracked.
+     * --------------------------------------------------------
+     */
+    int getTrackingIndex() {
+        return trackingIndex;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Sets the index of the package in the PackageTracker.
+     * Precondition: index is not negative; no mission is running.
+     * Postcondition: getTrackingIndex() returns index.
+     * --------------------------------------------------------
+     */
+    void setTrackingIndex(int index) {
+        trackingIndex = index;
+    }
 }
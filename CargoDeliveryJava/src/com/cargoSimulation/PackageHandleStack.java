@@ -0,0 +1,192 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Package stack of a compact distribution center.
+ * The stack itself holds int handles into a shared PackageStore. The MyStack
+ * methods convert between handles and Package objects for loaders, snapshots
+ * and other code that works with objects; the mission hot path uses the
+ * handles directly and allocates nothing.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class PackageHandleStack implements MyStack<Package> {
+    private final IntStack handles;
+    private final PackageStore store;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty stack over a package store.
+     * Precondition: store is not null.
+     * Postcondition: An empty stack is created.
+     * --------------------------------------------------------
+     */
+    public PackageHandleStack(PackageStore store) {
+        this(new ArrayIntStack(), store);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a stack over the given handles and package store.
+     * Precondition: handles and store are not null; handles is empty or refers to store.
+     * Postcondition: A stack backed by handles is created.
+     * --------------------------------------------------------
+     */
+    public PackageHandleStack(IntStack handles, PackageStore store) {
+        this.handles = handles;
+        this.store = store;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the handles on this stack.
+     * Precondition: None.
+     * Postcondition: Returns the underlying stack of handles.
+     * --------------------------------------------------------
+     */
+    public IntStack getHandles() {
+        return handles;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the store the handles refer to.
+     * Precondition: None.
+     * Postcondition: Returns the package store.
+     * --------------------------------------------------------
+     */
+    public PackageStore getStore() {
+        return store;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a package and pushes its handle.
+     * Precondition: item is not null.
+     * Postcondition: A new handle with the package's values is on top of the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void push(Package item) {
+        handles.push(store.add(item.getId(), item.getCity(), item.getVolume()));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the top handle and returns it as a Package.
+     * Precondition: None.
+     * Postcondition: The top handle is removed and a Package is returned, or null if the stack is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Package pop() {
+        int handle = handles.pop();
+        return handle == IntStack.NONE ? null : store.toPackage(handle);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the top n packages into an array, bottom first, materializing each one.
+     * Precondition: 0 <= n <= size(); into has room for n items from offset.
+     * Postcondition: The top n packages are removed and stored in into[offset .. offset + n).
+     * --------------------------------------------------------
+     */
+    @Override
+    public void popN(int n, Object[] into, int offset) {
+        for (int i = n - 1; i >= 0; i--) {
+            into[offset + i] = store.toPackage(handles.pop());
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a run of packages and pushes their handles, items[offset] first.
+     * Precondition: count >= 0; items[offset .. offset + count) are packages.
+     * Postcondition: The package of items[offset + count - 1] is the new top; items is not modified.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void pushAll(Object[] items, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            push((Package) items[offset + i]);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the top handle as a Package without removing it.
+     * Precondition: None.
+     * Postcondition: A Package is returned, or null if the stack is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Package peek() {
+        int handle = handles.peek();
+        return handle == IntStack.NONE ? null : store.toPackage(handle);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the stack is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the stack is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return handles.isEmpty();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of packages in the stack.
+     * Precondition: None.
+     * Postcondition: Returns the size of the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return handles.size();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns an array containing all of the packages in this stack.
+     * Precondition: None.
+     * Postcondition: Returns new Package objects, top first, matching LinkedStack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[handles.size()];
+        IntCursor cursor = handles.cursor();
+        for (int i = 0; i < array.length; i++) {
+            array[i] = store.toPackage(cursor.next());
+        }
+        return array;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the packages of this stack without removing them.
+     * Precondition: The stack is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads new Package objects from the top to the bottom.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Cursor<Package> cursor() {
+        return new Cursor<Package>() {
+            private final IntCursor cursor = handles.cursor();
+
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public Package next() {
+                return store.toPackage(cursor.next());
+            }
+        };
+    }
+}
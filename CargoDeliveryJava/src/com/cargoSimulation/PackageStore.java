@@ -0,0 +1,79 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Storage for packages addressed by int handles.
+ * A package is stored once and then moved between distribution centers as its
+ * handle. Handles are handed out in increasing order from 0 and never reused.
+ * add is safe to call from several threads; reading a handle needs no lock once
+ * the handle itself has been published. Implemented on the heap by
+ * HeapPackageStore and off the heap by OffHeapPackageStore.
+ * --------------------------------------------------------
+ */
+public interface PackageStore {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a package and returns its handle.
+     * Precondition: id and city are not null; volume is not negative.
+     * Postcondition: The package is stored under the returned handle.
+     * --------------------------------------------------------
+     */
+    int add(String id, String city, double volume);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of a package.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the package ID.
+     * --------------------------------------------------------
+     */
+    String getId(int handle);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the city name of a package.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the shared city name String.
+     * --------------------------------------------------------
+     */
+    String getCity(int handle);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of a package.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the package volume, 0 if none was given.
+     * --------------------------------------------------------
+     */
+    double getVolume(int handle);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds a Package object with the values of a handle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns a new Package; the store is not changed.
+     * --------------------------------------------------------
+     */
+    Package toPackage(int handle);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the ID of a package without building a String.
+     * Precondition: handle was returned by add; out is open.
+     * Postcondition: The ID bytes are written.
+     * --------------------------------------------------------
+     */
+    void writeId(int handle, ResultWriter out) throws IOException;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of stored packages.
+     * Precondition: None.
+     * Postcondition: Returns the number of handles handed out.
+     * --------------------------------------------------------
+     */
+    int size();
+}
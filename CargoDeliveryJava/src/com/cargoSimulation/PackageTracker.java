@@ -0,0 +1,613 @@
+package com.cargoSimulation;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Index from package ID to where the package is now, with the places it was before.
+ * Tracking is off until enable() is called. track() then indexes every
+ * package of the loaded cities once, and from there the mission code moves a
+ * package in the index where it moves it: a compact mission as it pushes
+ * each handle onto a depot, the other mission code for the top packages of a
+ * depot it pushed onto or the first packages of a cargo list it loaded. The
+ * mission code reads active() once per mission and moves nothing when it is
+ * null, so a run without tracking pays one null check per mission. A mission
+ * pops a package and pushes it again before any query can run, so only where
+ * it is left is moved in the index.
+ *
+ * A package is in the depot of a city, at a slot counted from the bottom of
+ * its stack, or on a vehicle. The index keeps the city or the vehicle; a
+ * depot only changes at its top, so the slot of a package stays the same
+ * until it is moved again, and a query counts it in the depot. The mission
+ * code never looks up an ID or a name: packages and vehicles of a compact
+ * storage are known by their handles in the shared stores, and other
+ * packages, vehicles and every city keep their index on the object, which
+ * the mission has in hand. IDs are only looked up by queries, in an
+ * open-addressing table of indices built by track(), which reads the IDs from
+ * the packages or the store, so the index adds a few arrays to the heap
+ * rather than an object per package. A package is assumed to have an ID of
+ * its own.
+ *
+ * A place is one int, so each long of the state array holds two, and each
+ * package has a fixed run of longs with its last places, newest first. A move
+ * shifts the run by one place and writes the new place in front: with the
+ * default history of two places that is one read and one write of one long,
+ * which no other thread writes, since missions on different threads move
+ * disjoint packages. The history takes the same memory however long the run
+ * is.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class PackageTracker {
+    // Places of each package kept when no number is given: where it is and where it was before.
+    public static final int DEFAULT_HISTORY = 2;
+    // Most places of each package kept.
+    public static final int MAX_HISTORY = 1 << 10;
+    // Slot of a package that is on a vehicle.
+    public static final int ON_VEHICLE = -1;
+    // Slot of a package in a depot it has moved on from; the history does not keep slots.
+    public static final int UNKNOWN_SLOT = -2;
+    // Largest array the JVM allocates.
+    private static final int MAX_ARRAY = Integer.MAX_VALUE - 8;
+    private static final long LOW = 0xFFFFFFFFL;
+
+    private static volatile PackageTracker active;
+
+    // Longs of the state array per package, each with two places.
+    private int words;
+    private CityRegistry cities;
+    // Packages and vehicles of compact storages are indexed by handle in these stores; null for other storages.
+    private PackageStore store;
+    private VehicleStore vehicleStore;
+    // Packages of other storages, by index.
+    private Package[] packages = new Package[0];
+    private int packageCount;
+    // Hash slots hold (package index + 1); 0 marks an empty slot.
+    private int[] slots = new int[1];
+    private int[] slotHashes = new int[1];
+    // IDs of the vehicles of other storages, by index.
+    private String[] vehicleIds = new String[0];
+    private int vehicleCount;
+    // Places by package index, newest first from the low half of its first long. A place is the city ID
+    // plus 1 for a depot, the complement of the vehicle index for a vehicle, or 0 where none is kept yet.
+    private long[] state = new long[0];
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Where a package is, or was before.
+     * --------------------------------------------------------
+     */
+    public static final class Location {
+        private final String city;
+        private final int slot;
+        private final String vehicle;
+
+        Location(String city, int slot, String vehicle) {
+            this.city = city;
+            this.slot = slot;
+            this.vehicle = vehicle;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the city of the depot.
+         * Precondition: None.
+         * Postcondition: Returns the city name, or null if the package is on a vehicle.
+         * --------------------------------------------------------
+         */
+        public String getCity() {
+            return city;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the slot in the depot, counted from the bottom of its stack.
+         * Precondition: None.
+         * Postcondition: Returns the slot, ON_VEHICLE if the package is on a vehicle, or UNKNOWN_SLOT for
+         * a depot it has moved on from.
+         * --------------------------------------------------------
+         */
+        public int getSlot() {
+            return slot;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the vehicle that carries the package.
+         * Precondition: None.
+         * Postcondition: Returns the vehicle ID, or null if the package is in a depot.
+         * --------------------------------------------------------
+         */
+        public String getVehicle() {
+            return vehicle;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Describes the location.
+         * Precondition: None.
+         * Postcondition: Returns a line such as "depot of Berlin, slot 3" or "vehicle V7".
+         * --------------------------------------------------------
+         */
+        @Override
+        public String toString() {
+            if (slot == ON_VEHICLE) {
+                return "vehicle " + vehicle;
+            }
+            return "depot of " + city + (slot == UNKNOWN_SLOT ? "" : ", slot " + slot);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a tracker that has indexed no package yet.
+     * Precondition: historySize is positive.
+     * Postcondition: A tracker is created that keeps the last historySize places of each package, rounded
+     * up to an even number and at most MAX_HISTORY.
+     * --------------------------------------------------------
+     */
+    private PackageTracker(int historySize) {
+        this.words = (Math.min(historySize, MAX_HISTORY) + 1) / 2;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Turns tracking on for the rest of the run.
+     * Precondition: historySize is positive; no loader or mission thread is running.
+     * Postcondition: Returns a new tracker, which active() returns from now on.
+     * --------------------------------------------------------
+     */
+    public static PackageTracker enable(int historySize) {
+        active = new PackageTracker(historySize);
+        return active;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Turns tracking off.
+     * Precondition: No loader or mission thread is running.
+     * Postcondition: active() returns null; the missions move no package in any tracker.
+     * --------------------------------------------------------
+     */
+    public static void disable() {
+        active = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the tracker of the run.
+     * Precondition: None.
+     * Postcondition: Returns the tracker, or null if tracking is off.
+     * --------------------------------------------------------
+     */
+    public static PackageTracker active() {
+        return active;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Indexes every package and vehicle of the cities where it is now.
+     * Precondition: cities is not null and every city uses the same storage; no mission is running.
+     * Postcondition: Every package in a depot or on a vehicle of the cities can be located, and the
+     * missions on them can move it.
+     * --------------------------------------------------------
+     */
+    public void track(CityRegistry cities) {
+        this.cities = cities;
+        int count = 0;
+        for (int c = 0; c < cities.size(); c++) {
+            DistributionCenter dc = cities.get(c).getDistributionCenter();
+            count += dc.getPackages().size();
+            if (dc.getPackageHandles() != null) {
+                store = dc.getPackageHandles().getStore();
+                vehicleStore = dc.getVehicleHandles().getStore();
+            } else {
+                Cursor<Vehicle> vehicles = dc.getVehicles().cursor();
+                while (vehicles.hasNext()) {
+                    count += vehicles.next().getCargoPackages().size();
+                }
+            }
+        }
+        if (store == null) {
+            packages = new Package[count];
+        } else {
+            count = store.size();
+        }
+        // Fewer places are kept if the state of every package would not fit in one array.
+        while (words > 1 && (long) count * words > MAX_ARRAY) {
+            words /= 2;
+        }
+        state = new long[count * words];
+        slots = new int[Integer.highestOneBit(Math.max(count, 1) * 4 - 1)];
+        slotHashes = new int[slots.length];
+        for (int c = 0; c < cities.size(); c++) {
+            City city = cities.get(c);
+            city.setTrackingIndex(c);
+            DistributionCenter dc = city.getDistributionCenter();
+            int depth = dc.getPackages().size();
+            PackageHandleStack handles = dc.getPackageHandles();
+            if (handles != null) {
+                IntCursor cursor = handles.getHandles().cursor();
+                for (int i = 0; i < depth; i++) {
+                    int handle = cursor.next();
+                    index(store.getId(handle), handle);
+                    move(handle, depot(city));
+                }
+            } else {
+                Cursor<Package> cursor = dc.getPackages().cursor();
+                for (int i = 0; i < depth; i++) {
+                    move(register(cursor.next()), depot(city));
+                }
+            }
+            if (handles == null) {
+                Cursor<Vehicle> vehicles = dc.getVehicles().cursor();
+                while (vehicles.hasNext()) {
+                    Vehicle vehicle = vehicles.next();
+                    int v = register(vehicle);
+                    CargoList<Package> cargo = vehicle.getCargoPackages();
+                    for (int i = 0; i < cargo.size(); i++) {
+                        move(register(cargo.get(i)), ~v);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Gives a package the next index.
+     * Precondition: pkg is not null and not on a compact storage; track() has made room for it.
+     * Postcondition: Returns the index of the package, which its ID and getTrackingIndex() resolve to.
+     * --------------------------------------------------------
+     */
+    private int register(Package pkg) {
+        int index = packageCount++;
+        packages[index] = pkg;
+        pkg.setTrackingIndex(index);
+        index(pkg.getId(), index);
+        return index;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds a package index to the hash table under its ID.
+     * Precondition: id is the ID of the package with that index; the table has free slots.
+     * Postcondition: indexOf(id) returns index.
+     * --------------------------------------------------------
+     */
+    private void index(String id, int index) {
+        int hash = mix(id.hashCode());
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+        slotHashes[slot] = hash;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the index of the package with an ID.
+     * Precondition: id is not null.
+     * Postcondition: Returns the index, or -1 if no tracked package has that ID.
+     * --------------------------------------------------------
+     */
+    private int indexOf(String id) {
+        int hash = mix(id.hashCode());
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (slotHashes[slot] == hash && idAt(entry - 1).equals(id)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of the package with an index.
+     * Precondition: index is a package index.
+     * Postcondition: Returns the ID from the store or the package.
+     * --------------------------------------------------------
+     */
+    private String idAt(int index) {
+        return store != null ? store.getId(index) : packages[index].getId();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Spreads the bits of a hash code over the slots of the table.
+     * Precondition: None.
+     * Postcondition: Returns the mixed hash value.
+     * --------------------------------------------------------
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Gives a vehicle an index.
+     * Precondition: vehicle is not null and not on a compact storage.
+     * Postcondition: Returns the index of the vehicle, which getTrackingIndex() returns.
+     * --------------------------------------------------------
+     */
+    private int register(Vehicle vehicle) {
+        if (vehicleCount == vehicleIds.length) {
+            String[] grown = new String[Math.max(16, vehicleIds.length * 2)];
+            System.arraycopy(vehicleIds, 0, grown, 0, vehicleIds.length);
+            vehicleIds = grown;
+        }
+        vehicleIds[vehicleCount] = vehicle.getId();
+        vehicle.setTrackingIndex(vehicleCount);
+        return vehicleCount++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the place of the depot of a city, as move() takes it.
+     * Precondition: city is tracked.
+     * Postcondition: Returns the place.
+     * --------------------------------------------------------
+     */
+    public int depot(City city) {
+        return city.getTrackingIndex() + 1;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves a package to a place, which becomes its newest; the oldest kept place is dropped.
+     * Precondition: index is a package handle or tracking index, or -1 for a package that is not
+     * tracked; place is from depot(), or the complement of a vehicle handle or tracking index; no other
+     * thread moves the package.
+     * Postcondition: The package is located at the place.
+     * --------------------------------------------------------
+     */
+    public void move(int index, int place) {
+        if (index < 0) {
+            return;
+        }
+        // The default history is one long per package, found without a multiply.
+        if (words == 1) {
+            state[index] = state[index] << 32 | (place & LOW);
+            return;
+        }
+        int base = index * words;
+        long first = state[base];
+        state[base] = first << 32 | (place & LOW);
+        shift(base + 1, first >>> 32);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Shifts the older places of a package by one place.
+     * Kept out of move() so that move() stays small enough to inline with the default history.
+     * Precondition: from is the second long of a package; place was shifted out of the first.
+     * Postcondition: place is the newest of the older places; the oldest is dropped.
+     * --------------------------------------------------------
+     */
+    private void shift(int from, long place) {
+        for (int w = from; w < from + words - 1; w++) {
+            long older = state[w];
+            state[w] = older << 32 | place;
+            place = older >>> 32;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves the packages a mission has left in its middle and destination depots.
+     * Precondition: The mission has just pushed toMiddle packages onto the depot of middle, then toDest
+     * onto that of dest, and runs on this thread alone in those cities.
+     * Postcondition: Those packages are located in their depots.
+     * --------------------------------------------------------
+     */
+    public void recordMission(City middle, int toMiddle, City dest, int toDest) {
+        if (middle == dest) {
+            placed(dest, toMiddle + toDest);
+        } else {
+            placed(middle, toMiddle);
+            placed(dest, toDest);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves the packages just pushed onto the depot of a city.
+     * Precondition: The top count packages of the depot were pushed there; no other thread changes the
+     * city.
+     * Postcondition: Those packages are located in the depot.
+     * --------------------------------------------------------
+     */
+    public void placed(City city, int count) {
+        int place = depot(city);
+        DistributionCenter dc = city.getDistributionCenter();
+        PackageHandleStack handles = dc.getPackageHandles();
+        if (handles != null) {
+            IntCursor cursor = handles.getHandles().cursor();
+            for (int i = 0; i < count; i++) {
+                move(cursor.next(), place);
+            }
+        } else {
+            Cursor<Package> cursor = dc.getPackages().cursor();
+            for (int i = 0; i < count; i++) {
+                move(cursor.next().getTrackingIndex(), place);
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves the packages just loaded onto the front of a cargo list.
+     * Precondition: The first count packages of cargo were loaded onto the vehicle with that tracking
+     * index.
+     * Postcondition: Those packages are located on the vehicle.
+     * --------------------------------------------------------
+     */
+    public void loaded(CargoList<Package> cargo, int count, int vehicle) {
+        for (int i = 0; i < count; i++) {
+            move(cargo.get(i).getTrackingIndex(), ~vehicle);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves package handles just loaded onto a vehicle.
+     * Precondition: handles[from .. to) were loaded onto the vehicle with that handle.
+     * Postcondition: Those packages are located on the vehicle.
+     * --------------------------------------------------------
+     */
+    public void loaded(int[] handles, int from, int to, int vehicle) {
+        for (int i = from; i < to; i++) {
+            move(handles[i], ~vehicle);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns where a package is now.
+     * Precondition: packageId is not null; no mission is running.
+     * Postcondition: Returns the location, or null if no tracked package has that ID or it has no place.
+     * --------------------------------------------------------
+     */
+    public Location locate(String packageId) {
+        int index = indexOf(packageId);
+        int place = index < 0 ? 0 : placeOf(index, 0);
+        return place == 0 ? null : location(index, place, true);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the places a package has been in, latest first.
+     * Precondition: packageId is not null; no mission is running.
+     * Postcondition: Returns where the package is now, then where it was before each of its last moves,
+     * at most the history size in all; empty if no tracked package has that ID or it has no place. Only
+     * the first, where the package is now, has the slot of a depot.
+     * --------------------------------------------------------
+     */
+    public Location[] history(String packageId) {
+        int index = indexOf(packageId);
+        if (index < 0) {
+            return new Location[0];
+        }
+        int found = 0;
+        while (found < 2 * words && placeOf(index, found) != 0) {
+            found++;
+        }
+        Location[] places = new Location[found];
+        for (int i = 0; i < found; i++) {
+            places[i] = location(index, placeOf(index, i), i == 0);
+        }
+        return places;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns one of the places kept for a package.
+     * Precondition: index is a package index; back counts the places from the newest, 0, and is less
+     * than twice the longs per package.
+     * Postcondition: Returns the place, or 0 if none is kept there.
+     * --------------------------------------------------------
+     */
+    private int placeOf(int index, int back) {
+        return (int) (state[index * words + back / 2] >>> 32 * (back % 2));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the slot of a package in the depot of a city, counted from the bottom.
+     * Precondition: index is the index of a package in the depot of the city with that ID.
+     * Postcondition: Returns the slot, found by walking the stack from its top.
+     * --------------------------------------------------------
+     */
+    private int slotOf(int index, int city) {
+        DistributionCenter dc = cities.get(city).getDistributionCenter();
+        int depth = dc.getPackages().size();
+        PackageHandleStack handles = dc.getPackageHandles();
+        if (handles != null) {
+            IntCursor cursor = handles.getHandles().cursor();
+            for (int i = 0; i < depth; i++) {
+                if (cursor.next() == index) {
+                    return depth - 1 - i;
+                }
+            }
+        } else {
+            Cursor<Package> cursor = dc.getPackages().cursor();
+            for (int i = 0; i < depth; i++) {
+                if (cursor.next().getTrackingIndex() == index) {
+                    return depth - 1 - i;
+                }
+            }
+        }
+        return UNKNOWN_SLOT;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds the location of a package at a place.
+     * Precondition: index is a package index; place is a place kept for it; now is true if the package
+     * is still there.
+     * Postcondition: Returns the location with the city or vehicle name, and the slot of a depot the
+     * package is in now.
+     * --------------------------------------------------------
+     */
+    private Location location(int index, int place, boolean now) {
+        if (place < 0) {
+            int vehicle = ~place;
+            return new Location(null, ON_VEHICLE, vehicleStore != null ? vehicleStore.getId(vehicle)
+                    : vehicleIds[vehicle]);
+        }
+        int city = place - 1;
+        return new Location(cities.get(city).getName(), now ? slotOf(index, city) : UNKNOWN_SLOT, null);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of tracked packages.
+     * Precondition: None.
+     * Postcondition: Returns the count of indexed IDs.
+     * --------------------------------------------------------
+     */
+    public int size() {
+        return store != null ? store.size() : packageCount;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints where each of the given packages is and where it was before.
+     * Precondition: packageIds and out are not null; no mission is running.
+     * Postcondition: A line per package and an indented line per earlier place are printed.
+     * --------------------------------------------------------
+     */
+    public void printLocations(String[] packageIds, PrintStream out) {
+        for (int i = 0; i < packageIds.length; i++) {
+            Location[] places = history(packageIds[i]);
+            if (places.length == 0) {
+                out.println("Package " + packageIds[i] + ": not tracked");
+                continue;
+            }
+            out.println("Package " + packageIds[i] + ": " + places[0]);
+            for (int p = 1; p < places.length; p++) {
+                out.println("  before: " + places[p]);
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints a one-line summary of the tracking.
+     * Precondition: out is not null.
+     * Postcondition: The number of packages and how many places of each are kept are printed.
+     * --------------------------------------------------------
+     */
+    public void printSummary(PrintStream out) {
+        out.println(String.format(Locale.ROOT, "Tracking: %d packages, the last %d places of each kept",
+                size(), 2 * words));
+    }
+}
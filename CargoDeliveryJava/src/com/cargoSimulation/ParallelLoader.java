@@ -0,0 +1,299 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Loads the start-up input files on several threads.
+ * Cities are read first, since packages and vehicles refer to them. The package
+ * and vehicle files are then split into line-aligned byte ranges that are all
+ * parsed concurrently. Each range buffers its records, and the records are then
+ * applied city by city in file order, so every stack and queue ends up exactly
+ * as after the sequential loaders in Main. Errors are also reported in file
+ * order.
+ * --------------------------------------------------------
+ */
+public class ParallelLoader {
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+
+    private final int threads;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Records parsed from one byte range of an input file.
+     * --------------------------------------------------------
+     */
+    private static class Chunk<T> implements LoadSink<T> {
+        int[] cityIds = new int[64];
+        Object[] items = new Object[64];
+        int count;
+        // Lines that could not be loaded, in file order, as ErrorChannel.report takes them.
+        List<ErrorCode> errorCodes = new ArrayList<>();
+        List<String> errorCities = new ArrayList<>();
+        List<String> errorMessages = new ArrayList<>();
+
+        @Override
+        public void accept(int cityId, T item) {
+            if (count == cityIds.length) {
+                int[] grownIds = new int[count * 2];
+                Object[] grownItems = new Object[count * 2];
+                System.arraycopy(cityIds, 0, grownIds, 0, count);
+                System.arraycopy(items, 0, grownItems, 0, count);
+                cityIds = grownIds;
+                items = grownItems;
+            }
+            cityIds[count] = cityId;
+            items[count] = item;
+            count++;
+        }
+
+        @Override
+        public void error(ErrorCode code, String city, String message) {
+            errorCodes.add(code);
+            errorCities.add(city);
+            errorMessages.add(message);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a loader that uses the given number of threads.
+     * Precondition: threads is positive.
+     * Postcondition: A loader is created.
+     * --------------------------------------------------------
+     */
+    public ParallelLoader(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the cities, then the packages and vehicles in parallel.
+     * Precondition: the file names are valid file paths; cities is empty; storage is not null.
+     * Postcondition: cities holds the same cities, stacks and queues as the sequential loaders produce.
+     * --------------------------------------------------------
+     */
+    public void load(String citiesFile, String packagesFile, String vehiclesFile,
+                     CityRegistry cities, DistributionCenter.Storage storage) throws IOException {
+        load(citiesFile, packagesFile, vehiclesFile, cities, new CityFactory(storage));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the cities with the given factory, then the packages and vehicles in parallel.
+     * Precondition: the file names are valid file paths; cities is empty; factory is not null.
+     * Postcondition: cities holds the same cities, stacks and queues as the sequential loaders produce.
+     * --------------------------------------------------------
+     */
+    public void load(String citiesFile, String packagesFile, String vehiclesFile,
+                     CityRegistry cities, CityFactory factory) throws IOException {
+        Main.readCities(citiesFile, cities, factory);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Chunk<Package>>> packageParses = new ArrayList<>();
+            long[] packageBounds = chunkBounds(packagesFile);
+            for (int i = 0; i + 1 < packageBounds.length; i++) {
+                long start = packageBounds[i];
+                long end = packageBounds[i + 1];
+                packageParses.add(pool.submit(() -> {
+                    Chunk<Package> chunk = new Chunk<>();
+                    InputTokenizer in = InputTokenizer.open(packagesFile, start, end);
+                    Main.parsePackages(in, cities, chunk);
+                    in.close();
+                    return chunk;
+                }));
+            }
+            List<Future<Chunk<Vehicle>>> vehicleParses = new ArrayList<>();
+            long[] vehicleBounds = chunkBounds(vehiclesFile);
+            for (int i = 0; i + 1 < vehicleBounds.length; i++) {
+                long start = vehicleBounds[i];
+                long end = vehicleBounds[i + 1];
+                vehicleParses.add(pool.submit(() -> {
+                    Chunk<Vehicle> chunk = new Chunk<>();
+                    InputTokenizer in = InputTokenizer.open(vehiclesFile, start, end);
+                    Main.parseVehicles(in, cities, chunk);
+                    in.close();
+                    return chunk;
+                }));
+            }
+            List<Chunk<Package>> packageChunks = awaitAll(packageParses);
+            List<Chunk<Vehicle>> vehicleChunks = awaitAll(vehicleParses);
+
+            // Each stripe owns the cities whose ID is congruent to it, so no two threads touch the same city.
+            List<Future<Object>> applies = new ArrayList<>();
+            for (int s = 0; s < threads; s++) {
+                int stripe = s;
+                applies.add(pool.submit(() -> {
+                    applyPackages(packageChunks, cities, stripe);
+                    applyVehicles(vehicleChunks, cities, stripe);
+                    return null;
+                }));
+            }
+            awaitAll(applies);
+
+            reportErrors(packageChunks);
+            reportErrors(vehicleChunks);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes the buffered packages of one city stripe, in file order.
+     * Precondition: stripe is between 0 and threads - 1.
+     * Postcondition: Packages of cities with cityId % threads == stripe are pushed.
+     * --------------------------------------------------------
+     */
+    private void applyPackages(List<Chunk<Package>> chunks, CityRegistry cities, int stripe) {
+        for (int c = 0; c < chunks.size(); c++) {
+            Chunk<Package> chunk = chunks.get(c);
+            for (int i = 0; i < chunk.count; i++) {
+                int cityId = chunk.cityIds[i];
+                if (cityId % threads == stripe) {
+                    cities.get(cityId).getDistributionCenter().getPackages().push((Package) chunk.items[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Enqueues the buffered vehicles of one city stripe, in file order.
+     * Precondition: stripe is between 0 and threads - 1.
+     * Postcondition: Vehicles of cities with cityId % threads == stripe are enqueued.
+     * --------------------------------------------------------
+     */
+    private void applyVehicles(List<Chunk<Vehicle>> chunks, CityRegistry cities, int stripe) {
+        for (int c = 0; c < chunks.size(); c++) {
+            Chunk<Vehicle> chunk = chunks.get(c);
+            for (int i = 0; i < chunk.count; i++) {
+                int cityId = chunk.cityIds[i];
+                if (cityId % threads == stripe) {
+                    cities.get(cityId).getDistributionCenter().getVehicles().enqueue((Vehicle) chunk.items[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reports the errors of every chunk in file order.
+     * Precondition: chunks is not null.
+     * Postcondition: Every line that could not be loaded is reported.
+     * --------------------------------------------------------
+     */
+    private static <T> void reportErrors(List<Chunk<T>> chunks) {
+        for (int c = 0; c < chunks.size(); c++) {
+            Chunk<T> chunk = chunks.get(c);
+            for (int i = 0; i < chunk.errorCodes.size(); i++) {
+                ErrorChannel.report(chunk.errorCodes.get(i), chunk.errorCities.get(i), chunk.errorMessages.get(i));
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Splits a file into byte ranges that start and end on line boundaries.
+     * Precondition: filename is a valid file path.
+     * Postcondition: Returns ascending offsets from 0 to the file size; range i is [b[i], b[i+1]).
+     * --------------------------------------------------------
+     */
+    private long[] chunkBounds(String filename) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, Math.min(threads * 4L, size / MIN_CHUNK_BYTES));
+            long[] bounds = new long[chunks + 1];
+            bounds[chunks] = size;
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            for (int i = 1; i < chunks; i++) {
+                long nominal = Math.max(size * i / chunks, bounds[i - 1]);
+                bounds[i] = nextLineStart(channel, nominal, size, probe);
+            }
+            return bounds;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the offset of the first line that starts at or after the given offset.
+     * A "\r\n" pair is kept together so it never straddles two ranges.
+     * Precondition: 0 <= from <= size.
+     * Postcondition: Returns an offset in [from, size].
+     * --------------------------------------------------------
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe) throws IOException {
+        if (from == 0) {
+            return 0;
+        }
+        // Start one byte early so a range that already begins a line is kept as is.
+        long offset = from - 1;
+        while (offset < size) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = probe.get(i);
+                if (b == '\n') {
+                    return offset + i + 1;
+                }
+                if (b == '\r') {
+                    if (i + 1 < read) {
+                        return probe.get(i + 1) == '\n' ? offset + i + 2 : offset + i + 1;
+                    }
+                    // The byte after '\r' lies in the next probe.
+                    ByteBuffer one = ByteBuffer.allocate(1);
+                    int more = channel.read(one, offset + i + 1);
+                    return more > 0 && one.get(0) == '\n' ? offset + i + 2 : offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Waits for every task and returns the results in submission order.
+     * Precondition: futures is not null.
+     * Postcondition: Returns the results; rethrows the first task failure.
+     * --------------------------------------------------------
+     */
+    private static <T> List<T> awaitAll(List<Future<T>> futures) throws IOException {
+        List<T> results = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+        return results;
+    }
+}
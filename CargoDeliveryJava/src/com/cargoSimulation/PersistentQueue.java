@@ -0,0 +1,247 @@
+package com.cargoSimulation;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Persistent implementation of a first-in-first-out (FIFO) queue of objects.
+ * The queue is two lists of nodes that are never changed once created: the
+ * front list from the head, and the back list from the tail, which enqueue
+ * links new nodes in front of. When the front list runs out, the back list is
+ * copied into a new front list in reverse, so each item is copied at most once
+ * per queue. fork() therefore copies a few fields, and the queue and its forks
+ * share every node they had at the fork.
+ *
+ * The items may be shared with forks, so an item that a queue did not enqueue
+ * itself is passed through the detach function when it is dequeued, and the
+ * caller gets a copy it may change. For vehicles this copies the vehicle and
+ * its cargo list before a mission loads it.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class PersistentQueue<T> implements MyQueue<T> {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: An immutable node of the queue, possibly shared with forks.
+     * owner is the queue that enqueued the item.
+     * --------------------------------------------------------
+     */
+    private static final class Node {
+        final Object item;
+        final Node next;
+        final Object owner;
+
+        Node(Object item, Node next, Object owner) {
+            this.item = item;
+            this.next = next;
+            this.owner = owner;
+        }
+    }
+
+    private final UnaryOperator<T> detach;
+    private Node front;
+    private Node back;
+    private int frontSize;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty queue.
+     * Precondition: detach is not null.
+     * Postcondition: An empty queue is created that passes items enqueued by other queues through detach.
+     * --------------------------------------------------------
+     */
+    public PersistentQueue(UnaryOperator<T> detach) {
+        this.detach = detach;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a queue that starts with the items of another one.
+     * Precondition: other is not null.
+     * Postcondition: The queue holds the items of other and shares its nodes.
+     * --------------------------------------------------------
+     */
+    private PersistentQueue(PersistentQueue<T> other) {
+        detach = other.detach;
+        front = other.front;
+        back = other.back;
+        frontSize = other.frontSize;
+        size = other.size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a queue with the same items, in constant time.
+     * Precondition: None.
+     * Postcondition: Returns a new queue; changes to either queue do not affect the other.
+     * --------------------------------------------------------
+     */
+    public PersistentQueue<T> fork() {
+        return new PersistentQueue<>(this);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds an item to the tail of this queue.
+     * Precondition: item is not null.
+     * Postcondition: The item is added to the tail of the queue.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void enqueue(T item) {
+        back = new Node(item, back, this);
+        size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the item at the head of this queue.
+     * Precondition: None.
+     * Postcondition: The head item is removed and returned, detached if another queue enqueued it;
+     * returns null if the queue is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T dequeue() {
+        if (size == 0) {
+            return null;
+        }
+        if (front == null) {
+            reverseBack();
+        }
+        Node node = front;
+        front = node.next;
+        frontSize--;
+        size--;
+        return node.owner == this ? (T) node.item : detach.apply((T) node.item);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Moves the back list to the front list, reversing it into new nodes.
+     * Precondition: The front list is empty.
+     * Postcondition: Every item is in the front list, head first; each node keeps its owner.
+     * --------------------------------------------------------
+     */
+    private void reverseBack() {
+        Node reversed = null;
+        for (Node node = back; node != null; node = node.next) {
+            reversed = new Node(node.item, reversed, node.owner);
+        }
+        front = reversed;
+        frontSize = size;
+        back = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the item at the head of this queue without removing it.
+     * The item may be shared with forks and must not be changed. The queue is
+     * only read, so a queue that forks were made from can be peeked from any thread.
+     * Precondition: None.
+     * Postcondition: The head item is returned without modifying the queue, or null if it is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        if (front != null) {
+            return (T) front.item;
+        }
+        Node node = back;
+        while (node != null && node.next != null) {
+            node = node.next;
+        }
+        return node == null ? null : (T) node.item;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the queue is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the queue is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of items in the queue.
+     * Precondition: None.
+     * Postcondition: Returns the size of the queue.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns an array containing all of the elements in this queue.
+     * The items may be shared with forks and must not be changed.
+     * Precondition: None.
+     * Postcondition: Returns an array of queue elements from the head to the tail.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] items = new Object[size];
+        int i = 0;
+        for (Node node = front; node != null; node = node.next) {
+            items[i++] = node.item;
+        }
+        i = size;
+        for (Node node = back; node != null; node = node.next) {
+            items[--i] = node.item;
+        }
+        return items;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the elements of this queue without removing them.
+     * The items may be shared with forks and must not be changed.
+     * Precondition: The queue is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads from the head to the tail.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Cursor<T> cursor() {
+        return new Cursor<T>() {
+            private Node next = front;
+            // The back list, head first, once the front list has been read.
+            private Object[] rest;
+            private int restIndex;
+
+            @Override
+            public boolean hasNext() {
+                return next != null || (rest == null ? back != null : restIndex < rest.length);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (next != null) {
+                    T item = (T) next.item;
+                    next = next.next;
+                    return item;
+                }
+                if (rest == null) {
+                    rest = new Object[size - frontSize];
+                    int i = rest.length;
+                    for (Node node = back; node != null; node = node.next) {
+                        rest[--i] = node.item;
+                    }
+                }
+                return (T) rest[restIndex++];
+            }
+        };
+    }
+}
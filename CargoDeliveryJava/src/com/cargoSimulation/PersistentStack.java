@@ -0,0 +1,254 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Persistent implementation of a last-in-first-out (LIFO) stack of objects.
+ * The stack is a singly linked list of nodes that are never changed once
+ * created: a push links a new node in front of the old top and a pop moves
+ * the top to the next node. fork() therefore copies two fields, and the stack
+ * and its forks share every node they had at the fork. Each one only pays for
+ * the nodes it pushes afterwards, and forks can be changed on different
+ * threads without locking.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class PersistentStack<T> implements MyStack<T> {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: An immutable node of the stack, possibly shared with forks.
+     * --------------------------------------------------------
+     */
+    private static final class Node {
+        final Object item;
+        final Node next;
+
+        Node(Object item, Node next) {
+            this.item = item;
+            this.next = next;
+        }
+    }
+
+    private Node top;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty stack.
+     * Precondition: None.
+     * Postcondition: An empty stack is created.
+     * --------------------------------------------------------
+     */
+    public PersistentStack() {
+        top = null;
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a stack that starts with the items of another one.
+     * Precondition: other is not null.
+     * Postcondition: The stack holds the items of other and shares its nodes.
+     * --------------------------------------------------------
+     */
+    private PersistentStack(PersistentStack<T> other) {
+        top = other.top;
+        size = other.size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a stack with the same items, in constant time.
+     * Precondition: None.
+     * Postcondition: Returns a new stack; changes to either stack do not affect the other.
+     * --------------------------------------------------------
+     */
+    public PersistentStack<T> fork() {
+        return new PersistentStack<>(this);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns how many items at the top of this stack are in nodes it does not share with another.
+     * A stack and its forks share the nodes below what each pushed since the
+     * fork, so the first shared node is found by following links, without
+     * reading any item.
+     * Precondition: other is not null.
+     * Postcondition: Returns the count; the items below them are the same nodes in both stacks.
+     * --------------------------------------------------------
+     */
+    public int unsharedWith(PersistentStack<T> other) {
+        Node mine = top;
+        Node theirs = other.top;
+        int mySize = size;
+        int theirSize = other.size;
+        int count = 0;
+        while (mySize > theirSize) {
+            mine = mine.next;
+            mySize--;
+            count++;
+        }
+        while (theirSize > mySize) {
+            theirs = theirs.next;
+            theirSize--;
+        }
+        while (mine != theirs) {
+            mine = mine.next;
+            theirs = theirs.next;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes an item onto the top of this stack.
+     * Precondition: item is not null.
+     * Postcondition: The item is added to the top of the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void push(T item) {
+        top = new Node(item, top);
+        size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes and returns the item at the top of this stack.
+     * Precondition: None.
+     * Postcondition: The top item is removed from the stack and returned, or null if the stack is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T pop() {
+        if (top == null) {
+            return null;
+        }
+        T item = (T) top.item;
+        top = top.next;
+        size--;
+        return item;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the top n items of this stack into an array, bottom first.
+     * Walks the n top nodes and moves the top past them without allocating.
+     * Precondition: 0 <= n <= size(); into has room for n items from offset.
+     * Postcondition: The top n items are removed and stored in into[offset .. offset + n).
+     * --------------------------------------------------------
+     */
+    @Override
+    public void popN(int n, Object[] into, int offset) {
+        Node node = top;
+        for (int i = n - 1; i >= 0; i--) {
+            into[offset + i] = node.item;
+            node = node.next;
+        }
+        top = node;
+        size -= n;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes a run of items onto this stack, items[offset] first.
+     * Precondition: count >= 0; items[offset .. offset + count) are not null.
+     * Postcondition: items[offset + count - 1] is the new top; items is not modified.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void pushAll(Object[] items, int offset, int count) {
+        Node node = top;
+        for (int i = 0; i < count; i++) {
+            node = new Node(items[offset + i], node);
+        }
+        top = node;
+        size += count;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the item at the top of this stack without removing it.
+     * Precondition: None.
+     * Postcondition: The top item is returned without modifying the stack, or null if it is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return top == null ? null : (T) top.item;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the stack is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the stack is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return top == null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of items in the stack.
+     * Precondition: None.
+     * Postcondition: Returns the size of the stack.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns an array containing all of the elements in this stack.
+     * Precondition: None.
+     * Postcondition: Returns an array of stack elements from the top to the bottom.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] items = new Object[size];
+        Node node = top;
+        for (int i = 0; i < size; i++) {
+            items[i] = node.item;
+            node = node.next;
+        }
+        return items;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the elements of this stack without removing them.
+     * Nodes never change, so the cursor keeps reading the stack as it was when
+     * the cursor was created.
+     * Precondition: None.
+     * Postcondition: Returns a cursor that reads from the top to the bottom.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Cursor<T> cursor() {
+        return new Cursor<T>() {
+            private Node next = top;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                T item = (T) next.item;
+                next = next.next;
+                return item;
+            }
+        };
+    }
+}
@@ -0,0 +1,586 @@
+package com.cargoSimulation;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Plans missions that bring packages back to the city they name.
+ * A package names its city when it is read; missions then carry it elsewhere.
+ * The planner writes missions.txt lines that deliver every package it can reach
+ * to its own city, and runs each one as it is planned, so the next trip sees
+ * where the packages and vehicles really are.
+ *
+ * A mission takes packages from the top of the source stack, so a trip takes
+ * the longest run of top packages bound for at most two cities: one is the
+ * middle city, where they are dropped off, and the other is the destination.
+ * If the middle city has packages for the destination on top, they are loaded
+ * too. Packages at home that cover packages bound elsewhere are lifted with a
+ * source-source-destination trip, which drops them back where they were.
+ * Every trip delivers at least one package and never moves a package away
+ * from home, so planning ends. A city waits when its vehicles are gone and
+ * is visited again when a trip ends there.
+ *
+ * Vehicles collect at cities that have nothing left to send, while other
+ * cities run out. Once no city with a vehicle can send anything, an idle
+ * vehicle makes a pickup trip: it loads nothing at its own city and takes the
+ * top run of a city without vehicles, bound for one city, as the B packages.
+ * Packages that ride along but must stay are dropped back at the middle city.
+ * Packages that are hidden below home packages at a city that can neither
+ * lift them nor be reached are counted as still away.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class Planner {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // How many cities deep a trip may wait for the cities it delivers to.
+    private static final int MAX_DEPTH = 16;
+
+    private final CityRegistry cities;
+    private final CapacityLoader loader;
+    private final StackReader reader = new StackReader();
+    private int[] destinations = new int[64];
+    private double[] volumes = new double[64];
+    private final StringBuilder line = new StringBuilder();
+    // Set by scanRun: the package below the run can ride along and be dropped back.
+    private boolean spare;
+
+    // The trip found by the last call to planTrip.
+    private int plannedMiddle;
+    private int plannedDest;
+    private int plannedA;
+    private int plannedB;
+    private int[] plannedDrops;
+    private int plannedDelivered;
+
+    private boolean[] queued;
+    private boolean[] draining;
+    private IntQueue work;
+    private IntQueue idle;
+    private IntQueue starved;
+
+    private long trips;
+    private long delivered;
+    private long leftOver;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the packages of one stack from the top, one destination at a time.
+     * Works on both the object stacks and the handle stacks of compact cities.
+     * --------------------------------------------------------
+     */
+    private final class StackReader {
+        private Cursor<Package> packages;
+        private IntCursor handles;
+        private PackageStore store;
+        private double volume;
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Starts reading the package stack of a distribution center.
+         * Precondition: dc is not null.
+         * Postcondition: The next call to next() returns the top package.
+         * --------------------------------------------------------
+         */
+        void open(DistributionCenter dc) {
+            PackageHandleStack packageHandles = dc.getPackageHandles();
+            if (packageHandles != null) {
+                store = packageHandles.getStore();
+                handles = packageHandles.getHandles().cursor();
+                packages = null;
+            } else {
+                packages = dc.getPackages().cursor();
+                handles = null;
+            }
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Checks if there are more packages below the last one read.
+         * Precondition: open() has been called.
+         * Postcondition: Returns true if next() can be called.
+         * --------------------------------------------------------
+         */
+        boolean hasNext() {
+            return handles != null ? handles.hasNext() : packages.hasNext();
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Reads the next package.
+         * Precondition: hasNext() is true.
+         * Postcondition: Returns the id of the city the package names, -1 if it is unknown;
+         * volume holds its volume.
+         * --------------------------------------------------------
+         */
+        int next() {
+            if (handles != null) {
+                int handle = handles.next();
+                volume = store.getVolume(handle);
+                return cities.idOf(store.getCity(handle));
+            }
+            Package pkg = packages.next();
+            volume = pkg.getVolume();
+            return cities.idOf(pkg.getCity());
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a planner over the cities of a registry.
+     * Precondition: cities is populated; loader may be null.
+     * Postcondition: A planner is created. With a loader, trips respect vehicle volumes and
+     * run with capacity enforced; without one, volumes are ignored.
+     * --------------------------------------------------------
+     */
+    public Planner(CityRegistry cities, CapacityLoader loader) {
+        this.cities = cities;
+        this.loader = loader;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Plans and runs the trips that bring packages home and writes them as missions.
+     * Precondition: filename is a writable file path.
+     * Postcondition: The file holds one "Source-Middle-Dest-A-B-Indices" line per trip, in the
+     * order they ran; the cities hold the state after the last trip.
+     * --------------------------------------------------------
+     */
+    public void plan(String filename) throws IOException {
+        int n = cities.size();
+        queued = new boolean[n];
+        draining = new boolean[n];
+        work = new ArrayIntQueue();
+        idle = new ArrayIntQueue();
+        starved = new ArrayIntQueue();
+        for (int c = 0; c < n; c++) {
+            schedule(c);
+        }
+        BufferedWriter out = new BufferedWriter(new FileWriter(filename), BUFFER_SIZE);
+        try {
+            while (true) {
+                while (!work.isEmpty()) {
+                    int source = work.dequeue();
+                    queued[source] = false;
+                    visit(source, out, 0);
+                }
+                // Every city with a vehicle is idle; send one of them to a city without vehicles.
+                while (!idle.isEmpty() && cities.get(idle.peek()).getDistributionCenter().getVehicles().isEmpty()) {
+                    idle.dequeue();
+                }
+                if (idle.isEmpty() || starved.isEmpty()) {
+                    break;
+                }
+                int middle = starved.dequeue();
+                if (!cities.get(middle).getDistributionCenter().getVehicles().isEmpty()) {
+                    // A vehicle arrived since; the city plans its own trips.
+                    schedule(middle);
+                    continue;
+                }
+                int dest = pickup(idle.peek(), middle, out);
+                if (dest >= 0) {
+                    starved.enqueue(middle);
+                    schedule(dest);
+                }
+            }
+        } finally {
+            out.close();
+        }
+        leftOver = countAway();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Queues a city to plan its trips, unless it is queued already.
+     * Precondition: city is a city id.
+     * Postcondition: The city is in the work queue.
+     * --------------------------------------------------------
+     */
+    private void schedule(int city) {
+        if (!queued[city]) {
+            work.enqueue(city);
+            queued[city] = true;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Runs the trips of a city until it has no vehicle or nothing it can send.
+     * Before a trip drops packages on a city whose top packages are still bound
+     * elsewhere, that city sends its own first, since packages at home would
+     * cover them. Cities already waiting further up are skipped, which breaks cycles.
+     * Precondition: city is a city id; depth is the number of cities waiting on this one.
+     * Postcondition: The city is idle if it still has a vehicle and waits for one otherwise.
+     * --------------------------------------------------------
+     */
+    private void visit(int city, BufferedWriter out, int depth) throws IOException {
+        DistributionCenter dc = cities.get(city).getDistributionCenter();
+        draining[city] = true;
+        boolean stuck = false;
+        while (!dc.getVehicles().isEmpty()) {
+            if (!planTrip(city)) {
+                stuck = true;
+                break;
+            }
+            int dest = plannedDest;
+            if (depth < MAX_DEPTH && (sendsFirst(plannedMiddle, out, depth) | sendsFirst(dest, out, depth))) {
+                // The cities changed, so the trip is planned again.
+                continue;
+            }
+            schedule(runTrip(city, out));
+        }
+        draining[city] = false;
+        if (stuck) {
+            idle.enqueue(city);
+        } else {
+            starved.enqueue(city);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Lets a city that is about to receive packages send its own top packages first.
+     * Precondition: city is a city id.
+     * Postcondition: Returns true if the city ran at least one trip.
+     * --------------------------------------------------------
+     */
+    private boolean sendsFirst(int city, BufferedWriter out, int depth) throws IOException {
+        DistributionCenter dc = cities.get(city).getDistributionCenter();
+        if (draining[city] || dc.getVehicles().isEmpty()) {
+            return false;
+        }
+        reader.open(dc);
+        if (!reader.hasNext() || reader.next() == city) {
+            return false;
+        }
+        long before = trips;
+        visit(city, out, depth + 1);
+        return trips > before;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Plans the next trip from a city.
+     * Precondition: source has a vehicle.
+     * Postcondition: Returns true and sets the planned fields, or returns false if the city has
+     * nothing it can send.
+     * --------------------------------------------------------
+     */
+    private boolean planTrip(int source) {
+        DistributionCenter sourceDC = cities.get(source).getDistributionCenter();
+        double capacity = loader == null ? Double.POSITIVE_INFINITY : largestVehicle(sourceDC);
+
+        int count = scanRun(sourceDC, source, 2, 0, capacity);
+        int a = trimHome(count, source);
+        if (a == 0) {
+            return false;
+        }
+        double loadA = 0;
+        for (int i = 0; i < a; i++) {
+            loadA += volumes[i];
+        }
+
+        boolean liftsHome = false;
+        int away = -1;
+        int other = -1;
+        for (int i = 0; i < a; i++) {
+            int city = destinations[i];
+            if (city == source) {
+                liftsHome = true;
+            } else if (away < 0) {
+                away = city;
+            } else if (city != away) {
+                other = city;
+            }
+        }
+        int middle;
+        int dest;
+        int b;
+        if (liftsHome) {
+            // Home packages go back onto the source stack; the rest go on to their city.
+            middle = source;
+            dest = away;
+            b = 0;
+        } else if (other >= 0) {
+            int viaAway = runAt(away, other, loadA, capacity);
+            int viaOther = runAt(other, away, loadA, capacity);
+            middle = viaOther > viaAway ? other : away;
+            dest = middle == away ? other : away;
+            b = Math.max(viaAway, viaOther);
+        } else {
+            // Everything stops at the middle city; the vehicle takes its top run onwards.
+            middle = away;
+            reader.open(cities.get(middle).getDistributionCenter());
+            int next = reader.hasNext() ? reader.next() : -1;
+            dest = next >= 0 && next != middle ? next : middle;
+            b = dest == middle ? 0 : runAt(middle, dest, loadA, capacity);
+        }
+
+        // Package j in pop order sits at cargo index a + b - 1 - j.
+        int drops = 0;
+        for (int i = 0; i < a; i++) {
+            if (destinations[i] == middle) {
+                drops++;
+            }
+        }
+        int[] dropOffIndices = new int[drops];
+        int k = 0;
+        for (int i = a - 1; i >= 0; i--) {
+            if (destinations[i] == middle) {
+                dropOffIndices[k++] = a + b - 1 - i;
+            }
+        }
+        plannedMiddle = middle;
+        plannedDest = dest;
+        plannedA = a;
+        plannedB = b;
+        plannedDrops = dropOffIndices;
+        plannedDelivered = b;
+        for (int i = 0; i < a; i++) {
+            if (destinations[i] != source) {
+                plannedDelivered++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes and runs the trip found by planTrip.
+     * Precondition: planTrip(source) returned true and the cities have not changed since.
+     * Postcondition: Returns the destination of the trip.
+     * --------------------------------------------------------
+     */
+    private int runTrip(int source, BufferedWriter out) throws IOException {
+        writeMission(out, source, plannedMiddle, plannedDest, plannedA, plannedB, plannedDrops);
+        Main.executeMission(cities.get(source), cities.get(plannedMiddle), cities.get(plannedDest),
+                plannedA, plannedB, plannedDrops, loader);
+        trips++;
+        delivered += plannedDelivered;
+        return plannedDest;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Plans, writes and runs a pickup trip for a city without vehicles.
+     * Precondition: source has a vehicle; middle has none.
+     * Postcondition: Returns the destination of the trip, or -1 if the middle city has no run a
+     * pickup can deliver.
+     * --------------------------------------------------------
+     */
+    private int pickup(int source, int middle, BufferedWriter out) throws IOException {
+        DistributionCenter sourceDC = cities.get(source).getDistributionCenter();
+        double capacity = loader == null ? Double.POSITIVE_INFINITY : largestVehicle(sourceDC);
+        int count = scanRun(cities.get(middle).getDistributionCenter(), middle, 1, 0, capacity);
+        int b = trimHome(count, middle);
+        int dest = -1;
+        int drops = 0;
+        for (int i = 0; i < b; i++) {
+            if (destinations[i] == middle) {
+                drops++;
+            } else {
+                dest = destinations[i];
+            }
+        }
+        if (dest < 0) {
+            return -1;
+        }
+        int deliveredHere = b - drops;
+        // Pop position of a package that rides along only to be dropped back, -1 if none.
+        int dropBack = -1;
+        if (drops == 0) {
+            // Something must be dropped at the middle city: the package below the run, or the last one of it.
+            if (b < count || spare) {
+                b++;
+            } else if (b >= 2) {
+                deliveredHere--;
+            } else {
+                return -1;
+            }
+            dropBack = b - 1;
+            drops = 1;
+        }
+
+        // Package j in pop order sits at cargo index b - 1 - j.
+        int[] dropOffIndices = new int[drops];
+        int k = 0;
+        for (int i = b - 1; i >= 0; i--) {
+            if (i == dropBack || (dropBack < 0 && destinations[i] == middle)) {
+                dropOffIndices[k++] = b - 1 - i;
+            }
+        }
+        writeMission(out, source, middle, dest, 0, b, dropOffIndices);
+        Main.executeMission(cities.get(source), cities.get(middle), cities.get(dest), 0, b, dropOffIndices, loader);
+        trips++;
+        delivered += deliveredHere;
+        return dest;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the longest top run of a stack that a single trip can take.
+     * The run is bound for at most two cities, at most maxAway of them other than home,
+     * and its volume fits the capacity after load.
+     * Precondition: dc is not null; home is the city of dc; maxAway is 1 or 2.
+     * Postcondition: Returns the run length; destinations and volumes hold the run in pop order.
+     * spare is true if the run stopped at a package that fits but is bound elsewhere.
+     * --------------------------------------------------------
+     */
+    private int scanRun(DistributionCenter dc, int home, int maxAway, double load, double capacity) {
+        int first = -1;
+        int second = -1;
+        int away = 0;
+        int count = 0;
+        spare = false;
+        reader.open(dc);
+        while (reader.hasNext()) {
+            int city = reader.next();
+            if (city < 0 || !CapacityLoader.fits(load, reader.volume, capacity)) {
+                break;
+            }
+            if (city != first && city != second) {
+                if (second >= 0 || (city != home && away == maxAway)) {
+                    spare = true;
+                    break;
+                }
+                if (first < 0) {
+                    first = city;
+                } else {
+                    second = city;
+                }
+                if (city != home) {
+                    away++;
+                }
+            }
+            if (count == destinations.length) {
+                int[] grownDestinations = new int[count * 2];
+                System.arraycopy(destinations, 0, grownDestinations, 0, count);
+                destinations = grownDestinations;
+                double[] grownVolumes = new double[count * 2];
+                System.arraycopy(volumes, 0, grownVolumes, 0, count);
+                volumes = grownVolumes;
+            }
+            destinations[count] = city;
+            volumes[count] = reader.volume;
+            count++;
+            load += reader.volume;
+        }
+        return count;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Drops the home packages at the end of a run, which a trip would only lift and put back.
+     * Precondition: destinations holds count packages.
+     * Postcondition: Returns the length of the run up to its last package not bound for home.
+     * --------------------------------------------------------
+     */
+    private int trimHome(int count, int home) {
+        while (count > 0 && destinations[count - 1] == home) {
+            count--;
+        }
+        return count;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Counts the packages on top of a city that are bound for another city.
+     * Precondition: city and dest are city ids; load is the volume already on the vehicle.
+     * Postcondition: Returns the length of the top run bound for dest that fits the capacity.
+     * --------------------------------------------------------
+     */
+    private int runAt(int city, int dest, double load, double capacity) {
+        int run = 0;
+        reader.open(cities.get(city).getDistributionCenter());
+        while (reader.hasNext() && reader.next() == dest && CapacityLoader.fits(load, reader.volume, capacity)) {
+            load += reader.volume;
+            run++;
+        }
+        return run;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of the largest vehicle waiting at a distribution center.
+     * Precondition: dc is not null.
+     * Postcondition: Returns the largest volume, 0 if there is no vehicle.
+     * --------------------------------------------------------
+     */
+    private static double largestVehicle(DistributionCenter dc) {
+        double largest = 0;
+        VehicleHandleQueue vehicleHandles = dc.getVehicleHandles();
+        if (vehicleHandles != null) {
+            IntCursor handles = vehicleHandles.getHandles().cursor();
+            while (handles.hasNext()) {
+                largest = Math.max(largest, vehicleHandles.getStore().getVolume(handles.next()));
+            }
+        } else {
+            Cursor<Vehicle> vehicles = dc.getVehicles().cursor();
+            while (vehicles.hasNext()) {
+                largest = Math.max(largest, vehicles.next().getVolume());
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Counts the packages held by a city other than the one they name.
+     * Precondition: None.
+     * Postcondition: Returns the count over all cities.
+     * --------------------------------------------------------
+     */
+    private long countAway() {
+        long count = 0;
+        for (int c = 0; c < cities.size(); c++) {
+            reader.open(cities.get(c).getDistributionCenter());
+            while (reader.hasNext()) {
+                if (reader.next() != c) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes one mission line.
+     * Precondition: out is open; dropOffIndices is not empty.
+     * Postcondition: A "Source-Middle-Dest-A-B-Indices" line is written.
+     * --------------------------------------------------------
+     */
+    private void writeMission(BufferedWriter out, int source, int middle, int dest, int a, int b,
+                              int[] dropOffIndices) throws IOException {
+        line.setLength(0);
+        line.append(cities.get(source).getName()).append('-')
+                .append(cities.get(middle).getName()).append('-')
+                .append(cities.get(dest).getName()).append('-')
+                .append(a).append('-').append(b).append('-');
+        for (int i = 0; i < dropOffIndices.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(dropOffIndices[i]);
+        }
+        line.append('\n');
+        out.append(line);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints a one-line summary of the plan.
+     * Precondition: plan() has run; out is not null.
+     * Postcondition: The number of trips, the packages delivered, the packages per trip and the
+     * packages still away from their city are printed.
+     * --------------------------------------------------------
+     */
+    public void printSummary(PrintStream out) {
+        out.println(String.format(Locale.ROOT,
+                "Plan: %d missions, %d packages delivered, %.2f packages per trip, %d packages still away",
+                trips, delivered, trips == 0 ? 0.0 : (double) delivered / trips, leftOver));
+    }
+}
@@ -0,0 +1,304 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Writes the state of every distribution center to a result file.
+ * Stacks and queues are read through cursors, so the simulation state is left
+ * unchanged and can still be inspected or written again afterwards. Text is
+ * encoded as UTF-8 straight into one reusable byte buffer that is flushed to a
+ * file channel whenever it fills up; no intermediate strings are built.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class ResultWriter {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final byte[] buffer;
+    private final ByteBuffer view;
+    private int position;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a writer over an open file channel.
+     * Precondition: channel is open for writing; bufferSize is at least 4.
+     * Postcondition: A writer is created with an empty buffer.
+     * --------------------------------------------------------
+     */
+    public ResultWriter(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = new byte[bufferSize];
+        this.view = ByteBuffer.wrap(buffer);
+        this.position = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Creates a writer for the given file, replacing any existing contents.
+     * Precondition: filename is a valid file path.
+     * Postcondition: Returns a writer positioned at the start of the empty file.
+     * --------------------------------------------------------
+     */
+    public static ResultWriter open(String filename) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new ResultWriter(channel, BUFFER_SIZE);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the vehicles and packages of every city in registry order.
+     * Precondition: cities is not null.
+     * Postcondition: One block per city is written; the cities are not modified.
+     * --------------------------------------------------------
+     */
+    public void writeCities(CityRegistry cities) throws IOException {
+        for (int i = 0; i < cities.size(); i++) {
+            writeCity(cities.get(i));
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the vehicles (queue order) and packages (stack order) of one city.
+     * Precondition: city is not null.
+     * Postcondition: The city's block is written; the city is not modified.
+     * --------------------------------------------------------
+     */
+    public void writeCity(City city) throws IOException {
+        DistributionCenter dc = city.getDistributionCenter();
+        writeString(city.getName());
+        writeString(":\n  Vehicles: ");
+        writeVehicles(dc, 0);
+        writeString("\n  Packages: ");
+        writePackages(dc, dc.getPackages().size());
+        writeByte('\n');
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the part of one city's queue and stack that changed since an earlier state.
+     * The block has the same form as that of writeCity, except that the lines are
+     * "Vehicles behind J:" and "Packages above K:" and list only the vehicles
+     * behind the first J of the queue, head first, and the packages above the
+     * bottom K of the stack, top first.
+     * Precondition: city is not null; keptVehicles and keptPackages are between 0 and the sizes of
+     * the city's queue and stack.
+     * Postcondition: The city's block is written; the city is not modified.
+     * --------------------------------------------------------
+     */
+    public void writeCityDelta(City city, int keptVehicles, int keptPackages) throws IOException {
+        DistributionCenter dc = city.getDistributionCenter();
+        writeString(city.getName());
+        writeString(":\n  Vehicles behind ");
+        writeString(Integer.toString(keptVehicles));
+        writeString(": ");
+        writeVehicles(dc, keptVehicles);
+        writeString("\n  Packages above ");
+        writeString(Integer.toString(keptPackages));
+        writeString(": ");
+        writePackages(dc, dc.getPackages().size() - keptPackages);
+        writeByte('\n');
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the IDs of a distribution center's vehicles in queue order, each followed by a space.
+     * Precondition: dc is not null; skip is between 0 and the size of the queue.
+     * Postcondition: The IDs of all but the first skip vehicles are buffered; dc is not modified.
+     * --------------------------------------------------------
+     */
+    private void writeVehicles(DistributionCenter dc, int skip) throws IOException {
+        VehicleHandleQueue vehicleHandles = dc.getVehicleHandles();
+        if (vehicleHandles != null) {
+            // Compact storage: copy the ID bytes straight from the store.
+            IntCursor handles = vehicleHandles.getHandles().cursor();
+            for (int i = 0; handles.hasNext(); i++) {
+                int handle = handles.next();
+                if (i >= skip) {
+                    vehicleHandles.getStore().writeId(handle, this);
+                    writeByte(' ');
+                }
+            }
+        } else {
+            Cursor<Vehicle> vehicles = dc.getVehicles().cursor();
+            for (int i = 0; vehicles.hasNext(); i++) {
+                Vehicle vehicle = vehicles.next();
+                if (i >= skip) {
+                    writeString(vehicle.getId());
+                    writeByte(' ');
+                }
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the IDs of the top packages of a distribution center's stack, each followed by a space.
+     * Precondition: dc is not null; count is between 0 and the size of the stack.
+     * Postcondition: The IDs of the top count packages are buffered, top first; dc is not modified.
+     * --------------------------------------------------------
+     */
+    private void writePackages(DistributionCenter dc, int count) throws IOException {
+        PackageHandleStack packageHandles = dc.getPackageHandles();
+        if (packageHandles != null) {
+            IntCursor handles = packageHandles.getHandles().cursor();
+            for (int i = 0; i < count && handles.hasNext(); i++) {
+                packageHandles.getStore().writeId(handles.next(), this);
+                writeByte(' ');
+            }
+        } else {
+            Cursor<Package> packages = dc.getPackages().cursor();
+            for (int i = 0; i < count && packages.hasNext(); i++) {
+                writeString(packages.next().getId());
+                writeByte(' ');
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Encodes a string as UTF-8 into the buffer.
+     * Precondition: s is not null.
+     * Postcondition: The encoded characters are buffered; full buffers are flushed.
+     * --------------------------------------------------------
+     */
+    public void writeString(String s) throws IOException {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (position == buffer.length) {
+                    flush();
+                }
+                buffer[position++] = (byte) c;
+            } else {
+                i = writeNonAscii(s, i, c);
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Encodes one non-ASCII character, or surrogate pair, as UTF-8.
+     * Unpaired surrogates are written as '?', as String.getBytes does.
+     * Precondition: c is s.charAt(i) and is at least 0x80.
+     * Postcondition: Returns the index of the last character consumed.
+     * --------------------------------------------------------
+     */
+    private int writeNonAscii(String s, int i, char c) throws IOException {
+        if (buffer.length - position < 4) {
+            flush();
+        }
+        if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                && Character.isLowSurrogate(s.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, s.charAt(i + 1));
+            buffer[position++] = (byte) (0xF0 | (cp >> 18));
+            buffer[position++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+            return i + 1;
+        } else if (Character.isSurrogate(c)) {
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return i;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes a range of already encoded bytes.
+     * Precondition: bytes holds at least offset + length bytes.
+     * Postcondition: The bytes are buffered; full buffers are flushed.
+     * --------------------------------------------------------
+     */
+    public void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == buffer.length) {
+                flush();
+            }
+            int n = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, n);
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Buffers a range of bytes from a ByteBuffer, such as a page of off-heap memory.
+     * Precondition: [offset, offset + length) lies within the limit of source.
+     * Postcondition: The bytes are buffered; full buffers are flushed. The position of source is unchanged.
+     * --------------------------------------------------------
+     */
+    public void writeBytes(ByteBuffer source, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == buffer.length) {
+                flush();
+            }
+            int n = Math.min(length, buffer.length - position);
+            source.get(offset, buffer, position, n);
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes a single ASCII character.
+     * Precondition: c is an ASCII character.
+     * Postcondition: The character is buffered; a full buffer is flushed first.
+     * --------------------------------------------------------
+     */
+    public void writeByte(char c) throws IOException {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = (byte) c;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the buffered bytes to the file.
+     * Precondition: The writer is open.
+     * Postcondition: The buffer is empty.
+     * --------------------------------------------------------
+     */
+    public void flush() throws IOException {
+        view.clear();
+        view.limit(position);
+        while (view.hasRemaining()) {
+            channel.write(view);
+        }
+        position = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Flushes the buffer and closes the file.
+     * Precondition: The writer is open.
+     * Postcondition: All output is written and the file is closed.
+     * --------------------------------------------------------
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
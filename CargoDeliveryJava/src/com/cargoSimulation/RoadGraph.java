@@ -0,0 +1,177 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Undirected road network between cities in compressed sparse row form.
+ * Cities are the ids of a CityRegistry. The roads leaving city c are the
+ * entries start(c) to end(c) - 1 of two flat arrays, one holding the city at
+ * the other end and one holding the length. Each road is stored once in each
+ * direction. The graph is immutable once built, so any number of threads can
+ * read it.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class RoadGraph {
+    private static final byte SPACE = ' ';
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] lengths;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds the graph from a list of roads.
+     * Precondition: from, to and length hold at least roadCount entries; city ids lie in [0, cityCount);
+     * lengths are not negative.
+     * Postcondition: A graph with cityCount cities and the given roads in both directions is created.
+     * --------------------------------------------------------
+     */
+    public RoadGraph(int cityCount, int[] from, int[] to, double[] length, int roadCount) {
+        offsets = new int[cityCount + 1];
+        for (int r = 0; r < roadCount; r++) {
+            offsets[from[r] + 1]++;
+            offsets[to[r] + 1]++;
+        }
+        for (int c = 0; c < cityCount; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        targets = new int[offsets[cityCount]];
+        lengths = new double[offsets[cityCount]];
+        int[] fill = new int[cityCount];
+        for (int r = 0; r < roadCount; r++) {
+            int a = offsets[from[r]] + fill[from[r]]++;
+            targets[a] = to[r];
+            lengths[a] = length[r];
+            int b = offsets[to[r]] + fill[to[r]]++;
+            targets[b] = from[r];
+            lengths[b] = length[r];
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads "CityA CityB Length" road lines from a file.
+     * Lines naming unknown cities or with a negative length are reported and skipped.
+     * Precondition: filename is a valid file path; cities registry is populated.
+     * Postcondition: Returns the graph over every city of the registry.
+     * --------------------------------------------------------
+     */
+    public static RoadGraph read(String filename, CityRegistry cities) throws IOException {
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        double[] length = new double[1024];
+        int roadCount = 0;
+        InputTokenizer in = InputTokenizer.open(filename);
+        while (in.nextLine()) {
+            // Road format: CityA CityB Length
+            if (in.countInLine(SPACE) != 2) {
+                continue;
+            }
+            int a = in.nextCityId(SPACE, cities);
+            String aName = a < 0 ? in.lastToken() : null;
+            int b = in.nextCityId(SPACE, cities);
+            String bName = b < 0 ? in.lastToken() : null;
+            double roadLength = in.nextDouble(SPACE);
+            if (a < 0 || b < 0) {
+                Main.reportCityNotFound(a < 0 ? aName : bName);
+            } else if (!(roadLength >= 0)) {
+                ErrorChannel.report(ErrorCode.INVALID_LINE, null, "Invalid road length at line " + in.lineNumber());
+            } else {
+                if (roadCount == from.length) {
+                    from = grow(from);
+                    to = grow(to);
+                    double[] grownLength = new double[roadCount * 2];
+                    System.arraycopy(length, 0, grownLength, 0, roadCount);
+                    length = grownLength;
+                }
+                from[roadCount] = a;
+                to[roadCount] = b;
+                length[roadCount] = roadLength;
+                roadCount++;
+            }
+        }
+        in.close();
+        return new RoadGraph(cities.size(), from, to, length, roadCount);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of cities.
+     * Precondition: None.
+     * Postcondition: Returns the city count the graph was built with.
+     * --------------------------------------------------------
+     */
+    public int cityCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of stored road directions.
+     * Precondition: None.
+     * Postcondition: Returns twice the number of roads.
+     * --------------------------------------------------------
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the first edge leaving a city.
+     * Precondition: city lies in [0, cityCount()).
+     * Postcondition: Returns the index of the first edge of the city.
+     * --------------------------------------------------------
+     */
+    public int start(int city) {
+        return offsets[city];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the index after the last edge leaving a city.
+     * Precondition: city lies in [0, cityCount()).
+     * Postcondition: Returns the end index of the edges of the city.
+     * --------------------------------------------------------
+     */
+    public int end(int city) {
+        return offsets[city + 1];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the city an edge leads to.
+     * Precondition: edge lies in [0, edgeCount()).
+     * Postcondition: Returns the target city id.
+     * --------------------------------------------------------
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the length of an edge.
+     * Precondition: edge lies in [0, edgeCount()).
+     * Postcondition: Returns the road length.
+     * --------------------------------------------------------
+     */
+    public double length(int edge) {
+        return lengths[edge];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a copy of an int array with twice the length.
+     * Precondition: array is not empty.
+     * Postcondition: Returns the larger copy.
+     * --------------------------------------------------------
+     */
+    private static int[] grow(int[] array) {
+        int[] grown = new int[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+}
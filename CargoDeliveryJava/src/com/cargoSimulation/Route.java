@@ -0,0 +1,96 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Shortest route between two cities of a RoadGraph.
+ * Holds the total length and the city ids along the way, from the source to
+ * the destination. An unreachable destination has an infinite length and no
+ * cities. Routes are immutable, so cached routes can be handed out freely.
+ * --------------------------------------------------------
+ */
+public class Route {
+    private final int from;
+    private final int to;
+    private final double length;
+    private final int[] cities;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a route.
+     * Precondition: cities runs from from to to, or is empty if length is infinite.
+     * Postcondition: Route is created; cities is not copied and must not be changed.
+     * --------------------------------------------------------
+     */
+    public Route(int from, int to, double length, int[] cities) {
+        this.from = from;
+        this.to = to;
+        this.length = length;
+        this.cities = cities;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the source city id.
+     * Precondition: None.
+     * Postcondition: Returns the id the route starts at.
+     * --------------------------------------------------------
+     */
+    public int getFrom() {
+        return from;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the destination city id.
+     * Precondition: None.
+     * Postcondition: Returns the id the route ends at.
+     * --------------------------------------------------------
+     */
+    public int getTo() {
+        return to;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the total length of the route.
+     * Precondition: None.
+     * Postcondition: Returns the length, or Double.POSITIVE_INFINITY if there is no route.
+     * --------------------------------------------------------
+     */
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the destination can be reached.
+     * Precondition: None.
+     * Postcondition: Returns true if the length is finite.
+     * --------------------------------------------------------
+     */
+    public boolean isReachable() {
+        return length != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of cities on the route.
+     * Precondition: None.
+     * Postcondition: Returns the count including both ends, or 0 if there is no route.
+     * --------------------------------------------------------
+     */
+    public int size() {
+        return cities.length;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a city on the route.
+     * Precondition: index lies in [0, size()).
+     * Postcondition: Returns the id of the index-th city from the source.
+     * --------------------------------------------------------
+     */
+    public int getCity(int index) {
+        return cities[index];
+    }
+}
@@ -0,0 +1,475 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Shortest-route engine over a RoadGraph with a cache of recent routes.
+ * Routes are found with A*. Cities carry no coordinates, so the estimate of the
+ * remaining distance comes from landmarks (ALT): the distances from a few
+ * landmark cities to every city are computed once, and by the triangle
+ * inequality |d(L, t) - d(L, v)| never overestimates d(v, t). The estimate is
+ * consistent, so every city is settled at most once. With no landmarks the
+ * search is plain Dijkstra. Landmarks are chosen farthest-first, which tends
+ * to place them at the edges of the network where they give the best bounds.
+ * Connected components are labelled up front, so a query between two
+ * components is answered without a search.
+ *
+ * Recent routes are kept in a direct-mapped cache indexed by a hash of the
+ * source and destination, so repeated queries cost one array lookup.
+ * The search arrays are reused between queries, so a Router is not safe to
+ * use from several threads at once; the RoadGraph can be shared.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class Router {
+    public static final int DEFAULT_LANDMARKS = 8;
+    public static final int DEFAULT_CACHE_SIZE = 1 << 14;
+
+    private static final byte DASH = '-';
+
+    private final RoadGraph graph;
+    private final int landmarkCount;
+    // landmarkDistances[c * landmarkCount + l] is the distance from landmark l to city c,
+    // so one estimate reads a single run of memory.
+    private final double[] landmarkDistances;
+    private final Route[] cache;
+    private final int cacheMask;
+
+    private final double[] distance;
+    private final double[] remaining;
+    private final int[] parent;
+    private final int[] reached;
+    private final int[] settled;
+    private final IndexedMinHeap heap;
+    private final int[] component;
+    private int stamp;
+
+    private long queries;
+    private long cacheHits;
+    private long settledCities;
+    private long missions;
+    private long unreachableMissions;
+    private double totalLength;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a router with the default landmarks and cache size.
+     * Precondition: graph is not null.
+     * Postcondition: A router is created; the landmark distances are computed.
+     * --------------------------------------------------------
+     */
+    public Router(RoadGraph graph) {
+        this(graph, DEFAULT_LANDMARKS, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a router with the given number of landmarks and cache slots.
+     * Precondition: graph is not null; landmarks and cacheSize are not negative.
+     * Postcondition: A router is created; 0 landmarks gives Dijkstra, 0 cache slots turns the cache off.
+     * The cache size is rounded up to a power of two.
+     * --------------------------------------------------------
+     */
+    public Router(RoadGraph graph, int landmarks, int cacheSize) {
+        this.graph = graph;
+        int n = graph.cityCount();
+        this.distance = new double[n];
+        this.remaining = new double[n];
+        this.parent = new int[n];
+        this.reached = new int[n];
+        this.settled = new int[n];
+        this.heap = new IndexedMinHeap(n);
+        this.component = new int[n];
+        this.stamp = 0;
+        labelComponents();
+
+        this.landmarkCount = n == 0 ? 0 : Math.min(landmarks, n);
+        this.landmarkDistances = new double[landmarkCount * n];
+        chooseLandmarks();
+
+        int slots = cacheSize <= 0 ? 0 : Integer.highestOneBit(cacheSize);
+        if (slots < cacheSize) {
+            slots <<= 1;
+        }
+        this.cache = new Route[slots];
+        this.cacheMask = slots - 1;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the shortest route between two cities.
+     * Precondition: from and to lie in [0, cityCount) of the graph.
+     * Postcondition: Returns the route, unreachable if the cities are not connected.
+     * --------------------------------------------------------
+     */
+    public Route route(int from, int to) {
+        queries++;
+        int slot = 0;
+        if (cache.length > 0) {
+            slot = (int) mix(((long) from << 32) | (to & 0xFFFFFFFFL)) & cacheMask;
+            Route cached = cache[slot];
+            if (cached != null && cached.getFrom() == from && cached.getTo() == to) {
+                cacheHits++;
+                return cached;
+            }
+        }
+        Route route = search(from, to);
+        if (cache.length > 0) {
+            cache[slot] = route;
+        }
+        return route;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the length of the shortest route between two cities.
+     * Precondition: from and to lie in [0, cityCount).
+     * Postcondition: Returns the length, or Double.POSITIVE_INFINITY if the cities are not connected.
+     * --------------------------------------------------------
+     */
+    public double distance(int from, int to) {
+        return route(from, to).getLength();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Routes a mission from its source through its middle city to its destination.
+     * Precondition: mission refers to cities of the graph; cities is the registry it was parsed with.
+     * Postcondition: Returns the total length, or Double.POSITIVE_INFINITY if a leg has no route,
+     * in which case the leg is reported. The mission counters are updated.
+     * --------------------------------------------------------
+     */
+    public double routeMission(Mission mission, CityRegistry cities) {
+        return routeMission(mission.getSourceId(), mission.getMiddleId(), mission.getDestId(), cities);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Routes a trip from a source through a middle city to a destination.
+     * Precondition: the ids are cities of the graph and of the registry.
+     * Postcondition: Returns the total length, or Double.POSITIVE_INFINITY if a leg has no route,
+     * in which case the leg is reported. The mission counters are updated.
+     * --------------------------------------------------------
+     */
+    public double routeMission(int sourceId, int middleId, int destId, CityRegistry cities) {
+        missions++;
+        double first = distance(sourceId, middleId);
+        double second = distance(middleId, destId);
+        if (first == Double.POSITIVE_INFINITY) {
+            reportUnreachable(cities, sourceId, middleId);
+        }
+        if (second == Double.POSITIVE_INFINITY) {
+            reportUnreachable(cities, middleId, destId);
+        }
+        double length = first + second;
+        if (length == Double.POSITIVE_INFINITY) {
+            unreachableMissions++;
+        } else {
+            totalLength += length;
+        }
+        return length;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Routes every mission of a missions file.
+     * Only the three cities of a line are read. Lines that do not name three
+     * known cities are skipped silently, since processMissions reports them.
+     * Precondition: filename is a valid file path; cities registry is the one the graph was built for.
+     * Postcondition: Every mission with known cities has been routed and counted.
+     * --------------------------------------------------------
+     */
+    public void routeMissions(String filename, CityRegistry cities) throws IOException {
+        InputTokenizer in = InputTokenizer.open(filename);
+        while (in.nextLine()) {
+            if (in.isLineEmpty() || in.countInLine(DASH) != 5) {
+                continue;
+            }
+            int sourceId = in.nextCityId(DASH, cities);
+            int middleId = in.nextCityId(DASH, cities);
+            int destId = in.nextCityId(DASH, cities);
+            if (sourceId >= 0 && middleId >= 0 && destId >= 0) {
+                routeMission(sourceId, middleId, destId, cities);
+            }
+        }
+        in.close();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Routes every mission of a compiled missions file.
+     * Precondition: program was compiled for the registry the graph was built for.
+     * Postcondition: Every mission of the program has been routed and counted.
+     * --------------------------------------------------------
+     */
+    public void routeMissions(MissionProgram program, CityRegistry cities) {
+        for (int m = 0; m < program.size(); m++) {
+            routeMission(program.sourceId(m), program.middleId(m), program.destId(m), cities);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints a one-line summary of the routed missions and the route queries.
+     * Precondition: out is not null.
+     * Postcondition: The mission count, total length, unreachable missions, cache hit rate and
+     * the average number of cities settled per search are printed.
+     * --------------------------------------------------------
+     */
+    public void printSummary(PrintStream out) {
+        long searches = queries - cacheHits;
+        out.println(String.format(Locale.ROOT,
+                "Routes: %d missions routed, total distance %.1f, %d unreachable, %.1f%% cache hits, "
+                        + "%.1f cities settled per search",
+                missions, totalLength, unreachableMissions,
+                queries == 0 ? 0.0 : 100.0 * cacheHits / queries,
+                searches == 0 ? 0.0 : (double) settledCities / searches));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Finds the shortest route with A* over the landmark estimate.
+     * Precondition: from and to lie in [0, cityCount).
+     * Postcondition: Returns a new route.
+     * --------------------------------------------------------
+     */
+    private Route search(int from, int to) {
+        if (from == to) {
+            return new Route(from, to, 0, new int[] {from});
+        }
+        if (component[from] != component[to]) {
+            return new Route(from, to, Double.POSITIVE_INFINITY, new int[0]);
+        }
+        int current = nextStamp();
+        heap.clear();
+        distance[from] = 0;
+        parent[from] = -1;
+        reached[from] = current;
+        remaining[from] = estimate(from, to);
+        heap.offer(from, remaining[from]);
+        while (!heap.isEmpty()) {
+            int city = heap.poll();
+            settled[city] = current;
+            settledCities++;
+            if (city == to) {
+                return buildRoute(from, to);
+            }
+            double base = distance[city];
+            for (int e = graph.start(city); e < graph.end(city); e++) {
+                int next = graph.target(e);
+                if (settled[next] == current) {
+                    continue;
+                }
+                double length = base + graph.length(e);
+                if (reached[next] != current) {
+                    reached[next] = current;
+                    remaining[next] = estimate(next, to);
+                } else if (length >= distance[next]) {
+                    continue;
+                }
+                distance[next] = length;
+                parent[next] = city;
+                heap.offer(next, length + remaining[next]);
+            }
+        }
+        return new Route(from, to, Double.POSITIVE_INFINITY, new int[0]);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds a route by following the parents back from the destination.
+     * Precondition: to has been settled by the current search.
+     * Postcondition: Returns the route from from to to.
+     * --------------------------------------------------------
+     */
+    private Route buildRoute(int from, int to) {
+        int count = 1;
+        for (int city = to; city != from; city = parent[city]) {
+            count++;
+        }
+        int[] cities = new int[count];
+        int i = count;
+        for (int city = to; city != from; city = parent[city]) {
+            cities[--i] = city;
+        }
+        cities[0] = from;
+        return new Route(from, to, distance[to], cities);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a lower bound on the distance between two cities.
+     * Precondition: city and to lie in [0, cityCount) and in the same component.
+     * Postcondition: Returns the largest landmark bound, 0 without landmarks.
+     * --------------------------------------------------------
+     */
+    private double estimate(int city, int to) {
+        int cityBase = city * landmarkCount;
+        int toBase = to * landmarkCount;
+        double best = 0;
+        for (int l = 0; l < landmarkCount; l++) {
+            // A landmark in another component gives infinity minus infinity, NaN, which never wins.
+            double bound = Math.abs(landmarkDistances[toBase + l] - landmarkDistances[cityBase + l]);
+            if (bound > best) {
+                best = bound;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Labels every city with the id of its connected component.
+     * Precondition: component and parent have cityCount entries.
+     * Postcondition: Two cities are connected exactly when their component ids are equal.
+     * --------------------------------------------------------
+     */
+    private void labelComponents() {
+        int n = graph.cityCount();
+        Arrays.fill(component, -1);
+        // parent doubles as the stack of the depth-first traversal.
+        int[] stack = parent;
+        int label = 0;
+        for (int start = 0; start < n; start++) {
+            if (component[start] >= 0) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = start;
+            component[start] = label;
+            while (top > 0) {
+                int city = stack[--top];
+                for (int e = graph.start(city); e < graph.end(city); e++) {
+                    int next = graph.target(e);
+                    if (component[next] < 0) {
+                        component[next] = label;
+                        stack[top++] = next;
+                    }
+                }
+            }
+            label++;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Chooses the landmarks farthest-first and stores their distances to every city.
+     * The first landmark is the city farthest from city 0; each next one is the city
+     * farthest from all landmarks chosen so far. Unreachable cities count as farthest,
+     * so every component gets a landmark before any component gets a second one.
+     * Precondition: The distance arrays are allocated.
+     * Postcondition: landmarkDistances holds one row per landmark.
+     * --------------------------------------------------------
+     */
+    private void chooseLandmarks() {
+        int n = graph.cityCount();
+        if (landmarkCount == 0) {
+            return;
+        }
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        int landmark = farthest(shortestDistances(0, new double[n]));
+        for (int l = 0; l < landmarkCount; l++) {
+            double[] row = new double[n];
+            shortestDistances(landmark, row);
+            for (int c = 0; c < n; c++) {
+                landmarkDistances[c * landmarkCount + l] = row[c];
+                nearest[c] = Math.min(nearest[c], row[c]);
+            }
+            landmark = farthest(nearest);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Computes the distances from one city to all cities with Dijkstra.
+     * Precondition: source lies in [0, cityCount); row has cityCount entries.
+     * Postcondition: row holds the distances, Double.POSITIVE_INFINITY for unreachable cities; returns row.
+     * --------------------------------------------------------
+     */
+    private double[] shortestDistances(int source, double[] row) {
+        Arrays.fill(row, Double.POSITIVE_INFINITY);
+        int current = nextStamp();
+        heap.clear();
+        row[source] = 0;
+        heap.offer(source, 0);
+        while (!heap.isEmpty()) {
+            int city = heap.poll();
+            settled[city] = current;
+            double base = row[city];
+            for (int e = graph.start(city); e < graph.end(city); e++) {
+                int next = graph.target(e);
+                double length = base + graph.length(e);
+                if (settled[next] != current && length < row[next]) {
+                    row[next] = length;
+                    heap.offer(next, length);
+                }
+            }
+        }
+        return row;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the city with the largest value, preferring the lowest id on ties.
+     * Precondition: values is not empty.
+     * Postcondition: Returns the index of the largest value.
+     * --------------------------------------------------------
+     */
+    private static int farthest(double[] values) {
+        int best = 0;
+        for (int c = 1; c < values.length; c++) {
+            if (values[c] > values[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Starts a new search by advancing the stamp that marks reached and settled cities.
+     * Precondition: None.
+     * Postcondition: Returns a stamp no city is marked with.
+     * --------------------------------------------------------
+     */
+    private int nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Scrambles the bits of a key so nearby keys spread over the cache.
+     * Precondition: None.
+     * Postcondition: Returns the mixed key.
+     * --------------------------------------------------------
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reports that there is no road route between two cities.
+     * Precondition: the ids are cities of the registry.
+     * Postcondition: The problem is reported for the city the route starts from.
+     * --------------------------------------------------------
+     */
+    private static void reportUnreachable(CityRegistry cities, int from, int to) {
+        ErrorChannel.report(ErrorCode.NO_ROUTE, cities.get(from).getName(),
+                "No route between cities: " + cities.get(from).getName() + " and " + cities.get(to).getName());
+    }
+}
@@ -0,0 +1,443 @@
+package com.cargoSimulation;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Command line generator for large synthetic scenarios.
+ * Writes cities.txt, packages.txt, vehicles.txt and missions.txt into an output
+ * directory in the formats read by Main. Every file is streamed line by line,
+ * so scenarios far larger than the heap can be generated. The same seed always
+ * produces the same files. The output directory must be given, and files
+ * already in it are only overwritten with --force, so a bare run cannot
+ * replace the sample input files.
+ * --------------------------------------------------------
+ */
+public class ScenarioGenerator {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private int cityCount = 1000;
+    private int packagesPerCity = 100;
+    private int vehiclesPerCity = 4;
+    private String volumeDistribution = "uniform";
+    private double volumeA = 1.0;
+    private double volumeB = 10.0;
+    private boolean packageVolumes = false;
+    private double packageVolumeMin;
+    private double packageVolumeMax;
+    private boolean roads = false;
+    private int missionCount = 10000;
+    private int maxLoad = 5;
+    private int maxDropOffs = 3;
+    private double dropOffSkew = 1.0;
+    private long seed = 42L;
+    // Output directory; null until --out= is given.
+    private String outputDirectory = null;
+    private boolean force = false;
+
+    public static void main(String[] args) {
+        ScenarioGenerator generator = new ScenarioGenerator();
+        for (int i = 0; i < args.length; i++) {
+            if (!generator.applyOption(args[i])) {
+                System.out.println("Unknown option: " + args[i]);
+                printUsage();
+                return;
+            }
+        }
+        if (generator.outputDirectory == null) {
+            System.out.println("Missing --out=DIR");
+            printUsage();
+            return;
+        }
+        try {
+            generator.generate();
+        } catch (FileAlreadyExistsException e) {
+            System.out.println(e.getFile() + " already exists; use --force to overwrite it");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Prints the command line usage of the generator.
+     * Precondition: None.
+     * Postcondition: Usage text is written to standard output.
+     * --------------------------------------------------------
+     */
+    private static void printUsage() {
+        System.out.println("Usage: java com.cargoSimulation.ScenarioGenerator --out=DIR [options]");
+        System.out.println("  --out=DIR                 output directory (required)");
+        System.out.println("  --force                   overwrite input files already in the output directory");
+        System.out.println("  --cities=N                number of cities (default: 1000)");
+        System.out.println("  --packages-per-city=N     packages stocked per city (default: 100)");
+        System.out.println("  --vehicles-per-city=N     vehicles stationed per city (default: 4)");
+        System.out.println("  --volume=uniform:MIN:MAX  vehicle volumes drawn uniformly (default: uniform:1:10)");
+        System.out.println("  --volume=normal:MEAN:SD   vehicle volumes drawn from a normal distribution");
+        System.out.println("  --package-volume=MIN:MAX  give packages volumes drawn uniformly (default: no volumes)");
+        System.out.println("  --roads                   also write roads.txt, a road grid over the cities");
+        System.out.println("  --missions=N              number of missions (default: 10000)");
+        System.out.println("  --max-load=N              upper bound for A and B in a mission (default: 5)");
+        System.out.println("  --max-drop-offs=N         upper bound for drop-off indices per mission (default: 3)");
+        System.out.println("  --drop-off-skew=S         1 is uniform; larger values favour low indices (default: 1)");
+        System.out.println("  --seed=N                  random seed (default: 42)");
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Applies one --key=value option to the generator settings.
+     * Precondition: option is not null.
+     * Postcondition: Returns true if the option was recognised and applied.
+     * --------------------------------------------------------
+     */
+    public boolean applyOption(String option) {
+        if (option.equals("--roads")) {
+            roads = true;
+            return true;
+        }
+        if (option.equals("--force")) {
+            force = true;
+            return true;
+        }
+        int eq = option.indexOf('=');
+        if (!option.startsWith("--") || eq < 0) {
+            return false;
+        }
+        String key = option.substring(2, eq);
+        String value = option.substring(eq + 1);
+        switch (key) {
+            case "out":
+                outputDirectory = value;
+                return true;
+            case "cities":
+                cityCount = Integer.parseInt(value);
+                return true;
+            case "packages-per-city":
+                packagesPerCity = Integer.parseInt(value);
+                return true;
+            case "vehicles-per-city":
+                vehiclesPerCity = Integer.parseInt(value);
+                return true;
+            case "volume":
+                String[] spec = value.split(":");
+                if (spec.length != 3 || !(spec[0].equals("uniform") || spec[0].equals("normal"))) {
+                    return false;
+                }
+                volumeDistribution = spec[0];
+                volumeA = Double.parseDouble(spec[1]);
+                volumeB = Double.parseDouble(spec[2]);
+                return true;
+            case "package-volume":
+                String[] range = value.split(":");
+                if (range.length != 2) {
+                    return false;
+                }
+                packageVolumes = true;
+                packageVolumeMin = Double.parseDouble(range[0]);
+                packageVolumeMax = Double.parseDouble(range[1]);
+                return true;
+            case "missions":
+                missionCount = Integer.parseInt(value);
+                return true;
+            case "max-load":
+                maxLoad = Integer.parseInt(value);
+                return true;
+            case "max-drop-offs":
+                maxDropOffs = Integer.parseInt(value);
+                return true;
+            case "drop-off-skew":
+                dropOffSkew = Double.parseDouble(value);
+                return true;
+            case "seed":
+                seed = Long.parseLong(value);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes all four input files with the current settings.
+     * Precondition: cityCount is at least 3; --out= was given and the output directory can be created.
+     * Postcondition: cities.txt, packages.txt, vehicles.txt and missions.txt exist in the output directory.
+     * Throws FileAlreadyExistsException, writing nothing, if one of the files exists and --force was not
+     * given.
+     * --------------------------------------------------------
+     */
+    public void generate() throws IOException {
+        if (cityCount < 3) {
+            throw new IllegalArgumentException("At least 3 cities are needed for missions");
+        }
+        if (outputDirectory == null) {
+            throw new IllegalStateException("No output directory: --out= was not given");
+        }
+        File dir = new File(outputDirectory);
+        String[] names = {"cities.txt", "packages.txt", "vehicles.txt", "missions.txt", "roads.txt"};
+        for (int i = 0; i < names.length && !force; i++) {
+            File file = new File(dir, names[i]);
+            if (file.exists() && (roads || i < names.length - 1)) {
+                throw new FileAlreadyExistsException(file.getPath());
+            }
+        }
+        dir.mkdirs();
+        // Each file gets its own stream so changing one parameter leaves the other files unchanged.
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom vehicleRandom = root.split();
+        SplittableRandom missionRandom = root.split();
+        SplittableRandom packageRandom = root.split();
+        SplittableRandom roadRandom = root.split();
+
+        writeCities(new File(dir, "cities.txt"));
+        writePackages(new File(dir, "packages.txt"), packageRandom);
+        writeVehicles(new File(dir, "vehicles.txt"), vehicleRandom);
+        writeMissions(new File(dir, "missions.txt"), missionRandom);
+        if (roads) {
+            writeRoads(new File(dir, "roads.txt"), roadRandom);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the name of the city with the given index.
+     * Precondition: index is not negative.
+     * Postcondition: Returns a name without spaces or dashes.
+     * --------------------------------------------------------
+     */
+    public static String cityName(int index) {
+        return "City" + index;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes one city name per line.
+     * Precondition: file is writable.
+     * Postcondition: cities.txt holds cityCount names.
+     * --------------------------------------------------------
+     */
+    private void writeCities(File file) throws IOException {
+        BufferedWriter bw = new BufferedWriter(new FileWriter(file), BUFFER_SIZE);
+        for (int c = 0; c < cityCount; c++) {
+            bw.write(cityName(c));
+            bw.write('\n');
+        }
+        bw.close();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes "ID City" package lines, interleaving cities round by round.
+     * With --package-volume the lines are "ID City Volume".
+     * Precondition: file is writable; random is not null.
+     * Postcondition: packages.txt holds packagesPerCity packages for every city.
+     * --------------------------------------------------------
+     */
+    private void writePackages(File file, SplittableRandom random) throws IOException {
+        BufferedWriter bw = new BufferedWriter(new FileWriter(file), BUFFER_SIZE);
+        long id = 1;
+        for (int round = 0; round < packagesPerCity; round++) {
+            for (int c = 0; c < cityCount; c++) {
+                bw.write('P');
+                bw.write(Long.toString(id++));
+                bw.write(' ');
+                bw.write(cityName(c));
+                if (packageVolumes) {
+                    double volume = packageVolumeMin + (packageVolumeMax - packageVolumeMin) * random.nextDouble();
+                    bw.write(' ');
+                    bw.write(String.format(Locale.ROOT, "%.1f", Math.max(volume, 0.1)));
+                }
+                bw.write('\n');
+            }
+        }
+        bw.close();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes "ID City Volume" vehicle lines with volumes from the chosen distribution.
+     * Precondition: file is writable; random is not null.
+     * Postcondition: vehicles.txt holds vehiclesPerCity vehicles for every city.
+     * --------------------------------------------------------
+     */
+    private void writeVehicles(File file, SplittableRandom random) throws IOException {
+        BufferedWriter bw = new BufferedWriter(new FileWriter(file), BUFFER_SIZE);
+        long id = 1;
+        for (int round = 0; round < vehiclesPerCity; round++) {
+            for (int c = 0; c < cityCount; c++) {
+                bw.write('V');
+                bw.write(Long.toString(id++));
+                bw.write(' ');
+                bw.write(cityName(c));
+                bw.write(' ');
+                bw.write(String.format(Locale.ROOT, "%.1f", nextVolume(random)));
+                bw.write('\n');
+            }
+        }
+        bw.close();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes "CityA CityB Length" road lines forming a jittered grid.
+     * Cities are laid out row by row on a square grid, each moved randomly
+     * within its cell. Every city is joined to its right and lower neighbours,
+     * and to its lower-right neighbour one time in four. A road is 10 to 40
+     * percent longer than the straight line, so the network is connected and
+     * shortest routes follow the roads rather than the grid.
+     * Precondition: file is writable; random is not null.
+     * Postcondition: roads.txt holds the roads of the grid.
+     * --------------------------------------------------------
+     */
+    private void writeRoads(File file, SplittableRandom random) throws IOException {
+        int width = (int) Math.ceil(Math.sqrt(cityCount));
+        double[] x = new double[cityCount];
+        double[] y = new double[cityCount];
+        for (int c = 0; c < cityCount; c++) {
+            x[c] = 10 * (c % width + 0.8 * random.nextDouble() - 0.4);
+            y[c] = 10 * (c / width + 0.8 * random.nextDouble() - 0.4);
+        }
+        BufferedWriter bw = new BufferedWriter(new FileWriter(file), BUFFER_SIZE);
+        for (int c = 0; c < cityCount; c++) {
+            boolean hasRight = c % width + 1 < width && c + 1 < cityCount;
+            boolean hasBelow = c + width < cityCount;
+            if (hasRight) {
+                writeRoad(bw, c, c + 1, x, y, random);
+            }
+            if (hasBelow) {
+                writeRoad(bw, c, c + width, x, y, random);
+            }
+            if (hasRight && c + width + 1 < cityCount && random.nextInt(4) == 0) {
+                writeRoad(bw, c, c + width + 1, x, y, random);
+            }
+        }
+        bw.close();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes one road line between two grid cities.
+     * Precondition: a and b are city indices with positions in x and y.
+     * Postcondition: A "CityA CityB Length" line is written.
+     * --------------------------------------------------------
+     */
+    private static void writeRoad(BufferedWriter bw, int a, int b, double[] x, double[] y,
+                                  SplittableRandom random) throws IOException {
+        double straight = Math.hypot(x[a] - x[b], y[a] - y[b]);
+        double length = Math.max(straight * (1.1 + 0.3 * random.nextDouble()), 0.1);
+        bw.write(cityName(a));
+        bw.write(' ');
+        bw.write(cityName(b));
+        bw.write(' ');
+        bw.write(String.format(Locale.ROOT, "%.1f", length));
+        bw.write('\n');
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Draws one vehicle volume.
+     * Precondition: random is not null.
+     * Postcondition: Returns a volume of at least 0.1.
+     * --------------------------------------------------------
+     */
+    private double nextVolume(SplittableRandom random) {
+        double volume;
+        if (volumeDistribution.equals("normal")) {
+            volume = volumeA + volumeB * gaussian(random);
+        } else {
+            volume = volumeA + (volumeB - volumeA) * random.nextDouble();
+        }
+        return Math.max(volume, 0.1);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes Source-Middle-Dest-A-B-C1,C2,... mission lines.
+     * Source, middle and destination are three distinct cities. The drop-off
+     * indices are distinct and lie in [0, A + B), so every line is valid for a
+     * fully stocked vehicle.
+     * Precondition: file is writable; random is not null.
+     * Postcondition: missions.txt holds missionCount missions.
+     * --------------------------------------------------------
+     */
+    private void writeMissions(File file, SplittableRandom random) throws IOException {
+        BufferedWriter bw = new BufferedWriter(new FileWriter(file), BUFFER_SIZE);
+        int dropOffLimit = Math.max(1, maxDropOffs);
+        boolean[] taken = new boolean[Math.max(1, 2 * maxLoad)];
+        StringBuilder line = new StringBuilder(64);
+        for (int m = 0; m < missionCount; m++) {
+            int source = random.nextInt(cityCount);
+            int middle = random.nextInt(cityCount - 1);
+            if (middle >= source) {
+                middle++;
+            }
+            int dest;
+            do {
+                dest = random.nextInt(cityCount);
+            } while (dest == source || dest == middle);
+
+            int a = random.nextInt(maxLoad + 1);
+            int b = random.nextInt(maxLoad + 1);
+            if (a + b == 0) {
+                a = 1;
+            }
+            int cargo = a + b;
+            int drops = 1 + random.nextInt(Math.min(cargo, dropOffLimit));
+
+            line.setLength(0);
+            line.append(cityName(source)).append('-')
+                .append(cityName(middle)).append('-')
+                .append(cityName(dest)).append('-')
+                .append(a).append('-')
+                .append(b).append('-');
+            for (int d = 0; d < drops; d++) {
+                int index = skewedIndex(random, cargo);
+                while (taken[index]) {
+                    index = (index + 1) % cargo;
+                }
+                taken[index] = true;
+                if (d > 0) {
+                    line.append(',');
+                }
+                line.append(index);
+            }
+            for (int i = 0; i < cargo; i++) {
+                taken[i] = false;
+            }
+            line.append('\n');
+            bw.append(line);
+        }
+        bw.close();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Draws an index in [0, bound) with the configured skew.
+     * A skew of 1 is uniform; a skew of s concentrates indices near 0 as u^s does.
+     * Precondition: bound is positive.
+     * Postcondition: Returns an index in [0, bound).
+     * --------------------------------------------------------
+     */
+    private int skewedIndex(SplittableRandom random, int bound) {
+        double u = Math.pow(random.nextDouble(), dropOffSkew);
+        return Math.min((int) (u * bound), bound - 1);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Draws a standard normal value with the Box-Muller transform.
+     * Precondition: random is not null.
+     * Postcondition: Returns a normally distributed value with mean 0 and deviation 1.
+     * --------------------------------------------------------
+     */
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+}
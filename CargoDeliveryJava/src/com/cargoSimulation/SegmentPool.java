@@ -0,0 +1,117 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Pool of fixed-size int segments kept outside the Java heap.
+ * Each segment holds a link to another segment and SEGMENT_CAPACITY values.
+ * OffHeapIntStack and OffHeapIntQueue chain segments into unrolled lists, so
+ * every city's stack and queue can grow and shrink independently while sharing
+ * one OffHeapMemory. Freed segments are kept on a free list, threaded through
+ * their link fields, and handed out again before the memory grows.
+ * Allocating and freeing are synchronized; reading and writing values are not,
+ * since a segment belongs to one stack or queue at a time.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class SegmentPool {
+    // Link value that marks the end of a chain.
+    public static final int NO_SEGMENT = -1;
+    public static final int SEGMENT_CAPACITY = 63;
+
+    private static final int SEGMENT_BYTES = (SEGMENT_CAPACITY + 1) * Integer.BYTES;
+
+    private final OffHeapMemory memory;
+    private int segmentCount;
+    private int freeHead;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty pool.
+     * Precondition: directory is null or an existing, writable directory.
+     * Postcondition: An empty pool is created over direct or file-mapped memory.
+     * --------------------------------------------------------
+     */
+    public SegmentPool(String directory) throws IOException {
+        memory = new OffHeapMemory(directory);
+        segmentCount = 0;
+        freeHead = NO_SEGMENT;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Hands out a segment, reusing a freed one if there is any.
+     * Precondition: None.
+     * Postcondition: Returns a segment whose link and values are unspecified.
+     * --------------------------------------------------------
+     */
+    public synchronized int allocate() {
+        if (freeHead != NO_SEGMENT) {
+            int segment = freeHead;
+            freeHead = getLink(segment);
+            return segment;
+        }
+        if (segmentCount == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Segment pool is full");
+        }
+        memory.ensure((segmentCount + 1L) * SEGMENT_BYTES);
+        return segmentCount++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a segment to the pool.
+     * Precondition: segment was allocated and is no longer used.
+     * Postcondition: The segment is on the free list.
+     * --------------------------------------------------------
+     */
+    public synchronized void free(int segment) {
+        setLink(segment, freeHead);
+        freeHead = segment;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads the link of a segment.
+     * Precondition: segment was allocated.
+     * Postcondition: Returns the linked segment or NO_SEGMENT.
+     * --------------------------------------------------------
+     */
+    public int getLink(int segment) {
+        return memory.getInt((long) segment * SEGMENT_BYTES);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the link of a segment.
+     * Precondition: segment was allocated.
+     * Postcondition: The segment links to next.
+     * --------------------------------------------------------
+     */
+    public void setLink(int segment, int next) {
+        memory.putInt((long) segment * SEGMENT_BYTES, next);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Reads a value of a segment.
+     * Precondition: segment was allocated; index is between 0 and SEGMENT_CAPACITY - 1.
+     * Postcondition: Returns the value.
+     * --------------------------------------------------------
+     */
+    public int get(int segment, int index) {
+        return memory.getInt((long) segment * SEGMENT_BYTES + (index + 1) * Integer.BYTES);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes a value of a segment.
+     * Precondition: segment was allocated; index is between 0 and SEGMENT_CAPACITY - 1.
+     * Postcondition: The value is stored.
+     * --------------------------------------------------------
+     */
+    public void set(int segment, int index, int value) {
+        memory.putInt((long) segment * SEGMENT_BYTES + (index + 1) * Integer.BYTES, value);
+    }
+}
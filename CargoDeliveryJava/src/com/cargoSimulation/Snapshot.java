@@ -0,0 +1,548 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Versioned binary snapshot of the whole simulation state.
+ * A snapshot lets a run be checkpointed (for example after processMissions) and
+ * later resumed or forked without going through the text parsers.
+ *
+ * Layout (little-endian), one section after the other:
+ *   header           int magic "CSNP", int version, int stringCount, int cityCount,
+ *                    int packageCount, int vehicleCount, long stringBytes
+ *   string offsets   int[stringCount + 1], byte offsets into the string data
+ *   string data      UTF-8 bytes of every distinct ID and city name
+ *   cities           int[cityCount] name, int[cityCount] packages, int[cityCount] vehicles
+ *   packages         int[packageCount] id, int[packageCount] city
+ *   vehicles         int[vehicleCount] id, double[vehicleCount] volume, int[vehicleCount] cargo
+ *   package volumes  double[packageCount] volume, in package order (since version 2)
+ *
+ * Names and IDs are string table indices. Packages are stored contiguously:
+ * first each city's stack from top to bottom, in city order, then each vehicle's
+ * cargo from first to last, in vehicle order. Vehicles are stored per city from
+ * the head of the queue to the tail. Version 1 snapshots, which have no package
+ * volumes, still load with every package volume 0. Every section is mapped into memory on its
+ * own, so a single section must stay below 2 GB.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class Snapshot {
+    private static final int MAGIC = 0x43534E50;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 6 * Integer.BYTES + Long.BYTES;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a snapshot writer over an open file channel.
+     * Precondition: channel is open for writing.
+     * Postcondition: A writer with an empty buffer is created.
+     * --------------------------------------------------------
+     */
+    private Snapshot(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the state of every city to a snapshot file.
+     * Precondition: filename is a valid file path; cities is not null.
+     * Postcondition: The snapshot file is written; the cities are not modified.
+     * --------------------------------------------------------
+     */
+    public static void save(String filename, CityRegistry cities) throws IOException {
+        Image image = new Image(cities.size());
+        for (int c = 0; c < cities.size(); c++) {
+            image.capture(c, cities.get(c));
+        }
+        image.write(filename);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Copy of the state of every city, to be written as a snapshot later.
+     * Cities can be captured one at a time and in any order, so a caller can
+     * spread the capture over time and capture a city just before changing it;
+     * the image is then the state of every city at the moment capturing began.
+     * Packages and vehicles are held by reference and only their cargo lists are
+     * copied, so once every city is captured the image can be written on another
+     * thread while the cities keep changing.
+     * Does not use iterators.
+     * --------------------------------------------------------
+     */
+    static class Image {
+        private final String[] names;
+        // Per city: the stack top first, the queue head first, and each vehicle's cargo first to last.
+        private final Object[][] packages;
+        private final Object[][] vehicles;
+        private final Object[][][] cargo;
+        private int remaining;
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Initializes an image with no city captured yet.
+         * Precondition: cityCount is not negative.
+         * Postcondition: An empty image for cityCount cities is created.
+         * --------------------------------------------------------
+         */
+        Image(int cityCount) {
+            names = new String[cityCount];
+            packages = new Object[cityCount][];
+            vehicles = new Object[cityCount][];
+            cargo = new Object[cityCount][][];
+            remaining = cityCount;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Checks if a city has been captured.
+         * Precondition: c is a city index of the image.
+         * Postcondition: Returns true if capture(c, ...) has been called.
+         * --------------------------------------------------------
+         */
+        boolean isCaptured(int c) {
+            return names[c] != null;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Checks if every city has been captured.
+         * Precondition: None.
+         * Postcondition: Returns true if the image is ready to be written.
+         * --------------------------------------------------------
+         */
+        boolean isComplete() {
+            return remaining == 0;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Copies the current state of a city into the image.
+         * Precondition: c is a city index of the image that has not been captured; city is not null.
+         * Postcondition: The city is captured; returns the number of packages copied.
+         * --------------------------------------------------------
+         */
+        int capture(int c, City city) {
+            DistributionCenter dc = city.getDistributionCenter();
+            names[c] = city.getName();
+            packages[c] = dc.getPackages().toArray();
+            vehicles[c] = dc.getVehicles().toArray();
+            cargo[c] = new Object[vehicles[c].length][];
+            int copied = packages[c].length;
+            for (int v = 0; v < vehicles[c].length; v++) {
+                cargo[c][v] = ((Vehicle) vehicles[c][v]).getCargoPackages().toArray();
+                copied += cargo[c][v].length;
+            }
+            remaining--;
+            return copied;
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Writes the captured state as a snapshot file.
+         * Precondition: Every city is captured; filename is a valid file path.
+         * Postcondition: The snapshot file is written; the image is not modified.
+         * --------------------------------------------------------
+         */
+        void write(String filename) throws IOException {
+            int cityCount = names.length;
+            int stackCount = 0;
+            int vehicleCount = 0;
+            for (int c = 0; c < cityCount; c++) {
+                stackCount += packages[c].length;
+                vehicleCount += vehicles[c].length;
+            }
+
+            // Intern every name and ID into the string table.
+            StringTable strings = new StringTable(cityCount + vehicleCount + stackCount);
+            int[] cityNames = new int[cityCount];
+            int[] cityPackages = new int[cityCount];
+            int[] cityVehicles = new int[cityCount];
+            int[] vehicleIds = new int[vehicleCount];
+            double[] vehicleVolumes = new double[vehicleCount];
+            int[] vehicleCargo = new int[vehicleCount];
+            int packageCount = stackCount;
+            int v = 0;
+            for (int c = 0; c < cityCount; c++) {
+                cityNames[c] = strings.intern(names[c]);
+                cityPackages[c] = packages[c].length;
+                cityVehicles[c] = vehicles[c].length;
+                for (int i = 0; i < vehicles[c].length; i++) {
+                    Vehicle vehicle = (Vehicle) vehicles[c][i];
+                    vehicleIds[v] = strings.intern(vehicle.getId());
+                    vehicleVolumes[v] = vehicle.getVolume();
+                    vehicleCargo[v] = cargo[c][i].length;
+                    packageCount += vehicleCargo[v];
+                    v++;
+                }
+            }
+            int[] packageIds = new int[packageCount];
+            int[] packageCities = new int[packageCount];
+            double[] packageVolumes = new double[packageCount];
+            int p = 0;
+            for (int c = 0; c < cityCount; c++) {
+                for (int i = 0; i < packages[c].length; i++) {
+                    Package pkg = (Package) packages[c][i];
+                    packageIds[p] = strings.intern(pkg.getId());
+                    packageCities[p] = strings.intern(pkg.getCity());
+                    packageVolumes[p] = pkg.getVolume();
+                    p++;
+                }
+            }
+            for (int c = 0; c < cityCount; c++) {
+                for (int i = 0; i < cargo[c].length; i++) {
+                    for (int j = 0; j < cargo[c][i].length; j++) {
+                        Package pkg = (Package) cargo[c][i][j];
+                        packageIds[p] = strings.intern(pkg.getId());
+                        packageCities[p] = strings.intern(pkg.getCity());
+                        packageVolumes[p] = pkg.getVolume();
+                        p++;
+                    }
+                }
+            }
+
+            FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                Snapshot out = new Snapshot(channel);
+                out.putInt(MAGIC);
+                out.putInt(VERSION);
+                out.putInt(strings.size);
+                out.putInt(cityCount);
+                out.putInt(packageCount);
+                out.putInt(vehicleCount);
+                out.putLong(strings.offsets[strings.size]);
+                out.putInts(strings.offsets, strings.size + 1);
+                out.putBytes(strings.bytes, strings.offsets[strings.size]);
+                out.putInts(cityNames, cityCount);
+                out.putInts(cityPackages, cityCount);
+                out.putInts(cityVehicles, cityCount);
+                out.putInts(packageIds, packageCount);
+                out.putInts(packageCities, packageCount);
+                out.putInts(vehicleIds, vehicleCount);
+                for (int i = 0; i < vehicleCount; i++) {
+                    out.putDouble(vehicleVolumes[i]);
+                }
+                out.putInts(vehicleCargo, vehicleCount);
+                for (int i = 0; i < packageCount; i++) {
+                    out.putDouble(packageVolumes[i]);
+                }
+                out.flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Loads a snapshot file into a new city registry.
+     * Precondition: filename is a snapshot written by save; storage is not null.
+     * Postcondition: Returns cities with the same stacks, queues and cargo as when the snapshot was saved.
+     * --------------------------------------------------------
+     */
+    public static CityRegistry load(String filename, DistributionCenter.Storage storage) throws IOException {
+        return load(filename, new CityFactory(storage));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Loads a snapshot file into a new city registry whose cities come from a factory.
+     * Precondition: filename is a snapshot written by save; factory has not created any cities yet.
+     * Postcondition: Returns cities with the same stacks, queues and cargo as when the snapshot was saved.
+     * --------------------------------------------------------
+     */
+    public static CityRegistry load(String filename, CityFactory factory) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a cargo snapshot: " + filename);
+            }
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a cargo snapshot: " + filename);
+            }
+            int version = header.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + filename);
+            }
+            int stringCount = header.getInt();
+            int cityCount = header.getInt();
+            int packageCount = header.getInt();
+            int vehicleCount = header.getInt();
+            long stringBytes = header.getLong();
+
+            // Each section is copied out of the mapping in one bulk transfer.
+            long offset = HEADER_BYTES;
+            int[] stringOffsets = ints(map(channel, offset, (stringCount + 1L) * Integer.BYTES), stringCount + 1);
+            offset += (stringCount + 1L) * Integer.BYTES;
+            String[] strings = decodeStrings(map(channel, offset, stringBytes), stringOffsets, stringCount);
+            offset += stringBytes;
+            int[] cityData = ints(map(channel, offset, 3L * cityCount * Integer.BYTES), 3 * cityCount);
+            offset += 3L * cityCount * Integer.BYTES;
+            int[] packageData = ints(map(channel, offset, 2L * packageCount * Integer.BYTES), 2 * packageCount);
+            offset += 2L * packageCount * Integer.BYTES;
+            int[] vehicleIds = ints(map(channel, offset, (long) vehicleCount * Integer.BYTES), vehicleCount);
+            offset += (long) vehicleCount * Integer.BYTES;
+            double[] vehicleVolumes = new double[vehicleCount];
+            map(channel, offset, (long) vehicleCount * Double.BYTES).asDoubleBuffer().get(vehicleVolumes);
+            offset += (long) vehicleCount * Double.BYTES;
+            int[] vehicleCargo = ints(map(channel, offset, (long) vehicleCount * Integer.BYTES), vehicleCount);
+            offset += (long) vehicleCount * Integer.BYTES;
+            double[] packageVolumes = new double[packageCount];
+            if (version >= 2) {
+                map(channel, offset, (long) packageCount * Double.BYTES).asDoubleBuffer().get(packageVolumes);
+            }
+
+            CityRegistry cities = new CityRegistry(cityCount);
+            // Cargo packages follow the stacks of all cities.
+            int cargoStart = 0;
+            for (int c = 0; c < cityCount; c++) {
+                cargoStart += cityData[cityCount + c];
+            }
+            int stackStart = 0;
+            int v = 0;
+            for (int c = 0; c < cityCount; c++) {
+                City city = factory.create(strings[cityData[c]]);
+                cities.add(city);
+                DistributionCenter dc = city.getDistributionCenter();
+
+                // Stored top to bottom, so push from the bottom up.
+                int packageTotal = cityData[cityCount + c];
+                for (int p = stackStart + packageTotal - 1; p >= stackStart; p--) {
+                    dc.getPackages().push(new Package(strings[packageData[p]], strings[packageData[packageCount + p]],
+                            packageVolumes[p]));
+                }
+                stackStart += packageTotal;
+
+                int vehicleTotal = cityData[2 * cityCount + c];
+                for (int i = 0; i < vehicleTotal; i++, v++) {
+                    Vehicle vehicle = new Vehicle(strings[vehicleIds[v]], vehicleVolumes[v]);
+                    int cargoTotal = vehicleCargo[v];
+                    for (int j = 0; j < cargoTotal; j++) {
+                        vehicle.getCargoPackages().addLast(new Package(strings[packageData[cargoStart]],
+                                strings[packageData[packageCount + cargoStart]], packageVolumes[cargoStart]));
+                        cargoStart++;
+                    }
+                    dc.getVehicles().enqueue(vehicle);
+                }
+            }
+            return cities;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Decodes every entry of the string table.
+     * Precondition: data holds the string bytes; offsets holds stringCount + 1 ascending offsets.
+     * Postcondition: Returns the strings in table order.
+     * --------------------------------------------------------
+     */
+    private static String[] decodeStrings(ByteBuffer data, int[] offsets, int stringCount) {
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Copies a mapped section of ints into an array.
+     * Precondition: section holds at least count ints.
+     * Postcondition: Returns the ints in file order.
+     * --------------------------------------------------------
+     */
+    private static int[] ints(ByteBuffer section, int count) {
+        int[] values = new int[count];
+        section.asIntBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Maps one section of the snapshot file read-only.
+     * Precondition: The section lies within the file.
+     * Postcondition: Returns the mapped section; throws IOException if it is truncated or too large.
+     * --------------------------------------------------------
+     */
+    private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section too large: " + length + " bytes");
+        }
+        if (offset + length > channel.size()) {
+            throw new IOException("Truncated snapshot");
+        }
+        MappedByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        section.order(ByteOrder.LITTLE_ENDIAN);
+        return section;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Makes room for at least the given number of bytes in the buffer.
+     * Precondition: bytes is at most the buffer capacity.
+     * Postcondition: The buffer has the requested space; earlier bytes may have been written out.
+     * --------------------------------------------------------
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Buffers an int.
+     * Precondition: None.
+     * Postcondition: The value is buffered.
+     * --------------------------------------------------------
+     */
+    private void putInt(int value) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Buffers a long.
+     * Precondition: None.
+     * Postcondition: The value is buffered.
+     * --------------------------------------------------------
+     */
+    private void putLong(long value) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Buffers a double.
+     * Precondition: None.
+     * Postcondition: The value is buffered.
+     * --------------------------------------------------------
+     */
+    private void putDouble(double value) throws IOException {
+        ensure(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Buffers the first count values of an int array.
+     * Precondition: count is at most values.length.
+     * Postcondition: The values are buffered in order.
+     * --------------------------------------------------------
+     */
+    private void putInts(int[] values, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            putInt(values[i]);
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Buffers the first count bytes of a byte array.
+     * Precondition: count is at most values.length.
+     * Postcondition: The bytes are buffered in order.
+     * --------------------------------------------------------
+     */
+    private void putBytes(byte[] values, int count) throws IOException {
+        int done = 0;
+        while (done < count) {
+            ensure(1);
+            int n = Math.min(buffer.remaining(), count - done);
+            buffer.put(values, done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the buffered bytes to the file.
+     * Precondition: The file is open.
+     * Postcondition: The buffer is empty.
+     * --------------------------------------------------------
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Table of distinct strings, stored as UTF-8 bytes back to back.
+     * --------------------------------------------------------
+     */
+    private static class StringTable {
+        final HashMap<String, Integer> indices;
+        byte[] bytes = new byte[1024];
+        int[] offsets = new int[64];
+        int size;
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Initializes an empty table sized for the expected number of strings.
+         * Precondition: expected is not negative.
+         * Postcondition: An empty table is created.
+         * --------------------------------------------------------
+         */
+        StringTable(int expected) {
+            indices = new HashMap<>(Math.max(16, expected * 4 / 3 + 1));
+        }
+
+        /**
+         * --------------------------------------------------------
+         * Summary: Returns the index of a string, adding it if it is new.
+         * Precondition: s is not null.
+         * Postcondition: Returns the table index of s.
+         * --------------------------------------------------------
+         */
+        int intern(String s) {
+            Integer index = indices.get(s);
+            if (index != null) {
+                return index;
+            }
+            byte[] encoded = s.getBytes(StandardCharsets.UTF_8);
+            int end = offsets[size];
+            if (end + encoded.length > bytes.length) {
+                long grown = Math.max((long) bytes.length * 2, (long) end + encoded.length);
+                if (grown > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Snapshot string table exceeds 2 GB");
+                }
+                byte[] larger = new byte[(int) grown];
+                System.arraycopy(bytes, 0, larger, 0, end);
+                bytes = larger;
+            }
+            System.arraycopy(encoded, 0, bytes, end, encoded.length);
+            if (size + 2 > offsets.length) {
+                int[] larger = new int[offsets.length * 2];
+                System.arraycopy(offsets, 0, larger, 0, size + 1);
+                offsets = larger;
+            }
+            offsets[size + 1] = end + encoded.length;
+            indices.put(s, size);
+            return size++;
+        }
+    }
+}
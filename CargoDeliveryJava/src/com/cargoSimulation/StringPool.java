@@ -0,0 +1,121 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Append-only pool of strings stored as UTF-8 bytes back to back.
+ * Each string is addressed by its int index, so a million IDs cost one byte
+ * array and one offset array instead of a million String objects. The pool is
+ * limited to 2 GB of encoded bytes.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class StringPool {
+    private byte[] bytes;
+    private int[] offsets;
+    private int size;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty pool.
+     * Precondition: None.
+     * Postcondition: An empty pool is created.
+     * --------------------------------------------------------
+     */
+    public StringPool() {
+        bytes = new byte[1024];
+        offsets = new int[64];
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Appends a string and returns its index.
+     * ASCII strings are copied character by character without a temporary array.
+     * Precondition: s is not null.
+     * Postcondition: The string is stored under the returned index.
+     * --------------------------------------------------------
+     */
+    public int add(String s) {
+        int length = s.length();
+        int end = offsets[size];
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = s.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            ensureBytes(end + (long) length);
+            for (int i = 0; i < length; i++) {
+                bytes[end + i] = (byte) s.charAt(i);
+            }
+            end += length;
+        } else {
+            byte[] encoded = s.getBytes(StandardCharsets.UTF_8);
+            ensureBytes(end + (long) encoded.length);
+            System.arraycopy(encoded, 0, bytes, end, encoded.length);
+            end += encoded.length;
+        }
+        if (size + 2 > offsets.length) {
+            int[] grown = new int[offsets.length * 2];
+            System.arraycopy(offsets, 0, grown, 0, size + 1);
+            offsets = grown;
+        }
+        offsets[size + 1] = end;
+        return size++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the string stored under an index.
+     * Precondition: index is between 0 and size - 1.
+     * Postcondition: Returns a new String with the stored characters.
+     * --------------------------------------------------------
+     */
+    public String get(int index) {
+        return new String(bytes, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the UTF-8 bytes of a stored string.
+     * Precondition: index is between 0 and size - 1; out is open.
+     * Postcondition: The bytes are written without building a String.
+     * --------------------------------------------------------
+     */
+    public void writeTo(int index, ResultWriter out) throws IOException {
+        out.writeBytes(bytes, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of stored strings.
+     * Precondition: None.
+     * Postcondition: Returns the size of the pool.
+     * --------------------------------------------------------
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Grows the byte array so it holds at least the given number of bytes.
+     * Precondition: None.
+     * Postcondition: bytes.length >= required; throws IllegalStateException past 2 GB.
+     * --------------------------------------------------------
+     */
+    private void ensureBytes(long required) {
+        if (required <= bytes.length) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("String pool exceeds 2 GB");
+        }
+        long capacity = Math.min(Math.max((long) bytes.length * 2, required), Integer.MAX_VALUE - 8);
+        byte[] grown = new byte[(int) capacity];
+        System.arraycopy(bytes, 0, grown, 0, offsets[size]);
+        bytes = grown;
+    }
+}
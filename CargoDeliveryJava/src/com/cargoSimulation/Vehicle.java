@@ -9,7 +9,9 @@ package com.cargoSimulation;
 public class Vehicle {
     private String id;
     private double volume;
-    private DoublyLinkedList<Package> cargoPackages;
+    private CargoList<Package> cargoPackages;
+    // Index of the vehicle in the PackageTracker, or -1 while it is not tracked.
+    private int trackingIndex = -1;
 
     /**
      * --------------------------------------------------------
@@ -21,7 +23,7 @@ public class Vehicle {
     public Vehicle(String id, double volume) {
         this.id = id;
         this.volume = volume;
-        this.cargoPackages = new DoublyLinkedList<>();
+        this.cargoPackages = new CargoList<>();
     }
 
     /**
@@ -53,7 +55,51 @@ public class Vehicle {
      * Postcondition: Returns the cargo packages list.
      * --------------------------------------------------------
      */
-    public DoublyLinkedList<Package> getCargoPackages() {
+    public CargoList<Package> getCargoPackages() {
         return cargoPackages;
     }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a copy of the vehicle that can be loaded without changing this one.
+     * Precondition: None.
+     * Postcondition: Returns a vehicle with the same ID, volume, cargo and tracking index; the packages are
+     * shared, the cargo list is its own.
+     * --------------------------------------------------------
+     */
+    public Vehicle copy() {
+        Vehicle copy = new Vehicle(id, volume);
+        copy.trackingIndex = trackingIndex;
+        if (!cargoPackages.isEmpty()) {
+            Object[] cargo = cargoPackages.toArray();
+            for (int i = 0; i < cargo.length; i++) {
+                copy.cargoPackages.addLast((Package) cargo[i]);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the index of the vehicle in the PackageTracker.
+     * Kept on the vehicle so a mission that has it in hand finds its entry
+     * without looking up the ID.
+     * Precondition: None.
+     * Postcondition: Returns the index, or -1 if the vehicle is not tracked.
+     * --------------------------------------------------------
+     */
+    int getTrackingIndex() {
+        return trackingIndex;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Sets the index of the vehicle in the PackageTracker.
+     * Precondition: index is not negative; no mission is running.
+     * Postcondition: getTrackingIndex() returns index.
+     * --------------------------------------------------------
+     */
+    void setTrackingIndex(int index) {
+        trackingIndex = index;
+    }
 }
@@ -0,0 +1,169 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Vehicle queue of a compact distribution center.
+ * The queue itself holds int handles into a shared VehicleStore. The MyQueue
+ * methods convert between handles and Vehicle objects for loaders, snapshots
+ * and other code that works with objects; the mission hot path uses the
+ * handles directly and allocates nothing. Vehicles only carry cargo during a
+ * mission, so a vehicle is enqueued with empty cargo.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class VehicleHandleQueue implements MyQueue<Vehicle> {
+    private final IntQueue handles;
+    private final VehicleStore store;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes an empty queue over a vehicle store.
+     * Precondition: store is not null.
+     * Postcondition: An empty queue is created.
+     * --------------------------------------------------------
+     */
+    public VehicleHandleQueue(VehicleStore store) {
+        this(new ArrayIntQueue(), store);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a queue over the given handles and vehicle store.
+     * Precondition: handles and store are not null; handles is empty or refers to store.
+     * Postcondition: A queue backed by handles is created.
+     * --------------------------------------------------------
+     */
+    public VehicleHandleQueue(IntQueue handles, VehicleStore store) {
+        this.handles = handles;
+        this.store = store;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the handles in this queue.
+     * Precondition: None.
+     * Postcondition: Returns the underlying queue of handles.
+     * --------------------------------------------------------
+     */
+    public IntQueue getHandles() {
+        return handles;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the store the handles refer to.
+     * Precondition: None.
+     * Postcondition: Returns the vehicle store.
+     * --------------------------------------------------------
+     */
+    public VehicleStore getStore() {
+        return store;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a vehicle and enqueues its handle.
+     * Precondition: item is not null and carries no cargo.
+     * Postcondition: A new handle with the vehicle's values is at the tail of the queue;
+     * throws IllegalArgumentException if the vehicle carries cargo.
+     * --------------------------------------------------------
+     */
+    @Override
+    public void enqueue(Vehicle item) {
+        if (!item.getCargoPackages().isEmpty()) {
+            throw new IllegalArgumentException("Compact storage cannot queue vehicle " + item.getId() + " with cargo");
+        }
+        handles.enqueue(store.add(item.getId(), item.getVolume()));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Removes the head handle and returns it as a Vehicle.
+     * Precondition: None.
+     * Postcondition: The head handle is removed and a Vehicle is returned, or null if the queue is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Vehicle dequeue() {
+        int handle = handles.dequeue();
+        return handle == IntQueue.NONE ? null : store.toVehicle(handle);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the head handle as a Vehicle without removing it.
+     * Precondition: None.
+     * Postcondition: A Vehicle is returned, or null if the queue is empty.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Vehicle peek() {
+        int handle = handles.peek();
+        return handle == IntQueue.NONE ? null : store.toVehicle(handle);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Checks if the queue is empty.
+     * Precondition: None.
+     * Postcondition: Returns true if the queue is empty, false otherwise.
+     * --------------------------------------------------------
+     */
+    @Override
+    public boolean isEmpty() {
+        return handles.isEmpty();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of vehicles in the queue.
+     * Precondition: None.
+     * Postcondition: Returns the size of the queue.
+     * --------------------------------------------------------
+     */
+    @Override
+    public int size() {
+        return handles.size();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns an array containing all of the vehicles in this queue.
+     * Precondition: None.
+     * Postcondition: Returns new Vehicle objects, head first.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[handles.size()];
+        IntCursor cursor = handles.cursor();
+        for (int i = 0; i < array.length; i++) {
+            array[i] = store.toVehicle(cursor.next());
+        }
+        return array;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a cursor over the vehicles of this queue without removing them.
+     * Precondition: The queue is not modified while the cursor is in use.
+     * Postcondition: Returns a cursor that reads new Vehicle objects from the head to the tail.
+     * --------------------------------------------------------
+     */
+    @Override
+    public Cursor<Vehicle> cursor() {
+        return new Cursor<Vehicle>() {
+            private final IntCursor cursor = handles.cursor();
+
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public Vehicle next() {
+                return store.toVehicle(cursor.next());
+            }
+        };
+    }
+}
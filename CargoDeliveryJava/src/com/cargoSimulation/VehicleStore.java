@@ -0,0 +1,69 @@
+package com.cargoSimulation;
+
+import java.io.IOException;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Storage for vehicles addressed by int handles.
+ * Cargo is not stored: a vehicle only carries packages while a mission runs.
+ * Handles are handed out in increasing order from 0 and never reused. add is
+ * safe to call from several threads. Implemented on the heap by
+ * HeapVehicleStore and off the heap by OffHeapVehicleStore.
+ * --------------------------------------------------------
+ */
+public interface VehicleStore {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a vehicle and returns its handle.
+     * Precondition: id is not null.
+     * Postcondition: The vehicle is stored under the returned handle.
+     * --------------------------------------------------------
+     */
+    int add(String id, double volume);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the ID of a vehicle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the vehicle ID.
+     * --------------------------------------------------------
+     */
+    String getId(int handle);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the volume of a vehicle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns the vehicle volume.
+     * --------------------------------------------------------
+     */
+    double getVolume(int handle);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Builds a Vehicle object with the values of a handle.
+     * Precondition: handle was returned by add.
+     * Postcondition: Returns a new Vehicle with empty cargo; the store is not changed.
+     * --------------------------------------------------------
+     */
+    Vehicle toVehicle(int handle);
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the ID of a vehicle without building a String.
+     * Precondition: handle was returned by add; out is open.
+     * Postcondition: The ID bytes are written.
+     * --------------------------------------------------------
+     */
+    void writeId(int handle, ResultWriter out) throws IOException;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of stored vehicles.
+     * Precondition: None.
+     * Postcondition: Returns the number of handles handed out.
+     * --------------------------------------------------------
+     */
+    int size();
+}
@@ -0,0 +1,249 @@
+package com.cargoSimulation;
+
+/**
+ * --------------------------------------------------------
+ * Summary: The state of every city, which can be forked in constant time to try missions on.
+ * The root state is a registry of cities with PERSISTENT storage. A fork
+ * keeps a reference to the state it was forked from and a small hash table
+ * of the cities it has changed, so fork() allocates a few fields whatever the
+ * size of the world. The first time a fork changes a city, the city is
+ * copied with DistributionCenter.fork(), which shares every package and
+ * vehicle node, so a fork only pays memory for the cities it has touched and
+ * the nodes it has pushed since.
+ *
+ * A state that has been forked is frozen: its forks read its cities, so
+ * city() throws for it from then on, while view() still reads it. Forks of
+ * the same state can run missions on different threads at the same time,
+ * since each one only changes cities of its own.
+ * Does not use iterators.
+ * --------------------------------------------------------
+ */
+public class WorldState {
+    // Slots of a new table of changed cities; always a power of two.
+    private static final int INITIAL_SLOTS = 16;
+
+    private final CityRegistry root;
+    private final WorldState parent;
+    // Open-addressing table of the cities this fork has changed: keys holds ID + 1, 0 for a free slot.
+    private int[] keys;
+    private City[] owned;
+    private int ownedCount;
+    private boolean frozen;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a root state over the cities of a registry.
+     * Precondition: cities is not null and every city uses PERSISTENT storage.
+     * Postcondition: The state changes the cities of the registry in place until it is forked.
+     * --------------------------------------------------------
+     */
+    public WorldState(CityRegistry cities) {
+        root = cities;
+        parent = null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Initializes a fork of a state.
+     * Precondition: parent is not null and frozen.
+     * Postcondition: The fork has the cities of parent and has changed none of them.
+     * --------------------------------------------------------
+     */
+    private WorldState(WorldState parent) {
+        root = parent.root;
+        this.parent = parent;
+        keys = new int[INITIAL_SLOTS];
+        owned = new City[INITIAL_SLOTS];
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a state with the same cities, in constant time, and freezes this one.
+     * Precondition: None.
+     * Postcondition: Returns a new state; city() throws IllegalStateException for this state from now on.
+     * --------------------------------------------------------
+     */
+    public WorldState fork() {
+        frozen = true;
+        return new WorldState(this);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of cities.
+     * Precondition: None.
+     * Postcondition: Returns the size of the registry the root state was made from.
+     * --------------------------------------------------------
+     */
+    public int size() {
+        return root.size();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a city of this state to change, copying it from the parent state the first time.
+     * Precondition: 0 <= id < size(); this state has not been forked.
+     * Postcondition: Returns the city of this state with that ID. Throws IllegalStateException if this
+     * state has been forked.
+     * --------------------------------------------------------
+     */
+    public City city(int id) {
+        if (frozen) {
+            throw new IllegalStateException("A world state that has been forked cannot be changed");
+        }
+        if (parent == null) {
+            return root.get(id);
+        }
+        City city = find(id);
+        if (city == null) {
+            City from = parent.view(id);
+            city = new City(from.getName(), from.getDistributionCenter().fork());
+            insert(id, city);
+        }
+        return city;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a city of this state to read.
+     * Precondition: 0 <= id < size().
+     * Postcondition: Returns the city with that ID as this state sees it; it must not be changed.
+     * --------------------------------------------------------
+     */
+    public City view(int id) {
+        WorldState state = this;
+        while (state.parent != null) {
+            City city = state.find(id);
+            if (city != null) {
+                return city;
+            }
+            state = state.parent;
+        }
+        return root.get(id);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the number of cities this state has changed since it was forked.
+     * Precondition: None.
+     * Postcondition: Returns the count of copied cities; 0 for the root state.
+     * --------------------------------------------------------
+     */
+    public int changedCities() {
+        return ownedCount;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the IDs of the cities this state has changed since it was forked.
+     * Precondition: None.
+     * Postcondition: Returns a new array of changedCities() IDs in no particular order.
+     * --------------------------------------------------------
+     */
+    public int[] changedIds() {
+        int[] ids = new int[ownedCount];
+        int count = 0;
+        for (int slot = 0; keys != null && slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                ids[count++] = keys[slot] - 1;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Executes the missions of a program on this state.
+     * Precondition: program was compiled for the root registry; order is null or a permutation of its
+     * missions; loader may be null; this state has not been forked.
+     * Postcondition: The missions are executed in that order, changing only the cities of this state.
+     * --------------------------------------------------------
+     */
+    public void run(MissionProgram program, int[] order, CapacityLoader loader) {
+        program.run(order, this::city, loader);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a registry of the cities of this state, for writing or saving them.
+     * Precondition: None.
+     * Postcondition: Returns a new registry with every city as view() returns it, in ID order.
+     * --------------------------------------------------------
+     */
+    public CityRegistry toRegistry() {
+        CityRegistry cities = new CityRegistry(size());
+        for (int id = 0; id < size(); id++) {
+            cities.add(view(id));
+        }
+        return cities;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the city this state has changed with an ID.
+     * Precondition: This state is a fork.
+     * Postcondition: Returns the city, or null if this state has not changed it.
+     * --------------------------------------------------------
+     */
+    private City find(int id) {
+        int mask = keys.length - 1;
+        for (int slot = hash(id) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == id + 1) {
+                return owned[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Adds a changed city to the table, growing it when it is half full.
+     * Precondition: This state is a fork that has not changed the city with that ID yet.
+     * Postcondition: find(id) returns city.
+     * --------------------------------------------------------
+     */
+    private void insert(int id, City city) {
+        if (2 * (ownedCount + 1) > keys.length) {
+            int[] oldKeys = keys;
+            City[] oldOwned = owned;
+            keys = new int[oldKeys.length * 2];
+            owned = new City[oldKeys.length * 2];
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) {
+                    place(oldKeys[slot], oldOwned[slot]);
+                }
+            }
+        }
+        place(id + 1, city);
+        ownedCount++;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Stores a key and its city in the first free slot from the key's hash.
+     * Precondition: The table has a free slot; key is not in it.
+     * Postcondition: The key and the city are in the table.
+     * --------------------------------------------------------
+     */
+    private void place(int key, City city) {
+        int mask = keys.length - 1;
+        int slot = hash(key - 1) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        owned[slot] = city;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Spreads the bits of a city ID over the slots of the table.
+     * Precondition: None.
+     * Postcondition: Returns a well-mixed hash of id.
+     * --------------------------------------------------------
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -5,4 +5,5 @@
  * 
  */
 module CargoDeliveryJava {
-}
\ No newline at end of file
+    exports com.cargoSimulation;
+}
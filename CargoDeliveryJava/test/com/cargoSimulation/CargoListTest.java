@@ -0,0 +1,149 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests for CargoList.
+ * The bulk operations are checked against the element-by-element calls they
+ * replace, on lists large enough to span several blocks.
+ * --------------------------------------------------------
+ */
+class CargoListTest {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: dropOff pushes in descending index order and rejects repeated and out-of-range indices.
+     * --------------------------------------------------------
+     */
+    @Test
+    void dropOffPushesDescendingAndRejectsBadIndices() {
+        CargoList<String> cargo = list(6);
+        MyStack<String> target = new ArrayStack<>();
+
+        int[] indices = {1, 4, 1, -1, 6, 3};
+        int[] rejected = cargo.dropOff(indices, target);
+
+        assertArrayEquals(new int[] {6, 1, -1}, rejected);
+        assertArrayEquals(new int[] {1, 4, 1, -1, 6, 3}, indices);
+        assertArrayEquals(new Object[] {"e1", "e3", "e4"}, popAll(target));
+        assertArrayEquals(new Object[] {"e0", "e2", "e5"}, cargo.toArray());
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: dropOff leaves the same list and stack as removeAt/push calls in descending index order.
+     * --------------------------------------------------------
+     */
+    @Test
+    void dropOffMatchesRemoveAtAcrossBlocks() {
+        int[] indices = {0, 5, 17, 99, 42, 43, 98, 250};
+        CargoList<String> bulk = list(100);
+        MyStack<String> bulkTarget = new ArrayStack<>();
+        bulk.dropOff(indices, bulkTarget);
+
+        CargoList<String> single = list(100);
+        MyStack<String> singleTarget = new ArrayStack<>();
+        int[] descending = {99, 98, 43, 42, 17, 5, 0};
+        for (int i = 0; i < descending.length; i++) {
+            singleTarget.push(single.removeAt(descending[i]));
+        }
+        assertNull(single.removeAt(250));
+
+        assertArrayEquals(single.toArray(), bulk.toArray());
+        assertArrayEquals(popAll(singleTarget), popAll(bulkTarget));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: loadFrom puts the last element popped first, as pop/addFirst calls would.
+     * --------------------------------------------------------
+     */
+    @Test
+    void loadFromKeepsPopAddFirstOrder() {
+        for (int s = 0; s < 3; s++) {
+            MyStack<String> bulkStack = stack(s, 80);
+            MyStack<String> singleStack = stack(s, 80);
+            CargoList<String> bulk = list(3);
+            CargoList<String> single = list(3);
+
+            assertEquals(50, bulk.loadFrom(bulkStack, 50));
+            for (int i = 0; i < 50; i++) {
+                single.addFirst(singleStack.pop());
+            }
+
+            assertArrayEquals(single.toArray(), bulk.toArray());
+            assertArrayEquals(singleStack.toArray(), bulkStack.toArray());
+            assertEquals(30, bulk.loadFrom(bulkStack, 50));
+            assertEquals(0, bulk.loadFrom(bulkStack, 5));
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: unloadTo leaves the first element on top, as pop/push calls would, and empties the list.
+     * --------------------------------------------------------
+     */
+    @Test
+    void unloadToKeepsPopPushOrder() {
+        for (int s = 0; s < 3; s++) {
+            MyStack<String> bulkStack = stack(s, 4);
+            MyStack<String> singleStack = stack(s, 4);
+            CargoList<String> bulk = list(70);
+            CargoList<String> single = list(70);
+
+            assertEquals(70, bulk.unloadTo(bulkStack));
+            while (!single.isEmpty()) {
+                singleStack.push(single.pop());
+            }
+
+            assertEquals(0, bulk.size());
+            assertEquals("e0", bulkStack.peek());
+            assertArrayEquals(popAll(singleStack), popAll(bulkStack));
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a list of count elements e0 .. e(count - 1), first to last.
+     * --------------------------------------------------------
+     */
+    private static CargoList<String> list(int count) {
+        CargoList<String> list = new CargoList<>();
+        for (int i = 0; i < count; i++) {
+            list.addLast("e" + i);
+        }
+        return list;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns a linked, array or persistent stack holding s0 .. s(count - 1), the last on top.
+     * --------------------------------------------------------
+     */
+    private static MyStack<String> stack(int kind, int count) {
+        MyStack<String> stack = kind == 0 ? new LinkedStack<>()
+                : kind == 1 ? new ArrayStack<>() : new PersistentStack<>();
+        for (int i = 0; i < count; i++) {
+            stack.push("s" + i);
+        }
+        return stack;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pops every element of a stack and returns them, top first.
+     * --------------------------------------------------------
+     */
+    private static Object[] popAll(MyStack<String> stack) {
+        Object[] items = new Object[stack.size()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = stack.pop();
+        }
+        return items;
+    }
+}
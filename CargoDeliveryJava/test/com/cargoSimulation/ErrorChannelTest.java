@@ -0,0 +1,56 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests for the report file of ErrorChannel.
+ * --------------------------------------------------------
+ */
+class ErrorChannelTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Every counted sample is written, however fast the reports come, and the totals count them all.
+     * --------------------------------------------------------
+     */
+    @Test
+    void writesEverySampleThatIsCounted() throws IOException {
+        Path file = dir.resolve("errors.txt");
+        int samples = 3000;
+        ErrorCode[] codes = ErrorCode.values();
+        ErrorChannel channel = ErrorChannel.open(file.toString(), samples);
+        try {
+            for (int i = 0; i < samples + 500; i++) {
+                for (int c = 0; c < codes.length; c++) {
+                    ErrorChannel.report(codes[c], "City" + (i % 7), "Report " + i);
+                }
+            }
+        } finally {
+            channel.close();
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        int[] written = new int[codes.length];
+        int totals = lines.indexOf("# Totals per code: code, count");
+        assertTrue(totals > 0);
+        for (int i = 1; i < totals; i++) {
+            written[ErrorCode.valueOf(lines.get(i).split("\t")[0]).ordinal()]++;
+        }
+        for (int c = 0; c < codes.length; c++) {
+            assertEquals(samples, written[c]);
+            assertEquals(codes[c].name() + "\t" + (samples + 500), lines.get(totals + 1 + c));
+        }
+    }
+}
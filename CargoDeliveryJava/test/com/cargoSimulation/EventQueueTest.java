@@ -0,0 +1,80 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests for EventQueue.
+ * --------------------------------------------------------
+ */
+class EventQueueTest {
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Events come out in time order, and in scheduling order at equal times.
+     * Events are scheduled while others are polled, at times from now onwards,
+     * with many ties, and compared with a stable sort of what was scheduled.
+     * --------------------------------------------------------
+     */
+    @Test
+    void pollsInTimeThenSchedulingOrder() {
+        EventQueue queue = new EventQueue();
+        SplittableRandom random = new SplittableRandom(3);
+        int total = 50000;
+        double[] times = new double[total];
+        int scheduled = 0;
+        int polled = 0;
+        double previous = 0;
+        int previousEvent = -1;
+        while (polled < total) {
+            int burst = scheduled < total ? random.nextInt(4) : 0;
+            for (int i = 0; i < burst && scheduled < total; i++) {
+                // Whole steps give ties; tiny offsets exercise the low digits.
+                double delay = random.nextInt(3) == 0 ? random.nextInt(5) : random.nextDouble() * 1e-6;
+                times[scheduled] = queue.now() + delay;
+                queue.schedule(times[scheduled], scheduled);
+                scheduled++;
+            }
+            if (queue.isEmpty()) {
+                continue;
+            }
+            int event = queue.poll();
+            assertEquals(times[event], queue.now());
+            assertTrue(queue.now() > previous || queue.now() == previous && event > previousEvent);
+            previous = queue.now();
+            previousEvent = event;
+            polled++;
+        }
+        assertEquals(0, queue.size());
+        assertEquals(total, queue.scheduledCount());
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Events all scheduled up front come out as a stable sort by time.
+     * --------------------------------------------------------
+     */
+    @Test
+    void pollsPresetEventsSorted() {
+        EventQueue queue = new EventQueue();
+        SplittableRandom random = new SplittableRandom(5);
+        Integer[] order = new Integer[10000];
+        double[] times = new double[order.length];
+        for (int e = 0; e < order.length; e++) {
+            times[e] = random.nextInt(100) * 0.25;
+            order[e] = e;
+            queue.schedule(times[e], e);
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(times[a], times[b]));
+        for (int i = 0; i < order.length; i++) {
+            assertEquals(order[i].intValue(), queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests for reading the input files in Main.
+ * --------------------------------------------------------
+ */
+class MainTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Package lines whose third token is not a volume are skipped instead of stopping the run.
+     * --------------------------------------------------------
+     */
+    @Test
+    void skipsPackageLinesWithoutAVolume() throws IOException {
+        Path packages = Files.writeString(dir.resolve("packages.txt"),
+                "P1  Berlin\nP2 Berlin x\nP3 Berlin 2.5\nP4 Berlin\n");
+        CityRegistry cities = new CityRegistry();
+        cities.add(new City("Berlin"));
+
+        Main.readPackages(packages.toString(), cities);
+
+        MyStack<Package> stack = cities.get(0).getDistributionCenter().getPackages();
+        assertEquals(2, stack.size());
+        Package top = stack.pop();
+        assertEquals("P4", top.getId());
+        Package below = stack.pop();
+        assertEquals("P3", below.getId());
+        assertEquals(2.5, below.getVolume());
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Vehicle lines whose volume is not a number are skipped and reported as invalid lines.
+     * --------------------------------------------------------
+     */
+    @Test
+    void skipsAndReportsVehicleLinesWithoutAVolume() throws IOException {
+        Path vehicles = Files.writeString(dir.resolve("vehicles.txt"),
+                "V1 Berlin x\nV2 Berlin 4.5\nV3  Berlin\nV4 Nowhere 1\n");
+        CityRegistry cities = new CityRegistry();
+        cities.add(new City("Berlin"));
+
+        ErrorChannel errors = ErrorChannel.countForThread();
+        try {
+            Main.readVehicles(vehicles.toString(), cities);
+        } finally {
+            errors.close();
+        }
+
+        MyQueue<Vehicle> queue = cities.get(0).getDistributionCenter().getVehicles();
+        assertEquals(1, queue.size());
+        Vehicle vehicle = queue.dequeue();
+        assertEquals("V2", vehicle.getId());
+        assertEquals(4.5, vehicle.getVolume());
+        assertEquals(2, errors.count(ErrorCode.INVALID_LINE));
+        assertEquals(1, errors.count(ErrorCode.CITY_NOT_FOUND));
+    }
+}
@@ -0,0 +1,82 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests for the compiled program cache of MissionProgram.
+ * --------------------------------------------------------
+ */
+class MissionProgramTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: A cached program runs as the compiled one, and is not used for other cities.
+     * --------------------------------------------------------
+     */
+    @Test
+    void cachedProgramRunsLikeACompiledOne() throws IOException {
+        Path missions = Files.writeString(dir.resolve("missions.txt"),
+                "Berlin-Hamburg-Bremen-2-1-0\nnot a mission\nBremen-Berlin-Hamburg-3-2-1,3\nBerlin-Nowhere-Bremen-1-1-\n");
+        String cache = dir.resolve("missions.bin").toString();
+        String source = missions.toString();
+        long length = Files.size(missions);
+        long modified = Files.getLastModifiedTime(missions).toMillis();
+
+        CityRegistry compiledCities = world("Berlin", "Hamburg", "Bremen");
+        MissionProgram compiled = MissionProgram.compile(source, compiledCities, cache);
+        MissionProgram cached = MissionProgram.read(cache, length, modified,
+                MissionProgram.fingerprint(compiledCities));
+        assertNotNull(cached);
+        assertEquals(compiled.size(), cached.size());
+
+        CityRegistry cachedCities = world("Berlin", "Hamburg", "Bremen");
+        compiled.run(compiledCities, null);
+        MissionProgram.compile(source, cachedCities, cache).run(cachedCities, null);
+        assertEquals(results(compiledCities, "compiled.txt"), results(cachedCities, "cached.txt"));
+
+        CityRegistry other = world("Berlin", "Bremen", "Hamburg");
+        assertNull(MissionProgram.read(cache, length, modified, MissionProgram.fingerprint(other)));
+        assertNull(MissionProgram.read(cache, length + 1, modified, MissionProgram.fingerprint(compiledCities)));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns cities with a few packages and a vehicle each, in the given order.
+     * --------------------------------------------------------
+     */
+    private static CityRegistry world(String... names) {
+        CityRegistry cities = new CityRegistry();
+        for (int c = 0; c < names.length; c++) {
+            City city = new City(names[c]);
+            for (int p = 0; p < 4; p++) {
+                city.getDistributionCenter().getPackages().push(new Package(names[c] + p, names[c]));
+            }
+            city.getDistributionCenter().getVehicles().enqueue(new Vehicle("V" + names[c], 10));
+            cities.add(city);
+        }
+        return cities;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the cities to a result file and returns its contents.
+     * --------------------------------------------------------
+     */
+    private String results(CityRegistry cities, String name) throws IOException {
+        Path file = dir.resolve(name);
+        Main.writeResults(file.toString(), cities);
+        return Files.readString(file);
+    }
+}
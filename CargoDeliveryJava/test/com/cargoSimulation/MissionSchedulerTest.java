@@ -0,0 +1,82 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests for MissionScheduler.
+ * Every test runs the same missions sequentially and in parallel and compares
+ * the written results.
+ * --------------------------------------------------------
+ */
+class MissionSchedulerTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: A mission that names a city twice must not wait for itself.
+     * --------------------------------------------------------
+     */
+    @Test
+    void runsMissionThatRepeatsACity() throws IOException {
+        Path missions = write("missions.txt", "Berlin-Berlin-Hamburg-1-1-0\nHamburg-Berlin-Berlin-1-0-\n");
+
+        CityRegistry sequential = world();
+        Main.processMissions(missions.toString(), sequential);
+
+        CityRegistry parallel = world();
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> new MissionScheduler(2).processMissions(missions.toString(), parallel));
+
+        assertEquals(results(sequential, "sequential.txt"), results(parallel, "parallel.txt"));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns two cities with a few packages and a vehicle each.
+     * --------------------------------------------------------
+     */
+    private static CityRegistry world() {
+        CityRegistry cities = new CityRegistry();
+        String[] names = {"Berlin", "Hamburg"};
+        for (int c = 0; c < names.length; c++) {
+            City city = new City(names[c]);
+            for (int p = 0; p < 3; p++) {
+                city.getDistributionCenter().getPackages().push(new Package("P" + c + p, names[c]));
+            }
+            city.getDistributionCenter().getVehicles().enqueue(new Vehicle("V" + c, 100));
+            cities.add(city);
+        }
+        return cities;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the cities to a result file and returns its contents.
+     * --------------------------------------------------------
+     */
+    private String results(CityRegistry cities, String name) throws IOException {
+        Path file = dir.resolve(name);
+        Main.writeResults(file.toString(), cities);
+        return Files.readString(file);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes a file in the temporary directory.
+     * --------------------------------------------------------
+     */
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content);
+    }
+}
@@ -0,0 +1,90 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests for OffHeapIntStack and OffHeapIntQueue.
+ * Random operations that cross many segment boundaries are checked against the
+ * array implementations, with two collections sharing one pool so freed
+ * segments are reused by the other.
+ * --------------------------------------------------------
+ */
+class OffHeapIntCollectionsTest {
+    private static final int OPERATIONS = 20000;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Off-heap stacks behave as array stacks.
+     * --------------------------------------------------------
+     */
+    @Test
+    void stackMatchesArrayStack() throws IOException {
+        SegmentPool pool = new SegmentPool(null);
+        IntStack[] offHeap = {new OffHeapIntStack(pool), new OffHeapIntStack(pool)};
+        IntStack[] expected = {new ArrayIntStack(), new ArrayIntStack()};
+        SplittableRandom random = new SplittableRandom(7);
+        for (int op = 0; op < OPERATIONS; op++) {
+            int s = random.nextInt(2);
+            // Runs of pushes and pops, so sizes swing across several segments.
+            boolean push = (op / 500 + s) % 2 == 0 ? random.nextInt(4) > 0 : random.nextInt(4) == 0;
+            if (push) {
+                offHeap[s].push(op);
+                expected[s].push(op);
+            } else {
+                assertEquals(expected[s].pop(), offHeap[s].pop());
+            }
+            assertEquals(expected[s].size(), offHeap[s].size());
+            assertEquals(expected[s].peek(), offHeap[s].peek());
+        }
+        for (int s = 0; s < 2; s++) {
+            assertEquals(contents(expected[s].cursor()), contents(offHeap[s].cursor()));
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Off-heap queues behave as array queues.
+     * --------------------------------------------------------
+     */
+    @Test
+    void queueMatchesArrayQueue() throws IOException {
+        SegmentPool pool = new SegmentPool(null);
+        IntQueue[] offHeap = {new OffHeapIntQueue(pool), new OffHeapIntQueue(pool)};
+        IntQueue[] expected = {new ArrayIntQueue(), new ArrayIntQueue()};
+        SplittableRandom random = new SplittableRandom(11);
+        for (int op = 0; op < OPERATIONS; op++) {
+            int q = random.nextInt(2);
+            boolean enqueue = (op / 500 + q) % 2 == 0 ? random.nextInt(4) > 0 : random.nextInt(4) == 0;
+            if (enqueue) {
+                offHeap[q].enqueue(op);
+                expected[q].enqueue(op);
+            } else {
+                assertEquals(expected[q].dequeue(), offHeap[q].dequeue());
+            }
+            assertEquals(expected[q].size(), offHeap[q].size());
+            assertEquals(expected[q].peek(), offHeap[q].peek());
+        }
+        for (int q = 0; q < 2; q++) {
+            assertEquals(contents(expected[q].cursor()), contents(offHeap[q].cursor()));
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the values of a cursor, separated by spaces.
+     * --------------------------------------------------------
+     */
+    private static String contents(IntCursor cursor) {
+        StringBuilder text = new StringBuilder();
+        while (cursor.hasNext()) {
+            text.append(cursor.next()).append(' ');
+        }
+        return text.toString();
+    }
+}
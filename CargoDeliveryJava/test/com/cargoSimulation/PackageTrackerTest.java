@@ -0,0 +1,94 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests for the locations and histories kept by PackageTracker.
+ * --------------------------------------------------------
+ */
+class PackageTrackerTest {
+
+    @AfterEach
+    void disableTracking() {
+        PackageTracker.disable();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Packages of linked depots are located where the missions left them.
+     * --------------------------------------------------------
+     */
+    @Test
+    void locatesPackagesMovedOnLinkedStorage() {
+        locatesPackagesMoved(DistributionCenter.Storage.LINKED);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Package handles of compact depots are located where the missions left them.
+     * --------------------------------------------------------
+     */
+    @Test
+    void locatesPackagesMovedOnCompactStorage() {
+        locatesPackagesMoved(DistributionCenter.Storage.COMPACT);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Runs two missions on a small world and checks the locations and histories of its packages.
+     * The first carries P3 and P2 from Berlin, leaves P2 in Hamburg and P3 in Bremen; the second carries
+     * P3 and then P1 to Hamburg.
+     * --------------------------------------------------------
+     */
+    private static void locatesPackagesMoved(DistributionCenter.Storage storage) {
+        CityFactory factory = new CityFactory(storage);
+        CityRegistry cities = new CityRegistry();
+        String[] names = {"Berlin", "Hamburg", "Bremen"};
+        for (int c = 0; c < names.length; c++) {
+            cities.add(factory.create(names[c]));
+        }
+        MyStack<Package> berlin = cities.get(0).getDistributionCenter().getPackages();
+        for (int p = 1; p <= 3; p++) {
+            berlin.push(new Package("P" + p, "Berlin"));
+        }
+        cities.get(0).getDistributionCenter().getVehicles().enqueue(new Vehicle("V1", 10));
+        // Three places are kept, which takes two longs per package.
+        PackageTracker tracker = PackageTracker.enable(3);
+        tracker.track(cities);
+        assertEquals("depot of Berlin, slot 2", tracker.locate("P3").toString());
+
+        Main.executeMission(cities, "Berlin", "Hamburg", "Bremen", 2, 0, new String[] {"0"});
+        assertEquals("depot of Hamburg, slot 0", tracker.locate("P2").toString());
+        assertEquals("depot of Bremen, slot 0", tracker.locate("P3").toString());
+        assertEquals("depot of Berlin, slot 0", tracker.locate("P1").toString());
+
+        Main.executeMission(cities, "Bremen", "Berlin", "Hamburg", 1, 1, new String[0]);
+        assertArrayEquals(new String[] {"depot of Hamburg, slot 1", "depot of Bremen", "depot of Berlin"},
+                describe(tracker.history("P3")));
+        assertArrayEquals(new String[] {"depot of Hamburg, slot 2", "depot of Berlin"},
+                describe(tracker.history("P1")));
+        assertArrayEquals(new String[] {"depot of Hamburg, slot 0", "depot of Berlin"},
+                describe(tracker.history("P2")));
+        assertNull(tracker.locate("P9"));
+        assertEquals(0, tracker.history("P9").length);
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the description of each location.
+     * --------------------------------------------------------
+     */
+    private static String[] describe(PackageTracker.Location[] locations) {
+        String[] lines = new String[locations.length];
+        for (int i = 0; i < locations.length; i++) {
+            lines[i] = locations[i].toString();
+        }
+        return lines;
+    }
+}
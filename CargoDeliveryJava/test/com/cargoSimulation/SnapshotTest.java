@@ -0,0 +1,105 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests for Snapshot.
+ * --------------------------------------------------------
+ */
+class SnapshotTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: A saved snapshot loads back with the same stacks, queues, cargo and volumes.
+     * --------------------------------------------------------
+     */
+    @Test
+    void roundTripKeepsEveryCity() throws IOException {
+        CityRegistry cities = new CityRegistry();
+        City berlin = new City("Berlin");
+        City hamburg = new City("Hamburg");
+        City empty = new City("Köln");
+        cities.add(berlin);
+        cities.add(hamburg);
+        cities.add(empty);
+        berlin.getDistributionCenter().getPackages().push(new Package("P1", "Berlin", 1.5));
+        berlin.getDistributionCenter().getPackages().push(new Package("P2", "Hamburg"));
+        hamburg.getDistributionCenter().getPackages().push(new Package("P3", "Hamburg", 2));
+        Vehicle loaded = new Vehicle("V1", 7.5);
+        loaded.getCargoPackages().addLast(new Package("P4", "Köln", 0.5));
+        loaded.getCargoPackages().addLast(new Package("P5", "Berlin"));
+        berlin.getDistributionCenter().getVehicles().enqueue(loaded);
+        berlin.getDistributionCenter().getVehicles().enqueue(new Vehicle("V2", 3));
+        hamburg.getDistributionCenter().getVehicles().enqueue(new Vehicle("V3", 4));
+
+        String file = dir.resolve("state.snap").toString();
+        Snapshot.save(file, cities);
+        DistributionCenter.Storage[] storages = {DistributionCenter.Storage.LINKED,
+            DistributionCenter.Storage.ARRAY, DistributionCenter.Storage.PERSISTENT};
+        for (int s = 0; s < storages.length; s++) {
+            CityRegistry loadedCities = Snapshot.load(file, storages[s]);
+            assertEquals(describe(cities), describe(loadedCities));
+            assertEquals(results(cities, "before.txt"), results(loadedCities, "after.txt"));
+        }
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns every package with its volume and every vehicle with its volume and cargo, in order.
+     * --------------------------------------------------------
+     */
+    private static String describe(CityRegistry cities) {
+        StringBuilder text = new StringBuilder();
+        for (int c = 0; c < cities.size(); c++) {
+            DistributionCenter dc = cities.get(c).getDistributionCenter();
+            text.append(cities.get(c).getName()).append(':');
+            Object[] packages = dc.getPackages().toArray();
+            for (int p = 0; p < packages.length; p++) {
+                append(text, (Package) packages[p]);
+            }
+            text.append(" |");
+            Object[] vehicles = dc.getVehicles().toArray();
+            for (int v = 0; v < vehicles.length; v++) {
+                Vehicle vehicle = (Vehicle) vehicles[v];
+                text.append(' ').append(vehicle.getId()).append('/').append(vehicle.getVolume()).append('[');
+                Object[] cargo = vehicle.getCargoPackages().toArray();
+                for (int p = 0; p < cargo.length; p++) {
+                    append(text, (Package) cargo[p]);
+                }
+                text.append(" ]");
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Appends a package's ID, city and volume.
+     * --------------------------------------------------------
+     */
+    private static void append(StringBuilder text, Package pkg) {
+        text.append(' ').append(pkg.getId()).append('@').append(pkg.getCity()).append('/').append(pkg.getVolume());
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the cities to a result file and returns its contents.
+     * --------------------------------------------------------
+     */
+    private String results(CityRegistry cities, String name) throws IOException {
+        Path file = dir.resolve(name);
+        Main.writeResults(file.toString(), cities);
+        return Files.readString(file);
+    }
+}
@@ -0,0 +1,132 @@
+package com.cargoSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * --------------------------------------------------------
+ * Summary: Tests that forks of persistent stacks, queues and world states stay isolated from their parent.
+ * --------------------------------------------------------
+ */
+class WorldStateTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Pushes and pops on a stack and its fork do not show in the other.
+     * --------------------------------------------------------
+     */
+    @Test
+    void stackForkIsIsolated() {
+        PersistentStack<String> parent = new PersistentStack<>();
+        parent.push("a");
+        parent.push("b");
+        PersistentStack<String> fork = parent.fork();
+
+        assertEquals("b", fork.pop());
+        fork.push("x");
+        parent.push("c");
+
+        assertArrayEquals(new Object[] {"c", "b", "a"}, parent.toArray());
+        assertArrayEquals(new Object[] {"x", "a"}, fork.toArray());
+        assertEquals(1, fork.unsharedWith(parent));
+        assertEquals(2, parent.unsharedWith(fork));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: A queue and its fork keep their own items, and a shared item is detached when dequeued.
+     * --------------------------------------------------------
+     */
+    @Test
+    void queueForkIsIsolatedAndDetachesSharedItems() {
+        PersistentQueue<Vehicle> parent = new PersistentQueue<>(Vehicle::copy);
+        Vehicle v1 = new Vehicle("V1", 5);
+        parent.enqueue(v1);
+        parent.enqueue(new Vehicle("V2", 5));
+        PersistentQueue<Vehicle> fork = parent.fork();
+
+        Vehicle taken = fork.dequeue();
+        assertNotSame(v1, taken);
+        taken.getCargoPackages().addLast(new Package("P1", "Berlin"));
+        fork.enqueue(taken);
+        parent.enqueue(new Vehicle("V3", 5));
+
+        assertEquals(0, v1.getCargoPackages().size());
+        assertArrayEquals(new String[] {"V1", "V2", "V3"}, ids(parent.toArray()));
+        assertArrayEquals(new String[] {"V2", "V1"}, ids(fork.toArray()));
+        assertEquals(v1, parent.dequeue());
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Missions run on a fork leave the parent state as it was, and the parent is frozen.
+     * --------------------------------------------------------
+     */
+    @Test
+    void missionsOnAForkLeaveTheParentUnchanged() throws IOException {
+        CityRegistry cities = new CityRegistry();
+        String[] names = {"Berlin", "Hamburg", "Bremen"};
+        for (int c = 0; c < names.length; c++) {
+            City city = new City(names[c], DistributionCenter.Storage.PERSISTENT);
+            for (int p = 0; p < 4; p++) {
+                city.getDistributionCenter().getPackages().push(new Package("P" + c + p, names[c]));
+            }
+            city.getDistributionCenter().getVehicles().enqueue(new Vehicle("V" + c, 10));
+            cities.add(city);
+        }
+        Path missions = Files.writeString(dir.resolve("missions.txt"),
+                "Berlin-Hamburg-Bremen-2-1-0\nBremen-Berlin-Hamburg-3-2-1,3\n");
+        MissionProgram program = Main.compileMissions(missions.toString(), cities, null);
+        String before = results(cities, "before.txt");
+
+        WorldState world = new WorldState(cities);
+        WorldState fork = world.fork();
+        fork.run(program, null, null);
+
+        CityRegistry sequential = new CityRegistry();
+        for (int c = 0; c < names.length; c++) {
+            sequential.add(new City(names[c], cities.get(c).getDistributionCenter().fork()));
+        }
+        program.run(sequential, null);
+
+        assertEquals(before, results(world.toRegistry(), "parent.txt"));
+        assertEquals(results(sequential, "sequential.txt"), results(fork.toRegistry(), "fork.txt"));
+        assertEquals(3, fork.changedCities());
+        assertThrows(IllegalStateException.class, () -> world.city(0));
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Returns the IDs of an array of vehicles.
+     * --------------------------------------------------------
+     */
+    private static String[] ids(Object[] vehicles) {
+        String[] ids = new String[vehicles.length];
+        for (int i = 0; i < vehicles.length; i++) {
+            ids[i] = ((Vehicle) vehicles[i]).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * --------------------------------------------------------
+     * Summary: Writes the cities to a result file and returns its contents.
+     * --------------------------------------------------------
+     */
+    private String results(CityRegistry cities, String name) throws IOException {
+        Path file = dir.resolve(name);
+        Main.writeResults(file.toString(), cities);
+        return Files.readString(file);
+    }
+}